@@ -18,7 +18,9 @@ package com.linkedin.d2.balancer;
 
 import com.linkedin.d2.balancer.util.URIKeyPair;
 import com.linkedin.d2.balancer.util.URIMappingResult;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 
 public interface URIMapper
@@ -41,6 +43,58 @@ public interface URIMapper
    */
   <KEY> URIMappingResult<KEY> mapUris(List<URIKeyPair<KEY>> requestUriKeyPairs) throws ServiceUnavailableException;
 
+  /**
+   * Returns true if {@link #mapKeys(String, Map)} can map the requests to the given service. Key mapping is only possible
+   * when routing does not depend on the request uri, i.e. when sticky routing is disabled.
+   *
+   * @param serviceName name of the service
+   * @return true if the keys of requests to the service can be mapped without building their request uris.
+   * @throws ServiceUnavailableException if the requested service cannot be found
+   */
+  default boolean isKeyMappingSupported(String serviceName) throws ServiceUnavailableException
+  {
+    return false;
+  }
+
+  /**
+   * Same as {@link #mapUris(List)}, except that the requests are given by their partition key, which is the part of the
+   * request uri the partition key regex of the service would extract, instead of their full request uri. This saves
+   * building and matching a uri per key for large batches.
+   *
+   * Only supported if {@link #isKeyMappingSupported(String)} returns true for the service.
+   *
+   * @param <KEY> type of resource key
+   * @param serviceName name of the service the requests are destined for
+   * @param partitionKeys map of unique resource key to its partition key
+   * @return {@link URIMappingResult} that contains a mapping of host to a set of keys whose corresponding requests will be sent to that host
+   *          and a set of unmapped keys.
+   * @throws ServiceUnavailableException if the requested service cannot be found
+   */
+  default <KEY> URIMappingResult<KEY> mapKeys(String serviceName, Map<KEY, String> partitionKeys)
+      throws ServiceUnavailableException
+  {
+    throw new UnsupportedOperationException("Key mapping is not supported by " + getClass().getName());
+  }
+
+  /**
+   * Same as {@link #mapUris(List)}, except that the given host is never picked. The requests are mapped to the next
+   * host of the hash ring of their partition instead, or left unmapped if it has no other host. This is used to send
+   * the requests mapped to a host again to other hosts owning their keys, e.g. to hedge them.
+   *
+   * @param <KEY> type of resource key
+   * @param requestUriKeyPairs a list of URIKeyPair, each contains a d2 request uri and a resource key. The resource keys should be unique.
+   * @param excludedHost host the requests must not be mapped to
+   * @return {@link URIMappingResult} that contains a mapping of host to a set of keys whose corresponding requests will be sent to that host
+   *          and a set of unmapped keys.
+   * @throws ServiceUnavailableException if the requested service cannot be found
+   */
+  default <KEY> URIMappingResult<KEY> mapUris(List<URIKeyPair<KEY>> requestUriKeyPairs, URI excludedHost)
+      throws ServiceUnavailableException
+  {
+    throw new UnsupportedOperationException(
+        "Mapping with an excluded host is not supported by " + getClass().getName());
+  }
+
   /**
    * Returns true if sticky routing is enabled (inclusive) OR the cluster of the service has more than one partitions.
    *
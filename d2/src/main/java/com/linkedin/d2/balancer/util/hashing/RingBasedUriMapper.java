@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +57,7 @@ public class RingBasedUriMapper implements URIMapper
 {
   private static final Logger LOG = LoggerFactory.getLogger(RingBasedUriMapper.class);
   private static final int PARTITION_NOT_FOUND_ID = -1;
+  private static final String D2_URI_PREFIX = "d2://";
 
   private final HashRingProvider _hashRingProvider;
   private final PartitionInfoProvider _partitionInfoProvider;
@@ -90,6 +92,28 @@ public class RingBasedUriMapper implements URIMapper
   @Override
   public <KEY> URIMappingResult<KEY> mapUris(List<URIKeyPair<KEY>> requestUriKeyPairs)
       throws ServiceUnavailableException
+  {
+    return mapUrisExcludingHost(requestUriKeyPairs, null);
+  }
+
+  /**
+   * Same as {@link #mapUris(List)}, except that each request is mapped to the first host other than the excluded one,
+   * iterating over the ring of its partition from the host it would have been mapped to.
+   *
+   * @throws ServiceUnavailableException when the requested service is not available
+   */
+  @Override
+  public <KEY> URIMappingResult<KEY> mapUris(List<URIKeyPair<KEY>> requestUriKeyPairs, URI excludedHost)
+      throws ServiceUnavailableException
+  {
+    return mapUrisExcludingHost(requestUriKeyPairs, excludedHost);
+  }
+
+  /**
+   * @param excludedHost host the requests must not be mapped to, or null
+   */
+  private <KEY> URIMappingResult<KEY> mapUrisExcludingHost(List<URIKeyPair<KEY>> requestUriKeyPairs, URI excludedHost)
+      throws ServiceUnavailableException
   {
     if (requestUriKeyPairs == null || requestUriKeyPairs.isEmpty())
     {
@@ -113,11 +137,82 @@ public class RingBasedUriMapper implements URIMapper
 
     // Pass Two
     Map<URI, Integer> hostToParitionId = new HashMap<>();
-    Map<URI, Set<KEY>> hostToKeySet = distributeToHosts(requestsByPartition, rings, hashFunction, hostToParitionId, unmapped);
+    Map<URI, Set<KEY>> hostToKeySet =
+        distributeToHosts(requestsByPartition, rings, hashFunction, hostToParitionId, unmapped, excludedHost);
 
     return new URIMappingResult<>(hostToKeySet, unmapped, hostToParitionId);
   }
 
+  /**
+   * Keys can be mapped without their request uris unless sticky routing is enabled, since hosts are then picked at random
+   * for each partition.
+   * @throws ServiceUnavailableException when the requested service is not available
+   */
+  @Override
+  public boolean isKeyMappingSupported(String serviceName) throws ServiceUnavailableException
+  {
+    return _hashRingProvider.getRequestHashFunction(serviceName) instanceof RandomHash;
+  }
+
+  /**
+   * Same two passes as {@link #mapUris(List)}, except that the partition keys are handed to the partition accessor
+   * directly instead of being extracted from request uris, and that ONE host is assigned for each partition.
+   *
+   * @param <KEY> type of provided key
+   * @param serviceName name of the service
+   * @param partitionKeys map of unique resource key to its partition key
+   * @return {@link URIMappingResult} that contains host to keySet mapping as well as unmapped keys.
+   * @throws ServiceUnavailableException when the requested service is not available
+   */
+  @Override
+  public <KEY> URIMappingResult<KEY> mapKeys(String serviceName, Map<KEY, String> partitionKeys)
+      throws ServiceUnavailableException
+  {
+    if (partitionKeys == null || partitionKeys.isEmpty())
+    {
+      return new URIMappingResult<>(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+    if (!isKeyMappingSupported(serviceName))
+    {
+      throw new UnsupportedOperationException("Keys cannot be mapped without request uris for service: " + serviceName);
+    }
+
+    PartitionAccessor accessor = _partitionInfoProvider.getPartitionAccessor(serviceName);
+    Map<Integer, Ring<URI>> rings = _hashRingProvider.getRings(URI.create(D2_URI_PREFIX + serviceName));
+
+    Map<Integer, Set<KEY>> unmapped = new HashMap<>();
+
+    // Pass One
+    Map<Integer, Set<KEY>> keysByPartition;
+    if (accessor.getMaxPartitionId() == 0)
+    {
+      keysByPartition = Collections.singletonMap(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, partitionKeys.keySet());
+    }
+    else
+    {
+      keysByPartition = new HashMap<>();
+      for (Map.Entry<KEY, String> entry : partitionKeys.entrySet())
+      {
+        try
+        {
+          keysByPartition.computeIfAbsent(accessor.getPartitionId(entry.getValue()), k -> new HashSet<>())
+              .add(entry.getKey());
+        }
+        catch (PartitionAccessException e)
+        {
+          unmapped.computeIfAbsent(PARTITION_NOT_FOUND_ID, k -> new HashSet<>()).add(entry.getKey());
+        }
+      }
+    }
+
+    // Pass Two
+    Map<URI, Integer> hostToPartitionId = new HashMap<>();
+    Map<URI, Set<KEY>> hostToKeySet =
+        distributeKeysToHostNonSticky(keysByPartition, rings, hostToPartitionId, unmapped, null);
+
+    return new URIMappingResult<>(hostToKeySet, unmapped, hostToPartitionId);
+  }
+
   /**
    * Scatter gather is need if either the given service needs sticky routing or the given service is partitioned or both
    * @throws ServiceUnavailableException when the requested service is not available
@@ -197,11 +292,12 @@ public class RingBasedUriMapper implements URIMapper
       Map<Integer, Ring<URI>> rings,
       HashFunction<Request> hashFunction,
       Map<URI, Integer> hostToPartitionId,
-      Map<Integer, Set<KEY>> unmapped)
+      Map<Integer, Set<KEY>> unmapped,
+      URI excludedHost)
   {
     if (hashFunction instanceof RandomHash)
     {
-      return distributeToHostNonSticky(requestsByParititonId, rings, hostToPartitionId, unmapped);
+      return distributeToHostNonSticky(requestsByParititonId, rings, hostToPartitionId, unmapped, excludedHost);
     }
 
     Map<URI, Set<KEY>> hostToKeySet = new HashMap<>();
@@ -211,7 +307,7 @@ public class RingBasedUriMapper implements URIMapper
       for (URIKeyPair<KEY> request : entry.getValue())
       {
         int hashcode = hashFunction.hash(new URIRequest(request.getRequestUri()));
-        URI resolvedHost = rings.get(partitionId).get(hashcode);
+        URI resolvedHost = getHost(rings.get(partitionId), hashcode, excludedHost);
 
         if (resolvedHost == null)
         {
@@ -242,13 +338,24 @@ public class RingBasedUriMapper implements URIMapper
    * keys to those partitions will be merged into one set.
    */
   private <KEY> Map<URI, Set<KEY>> distributeToHostNonSticky(Map<Integer, List<URIKeyPair<KEY>>> requestsByParititonId,
-      Map<Integer, Ring<URI>> rings, Map<URI, Integer> hostToPartitionId, Map<Integer, Set<KEY>> unmapped)
+      Map<Integer, Ring<URI>> rings, Map<URI, Integer> hostToPartitionId, Map<Integer, Set<KEY>> unmapped,
+      URI excludedHost)
+  {
+    Map<Integer, Set<KEY>> keysByPartitionId = new HashMap<>();
+    requestsByParititonId.forEach((partitionId, requests) ->
+        keysByPartitionId.put(partitionId, convertURIKeyPairListToKeySet(requests)));
+    return distributeKeysToHostNonSticky(keysByPartitionId, rings, hostToPartitionId, unmapped, excludedHost);
+  }
+
+  private <KEY> Map<URI, Set<KEY>> distributeKeysToHostNonSticky(Map<Integer, Set<KEY>> keysByPartitionId,
+      Map<Integer, Ring<URI>> rings, Map<URI, Integer> hostToPartitionId, Map<Integer, Set<KEY>> unmapped,
+      URI excludedHost)
   {
     Map<URI, Set<KEY>> hostToKeySet = new HashMap<>();
-    for (Map.Entry<Integer, List<URIKeyPair<KEY>>> entry : requestsByParititonId.entrySet())
+    for (Map.Entry<Integer, Set<KEY>> entry : keysByPartitionId.entrySet())
     {
-      URI resolvedHost = rings.get(entry.getKey()).get(ThreadLocalRandom.current().nextInt());
-      Set<KEY> allKeys = convertURIKeyPairListToKeySet(entry.getValue());
+      URI resolvedHost = getHost(rings.get(entry.getKey()), ThreadLocalRandom.current().nextInt(), excludedHost);
+      Set<KEY> allKeys = entry.getValue();
 
       if (resolvedHost == null)
       {
@@ -264,6 +371,29 @@ public class RingBasedUriMapper implements URIMapper
     return hostToKeySet;
   }
 
+  /**
+   * @return the host of the ring for the given hash code, or the next one if it is the excluded host, or null if the
+   *         ring has no such host
+   */
+  private static URI getHost(Ring<URI> ring, int hashcode, URI excludedHost)
+  {
+    if (excludedHost == null)
+    {
+      return ring.get(hashcode);
+    }
+
+    Iterator<URI> hosts = ring.getIterator(hashcode);
+    while (hosts.hasNext())
+    {
+      URI host = hosts.next();
+      if (!excludedHost.equals(host))
+      {
+        return host;
+      }
+    }
+    return null;
+  }
+
   private static <KEY> Set<KEY> convertURIKeyPairListToKeySet(List<URIKeyPair<KEY>> list)
   {
     if (list.stream().anyMatch(uriKeyPair -> uriKeyPair.getKey() == null))
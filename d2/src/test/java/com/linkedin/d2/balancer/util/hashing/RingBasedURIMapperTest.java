@@ -118,6 +118,48 @@ public class RingBasedURIMapperTest
     Assert.assertEquals(partitionCount * requestPerPartition, mappedKeyCount);
   }
 
+  @Test
+  public void testMapKeysPartitionedOnly() throws ServiceUnavailableException
+  {
+    int partitionCount = 10;
+    int totalHostCount = 100;
+
+    HashRingProvider ringProvider =
+        createStaticHashRingProvider(totalHostCount, partitionCount, getHashFunction(false));
+    PartitionInfoProvider infoProvider = createRangeBasedPartitionInfoProvider(partitionCount);
+    URIMapper mapper = new RingBasedUriMapper(ringProvider, infoProvider);
+    Assert.assertTrue(mapper.isKeyMappingSupported(TEST_SERVICE));
+
+    Map<Integer, String> partitionKeys = new HashMap<>();
+    IntStream.range(0, 1000).forEach(key -> partitionKeys.put(key, String.valueOf(key % partitionCount)));
+    partitionKeys.put(-1, "invalid");
+
+    URIMappingResult<Integer> results = mapper.mapKeys(TEST_SERVICE, partitionKeys);
+    Map<URI, Set<Integer>> mapping = results.getMappedKeys();
+    Map<URI, Integer> hostToPartitionId = results.getHostPartitionInfo();
+
+    // Keys whose partition cannot be found are unmapped
+    Assert.assertEquals(results.getUnmappedKeys(), Collections.singletonMap(-1, Collections.singleton(-1)));
+
+    // Without sticky routing, one host should be returned for each partition
+    Assert.assertEquals(mapping.size(), partitionCount);
+    for (Map.Entry<URI, Set<Integer>> entry : mapping.entrySet())
+    {
+      int partitionId = hostToPartitionId.get(entry.getKey());
+      Assert.assertEquals(entry.getValue().size(), 100);
+      Assert.assertTrue(entry.getValue().stream().allMatch(key -> key % partitionCount == partitionId));
+    }
+  }
+
+  @Test
+  public void testMapKeysNotSupportedWithStickyRouting() throws ServiceUnavailableException
+  {
+    HashRingProvider ringProvider = createStaticHashRingProvider(100, 1, getHashFunction(true));
+    PartitionInfoProvider infoProvider = createRangeBasedPartitionInfoProvider(1);
+    URIMapper mapper = new RingBasedUriMapper(ringProvider, infoProvider);
+    Assert.assertFalse(mapper.isKeyMappingSupported(TEST_SERVICE));
+  }
+
   @Test
   public void testMapUrisStickyRoutingOnly() throws ServiceUnavailableException, PartitionAccessException
   {
@@ -180,6 +222,60 @@ public class RingBasedURIMapperTest
     Assert.assertEquals(100, hostToPartition.size());
   }
 
+  @Test(dataProvider = "stickyPartitionPermutation")
+  public void testMapUrisExcludingHost(boolean sticky, boolean partitioned) throws Exception
+  {
+    int partitionCount = partitioned ? 10 : 1;
+    int requestPerPartition = 100;
+    int totalHostCount = 100;
+
+    HashRingProvider ringProvider =
+        createStaticHashRingProvider(totalHostCount, partitionCount, getHashFunction(sticky));
+    PartitionInfoProvider infoProvider = createRangeBasedPartitionInfoProvider(partitionCount);
+    URIMapper mapper = new RingBasedUriMapper(ringProvider, infoProvider);
+
+    List<URIKeyPair<Integer>> requests = testUtil.generateRequests(partitionCount, requestPerPartition);
+    Map<Integer, Integer> keyToPartitionId = new HashMap<>();
+    for (URIKeyPair<Integer> request : requests)
+    {
+      keyToPartitionId.put(request.getKey(),
+          infoProvider.getPartitionAccessor(TEST_SERVICE).getPartitionId(request.getRequestUri()));
+    }
+
+    URIMappingResult<Integer> results = mapper.mapUris(requests);
+    for (Map.Entry<URI, Set<Integer>> entry : results.getMappedKeys().entrySet())
+    {
+      URI excludedHost = entry.getKey();
+      List<URIKeyPair<Integer>> hostRequests = requests.stream()
+          .filter(request -> entry.getValue().contains(request.getKey()))
+          .collect(Collectors.toList());
+
+      URIMappingResult<Integer> otherResults = mapper.mapUris(hostRequests, excludedHost);
+      Assert.assertTrue(otherResults.getUnmappedKeys().isEmpty());
+      Assert.assertFalse(otherResults.getMappedKeys().containsKey(excludedHost));
+      Assert.assertEquals(otherResults.getMappedKeys().values().stream().mapToInt(Set::size).sum(),
+          hostRequests.size());
+      for (Map.Entry<URI, Integer> hostPartition : otherResults.getHostPartitionInfo().entrySet())
+      {
+        // The other hosts serve the partition of the keys
+        Assert.assertEquals(getPartitionIdForURI(hostPartition.getKey()), (int) hostPartition.getValue());
+        for (Integer key : otherResults.getMappedKeys().get(hostPartition.getKey()))
+        {
+          Assert.assertEquals(keyToPartitionId.get(key), hostPartition.getValue());
+        }
+      }
+    }
+
+    // Keys are left unmapped if their partition has no other host
+    ringProvider = createStaticHashRingProvider(partitionCount, partitionCount, getHashFunction(sticky));
+    mapper = new RingBasedUriMapper(ringProvider, infoProvider);
+    results = mapper.mapUris(requests);
+    URI onlyHost = results.getMappedKeys().keySet().iterator().next();
+    URIMappingResult<Integer> otherResults = mapper.mapUris(requests, onlyHost);
+    Assert.assertEquals(otherResults.getUnmappedKeys().get(results.getHostPartitionInfo().get(onlyHost)),
+        results.getMappedKeys().get(onlyHost));
+  }
+
   @Test
   public void testNonStickyAndNonPartitioning() throws ServiceUnavailableException
   {
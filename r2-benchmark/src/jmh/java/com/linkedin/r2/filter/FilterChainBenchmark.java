@@ -0,0 +1,147 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.filter;
+
+import com.linkedin.r2.filter.message.rest.RestFilter;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Measures a full request and response round trip through a chain of 20 {@link RestFilter}s. The last filter
+ * answers the request, so the response travels back through the whole chain. The share of filters implementing
+ * only one phase is varied, to show the effect of skipping phases filters do not implement.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class FilterChainBenchmark
+{
+  private static final int CHAIN_LENGTH = 20;
+
+  @State(Scope.Benchmark)
+  public static class ChainState
+  {
+    /**
+     * Percentage of the filters which implement only one of the request and response phases.
+     */
+    @Param({"0", "50", "100"})
+    int _singlePhasePercent;
+
+    FilterChain _filterChain;
+    RestRequest _request;
+
+    @Setup
+    public void setUp()
+    {
+      final int singlePhaseFilters = CHAIN_LENGTH * _singlePhasePercent / 100;
+      FilterChain filterChain = FilterChains.empty();
+      for (int i = 0; i < CHAIN_LENGTH - 1; i++)
+      {
+        if (i < singlePhaseFilters)
+        {
+          filterChain = filterChain.addLastRest(i % 2 == 0 ? new RequestFilter() : new ResponseFilter());
+        }
+        else
+        {
+          filterChain = filterChain.addLastRest(new RequestResponseFilter());
+        }
+      }
+      _filterChain = filterChain.addLastRest(new RespondingFilter());
+      _request = new RestRequestBuilder(URI.create("http://localhost/greetings/1")).build();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void measureRestRoundTrip(ChainState state, Blackhole blackhole)
+  {
+    final RequestContext requestContext = new RequestContext();
+    final Map<String, String> wireAttrs = new HashMap<>();
+    state._filterChain.onRestRequest(state._request, requestContext, wireAttrs);
+    blackhole.consume(wireAttrs);
+  }
+
+  private static class RequestFilter implements RestFilter
+  {
+    @Override
+    public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      nextFilter.onRequest(req, requestContext, wireAttrs);
+    }
+  }
+
+  private static class ResponseFilter implements RestFilter
+  {
+    @Override
+    public void onRestResponse(RestResponse res, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      nextFilter.onResponse(res, requestContext, wireAttrs);
+    }
+  }
+
+  private static class RequestResponseFilter implements RestFilter
+  {
+    @Override
+    public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      nextFilter.onRequest(req, requestContext, wireAttrs);
+    }
+
+    @Override
+    public void onRestResponse(RestResponse res, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      nextFilter.onResponse(res, requestContext, wireAttrs);
+    }
+  }
+
+  private static class RespondingFilter implements RestFilter
+  {
+    private static final RestResponse RESPONSE = new RestResponseBuilder().build();
+
+    @Override
+    public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      nextFilter.onResponse(RESPONSE, requestContext, wireAttrs);
+    }
+  }
+}
@@ -0,0 +1,290 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.caprep.db;
+
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * DbSink which appends messages as length-prefixed binary records to segment files in a directory, and writes a
+ * hash index of the records when closed. See {@link IndexedLogDbUtil} for the on-disk format.
+ *
+ * Unlike {@link DirectoryDbSink}, which writes two files per request/response pair, this sink is meant to capture
+ * long periods of traffic. Records are appended through a write buffer: call {@link #close()} to flush them and to
+ * write the index. A store without an up-to-date index can still be replayed; {@link IndexedLogDbSource} rebuilds
+ * the index by scanning the segments.
+ */
+public class IndexedLogDbSink implements DbSink, Closeable
+{
+  /**
+   * Default maximum size of a segment. Segments are memory-mapped for replay, so they must stay below 2 GB.
+   */
+  public static final int DEFAULT_MAX_SEGMENT_SIZE = 1 << 30;
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  private final File _dir;
+  private final MessageSerializer _serializer;
+  private final int _maxSegmentSize;
+  private final IndexedLogDbUtil.Index _index = new IndexedLogDbUtil.Index();
+  private final ByteBuffer _buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+  // Completed segments are memory-mapped, to compare the requests of new records with the ones they supersede
+  private ByteBuffer[] _segments;
+  private long[] _segmentLengths;
+  private FileChannel _channel;
+  // Offset in the current segment of the first byte of the write buffer
+  private long _bufferOffset;
+  private boolean _closed;
+
+  /**
+   * Construct a new instance with the specified directory path and serializer.
+   *
+   * @param dir the directory path to be used as a message store.
+   * @param serializer the {@link MessageSerializer} to use for serializing messages.
+   * @throws IOException
+   */
+  public IndexedLogDbSink(String dir, MessageSerializer serializer) throws IOException
+  {
+    this(new File(dir), serializer, DEFAULT_MAX_SEGMENT_SIZE);
+  }
+
+  /**
+   * Construct a new instance with the specified directory, serializer and maximum segment size. Records already in
+   * the directory are kept and included in the index written by this sink.
+   *
+   * @param dir the {@link File} object for the directory to be used as a message store.
+   * @param serializer the {@link MessageSerializer} to use for serializing messages.
+   * @param maxSegmentSize the size in bytes after which a new segment is started.
+   * @throws IOException
+   */
+  public IndexedLogDbSink(File dir, MessageSerializer serializer, int maxSegmentSize) throws IOException
+  {
+    _dir = dir;
+    if (!_dir.exists() & !_dir.mkdirs())
+    {
+      throw new IOException("Could not create directory: " + _dir);
+    }
+    if (maxSegmentSize <= IndexedLogDbUtil.SEGMENT_HEADER_SIZE)
+    {
+      throw new IllegalArgumentException("Maximum segment size is too small: " + maxSegmentSize);
+    }
+
+    _serializer = serializer;
+    _maxSegmentSize = maxSegmentSize;
+
+    final int[] segments = IndexedLogDbUtil.listSegments(_dir);
+    final int segmentCount = segments.length == 0 ? 0 : segments[segments.length - 1] + 1;
+    _segments = new ByteBuffer[segmentCount];
+    _segmentLengths = new long[segmentCount];
+    for (int segment : segments)
+    {
+      _segments[segment] = IndexedLogDbUtil.map(IndexedLogDbUtil.segmentFileName(_dir, segment));
+      _segmentLengths[segment] = IndexedLogDbUtil.scanSegment(_segments, segment, _index);
+    }
+
+    startSegment();
+  }
+
+  @Override
+  public void record(RestRequest req, RestResponse res) throws IOException
+  {
+    final byte[] request = IndexedLogDbUtil.requestKey(req, _serializer);
+    final ByteArrayOutputStream response = new ByteArrayOutputStream();
+    _serializer.writeResponse(response, res);
+    final long hash = IndexedLogDbUtil.hash(request);
+    final int recordSize = IndexedLogDbUtil.RECORD_HEADER_SIZE + request.length + response.size();
+
+    synchronized (this)
+    {
+      if (_closed)
+      {
+        throw new IOException("Sink is closed: " + _dir);
+      }
+
+      int segment = _segmentLengths.length - 1;
+      if (_segmentLengths[segment] > IndexedLogDbUtil.SEGMENT_HEADER_SIZE
+          && _segmentLengths[segment] + recordSize > _maxSegmentSize)
+      {
+        startSegment();
+        segment++;
+      }
+      if (_segmentLengths[segment] + recordSize > Integer.MAX_VALUE)
+      {
+        throw new IOException("Record of " + recordSize + " bytes does not fit in a segment");
+      }
+
+      final int offset = (int) _segmentLengths[segment];
+      final ByteBuffer header = ByteBuffer.allocate(IndexedLogDbUtil.RECORD_HEADER_SIZE);
+      header.putInt(request.length).putInt(response.size()).putLong(hash).flip();
+      if (recordSize > _buffer.remaining())
+      {
+        flushBuffer();
+      }
+      if (recordSize > _buffer.remaining())
+      {
+        // Records larger than the buffer are written directly
+        write(header, ByteBuffer.wrap(request), ByteBuffer.wrap(response.toByteArray()));
+        _bufferOffset += recordSize;
+      }
+      else
+      {
+        _buffer.put(header).put(request).put(response.toByteArray());
+      }
+      _segmentLengths[segment] += recordSize;
+
+      try
+      {
+        _index.put(hash, IndexedLogDbUtil.location(segment, offset), existing -> holdsRequest(existing, request));
+      }
+      catch (UncheckedIOException e)
+      {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Flush buffered records to the current segment.
+   *
+   * @throws IOException
+   */
+  public synchronized void flush() throws IOException
+  {
+    if (!_closed)
+    {
+      flushBuffer();
+    }
+  }
+
+  /**
+   * Flush buffered records and write the index. Further calls to {@link #record} fail.
+   *
+   * @throws IOException
+   */
+  @Override
+  public synchronized void close() throws IOException
+  {
+    if (_closed)
+    {
+      return;
+    }
+    _closed = true;
+    flushBuffer();
+    _channel.close();
+    _index.write(IndexedLogDbUtil.indexFileName(_dir), _segmentLengths);
+  }
+
+  private void startSegment() throws IOException
+  {
+    final int segment = _segmentLengths.length;
+    if (_channel != null)
+    {
+      flushBuffer();
+      _channel.close();
+      _segments[segment - 1] = IndexedLogDbUtil.map(IndexedLogDbUtil.segmentFileName(_dir, segment - 1));
+    }
+
+    _segments = Arrays.copyOf(_segments, segment + 1);
+    _segmentLengths = Arrays.copyOf(_segmentLengths, segment + 1);
+    final RandomAccessFile file = new RandomAccessFile(IndexedLogDbUtil.segmentFileName(_dir, segment), "rw");
+    file.setLength(0);
+    _channel = file.getChannel();
+    _bufferOffset = 0;
+    _buffer.putLong(IndexedLogDbUtil.SEGMENT_MAGIC);
+    _segmentLengths[segment] = IndexedLogDbUtil.SEGMENT_HEADER_SIZE;
+  }
+
+  private void flushBuffer() throws IOException
+  {
+    _buffer.flip();
+    _bufferOffset += _buffer.remaining();
+    write(_buffer);
+    _buffer.clear();
+  }
+
+  private void write(ByteBuffer... buffers) throws IOException
+  {
+    for (ByteBuffer buffer : buffers)
+    {
+      while (buffer.hasRemaining())
+      {
+        _channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * @return true if the record at the given location holds the given canonical request bytes.
+   */
+  private boolean holdsRequest(long location, byte[] request)
+  {
+    final int segment = IndexedLogDbUtil.segmentOf(location);
+    final int offset = IndexedLogDbUtil.offsetOf(location);
+    if (_segments[segment] != null)
+    {
+      return IndexedLogDbUtil.requestOf(_segments[segment], offset).equals(ByteBuffer.wrap(request));
+    }
+    if (offset >= _bufferOffset)
+    {
+      final ByteBuffer buffered = _buffer.duplicate();
+      buffered.flip();
+      return IndexedLogDbUtil.requestOf(buffered, (int) (offset - _bufferOffset)).equals(ByteBuffer.wrap(request));
+    }
+
+    // The record was flushed to the current segment
+    try
+    {
+      final ByteBuffer stored = ByteBuffer.allocate(Integer.BYTES + request.length);
+      stored.limit(Integer.BYTES);
+      read(stored, offset);
+      if (stored.getInt(0) != request.length)
+      {
+        return false;
+      }
+      stored.limit(stored.capacity());
+      read(stored, offset + IndexedLogDbUtil.RECORD_HEADER_SIZE - Integer.BYTES);
+      stored.position(Integer.BYTES);
+      return stored.equals(ByteBuffer.wrap(request));
+    }
+    catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void read(ByteBuffer buffer, long position) throws IOException
+  {
+    while (buffer.hasRemaining())
+    {
+      if (_channel.read(buffer, position + buffer.position()) < 0)
+      {
+        throw new IOException("Unexpected end of segment: " + _dir);
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.caprep.db;
+
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DbSource which replays messages written by {@link IndexedLogDbSink}.
+ *
+ * Segments and the index are memory-mapped, so opening a store does not load messages into the heap. A lookup hashes
+ * the canonical request, probes the index and compares the stored request bytes of the records with that hash; only
+ * the response of the latest matching record is deserialized. If the index is missing or does not cover every segment, it is rebuilt in memory from the segments.
+ */
+public class IndexedLogDbSource implements DbSource, Closeable
+{
+  private static final Logger _log = LoggerFactory.getLogger(IndexedLogDbSource.class);
+
+  private final MessageSerializer _serializer;
+  private final ByteBuffer[] _segments;
+  private final IndexedLogDbUtil.Index _index;
+
+  /**
+   * Construct a new instance with a specified directory path and serializer.
+   *
+   * @param dir the directory path to be used as a message store.
+   * @param serializer the {@link MessageSerializer} to use for deserializing messages.
+   * @throws IOException
+   */
+  public IndexedLogDbSource(String dir, MessageSerializer serializer) throws IOException
+  {
+    this(new File(dir), serializer);
+  }
+
+  /**
+   * Construct a new instance with the specified directory and serializer.
+   *
+   * @param dir the {@link File} object for the directory to be used as a message store.
+   * @param serializer the {@link MessageSerializer} to use for deserializing messages.
+   * @throws IOException
+   */
+  public IndexedLogDbSource(File dir, MessageSerializer serializer) throws IOException
+  {
+    _serializer = serializer;
+
+    final int[] segments = IndexedLogDbUtil.listSegments(dir);
+    final int segmentCount = segments.length == 0 ? 0 : segments[segments.length - 1] + 1;
+    _segments = new ByteBuffer[segmentCount];
+    final long[] segmentLengths = new long[segmentCount];
+    for (int segment : segments)
+    {
+      _segments[segment] = IndexedLogDbUtil.map(IndexedLogDbUtil.segmentFileName(dir, segment));
+      segmentLengths[segment] = _segments[segment].limit();
+    }
+
+    IndexedLogDbUtil.Index index = IndexedLogDbUtil.Index.read(IndexedLogDbUtil.indexFileName(dir), segmentLengths);
+    if (index == null)
+    {
+      _log.info("Index is missing or stale, rebuilding it from " + segments.length + " segments in: " + dir);
+      index = new IndexedLogDbUtil.Index();
+      for (int segment : segments)
+      {
+        IndexedLogDbUtil.scanSegment(_segments, segment, index);
+      }
+    }
+    _index = index;
+  }
+
+  @Override
+  public RestResponse replay(RestRequest req)
+  {
+    try
+    {
+      final byte[] request = IndexedLogDbUtil.requestKey(req, _serializer);
+      final ByteBuffer requestBuffer = ByteBuffer.wrap(request);
+      final long location = _index.get(IndexedLogDbUtil.hash(request), candidate -> IndexedLogDbUtil.requestOf(
+          _segments[IndexedLogDbUtil.segmentOf(candidate)], IndexedLogDbUtil.offsetOf(candidate)).equals(requestBuffer));
+      if (location == 0)
+      {
+        return null;
+      }
+
+      final ByteBuffer segment = _segments[IndexedLogDbUtil.segmentOf(location)].duplicate();
+      final int offset = IndexedLogDbUtil.offsetOf(location);
+      final int responseLength = segment.getInt(offset + Integer.BYTES);
+      segment.position(offset + IndexedLogDbUtil.RECORD_HEADER_SIZE + request.length);
+      final byte[] response = new byte[responseLength];
+      segment.get(response);
+      return _serializer.readRestResponse(new ByteArrayInputStream(response));
+    }
+    catch (Exception e)
+    {
+      _log.debug("Failed to replay request: " + req, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the captured requests in capture order, including requests whose record was superseded by a later
+   * capture of the same request. Requests are deserialized lazily, so large stores can be iterated without loading
+   * them into the heap.
+   *
+   * @return an iterator over the captured requests.
+   */
+  public Iterator<RestRequest> requests()
+  {
+    return new Iterator<RestRequest>()
+    {
+      private int _segment = -1;
+      private ByteBuffer _buffer;
+      private int _offset;
+
+      @Override
+      public boolean hasNext()
+      {
+        while (_buffer == null || !hasRecord())
+        {
+          if (++_segment >= _segments.length)
+          {
+            return false;
+          }
+          _buffer = _segments[_segment] == null ? null : _segments[_segment].duplicate();
+          _offset = IndexedLogDbUtil.SEGMENT_HEADER_SIZE;
+        }
+        return true;
+      }
+
+      private boolean hasRecord()
+      {
+        if (_buffer.limit() - _offset < IndexedLogDbUtil.RECORD_HEADER_SIZE)
+        {
+          return false;
+        }
+        final long recordEnd = (long) _offset + IndexedLogDbUtil.RECORD_HEADER_SIZE + _buffer.getInt(_offset)
+            + _buffer.getInt(_offset + Integer.BYTES);
+        return recordEnd <= _buffer.limit();
+      }
+
+      @Override
+      public RestRequest next()
+      {
+        if (!hasNext())
+        {
+          throw new NoSuchElementException();
+        }
+
+        final int requestLength = _buffer.getInt(_offset);
+        final int responseLength = _buffer.getInt(_offset + Integer.BYTES);
+        final byte[] request = new byte[requestLength];
+        _buffer.position(_offset + IndexedLogDbUtil.RECORD_HEADER_SIZE);
+        _buffer.get(request);
+        _offset += IndexedLogDbUtil.RECORD_HEADER_SIZE + requestLength + responseLength;
+        try
+        {
+          return _serializer.readRestRequest(new ByteArrayInputStream(request));
+        }
+        catch (IOException e)
+        {
+          throw new IllegalStateException("Failed to read captured request in segment " + _segment, e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Release the store. Mapped segments are unmapped once they are garbage collected.
+   */
+  @Override
+  public void close()
+  {
+    for (int i = 0; i < _segments.length; i++)
+    {
+      _segments[i] = null;
+    }
+  }
+}
@@ -0,0 +1,408 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.caprep.db;
+
+import com.linkedin.r2.message.rest.RestRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+
+/**
+ * Utilities and on-disk format shared by {@link IndexedLogDbSink} and {@link IndexedLogDbSource}.
+ *
+ * A store is a directory holding numbered segment files and one index file. Each segment starts with
+ * {@link #SEGMENT_MAGIC} followed by length-prefixed records:
+ * <pre>
+ *   int requestLength | int responseLength | long requestHash | request bytes | response bytes
+ * </pre>
+ * Request bytes are the canonical request serialized by the store's {@link MessageSerializer}, so replay can match
+ * requests by comparing bytes without deserializing them.
+ *
+ * The index is an open-addressing hash table from request hash to record location, preceded by the length of every
+ * segment it covers. Each distinct request has a single slot, holding the location of its latest record. Requests
+ * which share a hash are chained in the probe sequence, and lookups compare the stored request bytes to tell them
+ * apart:
+ * <pre>
+ *   long magic | long segmentCount | long[segmentCount] segmentLengths | long slotCount | (long hash, long location)*
+ * </pre>
+ * A location packs the segment number in its upper 32 bits and the record offset in its lower 32 bits. Because
+ * records never start at offset 0, a location of 0 marks an empty slot.
+ */
+public class IndexedLogDbUtil
+{
+  static final long SEGMENT_MAGIC = 0x52324341504C4F47L; // "R2CAPLOG"
+  static final long INDEX_MAGIC = 0x5232434150494458L;   // "R2CAPIDX"
+  static final int SEGMENT_HEADER_SIZE = Long.BYTES;
+  static final int RECORD_HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+
+  private static final String SEGMENT_SUFFIX = ".caplog";
+  private static final String INDEX_FILE_NAME = "caplog.idx";
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private IndexedLogDbUtil()
+  {
+  }
+
+  /**
+   * Create the file name of a segment.
+   *
+   * @param dir the directory of the message store.
+   * @param segment the number of the segment.
+   * @return the {@link File} object for the segment file.
+   */
+  public static File segmentFileName(File dir, int segment)
+  {
+    return new File(dir, String.format("%08d%s", segment, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Create the file name of the index.
+   *
+   * @param dir the directory of the message store.
+   * @return the {@link File} object for the index file.
+   */
+  public static File indexFileName(File dir)
+  {
+    return new File(dir, INDEX_FILE_NAME);
+  }
+
+  /**
+   * Return the numbers of all segments in a given directory, in ascending order.
+   *
+   * @param dir the directory of the message store.
+   * @return the sorted segment numbers.
+   * @throws IOException if the path is not a directory or cannot be read.
+   */
+  public static int[] listSegments(File dir) throws IOException
+  {
+    final File[] files = dir.listFiles(new FileFilter()
+    {
+      @Override
+      public boolean accept(File pathname)
+      {
+        return pathname.isFile() && pathname.getName().endsWith(SEGMENT_SUFFIX);
+      }
+    });
+
+    if (files == null)
+    {
+      throw new IOException("Path is not a directory or an IO error occurred while reading: " + dir);
+    }
+
+    final int[] segments = new int[files.length];
+    for (int i = 0; i < segments.length; i++)
+    {
+      final String name = files[i].getName();
+      segments[i] = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+    Arrays.sort(segments);
+    return segments;
+  }
+
+  /**
+   * Serialize the canonical form of a request. Equal requests always produce the same bytes.
+   */
+  static byte[] requestKey(RestRequest req, MessageSerializer serializer) throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.writeRequest(out, req.builder().buildCanonical());
+    return out.toByteArray();
+  }
+
+  /**
+   * 64-bit FNV-1a hash of the given bytes.
+   */
+  static long hash(byte[] bytes)
+  {
+    long hash = FNV_OFFSET_BASIS;
+    for (byte b : bytes)
+    {
+      hash ^= (b & 0xff);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  static long location(int segment, int offset)
+  {
+    return ((long) segment << 32) | (offset & 0xffffffffL);
+  }
+
+  static int segmentOf(long location)
+  {
+    return (int) (location >>> 32);
+  }
+
+  static int offsetOf(long location)
+  {
+    return (int) location;
+  }
+
+  /**
+   * @return a view of the request bytes of the record at the given offset of a segment.
+   */
+  static ByteBuffer requestOf(ByteBuffer segmentBuffer, int offset)
+  {
+    final ByteBuffer request = segmentBuffer.duplicate();
+    final int start = offset + RECORD_HEADER_SIZE;
+    request.limit(start + segmentBuffer.getInt(offset));
+    request.position(start);
+    return request;
+  }
+
+  /**
+   * Add every record of a segment to an index, in place of the earlier records of the same request.
+   *
+   * @param segmentBuffers the segments, of which the given segment and the ones already added to the index are mapped
+   * @return the number of valid bytes in the segment; a truncated trailing record is ignored.
+   */
+  static long scanSegment(ByteBuffer[] segmentBuffers, int segment, Index index) throws IOException
+  {
+    final ByteBuffer buffer = segmentBuffers[segment].duplicate();
+    if (buffer.remaining() < SEGMENT_HEADER_SIZE || buffer.getLong(0) != SEGMENT_MAGIC)
+    {
+      throw new IOException("Not a capture log segment: " + segment);
+    }
+
+    int offset = SEGMENT_HEADER_SIZE;
+    while (buffer.limit() - offset >= RECORD_HEADER_SIZE)
+    {
+      final int requestLength = buffer.getInt(offset);
+      final int responseLength = buffer.getInt(offset + Integer.BYTES);
+      final long recordEnd = (long) offset + RECORD_HEADER_SIZE + requestLength + responseLength;
+      if (requestLength < 0 || responseLength < 0 || recordEnd > buffer.limit())
+      {
+        break;
+      }
+      final ByteBuffer request = requestOf(buffer, offset);
+      index.put(buffer.getLong(offset + Integer.BYTES * 2), location(segment, offset),
+          existing -> requestOf(segmentBuffers[segmentOf(existing)], offsetOf(existing)).equals(request));
+      offset = (int) recordEnd;
+    }
+    return offset;
+  }
+
+  /**
+   * Memory-map a whole file read-only.
+   */
+  static MappedByteBuffer map(File file) throws IOException
+  {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel())
+    {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * Open-addressing hash table from request hash to record locations, using linear probing. A location added for a
+   * request already present replaces the location of its slot, so repeated captures of the same request neither grow
+   * the table nor lengthen its probe sequences. Tables built in memory grow as needed; tables read from disk are
+   * memory-mapped and read-only.
+   */
+  static final class Index
+  {
+    private static final int INITIAL_SLOT_COUNT = 1024;
+
+    private LongBuffer _slots;
+    private int _slotCount;
+    private int _size;
+    private final boolean _readOnly;
+
+    Index()
+    {
+      this(LongBuffer.wrap(new long[INITIAL_SLOT_COUNT * 2]), INITIAL_SLOT_COUNT, false);
+    }
+
+    private Index(LongBuffer slots, int slotCount, boolean readOnly)
+    {
+      _slots = slots;
+      _slotCount = slotCount;
+      _readOnly = readOnly;
+    }
+
+    int size()
+    {
+      return _size;
+    }
+
+    /**
+     * @param matches tells whether the record at a location with the given request hash holds the request looked up
+     * @return the location of the latest record of the request, or 0 if there is none.
+     */
+    long get(long hash, LongPredicate matches)
+    {
+      final int mask = _slotCount - 1;
+      for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask)
+      {
+        final long location = _slots.get(slot * 2 + 1);
+        if (location == 0 || (_slots.get(slot * 2) == hash && matches.test(location)))
+        {
+          return location;
+        }
+      }
+    }
+
+    /**
+     * Adds the location of the latest record of a request.
+     *
+     * @param sameRequest tells whether the record at a location with the given request hash holds the same request,
+     *                    whose location is then replaced
+     */
+    void put(long hash, long location, LongPredicate sameRequest)
+    {
+      if (_readOnly)
+      {
+        throw new UnsupportedOperationException("Index is read-only");
+      }
+      final int mask = _slotCount - 1;
+      for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask)
+      {
+        final long existing = _slots.get(slot * 2 + 1);
+        if (existing == 0)
+        {
+          break;
+        }
+        if (_slots.get(slot * 2) == hash && sameRequest.test(existing))
+        {
+          _slots.put(slot * 2 + 1, location);
+          return;
+        }
+      }
+      if ((_size + 1) * 2 > _slotCount)
+      {
+        resize(_slotCount * 2);
+      }
+      insert(_slots, _slotCount, hash, location);
+      _size++;
+    }
+
+    private static void insert(LongBuffer slots, int slotCount, long hash, long location)
+    {
+      final int mask = slotCount - 1;
+      for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask)
+      {
+        if (slots.get(slot * 2 + 1) == 0)
+        {
+          slots.put(slot * 2, hash);
+          slots.put(slot * 2 + 1, location);
+          return;
+        }
+      }
+    }
+
+    private void resize(int slotCount)
+    {
+      final LongBuffer slots = LongBuffer.wrap(new long[slotCount * 2]);
+      for (int slot = 0; slot < _slotCount; slot++)
+      {
+        final long location = _slots.get(slot * 2 + 1);
+        if (location != 0)
+        {
+          insert(slots, slotCount, _slots.get(slot * 2), location);
+        }
+      }
+      _slots = slots;
+      _slotCount = slotCount;
+    }
+
+    private static int mix(long hash)
+    {
+      final long h = hash ^ (hash >>> 32);
+      return (int) (h ^ (h >>> 16));
+    }
+
+    /**
+     * Write this index along with the lengths of the segments it covers.
+     */
+    void write(File file, long[] segmentLengths) throws IOException
+    {
+      final int headerLongs = 3 + segmentLengths.length;
+      final ByteBuffer buffer = ByteBuffer.allocate((headerLongs + _slotCount * 2) * Long.BYTES);
+      buffer.putLong(INDEX_MAGIC);
+      buffer.putLong(segmentLengths.length);
+      for (long segmentLength : segmentLengths)
+      {
+        buffer.putLong(segmentLength);
+      }
+      buffer.putLong(_slotCount);
+      for (int i = 0; i < _slotCount * 2; i++)
+      {
+        buffer.putLong(_slots.get(i));
+      }
+      buffer.flip();
+
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel())
+      {
+        channel.truncate(0);
+        while (buffer.hasRemaining())
+        {
+          channel.write(buffer);
+        }
+      }
+    }
+
+    /**
+     * Memory-map an index file.
+     *
+     * @return the index, or null if the file is missing, corrupted or does not cover exactly the given segments.
+     */
+    static Index read(File file, long[] segmentLengths) throws IOException
+    {
+      if (!file.isFile())
+      {
+        return null;
+      }
+
+      final ByteBuffer buffer = map(file);
+      final int headerLongs = 3 + segmentLengths.length;
+      if (buffer.limit() < headerLongs * Long.BYTES
+          || buffer.getLong(0) != INDEX_MAGIC
+          || buffer.getLong(Long.BYTES) != segmentLengths.length)
+      {
+        return null;
+      }
+      for (int i = 0; i < segmentLengths.length; i++)
+      {
+        if (buffer.getLong((2 + i) * Long.BYTES) != segmentLengths[i])
+        {
+          return null;
+        }
+      }
+
+      final long slotCount = buffer.getLong((headerLongs - 1) * Long.BYTES);
+      if (slotCount <= 0 || Long.bitCount(slotCount) != 1
+          || buffer.limit() != (headerLongs + slotCount * 2) * Long.BYTES)
+      {
+        return null;
+      }
+
+      buffer.position(headerLongs * Long.BYTES);
+      return new Index(buffer.slice().asLongBuffer(), (int) slotCount, true);
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.linkedin.r2.filter;
 
+import com.linkedin.r2.filter.FilterChainIterator.CompiledFilters;
 import com.linkedin.r2.filter.message.rest.RestFilter;
 import com.linkedin.r2.filter.message.stream.StreamFilter;
 import com.linkedin.r2.message.RequestContext;
@@ -30,6 +31,11 @@ import java.util.List;
 import java.util.Map;
 
 /**
+ * Filter chains are immutable, so each chain is compiled once into arrays when it is built. Filters are only
+ * invoked for the phases they implement: a phase declared by {@link RestFilter} or {@link StreamFilter} that a
+ * filter does not override is skipped rather than dispatched to the default method, which would merely forward
+ * the message.
+ *
  * @author Chris Pettitt
  * @author Zhenkai Zhu
  */
@@ -37,17 +43,20 @@ import java.util.Map;
 {
   private final List<RestFilter> _restFilters;
   private final List<StreamFilter> _streamFilters;
+  private final CompiledFilters<RestFilter> _compiledRestFilters;
+  private final CompiledFilters<StreamFilter> _compiledStreamFilters;
 
   public FilterChainImpl()
   {
-    _restFilters = Collections.emptyList();
-    _streamFilters = Collections.emptyList();
+    this(Collections.emptyList(), Collections.emptyList());
   }
 
   private FilterChainImpl(List<RestFilter> restFilters, List<StreamFilter> streamFilters)
   {
     _restFilters = Collections.unmodifiableList(new ArrayList<>(restFilters));
     _streamFilters = Collections.unmodifiableList(new ArrayList<>(streamFilters));
+    _compiledRestFilters = compileRestFilters(_restFilters);
+    _compiledStreamFilters = compileStreamFilters(_streamFilters);
   }
 
   @Override
@@ -102,7 +111,7 @@ import java.util.Map;
   public void onRestRequest(RestRequest req, RequestContext requestContext,
                             Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainRestIterator(_restFilters, 0)
+    new FilterChainIterator.FilterChainRestIterator(_compiledRestFilters, 0)
             .onRequest(req, requestContext, wireAttrs);
   }
 
@@ -110,7 +119,7 @@ import java.util.Map;
   public void onRestResponse(RestResponse res, RequestContext requestContext,
                              Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainRestIterator(_restFilters, _restFilters.size())
+    new FilterChainIterator.FilterChainRestIterator(_compiledRestFilters, _compiledRestFilters.size())
             .onResponse(res, requestContext, wireAttrs);
   }
 
@@ -118,7 +127,7 @@ import java.util.Map;
   public void onRestError(Exception ex, RequestContext requestContext,
                           Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainRestIterator(_restFilters, _restFilters.size())
+    new FilterChainIterator.FilterChainRestIterator(_compiledRestFilters, _compiledRestFilters.size())
             .onError(ex, requestContext, wireAttrs);
   }
 
@@ -127,7 +136,7 @@ import java.util.Map;
                        RequestContext requestContext,
                        Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainStreamIterator(_streamFilters, 0)
+    new FilterChainIterator.FilterChainStreamIterator(_compiledStreamFilters, 0)
         .onRequest(req, requestContext, wireAttrs);
   }
 
@@ -136,7 +145,7 @@ import java.util.Map;
                         RequestContext requestContext,
                         Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainStreamIterator(_streamFilters, _streamFilters.size())
+    new FilterChainIterator.FilterChainStreamIterator(_compiledStreamFilters, _compiledStreamFilters.size())
         .onResponse(res, requestContext, wireAttrs);
   }
 
@@ -145,10 +154,88 @@ import java.util.Map;
                      RequestContext requestContext,
                      Map<String, String> wireAttrs)
   {
-    new FilterChainIterator.FilterChainStreamIterator(_streamFilters, _streamFilters.size())
+    new FilterChainIterator.FilterChainStreamIterator(_compiledStreamFilters, _compiledStreamFilters.size())
         .onError(ex, requestContext, wireAttrs);
   }
 
+  private static CompiledFilters<RestFilter> compileRestFilters(List<RestFilter> filters)
+  {
+    final RestFilter[] array = filters.toArray(new RestFilter[0]);
+    final boolean[] handlesRequest = new boolean[array.length];
+    final boolean[] handlesResponse = new boolean[array.length];
+    final boolean[] handlesError = new boolean[array.length];
+    for (int i = 0; i < array.length; i++)
+    {
+      final Class<?> filterClass = unwrap(array[i]).getClass();
+      handlesRequest[i] = overrides(filterClass, RestFilter.class, "onRestRequest",
+          RestRequest.class, RequestContext.class, Map.class, NextFilter.class);
+      handlesResponse[i] = overrides(filterClass, RestFilter.class, "onRestResponse",
+          RestResponse.class, RequestContext.class, Map.class, NextFilter.class);
+      handlesError[i] = overrides(filterClass, RestFilter.class, "onRestError",
+          Throwable.class, RequestContext.class, Map.class, NextFilter.class);
+    }
+    return new CompiledFilters<>(array, handlesRequest, handlesResponse, handlesError);
+  }
+
+  private static CompiledFilters<StreamFilter> compileStreamFilters(List<StreamFilter> filters)
+  {
+    final StreamFilter[] array = filters.toArray(new StreamFilter[0]);
+    final boolean[] handlesRequest = new boolean[array.length];
+    final boolean[] handlesResponse = new boolean[array.length];
+    final boolean[] handlesError = new boolean[array.length];
+    for (int i = 0; i < array.length; i++)
+    {
+      final Class<?> filterClass = unwrap(array[i]).getClass();
+      handlesRequest[i] = overrides(filterClass, StreamFilter.class, "onStreamRequest",
+          StreamRequest.class, RequestContext.class, Map.class, NextFilter.class);
+      handlesResponse[i] = overrides(filterClass, StreamFilter.class, "onStreamResponse",
+          StreamResponse.class, RequestContext.class, Map.class, NextFilter.class);
+      handlesError[i] = overrides(filterClass, StreamFilter.class, "onStreamError",
+          Throwable.class, RequestContext.class, Map.class, NextFilter.class);
+    }
+    return new CompiledFilters<>(array, handlesRequest, handlesResponse, handlesError);
+  }
+
+  /**
+   * Returns the filter decorated by {@link TimedRestFilter} or {@link TimedStreamFilter}, whose phases are the ones
+   * the decorator effectively implements.
+   */
+  private static Object unwrap(Object filter)
+  {
+    Object unwrapped = filter;
+    while (true)
+    {
+      if (unwrapped.getClass() == TimedRestFilter.class)
+      {
+        unwrapped = ((TimedRestFilter) unwrapped).getRestFilter();
+      }
+      else if (unwrapped.getClass() == TimedStreamFilter.class)
+      {
+        unwrapped = ((TimedStreamFilter) unwrapped).getStreamFilter();
+      }
+      else
+      {
+        return unwrapped;
+      }
+    }
+  }
+
+  /**
+   * @return false if the given class inherits the default implementation of a method of the filter interface
+   */
+  private static boolean overrides(Class<?> filterClass, Class<?> filterInterface, String methodName,
+      Class<?>... parameterTypes)
+  {
+    try
+    {
+      return filterClass.getMethod(methodName, parameterTypes).getDeclaringClass() != filterInterface;
+    }
+    catch (NoSuchMethodException | SecurityException e)
+    {
+      return true;
+    }
+  }
+
   private <T> List<T> doAddFirst(List<T> list, T obj)
   {
     final List<T> newFilters = new ArrayList<>(list.size() + 1);
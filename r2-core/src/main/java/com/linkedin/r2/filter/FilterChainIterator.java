@@ -27,7 +27,6 @@ import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.stream.StreamRequest;
 import com.linkedin.r2.message.stream.StreamResponse;
 
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -35,6 +34,9 @@ import org.slf4j.LoggerFactory;
 
 
 /**
+ * Walks a {@link CompiledFilters} chain for one request. Filters which do not implement a phase are skipped
+ * by jumping straight to the next filter that does, using the tables precomputed by {@link CompiledFilters}.
+ *
  * @author Chris Pettitt
  * @author Zhenkai Zhu
  * @version $Revision$
@@ -43,39 +45,47 @@ import org.slf4j.LoggerFactory;
         implements NextFilter<REQ, RES>
 {
   private static final Logger LOG = LoggerFactory.getLogger(FilterChainIterator.class);
-  private final List<F> _filters;
+  private final CompiledFilters<F> _chain;
   private int _cursor;
 
-  protected FilterChainIterator(List<F> filters, int cursor)
+  protected FilterChainIterator(CompiledFilters<F> chain, int cursor)
   {
-    _filters = filters;
+    _chain = chain;
     _cursor = cursor;
   }
 
   @Override
   public void onRequest(REQ req, RequestContext requestContext, Map<String, String> wireAttrs)
   {
-    if (_cursor < _filters.size())
+    final int index = _chain._nextRequestFilter[_cursor];
+    if (index < _chain._filters.length)
     {
+      _cursor = index + 1;
       try
       {
-        doOnRequest(_filters.get(_cursor++), req, requestContext, wireAttrs, this);
+        doOnRequest(_chain._filters[index], req, requestContext, wireAttrs, this);
       }
       catch (RuntimeException e)
       {
         onError(e, requestContext, wireAttrs);
       }
     }
+    else
+    {
+      _cursor = _chain._filters.length;
+    }
   }
 
   @Override
   public void onResponse(RES res, RequestContext requestContext, Map<String, String> wireAttrs)
   {
-    if (_cursor > 0)
+    final int index = _chain._previousResponseFilter[_cursor];
+    if (index >= 0)
     {
+      _cursor = index;
       try
       {
-        doOnResponse(_filters.get(--_cursor), res, requestContext, wireAttrs, this);
+        doOnResponse(_chain._filters[index], res, requestContext, wireAttrs, this);
       }
       catch (RuntimeException e)
       {
@@ -85,20 +95,26 @@ import org.slf4j.LoggerFactory;
         onError(e, requestContext, wireAttrs);
       }
     }
+    else
+    {
+      _cursor = 0;
+    }
   }
 
   private String getLastFilterName() {
-    return (_filters != null && _filters.size() > 0) ? _filters.get(0).getClass().getName() : "";
+    return _chain._filters.length > 0 ? _chain._filters[0].getClass().getName() : "";
   }
 
   @Override
   public void onError(Throwable ex, RequestContext requestContext, Map<String, String> wireAttrs)
   {
-    if (_cursor > 0)
+    final int index = _chain._previousErrorFilter[_cursor];
+    if (index >= 0)
     {
+      _cursor = index;
       try
       {
-        doOnError(_filters.get(--_cursor), ex, requestContext, wireAttrs, this);
+        doOnError(_chain._filters[index], ex, requestContext, wireAttrs, this);
       }
       catch (RuntimeException e)
       {
@@ -108,6 +124,10 @@ import org.slf4j.LoggerFactory;
         onError(e, requestContext, wireAttrs);
       }
     }
+    else
+    {
+      _cursor = 0;
+    }
   }
 
   protected abstract void doOnRequest(F filter,
@@ -131,9 +151,9 @@ import org.slf4j.LoggerFactory;
 
   /* package private */static class FilterChainRestIterator extends FilterChainIterator<RestFilter, RestRequest, RestResponse>
   {
-    public FilterChainRestIterator(List<RestFilter> filters, int cursor)
+    public FilterChainRestIterator(CompiledFilters<RestFilter> chain, int cursor)
     {
-      super(filters, cursor);
+      super(chain, cursor);
     }
 
     @Override
@@ -169,9 +189,9 @@ import org.slf4j.LoggerFactory;
 
   /*package private */static class FilterChainStreamIterator extends FilterChainIterator<StreamFilter, StreamRequest, StreamResponse>
   {
-    public FilterChainStreamIterator(List<StreamFilter> filters, int cursor)
+    public FilterChainStreamIterator(CompiledFilters<StreamFilter> chain, int cursor)
     {
-      super(filters, cursor);
+      super(chain, cursor);
     }
 
     @Override
@@ -205,4 +225,48 @@ import org.slf4j.LoggerFactory;
     }
   }
 
-}
\ No newline at end of file
+
+  /**
+   * A filter chain compiled into an array, along with jump tables over the filters which implement each phase.
+   * A filter that does not override a phase of {@link RestFilter} or {@link StreamFilter} would only forward
+   * the message to the next filter, so it is left out of that phase.
+   *
+   * For a cursor {@code c}: {@code _nextRequestFilter[c]} is the first filter at or after {@code c} handling
+   * requests, or the number of filters if there is none; {@code _previousResponseFilter[c]} and
+   * {@code _previousErrorFilter[c]} are the last filter before {@code c} handling responses and errors, or -1.
+   */
+  /* package private */ static final class CompiledFilters<F>
+  {
+    private final F[] _filters;
+    private final int[] _nextRequestFilter;
+    private final int[] _previousResponseFilter;
+    private final int[] _previousErrorFilter;
+
+    CompiledFilters(F[] filters, boolean[] handlesRequest, boolean[] handlesResponse, boolean[] handlesError)
+    {
+      _filters = filters;
+      _nextRequestFilter = new int[filters.length + 1];
+      _previousResponseFilter = new int[filters.length + 1];
+      _previousErrorFilter = new int[filters.length + 1];
+
+      _nextRequestFilter[filters.length] = filters.length;
+      for (int i = filters.length - 1; i >= 0; i--)
+      {
+        _nextRequestFilter[i] = handlesRequest[i] ? i : _nextRequestFilter[i + 1];
+      }
+
+      _previousResponseFilter[0] = -1;
+      _previousErrorFilter[0] = -1;
+      for (int i = 1; i <= filters.length; i++)
+      {
+        _previousResponseFilter[i] = handlesResponse[i - 1] ? i - 1 : _previousResponseFilter[i - 1];
+        _previousErrorFilter[i] = handlesError[i - 1] ? i - 1 : _previousErrorFilter[i - 1];
+      }
+    }
+
+    int size()
+    {
+      return _filters.length;
+    }
+  }
+}
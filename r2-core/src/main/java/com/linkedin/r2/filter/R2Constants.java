@@ -70,6 +70,16 @@ public class R2Constants
    */
   public static final String CLIENT_REQUEST_TIMEOUT_VIEW = "CLIENT_REQUEST_TIMEOUT_VIEW";
   public static final String PREEMPTIVE_TIMEOUT_RATE = "PREEMPTIVE_TIMEOUT_RATE";
+  /**
+   * Time, in milliseconds since the epoch, after which nobody waits for the response to the request. Set on the server
+   * by {@link com.linkedin.r2.filter.transport.ServerDeadlineFilter}, and caps the time budget propagated by
+   * {@link com.linkedin.r2.filter.transport.ClientDeadlineFilter} when set on the client.
+   */
+  public static final String REQUEST_DEADLINE = "REQUEST_DEADLINE";
+  /**
+   * Wire attribute carrying the remaining time budget of a request in milliseconds.
+   */
+  public static final String DEADLINE_ATTRIBUTE_KEY = "DEADLINE";
   public static final String PROJECTION_INFO = "PROJECTION_INFO";
   public static final String RESTLI_INFO = "RESTLI_INFO";
   public static final String RESTLI_TRACE_INFO = "RESTLI_TRACE_INFO";
@@ -96,6 +96,11 @@ public class TimedRestFilter implements RestFilter
     _restFilter.onRestError(ex, requestContext, wireAttrs, new TimedNextFilter<>(_onErrorTimingKey, nextFilter));
   }
 
+  /* package private */ RestFilter getRestFilter()
+  {
+    return _restFilter;
+  }
+
   public void setShared() {
     _shared = true;
   }
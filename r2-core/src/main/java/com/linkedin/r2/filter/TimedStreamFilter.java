@@ -94,6 +94,11 @@ public class TimedStreamFilter implements StreamFilter
     _streamFilter.onStreamError(ex, requestContext, wireAttrs, new TimedNextFilter<>(_onErrorTimingKey, nextFilter));
   }
 
+  /* package private */ StreamFilter getStreamFilter()
+  {
+    return _streamFilter;
+  }
+
   public void setShared() {
     _shared = true;
   }
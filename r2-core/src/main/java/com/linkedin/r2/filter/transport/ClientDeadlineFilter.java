@@ -0,0 +1,135 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.filter.transport;
+
+import com.linkedin.r2.filter.NextFilter;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.filter.message.rest.RestFilter;
+import com.linkedin.r2.filter.message.stream.StreamFilter;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.Response;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.stream.StreamRequest;
+import com.linkedin.r2.message.stream.StreamResponse;
+import com.linkedin.r2.util.RequestTimeoutUtil;
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SystemClock;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Filter implementation that sends the time budget of a request to the server as a wire attribute, so that the server
+ * can stop working on the request once the client no longer waits for the response.
+ *
+ * The budget is the timeout the caller expects, from {@link R2Constants#CLIENT_REQUEST_TIMEOUT_VIEW} or
+ * {@link R2Constants#REQUEST_TIMEOUT}, or else the default timeout of the filter. It is capped by the time left before
+ * {@link R2Constants#REQUEST_DEADLINE} if the request context has one, which lets a server handling a request pass its
+ * own deadline on to the requests it makes. Requests whose deadline has already passed fail right away with a
+ * {@link TimeoutException}, without being sent.
+ *
+ * The budget is relative, so clocks do not need to agree; the time spent on the network is not deducted from it.
+ *
+ * @see ServerDeadlineFilter
+ */
+public class ClientDeadlineFilter implements RestFilter, StreamFilter
+{
+  private final long _defaultTimeoutMs;
+  private final Clock _clock;
+
+  /**
+   * Creates a filter which only propagates the budget of requests with a timeout or a deadline in their context.
+   */
+  public ClientDeadlineFilter()
+  {
+    this(0);
+  }
+
+  /**
+   * @param defaultTimeoutMs budget of requests without a timeout in their context, or 0 for none. This should be the
+   *                         request timeout of the transport client.
+   */
+  public ClientDeadlineFilter(long defaultTimeoutMs)
+  {
+    this(defaultTimeoutMs, SystemClock.instance());
+  }
+
+  public ClientDeadlineFilter(long defaultTimeoutMs, Clock clock)
+  {
+    _defaultTimeoutMs = defaultTimeoutMs;
+    _clock = clock;
+  }
+
+  @Override
+  public void onRestRequest(RestRequest req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    processRequest(req, requestContext, wireAttrs, nextFilter);
+  }
+
+  @Override
+  public void onStreamRequest(StreamRequest req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<StreamRequest, StreamResponse> nextFilter)
+  {
+    processRequest(req, requestContext, wireAttrs, nextFilter);
+  }
+
+  private <REQ extends Request, RES extends Response> void processRequest(REQ req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<REQ, RES> nextFilter)
+  {
+    Long budget = getTimeoutMs(requestContext);
+    final Long remaining = RequestTimeoutUtil.getRemainingTimeMs(requestContext, _clock);
+    if (remaining != null)
+    {
+      if (remaining <= 0)
+      {
+        nextFilter.onError(new TimeoutException("Deadline of the request passed " + -remaining + "ms before it was sent"),
+            requestContext, wireAttrs);
+        return;
+      }
+      budget = budget == null ? remaining : Math.min(budget, remaining);
+    }
+
+    if (budget != null)
+    {
+      wireAttrs.put(R2Constants.DEADLINE_ATTRIBUTE_KEY, Long.toString(budget));
+    }
+    nextFilter.onRequest(req, requestContext, wireAttrs);
+  }
+
+  private Long getTimeoutMs(RequestContext requestContext)
+  {
+    Number timeout = (Number) requestContext.getLocalAttr(R2Constants.CLIENT_REQUEST_TIMEOUT_VIEW);
+    if (timeout == null)
+    {
+      timeout = (Number) requestContext.getLocalAttr(R2Constants.REQUEST_TIMEOUT);
+    }
+    if (timeout != null && timeout.longValue() > 0)
+    {
+      return timeout.longValue();
+    }
+    return _defaultTimeoutMs > 0 ? _defaultTimeoutMs : null;
+  }
+}
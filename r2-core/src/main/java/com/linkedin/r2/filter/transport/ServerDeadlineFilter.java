@@ -0,0 +1,98 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.filter.transport;
+
+import com.linkedin.r2.filter.NextFilter;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.filter.message.rest.RestFilter;
+import com.linkedin.r2.filter.message.stream.StreamFilter;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.Response;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.stream.StreamRequest;
+import com.linkedin.r2.message.stream.StreamResponse;
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SystemClock;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Filter implementation that turns the time budget sent by {@link ClientDeadlineFilter} into a
+ * {@link R2Constants#REQUEST_DEADLINE} in the request context, counting from when the request reaches this filter.
+ * Request handlers read the deadline to drop requests nobody waits for anymore. The filter should come first in the
+ * server filter chain.
+ *
+ * @see ClientDeadlineFilter
+ */
+public class ServerDeadlineFilter implements RestFilter, StreamFilter
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ServerDeadlineFilter.class);
+
+  private final Clock _clock;
+
+  public ServerDeadlineFilter()
+  {
+    this(SystemClock.instance());
+  }
+
+  public ServerDeadlineFilter(Clock clock)
+  {
+    _clock = clock;
+  }
+
+  @Override
+  public void onRestRequest(RestRequest req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    processRequest(req, requestContext, wireAttrs, nextFilter);
+  }
+
+  @Override
+  public void onStreamRequest(StreamRequest req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<StreamRequest, StreamResponse> nextFilter)
+  {
+    processRequest(req, requestContext, wireAttrs, nextFilter);
+  }
+
+  private <REQ extends Request, RES extends Response> void processRequest(REQ req,
+      RequestContext requestContext,
+      Map<String, String> wireAttrs,
+      NextFilter<REQ, RES> nextFilter)
+  {
+    final String budget = wireAttrs.get(R2Constants.DEADLINE_ATTRIBUTE_KEY);
+    if (budget != null)
+    {
+      try
+      {
+        requestContext.putLocalAttr(R2Constants.REQUEST_DEADLINE, _clock.currentTimeMillis() + Long.parseLong(budget.trim()));
+      }
+      catch (NumberFormatException e)
+      {
+        LOG.debug("Ignoring invalid request deadline: {}", budget);
+      }
+    }
+    nextFilter.onRequest(req, requestContext, wireAttrs);
+  }
+}
@@ -74,7 +74,7 @@ public enum FrameworkTimingKeys
 
   FrameworkTimingKeys(String name, TimingImportance timingImportance)
   {
-    _timingKey = TimingKey.registerNewKey(KEY_PREFIX + name, timingImportance);
+    _timingKey = TimingKey.registerNewFrameworkKey(KEY_PREFIX + name, timingImportance, ordinal());
   }
 
   public TimingKey key()
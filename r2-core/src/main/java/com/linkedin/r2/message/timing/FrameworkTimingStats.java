@@ -0,0 +1,234 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.message.timing;
+
+import com.linkedin.common.stats.LongStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Process-wide latency histograms of {@link FrameworkTimingKeys}, aggregated across all requests.
+ *
+ * Once enabled, every completed framework timing recorded through {@link TimingContextUtil} is added to a lock-free,
+ * log-linear histogram of its key, which gives a breakdown of framework overhead without logging individual
+ * requests. Each power of two is split into {@value #SUB_BUCKET_COUNT} buckets, so reported percentiles are within
+ * 12.5% of the recorded values. Aggregation is disabled by default.
+ */
+public final class FrameworkTimingStats
+{
+  private static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  private static final FrameworkTimingKeys[] FRAMEWORK_TIMING_KEYS = FrameworkTimingKeys.values();
+  private static final Histogram[] HISTOGRAMS = new Histogram[FRAMEWORK_TIMING_KEYS.length];
+
+  static
+  {
+    for (int i = 0; i < HISTOGRAMS.length; i++)
+    {
+      HISTOGRAMS[i] = new Histogram();
+    }
+  }
+
+  private static volatile boolean _enabled = false;
+
+  private FrameworkTimingStats()
+  {
+  }
+
+  /**
+   * Enables or disables aggregation. Durations recorded while disabled are not tracked.
+   */
+  public static void setEnabled(boolean enabled)
+  {
+    _enabled = enabled;
+  }
+
+  public static boolean isEnabled()
+  {
+    return _enabled;
+  }
+
+  /**
+   * Returns the aggregated latency stats of a framework timing key, in nanoseconds.
+   */
+  public static LongStats getStats(FrameworkTimingKeys frameworkTimingKey)
+  {
+    return HISTOGRAMS[frameworkTimingKey.ordinal()].getStats();
+  }
+
+  /**
+   * Returns the aggregated latency stats, in nanoseconds, of every framework timing key recorded at least once.
+   */
+  public static Map<TimingKey, LongStats> getAllStats()
+  {
+    final Map<TimingKey, LongStats> allStats = new LinkedHashMap<>();
+    for (FrameworkTimingKeys frameworkTimingKey : FRAMEWORK_TIMING_KEYS)
+    {
+      final LongStats stats = getStats(frameworkTimingKey);
+      if (stats.getCount() > 0)
+      {
+        allStats.put(frameworkTimingKey.key(), stats);
+      }
+    }
+    return allStats;
+  }
+
+  /**
+   * Clears all aggregated histograms.
+   */
+  public static void reset()
+  {
+    for (Histogram histogram : HISTOGRAMS)
+    {
+      histogram.reset();
+    }
+  }
+
+  static void record(int frameworkIndex, long durationNano)
+  {
+    if (_enabled && durationNano >= 0)
+    {
+      HISTOGRAMS[frameworkIndex].record(durationNano);
+    }
+  }
+
+  static int bucketIndex(long value)
+  {
+    if (value < SUB_BUCKET_COUNT)
+    {
+      return (int) value;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+  }
+
+  static long bucketLowerBound(int index)
+  {
+    if (index < SUB_BUCKET_COUNT)
+    {
+      return index;
+    }
+    final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    return ((long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1)))) << shift;
+  }
+
+  static long bucketUpperBound(int index)
+  {
+    if (index < SUB_BUCKET_COUNT)
+    {
+      return index;
+    }
+    final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    return bucketLowerBound(index) + (1L << shift) - 1;
+  }
+
+  /**
+   * Lock-free log-linear histogram. Snapshots taken while values are being recorded may be slightly inconsistent.
+   */
+  private static final class Histogram
+  {
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong _sum = new AtomicLong();
+    private final AtomicLong _min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong _max = new AtomicLong(Long.MIN_VALUE);
+
+    void record(long value)
+    {
+      _buckets.incrementAndGet(bucketIndex(value));
+      _sum.addAndGet(value);
+
+      long min = _min.get();
+      while (value < min && !_min.compareAndSet(min, value))
+      {
+        min = _min.get();
+      }
+      long max = _max.get();
+      while (value > max && !_max.compareAndSet(max, value))
+      {
+        max = _max.get();
+      }
+    }
+
+    void reset()
+    {
+      for (int i = 0; i < BUCKET_COUNT; i++)
+      {
+        _buckets.set(i, 0);
+      }
+      _sum.set(0);
+      _min.set(Long.MAX_VALUE);
+      _max.set(Long.MIN_VALUE);
+    }
+
+    LongStats getStats()
+    {
+      final long[] counts = new long[BUCKET_COUNT];
+      long count = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++)
+      {
+        counts[i] = _buckets.get(i);
+        count += counts[i];
+      }
+      if (count == 0)
+      {
+        return new LongStats();
+      }
+
+      final long min = _min.get();
+      final long max = _max.get();
+      final double average = (double) _sum.get() / count;
+
+      double squaredDeviations = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++)
+      {
+        if (counts[i] > 0)
+        {
+          final double midpoint = (bucketLowerBound(i) + bucketUpperBound(i)) / 2.0;
+          squaredDeviations += counts[i] * (midpoint - average) * (midpoint - average);
+        }
+      }
+
+      return new LongStats((int) Math.min(count, Integer.MAX_VALUE), average, Math.sqrt(squaredDeviations / count),
+          min, max,
+          getPercentile(counts, count, 0.50, min, max),
+          getPercentile(counts, count, 0.90, min, max),
+          getPercentile(counts, count, 0.95, min, max),
+          getPercentile(counts, count, 0.99, min, max));
+    }
+
+    private static long getPercentile(long[] counts, long count, double pct, long min, long max)
+    {
+      final long rank = Math.max(1, (long) Math.ceil(pct * count));
+      long seen = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++)
+      {
+        seen += counts[i];
+        if (seen >= rank)
+        {
+          return Math.max(min, Math.min(max, bucketUpperBound(i)));
+        }
+      }
+      return max;
+    }
+  }
+}
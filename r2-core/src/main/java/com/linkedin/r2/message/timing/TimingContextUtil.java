@@ -18,7 +18,7 @@ package com.linkedin.r2.message.timing;
 
 import com.linkedin.r2.message.RequestContext;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,17 +45,31 @@ public class TimingContextUtil
    * @param context RequestContext for the request
    * @return URI for target service hint, or null if no hint is present in the RequestContext
    */
-  @SuppressWarnings("unchecked")
   public static Map<TimingKey, TimingContext> getTimingsMap(RequestContext context)
   {
-    Map<TimingKey, TimingContext> timings = (Map<TimingKey, TimingContext>)context.getLocalAttr(TIMINGS_KEY_NAME);
-    if (timings == null)
+    return getTimings(context);
+  }
+
+  /**
+   * Returns the array-backed timing records of the RequestContext, initiate one if not present. A plain map
+   * previously put under {@link #TIMINGS_KEY_NAME} is migrated into the array-backed records.
+   */
+  @SuppressWarnings("unchecked")
+  private static TimingsMap getTimings(RequestContext context)
+  {
+    final Object timings = context.getLocalAttr(TIMINGS_KEY_NAME);
+    if (timings instanceof TimingsMap)
     {
-      timings = new ConcurrentHashMap<>();
-      context.putLocalAttr(TIMINGS_KEY_NAME, timings);
+      return (TimingsMap) timings;
     }
 
-    return timings;
+    final TimingsMap timingsMap = new TimingsMap();
+    if (timings instanceof Map)
+    {
+      timingsMap.putAll((Map<TimingKey, TimingContext>) timings);
+    }
+    context.putLocalAttr(TIMINGS_KEY_NAME, timingsMap);
+    return timingsMap;
   }
 
   /**
@@ -75,16 +89,16 @@ public class TimingContextUtil
       return;
     }
 
-    Map<TimingKey, TimingContext> timings = getTimingsMap(requestContext);
-    if (timings.containsKey(timingKey))
+    TimingsMap timings = getTimings(requestContext);
+    if (timings.contains(timingKey))
     {
-      timings.get(timingKey).complete();
+      timings.complete(timingKey);
     }
     else
     {
       if (checkTimingImportanceThreshold(requestContext, timingKey))
       {
-        timings.put(timingKey, new TimingContext(timingKey));
+        timings.begin(timingKey);
       }
     }
   }
@@ -104,8 +118,8 @@ public class TimingContextUtil
       return;
     }
 
-    Map<TimingKey, TimingContext> timings = getTimingsMap(requestContext);
-    if (timings.containsKey(timingKey))
+    TimingsMap timings = getTimings(requestContext);
+    if (timings.contains(timingKey))
     {
       logWarning("Could not mark timing for a key that already exists: " + timingKey);
     }
@@ -113,7 +127,7 @@ public class TimingContextUtil
     {
       if (checkTimingImportanceThreshold(requestContext, timingKey))
       {
-        timings.put(timingKey, new TimingContext(timingKey, durationNano));
+        timings.record(timingKey, durationNano);
       }
     }
   }
@@ -133,14 +147,14 @@ public class TimingContextUtil
 
     if (checkTimingImportanceThreshold(requestContext, timingKey))
     {
-      Map<TimingKey, TimingContext> timings = getTimingsMap(requestContext);
-      if (timings.containsKey(timingKey))
+      TimingsMap timings = getTimings(requestContext);
+      if (timings.contains(timingKey))
       {
         logWarning("Cannot begin timing, timing has already begun for key: " + timingKey);
       }
       else
       {
-        timings.put(timingKey, new TimingContext(timingKey));
+        timings.begin(timingKey);
       }
     }
   }
@@ -158,10 +172,10 @@ public class TimingContextUtil
       return;
     }
 
-    Map<TimingKey, TimingContext> timings = getTimingsMap(requestContext);
-    if (timings.containsKey(timingKey))
+    TimingsMap timings = getTimings(requestContext);
+    if (timings.contains(timingKey))
     {
-      timings.get(timingKey).complete();
+      timings.complete(timingKey);
     }
     else if (checkTimingImportanceThreshold(requestContext, timingKey))
     {
@@ -216,11 +230,15 @@ public class TimingContextUtil
    */
   public static class TimingContext
   {
+    private static final AtomicLongFieldUpdater<TimingContext> DURATION_UPDATER =
+        AtomicLongFieldUpdater.newUpdater(TimingContext.class, "_durationNano");
+
     private final TimingKey _timingKey;
 
     private final long _startTimeNano;
 
-    private transient long _durationNano;
+    // Timings are usually completed on another thread than the one which began them
+    private transient volatile long _durationNano;
 
     public TimingContext(TimingKey timingKey)
     {
@@ -230,9 +248,14 @@ public class TimingContextUtil
     }
 
     public TimingContext(TimingKey timingKey, long durationNano)
+    {
+      this(timingKey, -1, durationNano);
+    }
+
+    TimingContext(TimingKey timingKey, long startTimeNano, long durationNano)
     {
       _timingKey = timingKey;
-      _startTimeNano = -1;
+      _startTimeNano = startTimeNano;
       _durationNano = durationNano;
     }
 
@@ -255,14 +278,20 @@ public class TimingContextUtil
      */
     public void complete()
     {
-      if (isComplete())
+      if (!tryComplete())
       {
         LOG.debug("Trying to complete an already completed timing with key " + _timingKey.getName() + ". This call will have no effect.");
       }
-      else
-      {
-        _durationNano = System.nanoTime() - _startTimeNano;
-      }
+    }
+
+    /**
+     * Completes this record unless it is already complete, atomically, so that only one of several concurrent calls
+     * succeeds.
+     * @return true if this call completed the record
+     */
+    boolean tryComplete()
+    {
+      return DURATION_UPDATER.compareAndSet(this, -1, System.nanoTime() - getStartTimeNano());
     }
 
     /**
@@ -46,6 +46,7 @@ public class TimingKey
   private final String _name;
   private final String _type;
   private final TimingImportance _timingImportance;
+  private final int _frameworkIndex;
 
   /**
    * @param name Name of the key
@@ -53,10 +54,22 @@ public class TimingKey
    * @param timingImportance {@link TimingImportance} of the key
    */
   private TimingKey(String name, String type, TimingImportance timingImportance)
+  {
+    this(name, type, timingImportance, -1);
+  }
+
+  /**
+   * @param name Name of the key
+   * @param type String that defines the type of the key
+   * @param timingImportance {@link TimingImportance} of the key
+   * @param frameworkIndex ordinal of the {@link FrameworkTimingKeys} defining this key, or -1 for custom keys
+   */
+  private TimingKey(String name, String type, TimingImportance timingImportance, int frameworkIndex)
   {
     _name = name;
     _type = type;
     _timingImportance = timingImportance;
+    _frameworkIndex = frameworkIndex;
   }
 
   public String getName()
@@ -80,6 +93,15 @@ public class TimingKey
     return _timingImportance;
   }
 
+  /**
+   * Returns the slot of this key in array-backed timing records.
+   * @return ordinal of the {@link FrameworkTimingKeys} defining this key, or -1 if this is a custom key
+   */
+  int getFrameworkIndex()
+  {
+    return _frameworkIndex;
+  }
+
   private static TimingKey registerNewKey(TimingKey timingKey)
   {
     if (_pool.putIfAbsent(timingKey.getName(), timingKey) != null)
@@ -141,6 +163,20 @@ public class TimingKey
     return registerNewKey(new TimingKey(uniqueName, type, timingImportance));
   }
 
+  /**
+   * Register a new timing key backing one of the {@link FrameworkTimingKeys}.
+   *
+   * @param uniqueNameAndType Name of the key
+   * @param timingImportance {@link TimingImportance} of the key
+   * @param frameworkIndex ordinal of the {@link FrameworkTimingKeys} constant defining this key
+   * @return A new timing key
+   */
+  static TimingKey registerNewFrameworkKey(String uniqueNameAndType, TimingImportance timingImportance,
+      int frameworkIndex)
+  {
+    return registerNewKey(new TimingKey(uniqueNameAndType, uniqueNameAndType, timingImportance, frameworkIndex));
+  }
+
   /**
    * Unregister a TimingKey to reclaim the memory
    *
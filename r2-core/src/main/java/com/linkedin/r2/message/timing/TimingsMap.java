@@ -0,0 +1,458 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.message.timing;
+
+import com.linkedin.r2.message.timing.TimingContextUtil.TimingContext;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Timing records of a single request, stored in the {@link com.linkedin.r2.message.RequestContext} by
+ * {@link TimingContextUtil}.
+ *
+ * Records for {@link FrameworkTimingKeys} live in pre-sized arrays of start times and durations indexed by the key's
+ * ordinal, so beginning and completing them neither hashes nor allocates. A {@link TimingContext} reading the slot
+ * is created the first time the {@link Map} view is asked for it, and contexts given to {@link #put} are stored as
+ * they are. Custom {@link TimingKey}s fall back to a lazily created concurrent map of {@link TimingContext}s.
+ */
+final class TimingsMap extends AbstractMap<TimingKey, TimingContext>
+{
+  private static final Logger LOG = LoggerFactory.getLogger(TimingsMap.class);
+
+  private static final int FRAMEWORK_KEY_COUNT = FrameworkTimingKeys.values().length;
+  private static final TimingKey[] FRAMEWORK_KEYS = new TimingKey[FRAMEWORK_KEY_COUNT];
+
+  // Durations of the framework slots that are not durations of a record
+  private static final long ABSENT = Long.MIN_VALUE;
+  private static final long STORED_CONTEXT = Long.MIN_VALUE + 1;
+  private static final long INCOMPLETE = -1;
+
+  static
+  {
+    for (FrameworkTimingKeys frameworkTimingKey : FrameworkTimingKeys.values())
+    {
+      FRAMEWORK_KEYS[frameworkTimingKey.ordinal()] = frameworkTimingKey.key();
+    }
+  }
+
+  // Timings are usually begun and completed on different threads. A start time is written before the duration which
+  // publishes it, and a duration is only completed by the thread whose compare-and-set succeeds.
+  private final AtomicLongArray _frameworkStartTimes = new AtomicLongArray(FRAMEWORK_KEY_COUNT);
+  private final AtomicLongArray _frameworkDurations = new AtomicLongArray(FRAMEWORK_KEY_COUNT);
+  // Either a context given to put, when the duration is STORED_CONTEXT, or the view of the slot
+  private final AtomicReferenceArray<TimingContext> _frameworkContexts =
+      new AtomicReferenceArray<>(FRAMEWORK_KEY_COUNT);
+
+  private volatile Map<TimingKey, TimingContext> _customTimings;
+
+  TimingsMap()
+  {
+    for (int i = 0; i < FRAMEWORK_KEY_COUNT; i++)
+    {
+      _frameworkDurations.lazySet(i, ABSENT);
+    }
+  }
+
+  /**
+   * @return true if a record exists for the given key
+   */
+  boolean contains(TimingKey timingKey)
+  {
+    final int index = timingKey.getFrameworkIndex();
+    if (index >= 0)
+    {
+      return _frameworkDurations.get(index) != ABSENT;
+    }
+
+    final Map<TimingKey, TimingContext> customTimings = _customTimings;
+    return customTimings != null && customTimings.containsKey(timingKey);
+  }
+
+  /**
+   * Starts a new record for the given key using the current time. Any existing record is overwritten.
+   */
+  void begin(TimingKey timingKey)
+  {
+    final int index = timingKey.getFrameworkIndex();
+    if (index >= 0)
+    {
+      _frameworkStartTimes.set(index, System.nanoTime());
+      _frameworkDurations.set(index, INCOMPLETE);
+    }
+    else
+    {
+      getOrCreateCustomTimings().put(timingKey, new TimingContext(timingKey));
+    }
+  }
+
+  /**
+   * Adds a completed record with a known duration for the given key. Any existing record is overwritten.
+   */
+  void record(TimingKey timingKey, long durationNano)
+  {
+    final int index = timingKey.getFrameworkIndex();
+    if (index >= 0)
+    {
+      _frameworkStartTimes.set(index, -1);
+      _frameworkDurations.set(index, durationNano);
+      FrameworkTimingStats.record(index, durationNano);
+    }
+    else
+    {
+      getOrCreateCustomTimings().put(timingKey, new TimingContext(timingKey, durationNano));
+    }
+  }
+
+  /**
+   * Completes the record of the given key, which must already exist.
+   */
+  void complete(TimingKey timingKey)
+  {
+    final int index = timingKey.getFrameworkIndex();
+    if (index < 0)
+    {
+      _customTimings.get(timingKey).complete();
+    }
+    else if (!tryComplete(index))
+    {
+      LOG.debug("Trying to complete an already completed timing with key " + timingKey.getName()
+          + ". This call will have no effect.");
+    }
+  }
+
+  /**
+   * Completes the framework record at the given index unless it is already complete.
+   * @return true if this call completed the record
+   */
+  private boolean tryComplete(int index)
+  {
+    final long durationNano = _frameworkDurations.get(index);
+    if (durationNano == STORED_CONTEXT)
+    {
+      final TimingContext timingContext = _frameworkContexts.get(index);
+      if (timingContext.tryComplete())
+      {
+        FrameworkTimingStats.record(index, timingContext.getDurationNano());
+        return true;
+      }
+      return false;
+    }
+
+    if (durationNano != INCOMPLETE)
+    {
+      return false;
+    }
+    final long completedDurationNano = System.nanoTime() - _frameworkStartTimes.get(index);
+    if (_frameworkDurations.compareAndSet(index, INCOMPLETE, completedDurationNano))
+    {
+      FrameworkTimingStats.record(index, completedDurationNano);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the context of the framework record at the given index, or null if there is none
+   */
+  private TimingContext getFramework(int index)
+  {
+    if (_frameworkDurations.get(index) == ABSENT)
+    {
+      return null;
+    }
+
+    final TimingContext timingContext = _frameworkContexts.get(index);
+    if (_frameworkDurations.get(index) == STORED_CONTEXT || timingContext instanceof FrameworkTimingContext)
+    {
+      return timingContext;
+    }
+    final TimingContext view = new FrameworkTimingContext(index);
+    return _frameworkContexts.compareAndSet(index, timingContext, view) ? view : _frameworkContexts.get(index);
+  }
+
+  /**
+   * Clears the framework record at the given index.
+   * @return a context holding the record that was cleared, or null if there was none
+   */
+  private TimingContext removeFramework(int index)
+  {
+    final long startTimeNano = _frameworkStartTimes.get(index);
+    final long durationNano = _frameworkDurations.getAndSet(index, ABSENT);
+    if (durationNano == ABSENT)
+    {
+      return null;
+    }
+    if (durationNano == STORED_CONTEXT)
+    {
+      return _frameworkContexts.getAndSet(index, null);
+    }
+    return new TimingContext(FRAMEWORK_KEYS[index], startTimeNano, durationNano);
+  }
+
+  private Map<TimingKey, TimingContext> getOrCreateCustomTimings()
+  {
+    Map<TimingKey, TimingContext> customTimings = _customTimings;
+    if (customTimings == null)
+    {
+      synchronized (this)
+      {
+        customTimings = _customTimings;
+        if (customTimings == null)
+        {
+          customTimings = new ConcurrentHashMap<>();
+          _customTimings = customTimings;
+        }
+      }
+    }
+    return customTimings;
+  }
+
+  @Override
+  public boolean containsKey(Object key)
+  {
+    return key instanceof TimingKey && contains((TimingKey) key);
+  }
+
+  @Override
+  public TimingContext get(Object key)
+  {
+    if (!(key instanceof TimingKey))
+    {
+      return null;
+    }
+
+    final TimingKey timingKey = (TimingKey) key;
+    final int index = timingKey.getFrameworkIndex();
+    if (index >= 0)
+    {
+      return getFramework(index);
+    }
+
+    final Map<TimingKey, TimingContext> customTimings = _customTimings;
+    return customTimings == null ? null : customTimings.get(timingKey);
+  }
+
+  @Override
+  public TimingContext put(TimingKey key, TimingContext value)
+  {
+    final int index = key.getFrameworkIndex();
+    if (index >= 0)
+    {
+      final TimingContext previous = removeFramework(index);
+      _frameworkContexts.set(index, value);
+      _frameworkDurations.set(index, STORED_CONTEXT);
+      return previous;
+    }
+
+    return getOrCreateCustomTimings().put(key, value);
+  }
+
+  @Override
+  public TimingContext remove(Object key)
+  {
+    if (!(key instanceof TimingKey))
+    {
+      return null;
+    }
+
+    final TimingKey timingKey = (TimingKey) key;
+    final int index = timingKey.getFrameworkIndex();
+    if (index >= 0)
+    {
+      return removeFramework(index);
+    }
+
+    final Map<TimingKey, TimingContext> customTimings = _customTimings;
+    return customTimings == null ? null : customTimings.remove(timingKey);
+  }
+
+  @Override
+  public void clear()
+  {
+    for (int i = 0; i < FRAMEWORK_KEY_COUNT; i++)
+    {
+      removeFramework(i);
+    }
+
+    final Map<TimingKey, TimingContext> customTimings = _customTimings;
+    if (customTimings != null)
+    {
+      customTimings.clear();
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    int size = 0;
+    for (int i = 0; i < FRAMEWORK_KEY_COUNT; i++)
+    {
+      if (_frameworkDurations.get(i) != ABSENT)
+      {
+        size++;
+      }
+    }
+
+    final Map<TimingKey, TimingContext> customTimings = _customTimings;
+    return customTimings == null ? size : size + customTimings.size();
+  }
+
+  @Override
+  public Set<Entry<TimingKey, TimingContext>> entrySet()
+  {
+    return new AbstractSet<Entry<TimingKey, TimingContext>>()
+    {
+      @Override
+      public Iterator<Entry<TimingKey, TimingContext>> iterator()
+      {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size()
+      {
+        return TimingsMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * A {@link TimingContext} reading and completing a framework slot, so that it sees the record currently in the
+   * slot.
+   */
+  private final class FrameworkTimingContext extends TimingContext
+  {
+    private final int _index;
+
+    FrameworkTimingContext(int index)
+    {
+      super(FRAMEWORK_KEYS[index], -1, INCOMPLETE);
+      _index = index;
+    }
+
+    @Override
+    public long getDurationNano()
+    {
+      final long durationNano = _frameworkDurations.get(_index);
+      return durationNano == ABSENT || durationNano == STORED_CONTEXT ? INCOMPLETE : durationNano;
+    }
+
+    @Override
+    public void complete()
+    {
+      TimingsMap.this.complete(getName());
+    }
+
+    @Override
+    boolean tryComplete()
+    {
+      return TimingsMap.this.tryComplete(_index);
+    }
+
+    @Override
+    public boolean isComplete()
+    {
+      return getDurationNano() != INCOMPLETE;
+    }
+
+    @Override
+    long getStartTimeNano()
+    {
+      return _frameworkStartTimes.get(_index);
+    }
+  }
+
+  /**
+   * Iterates over present framework slots first, then over custom timings. The next entry is found ahead of
+   * {@link #next()}, so records removed concurrently are skipped rather than failing the iteration.
+   */
+  private class EntryIterator implements Iterator<Entry<TimingKey, TimingContext>>
+  {
+    private int _nextIndex = 0;
+    private Iterator<Entry<TimingKey, TimingContext>> _customIterator;
+    private Entry<TimingKey, TimingContext> _next;
+    private Entry<TimingKey, TimingContext> _last;
+
+    private Entry<TimingKey, TimingContext> findNext()
+    {
+      while (_nextIndex < FRAMEWORK_KEY_COUNT)
+      {
+        final TimingContext timingContext = getFramework(_nextIndex++);
+        if (timingContext != null)
+        {
+          return new SimpleImmutableEntry<>(FRAMEWORK_KEYS[_nextIndex - 1], timingContext);
+        }
+      }
+
+      if (_customIterator == null)
+      {
+        final Map<TimingKey, TimingContext> customTimings = _customTimings;
+        if (customTimings == null)
+        {
+          return null;
+        }
+        _customIterator = customTimings.entrySet().iterator();
+      }
+      // Iterators of ConcurrentHashMap hold on to the entry they found, so next() succeeds once hasNext() did
+      return _customIterator.hasNext() ? _customIterator.next() : null;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      if (_next == null)
+      {
+        _next = findNext();
+      }
+      return _next != null;
+    }
+
+    @Override
+    public Entry<TimingKey, TimingContext> next()
+    {
+      if (!hasNext())
+      {
+        throw new NoSuchElementException();
+      }
+      _last = _next;
+      _next = null;
+      return _last;
+    }
+
+    @Override
+    public void remove()
+    {
+      if (_last == null)
+      {
+        throw new IllegalStateException();
+      }
+      // The custom iterator may already be past the last entry returned, so it is removed by key
+      TimingsMap.this.remove(_last.getKey());
+      _last = null;
+    }
+  }
+}
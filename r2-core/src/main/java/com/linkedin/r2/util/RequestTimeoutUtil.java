@@ -17,6 +17,10 @@
 
 package com.linkedin.r2.util;
 
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.util.clock.Clock;
+
 /**
  * Util class for handling request timeout
  *
@@ -32,4 +36,24 @@ public class RequestTimeoutUtil
   {
     return (long) (timeout * preemptiveRate);
   }
+
+  /**
+   * @return the deadline of the request, in milliseconds since the epoch, or null if the request has no deadline.
+   * @see R2Constants#REQUEST_DEADLINE
+   */
+  public static Long getDeadline(RequestContext requestContext)
+  {
+    final Object deadline = requestContext.getLocalAttr(R2Constants.REQUEST_DEADLINE);
+    return deadline instanceof Number ? ((Number) deadline).longValue() : null;
+  }
+
+  /**
+   * @return the time left before the deadline of the request in milliseconds, which is negative once the deadline has
+   *         passed, or null if the request has no deadline.
+   */
+  public static Long getRemainingTimeMs(RequestContext requestContext, Clock clock)
+  {
+    final Long deadline = getDeadline(requestContext);
+    return deadline == null ? null : deadline - clock.currentTimeMillis();
+  }
 }
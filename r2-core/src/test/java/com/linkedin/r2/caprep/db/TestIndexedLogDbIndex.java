@@ -0,0 +1,116 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.caprep.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link IndexedLogDbUtil.Index}.
+ */
+public class TestIndexedLogDbIndex
+{
+  private static final long HASH = 42L;
+
+  @Test
+  public void testCollidingHashesAreChained() throws IOException
+  {
+    final IndexedLogDbUtil.Index index = new IndexedLogDbUtil.Index();
+    final long first = IndexedLogDbUtil.location(0, 8);
+    final long second = IndexedLogDbUtil.location(0, 100);
+    final long third = IndexedLogDbUtil.location(1, 8);
+    // Three different requests with the same hash
+    index.put(HASH, first, location -> false);
+    index.put(HASH, second, location -> false);
+    index.put(HASH, third, location -> false);
+    Assert.assertEquals(index.size(), 3);
+
+    // Records of another request with the same hash stay reachable
+    Assert.assertEquals(index.get(HASH, location -> location == first), first);
+    Assert.assertEquals(index.get(HASH, location -> location == third), third);
+    Assert.assertEquals(index.get(HASH, location -> false), 0L);
+    Assert.assertEquals(index.get(HASH + 1, location -> true), 0L);
+
+    final File file = Files.createTempFile("caplog", ".idx").toFile();
+    try
+    {
+      final long[] segmentLengths = {200, 100};
+      index.write(file, segmentLengths);
+      final IndexedLogDbUtil.Index read = IndexedLogDbUtil.Index.read(file, segmentLengths);
+      Assert.assertEquals(read.get(HASH, location -> location == second), second);
+    }
+    finally
+    {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testDuplicatesReplaceTheirSlot()
+  {
+    final IndexedLogDbUtil.Index index = new IndexedLogDbUtil.Index();
+    final long other = IndexedLogDbUtil.location(0, 8);
+    index.put(HASH, other, location -> false);
+
+    // Many captures of the same request, whose records are told apart from the other request by their location
+    final AtomicInteger comparisons = new AtomicInteger();
+    long latest = 0;
+    for (int offset = 16; offset < 16 + 100000; offset++)
+    {
+      latest = IndexedLogDbUtil.location(0, offset);
+      index.put(HASH, latest, location ->
+      {
+        comparisons.incrementAndGet();
+        return location != other;
+      });
+    }
+    Assert.assertEquals(index.size(), 2);
+    // Each capture is compared to the other request and to the previous capture at most
+    Assert.assertTrue(comparisons.get() < 2 * 100000, String.valueOf(comparisons.get()));
+
+    comparisons.set(0);
+    final long found = index.get(HASH, location ->
+    {
+      comparisons.incrementAndGet();
+      return location != other;
+    });
+    Assert.assertEquals(found, latest);
+    Assert.assertTrue(comparisons.get() <= 2);
+    Assert.assertEquals(index.get(HASH, location -> location == other), other);
+  }
+
+  @Test
+  public void testResizeKeepsCollidingHashes()
+  {
+    final IndexedLogDbUtil.Index index = new IndexedLogDbUtil.Index();
+    for (int offset = 8; offset < 8 + 5000; offset++)
+    {
+      // Requests with the same hash are all different
+      index.put(offset % 2 == 0 ? HASH : offset, IndexedLogDbUtil.location(0, offset), location -> false);
+    }
+    Assert.assertEquals(index.size(), 5000);
+    Assert.assertEquals(index.get(HASH, location -> IndexedLogDbUtil.offsetOf(location) == 8),
+        IndexedLogDbUtil.location(0, 8));
+    Assert.assertEquals(index.get(HASH, location -> IndexedLogDbUtil.offsetOf(location) == 8 + 4998),
+        IndexedLogDbUtil.location(0, 8 + 4998));
+  }
+}
@@ -0,0 +1,250 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.message.timing;
+
+import com.linkedin.common.stats.LongStats;
+import com.linkedin.r2.message.RequestContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the array-backed timing records managed by {@link TimingContextUtil}.
+ */
+public class TestTimingsMap
+{
+  private static final TimingKey CUSTOM_KEY = TimingKey.registerNewKey("test/timingsMap/custom", TimingImportance.LOW);
+
+  @Test
+  public void testFrameworkAndCustomKeys()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final TimingKey frameworkKey = FrameworkTimingKeys.SERVER_REQUEST.key();
+
+    TimingContextUtil.beginTiming(requestContext, frameworkKey);
+    TimingContextUtil.beginTiming(requestContext, CUSTOM_KEY);
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> timings = TimingContextUtil.getTimingsMap(requestContext);
+    Assert.assertEquals(timings.size(), 2);
+    Assert.assertFalse(timings.get(frameworkKey).isComplete());
+    Assert.assertFalse(timings.get(CUSTOM_KEY).isComplete());
+    Assert.assertFalse(timings.containsKey(FrameworkTimingKeys.SERVER_RESPONSE.key()));
+
+    TimingContextUtil.endTiming(requestContext, frameworkKey);
+    TimingContextUtil.endTiming(requestContext, CUSTOM_KEY);
+
+    Assert.assertTrue(timings.get(frameworkKey).isComplete());
+    Assert.assertTrue(timings.get(frameworkKey).getDurationNano() >= 0);
+    Assert.assertEquals(timings.get(frameworkKey).getName(), frameworkKey);
+    Assert.assertTrue(timings.get(CUSTOM_KEY).isComplete());
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> copy = new HashMap<>(timings);
+    Assert.assertEquals(copy.keySet(), timings.keySet());
+  }
+
+  @Test
+  public void testFrameworkContextIsLiveView()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final TimingKey frameworkKey = FrameworkTimingKeys.CLIENT_REQUEST.key();
+
+    TimingContextUtil.markTiming(requestContext, frameworkKey);
+    final TimingContextUtil.TimingContext timingContext =
+        TimingContextUtil.getTimingsMap(requestContext).get(frameworkKey);
+    Assert.assertFalse(timingContext.isComplete());
+
+    TimingContextUtil.markTiming(requestContext, frameworkKey);
+    Assert.assertTrue(timingContext.isComplete());
+  }
+
+  @Test
+  public void testPutStoresContext()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final TimingKey frameworkKey = FrameworkTimingKeys.CLIENT_REQUEST_R2.key();
+    final TimingContextUtil.TimingContext timingContext = new TimingContextUtil.TimingContext(frameworkKey);
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> timings = TimingContextUtil.getTimingsMap(requestContext);
+    Assert.assertNull(timings.put(frameworkKey, timingContext));
+    Assert.assertSame(timings.get(frameworkKey), timingContext);
+
+    // Completing the context given is seen through the map
+    timingContext.complete();
+    Assert.assertTrue(timings.get(frameworkKey).isComplete());
+    Assert.assertSame(timings.remove(frameworkKey), timingContext);
+    Assert.assertFalse(timings.containsKey(frameworkKey));
+  }
+
+  @Test
+  public void testPutAllCopiesTimings()
+  {
+    final RequestContext source = new RequestContext();
+    final RequestContext target = new RequestContext();
+    TimingContextUtil.markTiming(source, FrameworkTimingKeys.CLIENT_RESPONSE.key(), 42L);
+    TimingContextUtil.markTiming(source, CUSTOM_KEY, 7L);
+
+    TimingContextUtil.getTimingsMap(target).putAll(TimingContextUtil.getTimingsMap(source));
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> timings = TimingContextUtil.getTimingsMap(target);
+    Assert.assertEquals(timings.get(FrameworkTimingKeys.CLIENT_RESPONSE.key()).getDurationNano(), 42L);
+    Assert.assertEquals(timings.get(CUSTOM_KEY).getDurationNano(), 7L);
+
+    Assert.assertEquals(timings.remove(FrameworkTimingKeys.CLIENT_RESPONSE.key()).getDurationNano(), 42L);
+    Assert.assertEquals(timings.size(), 1);
+  }
+
+  @Test
+  public void testPlainMapIsMigrated()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final Map<TimingKey, TimingContextUtil.TimingContext> plainMap = new ConcurrentHashMap<>();
+    plainMap.put(CUSTOM_KEY, new TimingContextUtil.TimingContext(CUSTOM_KEY, 5L));
+    requestContext.putLocalAttr(TimingContextUtil.TIMINGS_KEY_NAME, plainMap);
+
+    TimingContextUtil.markTiming(requestContext, FrameworkTimingKeys.RESOURCE.key(), 10L);
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> timings = TimingContextUtil.getTimingsMap(requestContext);
+    Assert.assertEquals(timings.size(), 2);
+    Assert.assertEquals(timings.get(CUSTOM_KEY).getDurationNano(), 5L);
+  }
+
+  @Test
+  public void testIteratorSkipsConcurrentlyRemovedRecords()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final TimingKey frameworkKey = FrameworkTimingKeys.SERVER_RESPONSE.key();
+    TimingContextUtil.beginTiming(requestContext, frameworkKey);
+    TimingContextUtil.beginTiming(requestContext, CUSTOM_KEY);
+
+    final Map<TimingKey, TimingContextUtil.TimingContext> timings = TimingContextUtil.getTimingsMap(requestContext);
+    final Iterator<Map.Entry<TimingKey, TimingContextUtil.TimingContext>> iterator = timings.entrySet().iterator();
+    Assert.assertTrue(iterator.hasNext());
+    timings.remove(frameworkKey);
+    timings.remove(CUSTOM_KEY);
+    // The entry found by hasNext() is still returned
+    Assert.assertEquals(iterator.next().getKey(), frameworkKey);
+    Assert.assertFalse(iterator.hasNext());
+
+    TimingContextUtil.beginTiming(requestContext, frameworkKey);
+    final Iterator<Map.Entry<TimingKey, TimingContextUtil.TimingContext>> emptied = timings.entrySet().iterator();
+    timings.clear();
+    Assert.assertFalse(emptied.hasNext());
+    try
+    {
+      emptied.next();
+      Assert.fail("Expected NoSuchElementException");
+    }
+    catch (NoSuchElementException e)
+    {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testConcurrentCompletionRecordsOnce() throws Exception
+  {
+    FrameworkTimingStats.reset();
+    FrameworkTimingStats.setEnabled(true);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try
+    {
+      final TimingKey frameworkKey = FrameworkTimingKeys.CLIENT_RESPONSE_R2.key();
+      for (int i = 0; i < 200; i++)
+      {
+        final RequestContext requestContext = new RequestContext();
+        TimingContextUtil.beginTiming(requestContext, frameworkKey);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int j = 0; j < 8; j++)
+        {
+          futures.add(executor.submit(() ->
+          {
+            start.await();
+            TimingContextUtil.endTiming(requestContext, frameworkKey);
+            return null;
+          }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+        {
+          future.get();
+        }
+        Assert.assertTrue(TimingContextUtil.getTimingsMap(requestContext).get(frameworkKey).isComplete());
+      }
+      Assert.assertEquals(FrameworkTimingStats.getStats(FrameworkTimingKeys.CLIENT_RESPONSE_R2).getCount(), 200);
+    }
+    finally
+    {
+      executor.shutdownNow();
+      FrameworkTimingStats.setEnabled(false);
+      FrameworkTimingStats.reset();
+    }
+  }
+
+  @Test
+  public void testAggregateStats()
+  {
+    FrameworkTimingStats.reset();
+    FrameworkTimingStats.setEnabled(true);
+    try
+    {
+      for (long duration = 1; duration <= 1000; duration++)
+      {
+        TimingContextUtil.markTiming(new RequestContext(), FrameworkTimingKeys.SERVER_RESPONSE_R2.key(), duration);
+      }
+
+      final LongStats stats = FrameworkTimingStats.getStats(FrameworkTimingKeys.SERVER_RESPONSE_R2);
+      Assert.assertEquals(stats.getCount(), 1000);
+      Assert.assertEquals(stats.getMinimum(), 1L);
+      Assert.assertEquals(stats.getMaximum(), 1000L);
+      Assert.assertEquals(stats.getAverage(), 500.5, 0.001);
+      Assert.assertTrue(Math.abs(stats.get50Pct() - 500) <= 500 / FrameworkTimingStats.SUB_BUCKET_COUNT);
+      Assert.assertTrue(Math.abs(stats.get99Pct() - 990) <= 990 / FrameworkTimingStats.SUB_BUCKET_COUNT);
+      Assert.assertTrue(FrameworkTimingStats.getAllStats().containsKey(FrameworkTimingKeys.SERVER_RESPONSE_R2.key()));
+    }
+    finally
+    {
+      FrameworkTimingStats.setEnabled(false);
+      FrameworkTimingStats.reset();
+    }
+
+    TimingContextUtil.markTiming(new RequestContext(), FrameworkTimingKeys.SERVER_RESPONSE_R2.key(), 1L);
+    Assert.assertEquals(FrameworkTimingStats.getStats(FrameworkTimingKeys.SERVER_RESPONSE_R2).getCount(), 0);
+  }
+
+  @Test
+  public void testBucketBounds()
+  {
+    for (long value : new long[]{0, 1, 7, 8, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE})
+    {
+      final int index = FrameworkTimingStats.bucketIndex(value);
+      Assert.assertTrue(FrameworkTimingStats.bucketLowerBound(index) <= value);
+      Assert.assertTrue(FrameworkTimingStats.bucketUpperBound(index) >= value);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.caprep.db;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.r2.caprep.db.DefaultMessageSerializer;
+import com.linkedin.r2.caprep.db.IndexedLogDbSink;
+import com.linkedin.r2.caprep.db.IndexedLogDbSource;
+import com.linkedin.r2.caprep.db.IndexedLogDbUtil;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link IndexedLogDbSink} and {@link IndexedLogDbSource}.
+ */
+public class TestIndexedLogDb
+{
+  private static final int RECORD_COUNT = 200;
+
+  private File _dir;
+
+  @BeforeMethod
+  public void setUp() throws IOException
+  {
+    _dir = Files.createTempDirectory("caplog").toFile();
+  }
+
+  @AfterMethod
+  public void tearDown()
+  {
+    final File[] files = _dir.listFiles();
+    if (files != null)
+    {
+      for (File file : files)
+      {
+        file.delete();
+      }
+    }
+    _dir.delete();
+  }
+
+  @Test
+  public void testCaptureAndReplay() throws IOException
+  {
+    record(IndexedLogDbSink.DEFAULT_MAX_SEGMENT_SIZE);
+    Assert.assertTrue(IndexedLogDbUtil.indexFileName(_dir).isFile());
+    assertReplay();
+  }
+
+  @Test
+  public void testSegmentRollover() throws IOException
+  {
+    record(4096);
+    Assert.assertTrue(IndexedLogDbUtil.listSegments(_dir).length > 1);
+    assertReplay();
+  }
+
+  @Test
+  public void testReplayWithoutIndex() throws IOException
+  {
+    record(4096);
+    Assert.assertTrue(IndexedLogDbUtil.indexFileName(_dir).delete());
+    assertReplay();
+  }
+
+  @Test
+  public void testLatestRecordWins() throws IOException
+  {
+    try (IndexedLogDbSink sink = new IndexedLogDbSink(_dir, new DefaultMessageSerializer(), 4096))
+    {
+      sink.record(request(1), response("first"));
+    }
+    try (IndexedLogDbSink sink = new IndexedLogDbSink(_dir, new DefaultMessageSerializer(), 4096))
+    {
+      sink.record(request(1), response("second"));
+    }
+
+    try (IndexedLogDbSource source = new IndexedLogDbSource(_dir, new DefaultMessageSerializer()))
+    {
+      Assert.assertEquals(source.replay(request(1)).getEntity().asString("UTF-8"), "second");
+      Assert.assertNull(source.replay(request(2)));
+    }
+  }
+
+  @Test
+  public void testRecapturedRequestKeepsOneIndexSlot() throws IOException
+  {
+    try (IndexedLogDbSink sink = new IndexedLogDbSink(_dir, new DefaultMessageSerializer(), 4096))
+    {
+      // Enough captures to roll over segments, so duplicates are found in the buffer, the file and mapped segments
+      for (int i = 0; i < 500; i++)
+      {
+        sink.record(request(1), response("entity" + i));
+        if (i % 3 == 0)
+        {
+          sink.flush();
+        }
+        sink.record(request(2), response("other" + i));
+      }
+    }
+    Assert.assertTrue(IndexedLogDbUtil.listSegments(_dir).length > 1);
+
+    try (IndexedLogDbSource source = new IndexedLogDbSource(_dir, new DefaultMessageSerializer()))
+    {
+      Assert.assertEquals(source.replay(request(1)).getEntity().asString("UTF-8"), "entity499");
+      Assert.assertEquals(source.replay(request(2)).getEntity().asString("UTF-8"), "other499");
+    }
+    Assert.assertTrue(IndexedLogDbUtil.indexFileName(_dir).delete());
+    try (IndexedLogDbSource source = new IndexedLogDbSource(_dir, new DefaultMessageSerializer()))
+    {
+      Assert.assertEquals(source.replay(request(1)).getEntity().asString("UTF-8"), "entity499");
+    }
+  }
+
+  @Test
+  public void testRequestsInCaptureOrder() throws IOException
+  {
+    record(4096);
+    try (IndexedLogDbSource source = new IndexedLogDbSource(_dir, new DefaultMessageSerializer()))
+    {
+      final Iterator<RestRequest> requests = source.requests();
+      for (int i = 0; i < RECORD_COUNT; i++)
+      {
+        Assert.assertTrue(requests.hasNext());
+        Assert.assertEquals(requests.next().getURI(), request(i).getURI());
+      }
+      Assert.assertFalse(requests.hasNext());
+    }
+  }
+
+  private void record(int maxSegmentSize) throws IOException
+  {
+    try (IndexedLogDbSink sink = new IndexedLogDbSink(_dir, new DefaultMessageSerializer(), maxSegmentSize))
+    {
+      for (int i = 0; i < RECORD_COUNT; i++)
+      {
+        sink.record(request(i), response("entity" + i));
+      }
+    }
+  }
+
+  private void assertReplay() throws IOException
+  {
+    try (IndexedLogDbSource source = new IndexedLogDbSource(_dir, new DefaultMessageSerializer()))
+    {
+      for (int i = 0; i < RECORD_COUNT; i++)
+      {
+        final RestResponse res = source.replay(request(i));
+        Assert.assertNotNull(res, "Missing response for request " + i);
+        Assert.assertEquals(res.getEntity().asString("UTF-8"), "entity" + i);
+        Assert.assertEquals(res.getHeader("X-Index"), String.valueOf(i).length() + "");
+      }
+      Assert.assertNull(source.replay(request(RECORD_COUNT)));
+    }
+  }
+
+  private static RestRequest request(int i)
+  {
+    return new RestRequestBuilder(URI.create("http://localhost:1234/foo/" + i))
+        .setHeader("field-name", "field-val")
+        .setEntity(ByteString.copyString("body" + i, "UTF-8"))
+        .build();
+  }
+
+  private static RestResponse response(String entity)
+  {
+    return new RestResponseBuilder()
+        .setHeader("X-Index", String.valueOf(entity.replaceAll("\\D", "").length()))
+        .setEntity(ByteString.copyString(entity, "UTF-8"))
+        .build();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.filter;
+
+import com.linkedin.r2.filter.FilterChain;
+import com.linkedin.r2.filter.FilterChains;
+import com.linkedin.r2.filter.NextFilter;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.filter.message.rest.RestFilter;
+import com.linkedin.r2.filter.transport.ClientDeadlineFilter;
+import com.linkedin.r2.filter.transport.ServerDeadlineFilter;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.testutils.filter.FilterUtil;
+import com.linkedin.r2.util.RequestTimeoutUtil;
+import com.linkedin.util.clock.SettableClock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestDeadlineFilters
+{
+  @Test
+  public void testClientPropagatesTimeout()
+  {
+    final SettableClock clock = new SettableClock(1000L);
+    final RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr(R2Constants.REQUEST_TIMEOUT, 500);
+
+    final CaptureFilter capture = fire(new ClientDeadlineFilter(10000L, clock), requestContext);
+    Assert.assertEquals(capture._wireAttrs.get(R2Constants.DEADLINE_ATTRIBUTE_KEY), "500");
+
+    // The timeout the caller expects takes precedence
+    requestContext.putLocalAttr(R2Constants.CLIENT_REQUEST_TIMEOUT_VIEW, 300);
+    Assert.assertEquals(fire(new ClientDeadlineFilter(10000L, clock), requestContext)._wireAttrs
+        .get(R2Constants.DEADLINE_ATTRIBUTE_KEY), "300");
+  }
+
+  @Test
+  public void testClientDefaultTimeout()
+  {
+    final SettableClock clock = new SettableClock(1000L);
+    Assert.assertEquals(fire(new ClientDeadlineFilter(10000L, clock), new RequestContext())._wireAttrs
+        .get(R2Constants.DEADLINE_ATTRIBUTE_KEY), "10000");
+    Assert.assertFalse(fire(new ClientDeadlineFilter(0, clock), new RequestContext())._wireAttrs
+        .containsKey(R2Constants.DEADLINE_ATTRIBUTE_KEY));
+  }
+
+  @Test
+  public void testClientCapsBudgetWithDeadline()
+  {
+    final SettableClock clock = new SettableClock(1000L);
+    final RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr(R2Constants.REQUEST_DEADLINE, 1200L);
+    Assert.assertEquals(fire(new ClientDeadlineFilter(10000L, clock), requestContext)._wireAttrs
+        .get(R2Constants.DEADLINE_ATTRIBUTE_KEY), "200");
+
+    clock.addDuration(300L);
+    final CaptureFilter expired = fire(new ClientDeadlineFilter(10000L, clock), requestContext);
+    Assert.assertNull(expired._wireAttrs);
+    Assert.assertTrue(expired._error instanceof TimeoutException);
+  }
+
+  @Test
+  public void testServerSetsDeadline()
+  {
+    final SettableClock clock = new SettableClock(1000L);
+    final RequestContext requestContext = new RequestContext();
+    final Map<String, String> wireAttrs = new HashMap<>();
+    wireAttrs.put(R2Constants.DEADLINE_ATTRIBUTE_KEY, "250");
+    FilterUtil.fireRestRequest(FilterChains.createRestChain(new ServerDeadlineFilter(clock)),
+        FilterUtil.simpleRestRequest(), requestContext, wireAttrs);
+    Assert.assertEquals(RequestTimeoutUtil.getDeadline(requestContext), Long.valueOf(1250L));
+
+    clock.addDuration(300L);
+    Assert.assertEquals(RequestTimeoutUtil.getRemainingTimeMs(requestContext, clock), Long.valueOf(-50L));
+  }
+
+  @Test
+  public void testServerIgnoresInvalidBudget()
+  {
+    final RequestContext requestContext = new RequestContext();
+    final Map<String, String> wireAttrs = new HashMap<>();
+    wireAttrs.put(R2Constants.DEADLINE_ATTRIBUTE_KEY, "soon");
+    FilterUtil.fireRestRequest(FilterChains.createRestChain(new ServerDeadlineFilter(new SettableClock())),
+        FilterUtil.simpleRestRequest(), requestContext, wireAttrs);
+    Assert.assertNull(RequestTimeoutUtil.getDeadline(requestContext));
+  }
+
+  private static CaptureFilter fire(ClientDeadlineFilter filter, RequestContext requestContext)
+  {
+    final CaptureFilter capture = new CaptureFilter();
+    final FilterChain filterChain = FilterChains.createRestChain(capture, filter, capture);
+    FilterUtil.fireRestRequest(filterChain, FilterUtil.simpleRestRequest(), requestContext, new HashMap<>());
+    return capture;
+  }
+
+  private static class CaptureFilter implements RestFilter
+  {
+    private Map<String, String> _wireAttrs;
+    private Throwable _error;
+    private boolean _passed;
+
+    @Override
+    public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      // The same filter is first and last in the chain
+      if (_passed)
+      {
+        _wireAttrs = wireAttrs;
+        return;
+      }
+      _passed = true;
+      nextFilter.onRequest(req, requestContext, wireAttrs);
+    }
+
+    @Override
+    public void onRestError(Throwable ex, RequestContext requestContext, Map<String, String> wireAttrs,
+        NextFilter<RestRequest, RestResponse> nextFilter)
+    {
+      _error = ex;
+    }
+  }
+}
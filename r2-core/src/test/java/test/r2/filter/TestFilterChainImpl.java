@@ -34,6 +34,7 @@ import com.linkedin.r2.testutils.filter.RestCountFilter;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -327,6 +328,88 @@ public class TestFilterChainImpl
     Assert.assertEquals(filter2.getOrder(), 5);
   }
 
+  @Test
+  public void testRestChainSkipsUnimplementedPhases()
+  {
+    final List<String> calls = new ArrayList<>();
+    final RestFilter requestOnly = new RestFilter()
+    {
+      @Override
+      public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+          NextFilter<RestRequest, RestResponse> nextFilter)
+      {
+        calls.add("requestOnly.onRequest");
+        nextFilter.onRequest(req, requestContext, wireAttrs);
+      }
+    };
+    final RestFilter responseOnly = new RestFilter()
+    {
+      @Override
+      public void onRestResponse(RestResponse res, RequestContext requestContext, Map<String, String> wireAttrs,
+          NextFilter<RestRequest, RestResponse> nextFilter)
+      {
+        calls.add("responseOnly.onResponse");
+        nextFilter.onResponse(res, requestContext, wireAttrs);
+      }
+    };
+    final RestFilter respondingFilter = new RestFilter()
+    {
+      @Override
+      public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+          NextFilter<RestRequest, RestResponse> nextFilter)
+      {
+        calls.add("respondingFilter.onRequest");
+        nextFilter.onResponse(new RestResponseBuilder().build(), requestContext, wireAttrs);
+      }
+    };
+    final RestCountFilter countFilter = new RestCountFilter();
+    final FilterChain fc = FilterChains.createRestChain(countFilter, requestOnly, new RestFilter() { }, responseOnly,
+        respondingFilter);
+
+    fireRestRequest(fc);
+
+    Assert.assertEquals(calls,
+        Arrays.asList("requestOnly.onRequest", "respondingFilter.onRequest", "responseOnly.onResponse"));
+    assertRestCounts(1, 1, 0, countFilter);
+  }
+
+  @Test
+  public void testRestChainErrorFromRequestFilter()
+  {
+    final RestCountFilter countFilter = new RestCountFilter();
+    final RestFilter throwingFilter = new RestFilter()
+    {
+      @Override
+      public void onRestRequest(RestRequest req, RequestContext requestContext, Map<String, String> wireAttrs,
+          NextFilter<RestRequest, RestResponse> nextFilter)
+      {
+        throw new IllegalStateException();
+      }
+    };
+    final RestCountFilter lastFilter = new RestCountFilter();
+    final FilterChain fc = FilterChains.createRestChain(countFilter, new RestFilter() { }, throwingFilter, lastFilter);
+
+    fireRestRequest(fc);
+
+    assertRestCounts(1, 0, 1, countFilter);
+    assertRestCounts(0, 0, 0, lastFilter);
+  }
+
+  @Test
+  public void testStreamChainSkipsUnimplementedPhases()
+  {
+    final StreamCountFilter first = new StreamCountFilter();
+    final StreamCountFilter last = new StreamCountFilter();
+    final FilterChain fc = FilterChains.createStreamChain(first, new StreamFilter() { }, new StreamFilter() { }, last);
+
+    fireStreamRequest(fc);
+    fireStreamResponse(fc);
+    fireStreamError(fc);
+
+    assertStreamCounts(1, 1, 1, first);
+    assertStreamCounts(1, 1, 1, last);
+  }
+
   private void fireRestRequest(FilterChain fc)
   {
     fc.onRestRequest(new RestRequestBuilder(URI.create("test")).build(),
@@ -25,25 +25,33 @@ import com.linkedin.r2.transport.http.client.TimeoutCallback;
 import com.linkedin.util.clock.Clock;
 import io.netty.channel.Channel;
 import io.netty.channel.group.ChannelGroup;
+import io.netty.handler.codec.http2.Http2FrameCodec;
 import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
 import java.net.SocketAddress;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of {@link AsyncPool.Lifecycle} for bootstrapping {@link Http2StreamChannel}s.
- * The parent channel is bootstrapped upon first invocation of #create. The parent channel is
- * kept in the state for bootstrapping subsequent stream channels. The parent channel is recreated
- * if the channel is no longer valid. The parent channel is reaped after the parent channel is idle
- * for the configurable timeout period.
+ * Parent channels are bootstrapped on demand by #create and kept in the state for bootstrapping
+ * subsequent stream channels. A parent channel is recreated if it is no longer valid, and is reaped
+ * after it has been idle for the configurable timeout period.
+ *
+ * By default a single parent channel is used per remote address. When configured with more than one
+ * connection per host, up to that many parent channels are opened as concurrent streams build up.
+ * Since parent channels are registered round-robin on the event loop group, streams are spread across
+ * event loops rather than funneled through a single connection and core. Each stream goes to the parent
+ * channel with the fewest active streams, preferring the one served by the calling event loop on ties.
+ * When every parent channel has reached the SETTINGS_MAX_CONCURRENT_STREAMS advertised by the remote
+ * endpoint, an additional parent channel is opened instead of failing the stream.
  *
  * Implementation of this class is supposed to be thread safe.
  *
@@ -54,6 +62,7 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
 {
   private static final Logger LOG = LoggerFactory.getLogger(Http2ChannelLifecycle.class);
   public static final int DEFAULT_CHANNEL_CREATION_TIMEOUT_MS = 10000;
+  public static final int DEFAULT_CONNECTIONS_PER_HOST = 1;
 
   private final SocketAddress _address;
   private final ScheduledExecutorService _scheduler;
@@ -62,22 +71,33 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
   private final long _maxContentLength;
   private final long _idleTimeout;
   private final long _channelCreationTimeoutMs;
+  private final int _connectionsPerHost;
   private AsyncPool.Lifecycle<Channel> _parentChannelLifecycle;
 
   /**
-   * Read and write to the following members should be synchronized by this lock.
+   * Read and write to the following members, including the state of each {@link ParentConnection},
+   * should be synchronized by this lock.
    */
   private final Object _lock = new Object();
-  private final Queue<Callback<Channel>> _waiters = new ArrayDeque<>();
+  private final List<ParentConnection> _connections = new ArrayList<>();
   private final ChannelGroup _channelGroup;
-  private boolean _bootstrapping = false;
-  private Channel _parentChannel = null;
-  private long _childChannelCount;
-  private long _lastActiveTime;
 
   Http2ChannelLifecycle(SocketAddress address, ScheduledExecutorService scheduler, Clock clock,
       ChannelGroup channelGroup, boolean ssl, long maxContentLength, long idleTimeout, AsyncPool.Lifecycle<Channel> parentChannelLifecycle)
   {
+    this(address, scheduler, clock, channelGroup, ssl, maxContentLength, idleTimeout, parentChannelLifecycle,
+        DEFAULT_CONNECTIONS_PER_HOST);
+  }
+
+  Http2ChannelLifecycle(SocketAddress address, ScheduledExecutorService scheduler, Clock clock,
+      ChannelGroup channelGroup, boolean ssl, long maxContentLength, long idleTimeout,
+      AsyncPool.Lifecycle<Channel> parentChannelLifecycle, int connectionsPerHost)
+  {
+    if (connectionsPerHost < 1)
+    {
+      throw new IllegalArgumentException("connectionsPerHost must be positive: " + connectionsPerHost);
+    }
+
     _address = address;
     _scheduler = scheduler;
     _clock = clock;
@@ -86,96 +106,149 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
     _maxContentLength = maxContentLength;
     _idleTimeout = idleTimeout;
     _parentChannelLifecycle = parentChannelLifecycle;
-    _childChannelCount = 0;
+    _connectionsPerHost = connectionsPerHost;
     _channelCreationTimeoutMs = DEFAULT_CHANNEL_CREATION_TIMEOUT_MS; // TODO: expose this through cfg2
 
-    _lastActiveTime = _clock.currentTimeMillis();
-    _scheduler.scheduleAtFixedRate(this::closeParentIfIdle, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    _scheduler.scheduleAtFixedRate(this::closeParentsIfIdle, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
   }
 
   @Override
   public void create(Callback<Channel> callback)
   {
-    Channel parentChannel;
+    final ParentConnection connection;
+    final Channel parentChannel;
     synchronized (_lock)
     {
-      _lastActiveTime = _clock.currentTimeMillis();
-      parentChannel = _parentChannel;
-    }
+      removeInactiveConnections();
+      connection = selectConnection();
+      connection._lastActiveTime = _clock.currentTimeMillis();
+      parentChannel = connection._channel;
 
-    if (!isChannelActive(parentChannel))
-    {
-      parentChannel = null;
-      synchronized (_lock)
+      if (parentChannel == null)
       {
-        _childChannelCount = 0;
-      }
-    }
-
-    if (parentChannel == null)
-    {
-      synchronized (_lock)
-      {
-        _waiters.add(callback);
-        if (_bootstrapping)
+        connection._waiters.add(callback);
+        if (connection._bootstrapping)
         {
           return;
         }
-        _bootstrapping = true;
+        connection._bootstrapping = true;
       }
+      else
+      {
+        // Reserves the stream up front so that concurrent calls see the load of this connection
+        connection._activeStreams++;
+      }
+    }
 
+    if (parentChannel == null)
+    {
       doBootstrapParentChannel(new Callback<Channel>() {
         @Override
         public void onError(Throwable e)
         {
-          notifyWaiters(e);
+          notifyWaiters(connection, e);
         }
 
         @Override
         public void onSuccess(Channel channel)
         {
-          doBootstrapWaitersStreamChannel(channel);
+          doBootstrapWaitersStreamChannel(connection, channel);
         }
       });
     }
     else
     {
-      doBootstrapStreamChannel(parentChannel, callback);
+      doBootstrapStreamChannel(connection, parentChannel, callback);
     }
   }
 
-  private boolean isChannelActive(Channel channel)
+  /**
+   * Drops parent channels which are no longer active, so that they are bootstrapped again on demand.
+   */
+  private void removeInactiveConnections()
   {
-    return channel != null && channel.isActive();
+    _connections.removeIf(connection -> connection._channel != null && !connection._channel.isActive());
   }
 
-  private void doBootstrapWaitersStreamChannel(Channel channel)
+  /**
+   * Selects the connection a new stream is assigned to, adding a new connection to the state if none of the
+   * existing ones should take the stream.
+   */
+  private ParentConnection selectConnection()
+  {
+    ParentConnection leastLoaded = null;
+    ParentConnection leastLoadedWithCapacity = null;
+    for (ParentConnection connection : _connections)
+    {
+      if (isLessLoaded(connection, leastLoaded))
+      {
+        leastLoaded = connection;
+      }
+      if (connection.hasCapacity() && isLessLoaded(connection, leastLoadedWithCapacity))
+      {
+        leastLoadedWithCapacity = connection;
+      }
+    }
+
+    if (leastLoadedWithCapacity != null
+        && (leastLoadedWithCapacity.load() == 0 || _connections.size() >= _connectionsPerHost))
+    {
+      return leastLoadedWithCapacity;
+    }
+
+    // With a single connection per host, streams beyond the limit of the remote endpoint keep going
+    // to the only connection, as they always did
+    if (leastLoaded != null && leastLoadedWithCapacity == null && _connectionsPerHost == 1)
+    {
+      return leastLoaded;
+    }
+
+    final ParentConnection connection = new ParentConnection();
+    _connections.add(connection);
+    return connection;
+  }
+
+  /**
+   * Compares connections by active streams. Between equally loaded connections, the one served by the calling
+   * event loop wins, so that writes issued from an event loop stay on it.
+   */
+  private static boolean isLessLoaded(ParentConnection connection, ParentConnection other)
+  {
+    if (other == null)
+    {
+      return true;
+    }
+    final long load = connection.load();
+    final long otherLoad = other.load();
+    return load < otherLoad || (load == otherLoad && connection.isServedByCurrentThread()
+        && !other.isServedByCurrentThread());
+  }
+
+  private void doBootstrapWaitersStreamChannel(ParentConnection connection, Channel channel)
   {
     final List<Callback<Channel>> waiters;
 
     synchronized (_lock)
     {
-      _parentChannel = channel;
+      connection._channel = channel;
       _channelGroup.add(channel);
-      waiters = new ArrayList<>(_waiters.size());
-      IntStream.range(0, _waiters.size()).forEach(i -> waiters.add(_waiters.poll()));
-      _bootstrapping = false;
+      waiters = drainWaiters(connection);
+      connection._activeStreams += waiters.size();
     }
 
     for (Callback<Channel> waiter : waiters)
     {
-      doBootstrapStreamChannel(channel, waiter);
+      doBootstrapStreamChannel(connection, channel, waiter);
     }
   }
 
-  private void notifyWaiters(Throwable e)
+  private void notifyWaiters(ParentConnection connection, Throwable e)
   {
     final List<Callback<Channel>> waiters;
     synchronized (_lock)
     {
-      waiters = new ArrayList<>(_waiters.size());
-      IntStream.range(0, _waiters.size()).forEach(i -> waiters.add(_waiters.poll()));
-      _bootstrapping = false;
+      _connections.remove(connection);
+      waiters = drainWaiters(connection);
     }
     for (Callback<Channel> waiter : waiters)
     {
@@ -183,6 +256,14 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
     }
   }
 
+  private static List<Callback<Channel>> drainWaiters(ParentConnection connection)
+  {
+    final List<Callback<Channel>> waiters = new ArrayList<>(connection._waiters);
+    connection._waiters.clear();
+    connection._bootstrapping = false;
+    return waiters;
+  }
+
   /**
    * Bootstraps the parent (connection) channel, awaits for ALPN, and returns the
    * channel through success callback. If exception occurs, the cause is returned
@@ -228,10 +309,12 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
   /**
    * Bootstraps the stream channel from the given parent channel. Returns the stream channel
    * through the success callback if bootstrap succeeds; Return the cause if an exception occurs.
+   * The stream must already be counted as active on the given connection.
+   * @param connection Connection the stream is assigned to.
    * @param channel Parent channel to bootstrap the stream channel from.
    * @param callback Callback of the stream channel bootstrap.
    */
-  private void doBootstrapStreamChannel(Channel channel, Callback<Channel> callback)
+  private void doBootstrapStreamChannel(ParentConnection connection, Channel channel, Callback<Channel> callback)
   {
     final Http2StreamChannelBootstrap bootstrap =
         new Http2StreamChannelBootstrap(channel).handler(new Http2StreamChannelInitializer(_ssl, _maxContentLength));
@@ -239,14 +322,14 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
     bootstrap.open().addListener(future -> {
       if (future.isSuccess())
       {
-        synchronized (_lock)
-        {
-          _childChannelCount++;
-        }
         callback.onSuccess((Http2StreamChannel) future.get());
       }
       else
       {
+        synchronized (_lock)
+        {
+          connection.releaseStream();
+        }
         channel.close();
         callback.onError(future.cause());
       }
@@ -254,49 +337,85 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
   }
 
   /**
-   * Attempts to close the parent channel if idle timeout has expired.
+   * Attempts to close the parent channels whose idle timeout has expired.
    */
-  private void closeParentIfIdle()
+  private void closeParentsIfIdle()
   {
-    final Channel channel;
-    final long lastActiveTime;
-    final long childChannelCount;
+    final List<Channel> idleChannels = new ArrayList<>();
+    final long now = _clock.currentTimeMillis();
 
     synchronized (_lock)
     {
-      channel = _parentChannel;
-      lastActiveTime = _lastActiveTime;
-      childChannelCount = _childChannelCount;
+      final Iterator<ParentConnection> iterator = _connections.iterator();
+      while (iterator.hasNext())
+      {
+        final ParentConnection connection = iterator.next();
+        final Channel channel = connection._channel;
+        if (now - connection._lastActiveTime < _idleTimeout
+            || channel == null || !channel.isOpen()
+            || connection._activeStreams > 0)
+        {
+          continue;
+        }
+        iterator.remove();
+        idleChannels.add(channel);
+      }
     }
 
-    if (_clock.currentTimeMillis() - lastActiveTime < _idleTimeout)
+    for (Channel channel : idleChannels)
     {
-      return;
+      LOG.info("Closing parent channel due to idle timeout !");
+      channel.close().addListener(future -> {
+        if (!future.isSuccess())
+        {
+          LOG.error("Failed to close parent channel after idle timeout, remote={}", _address, future.cause());
+        }
+      });
     }
+  }
+
+  /**
+   * Returns the limit of concurrent streams the remote endpoint allows on a parent channel.
+   */
+  private static int getMaxConcurrentStreams(Channel channel)
+  {
+    final Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
+    return frameCodec == null ? Integer.MAX_VALUE : frameCodec.connection().local().maxActiveStreams();
+  }
 
-    if (channel == null || !channel.isOpen())
+  /**
+   * State of a parent channel, guarded by {@link #_lock}. The channel is null while it is being bootstrapped.
+   */
+  private class ParentConnection
+  {
+    private final Queue<Callback<Channel>> _waiters = new ArrayDeque<>();
+    private Channel _channel = null;
+    private boolean _bootstrapping = false;
+    private long _activeStreams = 0;
+    private long _lastActiveTime = _clock.currentTimeMillis();
+
+    private long load()
     {
-      return;
+      return _activeStreams + _waiters.size();
     }
 
-    if (childChannelCount > 0)
+    private boolean hasCapacity()
     {
-      return;
+      return _channel == null || _activeStreams < getMaxConcurrentStreams(_channel);
     }
 
-    synchronized (_lock)
+    private boolean isServedByCurrentThread()
     {
-      _parentChannel = null;
-      _childChannelCount = 0;
+      return _channel != null && _channel.eventLoop().inEventLoop();
     }
 
-    LOG.info("Closing parent channel due to idle timeout !");
-    channel.close().addListener(future -> {
-      if (!future.isSuccess())
+    private void releaseStream()
+    {
+      if (_activeStreams > 0)
       {
-        LOG.error("Failed to close parent channel after idle timeout, remote={}", _address, future.cause());
+        _activeStreams--;
       }
-    });
+    }
   }
 
   // ############# delegating section ##############
@@ -319,9 +438,13 @@ class Http2ChannelLifecycle implements AsyncPool.Lifecycle<Channel>
     _parentChannelLifecycle.destroy(channel, error, callback);
     synchronized (_lock)
     {
-      if (_childChannelCount > 0)
+      for (ParentConnection connection : _connections)
       {
-        _childChannelCount--;
+        if (connection._channel != null && connection._channel == channel.parent())
+        {
+          connection.releaseStream();
+          break;
+        }
       }
     }
   }
@@ -50,6 +50,7 @@ public class Http2ChannelPoolFactory implements ChannelPoolFactory
   private final int _maxPoolSize;
   private final int _minPoolSize;
   private final boolean _tcpNoDelay;
+  private final int _connectionsPerHost;
   private final boolean _ssl;
   private final Bootstrap _bootstrap;
   private final ChannelGroup _allChannels;
@@ -81,6 +82,38 @@ public class Http2ChannelPoolFactory implements ChannelPoolFactory
         enableSSLSessionResumption, connectTimeout, sslHandShakeTimeout, null);
   }
 
+  @Deprecated
+  public Http2ChannelPoolFactory(
+      ScheduledExecutorService scheduler,
+      EventLoopGroup eventLoopGroup,
+      ChannelGroup channelGroup,
+      AsyncPoolImpl.Strategy strategy,
+      SSLContext sslContext,
+      SSLParameters sslParameters,
+      int maxPoolSize,
+      int minPoolSize,
+      int maxPoolWaiterSize,
+      int maxInitialLineLength,
+      int maxHeaderSize,
+      int maxChunkSize,
+      long idleTimeout,
+      long maxContentLength,
+      boolean tcpNoDelay,
+      boolean enableSSLSessionResumption,
+      int connectTimeout,
+      int sslHandShakeTimeout,
+      String udsAddress) {
+    this(scheduler, eventLoopGroup, channelGroup, strategy, sslContext, sslParameters, maxPoolSize, minPoolSize,
+        maxPoolWaiterSize, maxInitialLineLength, maxHeaderSize, maxChunkSize, idleTimeout, maxContentLength, tcpNoDelay,
+        enableSSLSessionResumption, connectTimeout, sslHandShakeTimeout, udsAddress,
+        Http2ChannelLifecycle.DEFAULT_CONNECTIONS_PER_HOST);
+  }
+
+  /**
+   * @param connectionsPerHost Number of HTTP/2 connections streams to the same host are spread across. More
+   *                           connections are opened when all of them reach the concurrent stream limit of the
+   *                           remote endpoint.
+   */
   public Http2ChannelPoolFactory(
       ScheduledExecutorService scheduler,
       EventLoopGroup eventLoopGroup,
@@ -100,7 +133,8 @@ public class Http2ChannelPoolFactory implements ChannelPoolFactory
       boolean enableSSLSessionResumption,
       int connectTimeout,
       int sslHandShakeTimeout,
-      String udsAddress)
+      String udsAddress,
+      int connectionsPerHost)
   {
     final ChannelInitializer<Channel> initializer = new Http2ChannelInitializer(
         sslContext, sslParameters, maxInitialLineLength, maxHeaderSize, maxChunkSize, maxContentLength,
@@ -115,6 +149,7 @@ public class Http2ChannelPoolFactory implements ChannelPoolFactory
     _idleTimeout = idleTimeout;
     _maxContentLength = maxContentLength;
     _tcpNoDelay = tcpNoDelay;
+    _connectionsPerHost = connectionsPerHost;
 
     Bootstrap bootstrap = !org.apache.commons.lang.StringUtils.isEmpty(udsAddress) ?
         new Bootstrap().channel(EpollDomainSocketChannel.class): new Bootstrap().channel(NioSocketChannel.class);
@@ -144,7 +179,8 @@ public class Http2ChannelPoolFactory implements ChannelPoolFactory
                 _bootstrap,
                 _allChannels,
                 _tcpNoDelay
-            )),
+            ),
+            _connectionsPerHost),
         _maxPoolSize,
         _idleTimeout,
         _scheduler,
@@ -138,6 +138,7 @@ public class HttpClientFactory implements TransportClientFactory
   public static final String HTTP_TCP_NO_DELAY = "http.tcpNoDelay";
   public static final String HTTP_PROTOCOL_VERSION = "http.protocolVersion";
   public static final String HTTP_MAX_CLIENT_REQUEST_RETRY_RATIO = "http.maxClientRequestRetryRatio";
+  public static final String HTTP_HTTP2_CONNECTIONS_PER_HOST = "http.http2ConnectionsPerHost";
 
   public static final int DEFAULT_QUERY_POST_THRESHOLD = Integer.MAX_VALUE;
   public static final int DEFAULT_POOL_WAITER_SIZE = Integer.MAX_VALUE;
@@ -170,6 +171,7 @@ public class HttpClientFactory implements TransportClientFactory
   public static final boolean DEFAULT_TCP_NO_DELAY = true;
   public static final boolean DEFAULT_SHARE_CONNECTION = false;
   public static final int DEFAULT_MAX_CONCURRENT_CONNECTIONS = Integer.MAX_VALUE;
+  public static final int DEFAULT_HTTP2_CONNECTIONS_PER_HOST = 1;
   public static final EncodingType[] DEFAULT_RESPONSE_CONTENT_ENCODINGS
       = {EncodingType.GZIP, EncodingType.SNAPPY, EncodingType.SNAPPY_FRAMED, EncodingType.DEFLATE, EncodingType.BZIP2};
 
@@ -1411,6 +1413,7 @@ public class HttpClientFactory implements TransportClientFactory
     Integer maxConcurrentConnectionInitializations = chooseNewOverDefault(getIntValue(properties, HTTP_MAX_CONCURRENT_CONNECTIONS), DEFAULT_MAX_CONCURRENT_CONNECTIONS);
     AsyncPoolImpl.Strategy strategy = chooseNewOverDefault(getStrategy(properties), DEFAULT_POOL_STRATEGY);
     Integer gracefulShutdownTimeout = chooseNewOverDefault(getIntValue(properties, HTTP_GRACEFUL_SHUTDOWN_TIMEOUT), DEFAULT_GRACEFUL_SHUTDOWN_TIMEOUT);
+    Integer http2ConnectionsPerHost = chooseNewOverDefault(getIntValue(properties, HTTP_HTTP2_CONNECTIONS_PER_HOST), DEFAULT_HTTP2_CONNECTIONS_PER_HOST);
 
     return new ChannelPoolManagerKeyBuilder()
       .setMaxPoolSize(maxPoolSize).setGracefulShutdownTimeout(gracefulShutdownTimeout).setIdleTimeout(idleTimeout)
@@ -1418,7 +1421,8 @@ public class HttpClientFactory implements TransportClientFactory
       .setPoolWaiterSize(poolWaiterSize).setSSLParameters(sslParameters).setStrategy(strategy).setMinPoolSize(poolMinSize)
       .setMaxHeaderSize(maxHeaderSize).setMaxChunkSize(maxChunkSize)
       .setMaxConcurrentConnectionInitializations(maxConcurrentConnectionInitializations)
-      .setTcpNoDelay(tcpNoDelay).setPoolStatsNamePrefix(poolStatsNamePrefix).setUdsAddress(_udsAddress).build();
+      .setTcpNoDelay(tcpNoDelay).setPoolStatsNamePrefix(poolStatsNamePrefix).setUdsAddress(_udsAddress)
+      .setHttp2ConnectionsPerHost(http2ConnectionsPerHost).build();
   }
 
   TransportClient getRawClient(Map<String, ? extends Object> properties,
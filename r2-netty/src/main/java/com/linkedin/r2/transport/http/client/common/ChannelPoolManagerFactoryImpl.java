@@ -204,7 +204,8 @@ public class ChannelPoolManagerFactoryImpl implements ChannelPoolManagerFactory
           _enableSSLSessionResumption,
           _connectTimeout,
           _sslHandShakeTimeout,
-          channelPoolManagerKey.getUdsAddress());
+          channelPoolManagerKey.getUdsAddress(),
+          channelPoolManagerKey.getHttp2ConnectionsPerHost());
     }
     else
     {
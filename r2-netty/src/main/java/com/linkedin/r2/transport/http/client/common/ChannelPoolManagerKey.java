@@ -17,6 +17,7 @@
 package com.linkedin.r2.transport.http.client.common;
 
 import com.linkedin.r2.transport.http.client.AsyncPoolImpl;
+import com.linkedin.r2.transport.http.client.HttpClientFactory;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
@@ -46,6 +47,7 @@ public class ChannelPoolManagerKey
   private final boolean _tcpNoDelay;
   private final String _poolStatsNamePrefix;
   private final String _udsAddress;
+  private final int _http2ConnectionsPerHost;
 
   @Deprecated
   public ChannelPoolManagerKey(SSLContext sslContext, SSLParameters sslParameters, int gracefulShutdownTimeout,
@@ -58,11 +60,23 @@ public class ChannelPoolManagerKey
         tcpNoDelay, poolStatsNamePrefix, null);
   }
 
+  @Deprecated
+  public ChannelPoolManagerKey(SSLContext sslContext, SSLParameters sslParameters, int gracefulShutdownTimeout,
+      long idleTimeout, long sslIdleTimeout, int maxHeaderSize, int maxChunkSize,
+      long maxResponseSize, int maxPoolSize, int minPoolSize,
+      int maxConcurrentConnectionInitializations, int poolWaiterSize, AsyncPoolImpl.Strategy strategy,
+      boolean tcpNoDelay, String poolStatsNamePrefix, String udsAddress) {
+    this(sslContext, sslParameters, gracefulShutdownTimeout, idleTimeout, sslIdleTimeout, maxHeaderSize, maxChunkSize,
+        maxResponseSize, maxPoolSize, minPoolSize, maxConcurrentConnectionInitializations, poolWaiterSize, strategy,
+        tcpNoDelay, poolStatsNamePrefix, udsAddress, HttpClientFactory.DEFAULT_HTTP2_CONNECTIONS_PER_HOST);
+  }
+
   public ChannelPoolManagerKey(SSLContext sslContext, SSLParameters sslParameters, int gracefulShutdownTimeout,
                                long idleTimeout, long sslIdleTimeout, int maxHeaderSize, int maxChunkSize,
                                long maxResponseSize, int maxPoolSize, int minPoolSize,
                                int maxConcurrentConnectionInitializations, int poolWaiterSize, AsyncPoolImpl.Strategy strategy,
-                               boolean tcpNoDelay, String poolStatsNamePrefix, String udsAddress)
+                               boolean tcpNoDelay, String poolStatsNamePrefix, String udsAddress,
+                               int http2ConnectionsPerHost)
   {
     _sslContext = sslContext;
     _sslParameters = sslParameters;
@@ -80,6 +94,7 @@ public class ChannelPoolManagerKey
     _tcpNoDelay = tcpNoDelay;
     _poolStatsNamePrefix = poolStatsNamePrefix;
     _udsAddress = udsAddress;
+    _http2ConnectionsPerHost = http2ConnectionsPerHost;
   }
 
   /**
@@ -119,6 +134,7 @@ public class ChannelPoolManagerKey
     result = 31 * result + (_tcpNoDelay ? 1 : 0);
     result = 31 * result + (isSsl() ? 1 : 0);
     result = 31 * result + (_poolStatsNamePrefix != null ? _poolStatsNamePrefix.hashCode() : 0);
+    result = 31 * result + _http2ConnectionsPerHost;
     return result;
   }
 
@@ -199,6 +215,11 @@ public class ChannelPoolManagerKey
     return _udsAddress;
   }
 
+  public int getHttp2ConnectionsPerHost()
+  {
+    return _http2ConnectionsPerHost;
+  }
+
   @Override
   public boolean equals(Object o)
   {
@@ -219,6 +240,7 @@ public class ChannelPoolManagerKey
     if (_tcpNoDelay != that._tcpNoDelay) return false;
     if (isSsl() != that.isSsl()) return false;
     if (_strategy != that._strategy) return false;
+    if (_http2ConnectionsPerHost != that._http2ConnectionsPerHost) return false;
     return _poolStatsNamePrefix != null ? _poolStatsNamePrefix.equals(that._poolStatsNamePrefix) : that._poolStatsNamePrefix == null;
   }
 
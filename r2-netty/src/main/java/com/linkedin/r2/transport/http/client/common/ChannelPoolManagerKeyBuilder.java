@@ -47,6 +47,7 @@ public class ChannelPoolManagerKeyBuilder
   private boolean _tcpNoDelay = HttpClientFactory.DEFAULT_TCP_NO_DELAY;
   private String _poolStatsNamePrefix = HttpClientFactory.DEFAULT_POOL_STATS_NAME_PREFIX;
   private String _udsAddress = null;
+  private int _http2ConnectionsPerHost = HttpClientFactory.DEFAULT_HTTP2_CONNECTIONS_PER_HOST;
 
   /**
    * @param sslContext {@link SSLContext}
@@ -205,10 +206,23 @@ public class ChannelPoolManagerKeyBuilder
     return this;
   }
 
+  /**
+   * @param http2ConnectionsPerHost number of HTTP/2 connections to open per host. Streams are assigned to the
+   *                                connection with the fewest active streams, and more connections are opened when
+   *                                all of them reach the concurrent stream limit of the host
+   */
+  public ChannelPoolManagerKeyBuilder setHttp2ConnectionsPerHost(int http2ConnectionsPerHost)
+  {
+    ObjectUtil.checkPositive(http2ConnectionsPerHost, "http2ConnectionsPerHost");
+    _http2ConnectionsPerHost = http2ConnectionsPerHost;
+    return this;
+  }
+
   public ChannelPoolManagerKey build()
   {
     return new ChannelPoolManagerKey(_sslContext, _sslParameters, _gracefulShutdownTimeout, _idleTimeout, _sslIdleTimeout,
       _maxHeaderSize, _maxChunkSize, _maxResponseSize, _maxPoolSize, _minPoolSize, _maxConcurrentConnectionInitializations,
-      _poolWaiterSize, _strategy, _tcpNoDelay, _poolStatsNamePrefix, _udsAddress);
+      _poolWaiterSize, _strategy, _tcpNoDelay, _poolStatsNamePrefix, _udsAddress,
+      _http2ConnectionsPerHost);
   }
 }
@@ -0,0 +1,212 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.netty.client.http2;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.r2.netty.common.NettyChannelAttributes;
+import com.linkedin.r2.transport.http.client.AsyncPool;
+import com.linkedin.r2.transport.http.client.PoolStats;
+import com.linkedin.util.clock.SettableClock;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class TestHttp2ChannelLifecycle
+{
+  private static final long IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+  private ScheduledExecutorService _scheduler;
+  private ChannelGroup _channelGroup;
+  private ParentChannelLifecycle _parentLifecycle;
+
+  @BeforeMethod
+  public void setUp()
+  {
+    _scheduler = Executors.newSingleThreadScheduledExecutor();
+    _channelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    _parentLifecycle = new ParentChannelLifecycle();
+  }
+
+  @AfterMethod
+  public void tearDown()
+  {
+    _scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testSingleConnectionPerHost() throws Exception
+  {
+    Http2ChannelLifecycle lifecycle = createLifecycle(1);
+
+    Channel first = create(lifecycle);
+    Channel second = create(lifecycle);
+
+    Assert.assertEquals(_parentLifecycle._parents.size(), 1);
+    Assert.assertSame(first.parent(), second.parent());
+  }
+
+  @Test
+  public void testStreamsSpreadAcrossConnections() throws Exception
+  {
+    Http2ChannelLifecycle lifecycle = createLifecycle(3);
+
+    List<Channel> streams = new ArrayList<>();
+    for (int i = 0; i < 6; i++)
+    {
+      streams.add(create(lifecycle));
+    }
+
+    Assert.assertEquals(_parentLifecycle._parents.size(), 3);
+    for (EmbeddedChannel parent : _parentLifecycle._parents)
+    {
+      Assert.assertEquals(streams.stream().filter(stream -> stream.parent() == parent).count(), 2);
+    }
+  }
+
+  @Test
+  public void testLeastActiveConnectionIsSelected() throws Exception
+  {
+    Http2ChannelLifecycle lifecycle = createLifecycle(2);
+
+    Channel first = create(lifecycle);
+    Channel second = create(lifecycle);
+    Channel third = create(lifecycle);
+    Assert.assertNotSame(first.parent(), second.parent());
+    Assert.assertSame(third.parent(), first.parent());
+
+    // Releasing both streams of the first connection makes it the least loaded one
+    destroy(lifecycle, first);
+    destroy(lifecycle, third);
+    Assert.assertSame(create(lifecycle).parent(), first.parent());
+    Assert.assertSame(create(lifecycle).parent(), first.parent());
+    Assert.assertEquals(_parentLifecycle._parents.size(), 2);
+  }
+
+  @Test
+  public void testScaleOutAtMaxConcurrentStreams() throws Exception
+  {
+    _parentLifecycle._maxConcurrentStreams = 2;
+    Http2ChannelLifecycle lifecycle = createLifecycle(2);
+
+    for (int i = 0; i < 4; i++)
+    {
+      create(lifecycle);
+    }
+    Assert.assertEquals(_parentLifecycle._parents.size(), 2);
+
+    // Both connections are at the limit of the remote endpoint
+    Channel fifth = create(lifecycle);
+    Assert.assertEquals(_parentLifecycle._parents.size(), 3);
+    Assert.assertSame(fifth.parent(), _parentLifecycle._parents.get(2));
+  }
+
+  @Test
+  public void testInactiveConnectionIsReplaced() throws Exception
+  {
+    Http2ChannelLifecycle lifecycle = createLifecycle(1);
+
+    Channel first = create(lifecycle);
+    first.parent().close();
+
+    Channel second = create(lifecycle);
+    Assert.assertEquals(_parentLifecycle._parents.size(), 2);
+    Assert.assertNotSame(first.parent(), second.parent());
+  }
+
+  private Http2ChannelLifecycle createLifecycle(int connectionsPerHost)
+  {
+    return new Http2ChannelLifecycle(new InetSocketAddress("localhost", 8080), _scheduler, new SettableClock(),
+        _channelGroup, false, Integer.MAX_VALUE, IDLE_TIMEOUT, _parentLifecycle, connectionsPerHost);
+  }
+
+  private static Channel create(Http2ChannelLifecycle lifecycle) throws Exception
+  {
+    FutureCallback<Channel> callback = new FutureCallback<>();
+    lifecycle.create(callback);
+    return callback.get(5, TimeUnit.SECONDS);
+  }
+
+  private static void destroy(Http2ChannelLifecycle lifecycle, Channel channel) throws Exception
+  {
+    FutureCallback<Channel> callback = new FutureCallback<>();
+    lifecycle.destroy(channel, false, callback);
+    callback.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Creates already negotiated HTTP/2 parent channels over {@link EmbeddedChannel}s.
+   */
+  private static class ParentChannelLifecycle implements AsyncPool.Lifecycle<Channel>
+  {
+    private final List<EmbeddedChannel> _parents = new ArrayList<>();
+    private int _maxConcurrentStreams = Integer.MAX_VALUE;
+
+    @Override
+    public void create(Callback<Channel> callback)
+    {
+      Http2FrameCodec frameCodec = Http2FrameCodecBuilder.forClient().build();
+      EmbeddedChannel channel = new EmbeddedChannel(frameCodec, new Http2MultiplexHandler(new ChannelHandlerAdapter() { }));
+      frameCodec.connection().local().maxActiveStreams(_maxConcurrentStreams);
+      channel.attr(NettyChannelAttributes.INITIALIZATION_FUTURE).set(channel.newSucceededFuture());
+      _parents.add(channel);
+      callback.onSuccess(channel);
+    }
+
+    @Override
+    public boolean validateGet(Channel obj)
+    {
+      return true;
+    }
+
+    @Override
+    public boolean validatePut(Channel obj)
+    {
+      return true;
+    }
+
+    @Override
+    public void destroy(Channel obj, boolean error, Callback<Channel> callback)
+    {
+      obj.close();
+      callback.onSuccess(obj);
+    }
+
+    @Override
+    public PoolStats.LifecycleStats getStats()
+    {
+      return null;
+    }
+  }
+}
@@ -42,6 +42,9 @@ public class PerfConfig
   private static final String PERF_SERVER_NUM_HEADERS = "perf.server.num_headers";
   private static final String PERF_CLIENT_HEADER_SIZE = "perf.client.header_size";
   private static final String PERF_SERVER_HEADER_SIZE = "perf.server.header_size";
+  private static final String PERF_REPLAY_SOURCE = "perf.replay.source";
+  private static final String PERF_REPLAY_SCHEDULE = "perf.replay.schedule";
+  private static final String PERF_REPLAY_MAX_OUTSTANDING = "perf.replay.max_outstanding";
 
   // Default property values
   private static final String DEFAULT_HOST = "localhost";
@@ -60,6 +63,10 @@ public class PerfConfig
   private static final int DEFAULT_SERVER_NUM_HEADERS = 0;
   private static final int DEFAULT_SERVER_HEADER_SIZE = 0;
 
+  private static final String DEFAULT_REPLAY_SOURCE = null;
+  private static final String DEFAULT_REPLAY_SCHEDULE = "1000:60";
+  private static final int DEFAULT_REPLAY_MAX_OUTSTANDING = 10000;
+
   public static int getHttpPort()
   {
     return getInt(PERF_HTTP_PORT);
@@ -140,6 +147,21 @@ public class PerfConfig
     return getBoolean(PERF_SERVER_REST_OVER_STREAM);
   }
 
+  public static String getReplaySource()
+  {
+    return getString(PERF_REPLAY_SOURCE);
+  }
+
+  public static String getReplaySchedule()
+  {
+    return getString(PERF_REPLAY_SCHEDULE);
+  }
+
+  public static int getReplayMaxOutstanding()
+  {
+    return getInt(PERF_REPLAY_MAX_OUTSTANDING);
+  }
+
   private static URI getUri(String propName)
   {
     final String propVal = System.getProperty(propName);
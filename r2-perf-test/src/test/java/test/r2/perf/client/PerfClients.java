@@ -29,6 +29,8 @@ import com.linkedin.r2.transport.common.bridge.client.TransportClient;
 import com.linkedin.r2.transport.common.bridge.client.TransportClientAdapter;
 import com.linkedin.r2.transport.http.client.HttpClientFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.concurrent.Executors;
@@ -37,6 +39,9 @@ import com.linkedin.r2.util.NamedThreadFactory;
 import io.netty.channel.nio.NioEventLoopGroup;
 import test.r2.perf.Generator;
 import test.r2.perf.PerfConfig;
+import test.r2.perf.replay.QpsSchedule;
+import test.r2.perf.replay.ReplayLoadGenerator;
+import test.r2.perf.replay.ReplayRequestGenerator;
 
 
 /**
@@ -76,6 +81,36 @@ public class PerfClients
     return new FactoryClient(crf, numThreads);
   }
 
+  public static ReplayLoadGenerator httpReplay(URI uri, File source, QpsSchedule schedule, int maxOutstanding)
+      throws IOException
+  {
+    final TransportClient transportClient = FACTORY.getClient(Collections.<String, String>emptyMap());
+    final Client client = new TransportClientAdapter(transportClient, PerfConfig.clientRestOverStream());
+    final Generator<RestRequest> reqGen = ReplayRequestGenerator.fromSource(source, uri);
+
+    synchronized (PerfClients.class)
+    {
+      NUM_CLIENTS++;
+    }
+    return new ReplayLoadGenerator(client, reqGen, schedule, maxOutstanding)
+    {
+      @Override
+      public void shutdown()
+      {
+        super.shutdown();
+        releaseFactory();
+      }
+    };
+  }
+
+  private static synchronized void releaseFactory()
+  {
+    if (--NUM_CLIENTS == 0)
+    {
+      FACTORY.shutdown(Callbacks.<None>empty());
+    }
+  }
+
   private static class FactoryClient extends PerfClient
   {
     public FactoryClient(ClientRunnableFactory runnableFactory, int numThreads)
@@ -91,13 +126,7 @@ public class PerfClients
     public void shutdown()
     {
       super.shutdown();
-      synchronized (PerfClients.class)
-      {
-        if (--NUM_CLIENTS == 0)
-        {
-          FACTORY.shutdown(Callbacks.<None>empty());
-        }
-      }
+      releaseFactory();
     }
   }
 }
@@ -0,0 +1,47 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf.driver;
+
+import java.io.File;
+import test.r2.perf.PerfConfig;
+import test.r2.perf.client.PerfClients;
+import test.r2.perf.replay.QpsSchedule;
+import test.r2.perf.replay.ReplayLoadGenerator;
+
+
+/**
+ * Replays captured traffic against {@link PerfConfig#getHttpUri()} following the {@code perf.replay.schedule} rate.
+ * The captured traffic is read from {@code perf.replay.source}, a caprep directory or a HAR file.
+ */
+public class RunHttpReplayClient
+{
+  public static void main(String[] args) throws Exception
+  {
+    final String source = PerfConfig.getReplaySource();
+    if (source == null)
+    {
+      throw new IllegalArgumentException("perf.replay.source must point to a caprep directory or a HAR file");
+    }
+
+    final ReplayLoadGenerator generator = PerfClients.httpReplay(PerfConfig.getHttpUri(),
+                                                                 new File(source),
+                                                                 QpsSchedule.parse(PerfConfig.getReplaySchedule()),
+                                                                 PerfConfig.getReplayMaxOutstanding());
+    generator.run();
+    generator.shutdown();
+  }
+}
@@ -0,0 +1,153 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Target request rate over time, made of consecutive phases in which the rate is either constant or ramps linearly.
+ *
+ * A schedule is written as comma-separated phases, each either {@code qps:seconds} or
+ * {@code startQps-endQps:seconds}. For example {@code 100-1000:60,1000:300} ramps from 100 to 1000 QPS over a minute
+ * and then holds 1000 QPS for five minutes.
+ */
+public class QpsSchedule
+{
+  private final List<Phase> _phases;
+
+  public QpsSchedule(List<Phase> phases)
+  {
+    if (phases.isEmpty())
+    {
+      throw new IllegalArgumentException("Schedule must have at least one phase");
+    }
+    _phases = phases;
+  }
+
+  public static QpsSchedule parse(String schedule)
+  {
+    final List<Phase> phases = new ArrayList<>();
+    for (String phase : schedule.split(","))
+    {
+      final String[] rateAndDuration = phase.trim().split(":");
+      if (rateAndDuration.length != 2)
+      {
+        throw new IllegalArgumentException("Invalid schedule phase: " + phase);
+      }
+      final String[] rates = rateAndDuration[0].split("-");
+      final double startQps = Double.parseDouble(rates[0]);
+      final double endQps = rates.length > 1 ? Double.parseDouble(rates[1]) : startQps;
+      phases.add(new Phase(startQps, endQps, TimeUnit.SECONDS.toNanos(Long.parseLong(rateAndDuration[1]))));
+    }
+    return new QpsSchedule(phases);
+  }
+
+  /**
+   * Returns the time, relative to the start of the schedule, at which the request with the given sequence number
+   * is intended to be sent.
+   *
+   * @param sequence zero-based sequence number of the request
+   * @return intended send time in nanoseconds, or -1 if the schedule ends before this request
+   */
+  public long intendedSendTimeNanos(long sequence)
+  {
+    long phaseStartNanos = 0;
+    double remaining = sequence;
+    for (Phase phase : _phases)
+    {
+      final double phaseCount = phase.getRequestCount();
+      if (remaining < phaseCount)
+      {
+        return phaseStartNanos + phase.offsetNanos(remaining);
+      }
+      remaining -= phaseCount;
+      phaseStartNanos += phase._durationNanos;
+    }
+    return -1;
+  }
+
+  public long getDurationNanos()
+  {
+    long duration = 0;
+    for (Phase phase : _phases)
+    {
+      duration += phase._durationNanos;
+    }
+    return duration;
+  }
+
+  @Override
+  public String toString()
+  {
+    return _phases.toString();
+  }
+
+  /**
+   * A period of {@code durationNanos} during which the rate moves linearly from {@code startQps} to {@code endQps}.
+   */
+  public static class Phase
+  {
+    private final double _startQps;
+    private final double _endQps;
+    private final long _durationNanos;
+
+    public Phase(double startQps, double endQps, long durationNanos)
+    {
+      if (startQps < 0 || endQps < 0 || durationNanos <= 0)
+      {
+        throw new IllegalArgumentException("Invalid phase: " + startQps + "-" + endQps + " over " + durationNanos + "ns");
+      }
+      _startQps = startQps;
+      _endQps = endQps;
+      _durationNanos = durationNanos;
+    }
+
+    double getRequestCount()
+    {
+      return (_startQps + _endQps) / 2 * _durationNanos / 1e9;
+    }
+
+    /**
+     * Inverts the cumulative request count of this phase: n(t) = a * t + (b - a) * t^2 / (2 * T).
+     */
+    long offsetNanos(double count)
+    {
+      final double seconds = _durationNanos / 1e9;
+      final double slope = (_endQps - _startQps) / seconds;
+      final double offsetSeconds;
+      if (slope == 0)
+      {
+        offsetSeconds = count / _startQps;
+      }
+      else
+      {
+        offsetSeconds = (-_startQps + Math.sqrt(_startQps * _startQps + 2 * slope * count)) / slope;
+      }
+      return (long) (offsetSeconds * 1e9);
+    }
+
+    @Override
+    public String toString()
+    {
+      return (_startQps == _endQps ? String.valueOf(_startQps) : _startQps + "-" + _endQps)
+          + "qps/" + TimeUnit.NANOSECONDS.toSeconds(_durationNanos) + "s";
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf.replay;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.transport.common.Client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import test.r2.perf.Generator;
+
+
+/**
+ * Open-loop load generator which sends replayed requests at the rate given by a {@link QpsSchedule}, regardless of
+ * how fast responses come back.
+ *
+ * A single dispatching thread computes the intended send time of every request from the schedule, waits for it and
+ * sends the request asynchronously. Latency is recorded from the intended send time, see {@link ReplayStats}. If more
+ * than {@code maxOutstanding} requests are in flight, new requests are counted as dropped instead of being sent,
+ * which bounds client memory when the target cannot keep up.
+ */
+public class ReplayLoadGenerator
+{
+  private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Client _client;
+  private final Generator<RestRequest> _reqGen;
+  private final QpsSchedule _schedule;
+  private final int _maxOutstanding;
+  private final ReplayStats _stats = new ReplayStats();
+  private final AtomicInteger _outstanding = new AtomicInteger();
+
+  public ReplayLoadGenerator(Client client, Generator<RestRequest> reqGen, QpsSchedule schedule, int maxOutstanding)
+  {
+    _client = client;
+    _reqGen = reqGen;
+    _schedule = schedule;
+    _maxOutstanding = maxOutstanding;
+  }
+
+  /**
+   * Runs the whole schedule, waits for outstanding requests and prints the report.
+   */
+  public void run() throws InterruptedException
+  {
+    System.out.println("Replaying with schedule " + _schedule + ", max outstanding requests: " + _maxOutstanding);
+
+    final long startNanos = System.nanoTime();
+    for (long sequence = 0; ; sequence++)
+    {
+      final long offsetNanos = _schedule.intendedSendTimeNanos(sequence);
+      if (offsetNanos < 0)
+      {
+        break;
+      }
+
+      final long intendedNanos = startNanos + offsetNanos;
+      waitUntil(intendedNanos);
+
+      final RestRequest request = _reqGen.nextMessage();
+      if (request == null)
+      {
+        System.out.println("No captured requests to replay");
+        break;
+      }
+
+      final ReplayStats.KeyStats keyStats = _stats.get(ReplayStats.keyOf(request));
+      if (_outstanding.get() >= _maxOutstanding)
+      {
+        keyStats.dropped();
+        continue;
+      }
+
+      _outstanding.incrementAndGet();
+      _client.restRequest(request, new RecordingCallback(keyStats, intendedNanos, System.nanoTime()));
+    }
+
+    while (_outstanding.get() > 0)
+    {
+      Thread.sleep(10);
+    }
+
+    _stats.print(System.out, System.nanoTime() - startNanos);
+  }
+
+  public void shutdown()
+  {
+    final FutureCallback<None> callback = new FutureCallback<>();
+    _client.shutdown(callback);
+
+    try
+    {
+      callback.get();
+    }
+    catch (Exception e)
+    {
+      // Print out error and continue
+      e.printStackTrace();
+    }
+  }
+
+  private static void waitUntil(long deadlineNanos)
+  {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0)
+    {
+      if (remaining > SPIN_THRESHOLD_NANOS)
+      {
+        LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+      }
+    }
+  }
+
+  private class RecordingCallback implements Callback<RestResponse>
+  {
+    private final ReplayStats.KeyStats _keyStats;
+    private final long _intendedNanos;
+    private final long _sentNanos;
+
+    RecordingCallback(ReplayStats.KeyStats keyStats, long intendedNanos, long sentNanos)
+    {
+      _keyStats = keyStats;
+      _intendedNanos = intendedNanos;
+      _sentNanos = sentNanos;
+    }
+
+    @Override
+    public void onSuccess(RestResponse result)
+    {
+      final long now = System.nanoTime();
+      _keyStats.success(now - _intendedNanos, now - _sentNanos);
+      _outstanding.decrementAndGet();
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      final long now = System.nanoTime();
+      _keyStats.error(now - _intendedNanos, now - _sentNanos);
+      _outstanding.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf.replay;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.r2.caprep.db.DefaultMessageSerializer;
+import com.linkedin.r2.caprep.db.DirectoryDbUtil;
+import com.linkedin.r2.caprep.db.IndexedLogDbSource;
+import com.linkedin.r2.caprep.db.IndexedLogDbUtil;
+import com.linkedin.r2.caprep.db.MessageSerializer;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import test.r2.perf.Generator;
+
+
+/**
+ * Generates requests by replaying captured traffic against a target host, restarting from the first captured
+ * request once all of them have been sent.
+ *
+ * Captured traffic is read from one of:
+ * <ul>
+ *   <li>a directory written by {@link com.linkedin.r2.caprep.db.IndexedLogDbSink};</li>
+ *   <li>a directory written by {@link com.linkedin.r2.caprep.db.DirectoryDbSink};</li>
+ *   <li>a HAR file ({@code .har}), using the method, URL, headers and post data of each entry.</li>
+ * </ul>
+ * The scheme, host and port of every captured URI are replaced by those of the target URI.
+ *
+ * This class is not thread-safe; it is meant to be used by a single dispatching thread.
+ */
+public class ReplayRequestGenerator implements Generator<RestRequest>
+{
+  private final Supplier<Iterator<RestRequest>> _requests;
+  private final URI _target;
+  private Iterator<RestRequest> _iterator;
+
+  public ReplayRequestGenerator(Supplier<Iterator<RestRequest>> requests, URI target)
+  {
+    _requests = requests;
+    _target = target;
+  }
+
+  /**
+   * Creates a generator for the captured traffic at the given path.
+   *
+   * @param source a caprep directory or a HAR file
+   * @param target URI whose scheme, host and port requests are sent to
+   */
+  public static ReplayRequestGenerator fromSource(File source, URI target) throws IOException
+  {
+    final MessageSerializer serializer = new DefaultMessageSerializer();
+    if (source.isFile())
+    {
+      final List<RestRequest> requests = readHar(source);
+      return new ReplayRequestGenerator(requests::iterator, target);
+    }
+
+    if (IndexedLogDbUtil.listSegments(source).length > 0)
+    {
+      final IndexedLogDbSource db = new IndexedLogDbSource(source, serializer);
+      return new ReplayRequestGenerator(db::requests, target);
+    }
+
+    final String[] ids = DirectoryDbUtil.listRequestIds(source);
+    Arrays.sort(ids, (a, b) -> Integer.compare(DirectoryDbUtil.getIndex(a), DirectoryDbUtil.getIndex(b)));
+    final List<RestRequest> requests = new ArrayList<>(ids.length);
+    for (String id : ids)
+    {
+      try (InputStream in = new FileInputStream(DirectoryDbUtil.requestFileName(source, id)))
+      {
+        requests.add(serializer.readRestRequest(in));
+      }
+    }
+    return new ReplayRequestGenerator(requests::iterator, target);
+  }
+
+  @Override
+  public RestRequest nextMessage()
+  {
+    if (_iterator == null || !_iterator.hasNext())
+    {
+      _iterator = _requests.get();
+      if (!_iterator.hasNext())
+      {
+        return null;
+      }
+    }
+
+    final RestRequest captured = _iterator.next();
+    return captured.builder().setURI(retarget(captured.getURI())).build();
+  }
+
+  private URI retarget(URI captured)
+  {
+    final String rawQuery = captured.getRawQuery();
+    return URI.create(_target.getScheme() + "://" + _target.getRawAuthority() + captured.getRawPath()
+        + (rawQuery == null ? "" : "?" + rawQuery));
+  }
+
+  private static List<RestRequest> readHar(File file) throws IOException
+  {
+    final DataMap har;
+    try (InputStream in = new FileInputStream(file))
+    {
+      har = new JacksonDataCodec().readMap(in);
+    }
+
+    final DataMap log = har.getDataMap("log");
+    final DataList entries = log == null ? null : log.getDataList("entries");
+    if (entries == null)
+    {
+      throw new IOException("Not a HAR file: " + file);
+    }
+
+    final List<RestRequest> requests = new ArrayList<>(entries.size());
+    for (Object entry : entries)
+    {
+      final DataMap request = ((DataMap) entry).getDataMap("request");
+      final RestRequestBuilder builder = new RestRequestBuilder(URI.create(request.getString("url")))
+          .setMethod(request.getString("method"));
+
+      final DataList headers = request.getDataList("headers");
+      if (headers != null)
+      {
+        for (Object header : headers)
+        {
+          final String name = ((DataMap) header).getString("name");
+          // Pseudo-headers and hop-by-hop headers are set by the transport
+          if (!name.startsWith(":") && !"content-length".equalsIgnoreCase(name) && !"host".equalsIgnoreCase(name))
+          {
+            builder.addHeaderValue(name, ((DataMap) header).getString("value"));
+          }
+        }
+      }
+
+      final DataMap postData = request.getDataMap("postData");
+      if (postData != null && postData.getString("text") != null)
+      {
+        builder.setEntity(ByteString.copyString(postData.getString("text"), StandardCharsets.UTF_8));
+      }
+      requests.add(builder.build());
+    }
+    return requests;
+  }
+}
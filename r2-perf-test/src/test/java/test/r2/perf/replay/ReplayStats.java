@@ -0,0 +1,162 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf.replay;
+
+import com.linkedin.r2.message.rest.RestRequest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+
+/**
+ * Latency and outcome counters of a replay run, grouped by resource and method.
+ *
+ * Response time is measured from the time a request was intended to be sent according to the {@link QpsSchedule},
+ * so a stalled server or client cannot hide queueing delay (coordinated omission). Service time is measured from the
+ * time the request was actually handed to the client.
+ */
+public class ReplayStats
+{
+  private static final String RESTLI_METHOD_HEADER = "X-RestLi-Method";
+  private static final long MAX_TRACKABLE_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final ConcurrentMap<String, KeyStats> _stats = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the key requests are grouped by: the first path segment, which is the Rest.li root resource, and the
+   * Rest.li method, falling back to the HTTP method for non Rest.li traffic.
+   */
+  public static String keyOf(RestRequest request)
+  {
+    final String path = request.getURI().getRawPath();
+    final int start = path.startsWith("/") ? 1 : 0;
+    int end = path.indexOf('/', start);
+    if (end < 0)
+    {
+      end = path.length();
+    }
+    final String restliMethod = request.getHeader(RESTLI_METHOD_HEADER);
+    return path.substring(start, end) + " " + (restliMethod != null ? restliMethod : request.getMethod());
+  }
+
+  public KeyStats get(String key)
+  {
+    return _stats.computeIfAbsent(key, k -> new KeyStats());
+  }
+
+  /**
+   * Prints a percentile report for each key and for all keys combined.
+   */
+  public void print(PrintStream out, long elapsedNanos)
+  {
+    final Map<String, KeyStats> sorted = new TreeMap<>(_stats);
+    final KeyStats total = new KeyStats();
+    final double elapsedSeconds = elapsedNanos / 1e9;
+
+    out.println();
+    out.printf("%-40s %10s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+        "Resource/method", "Requests", "Errors", "Dropped", "QPS", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)",
+        "max(ms)");
+    for (Map.Entry<String, KeyStats> entry : sorted.entrySet())
+    {
+      entry.getValue().print(out, entry.getKey(), elapsedSeconds);
+      total.add(entry.getValue());
+    }
+    total.print(out, "TOTAL", elapsedSeconds);
+
+    final Histogram serviceTime = total._serviceTime;
+    out.printf("%nService time (from actual send), ms: p50 %.3f  p99 %.3f  max %.3f%n",
+        toMillis(serviceTime.getValueAtPercentile(50)),
+        toMillis(serviceTime.getValueAtPercentile(99)),
+        toMillis(serviceTime.getMaxValue()));
+  }
+
+  private static double toMillis(long nanos)
+  {
+    return nanos / 1e6;
+  }
+
+  /**
+   * Counters of a single resource and method. Recording is thread-safe; reporting is done after the run.
+   */
+  public static class KeyStats
+  {
+    private final Recorder _responseTimeRecorder = new Recorder(MAX_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    private final Recorder _serviceTimeRecorder = new Recorder(MAX_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    private final AtomicLong _errors = new AtomicLong();
+    private final AtomicLong _dropped = new AtomicLong();
+
+    private final Histogram _responseTime = new Histogram(MAX_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    private final Histogram _serviceTime = new Histogram(MAX_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+
+    public void success(long responseTimeNanos, long serviceTimeNanos)
+    {
+      _responseTimeRecorder.recordValue(Math.min(responseTimeNanos, MAX_TRACKABLE_LATENCY_NANOS));
+      _serviceTimeRecorder.recordValue(Math.min(serviceTimeNanos, MAX_TRACKABLE_LATENCY_NANOS));
+    }
+
+    public void error(long responseTimeNanos, long serviceTimeNanos)
+    {
+      _errors.incrementAndGet();
+      success(responseTimeNanos, serviceTimeNanos);
+    }
+
+    /**
+     * Counts a request that was not sent because too many requests were outstanding.
+     */
+    public void dropped()
+    {
+      _dropped.incrementAndGet();
+    }
+
+    private synchronized void drain()
+    {
+      _responseTime.add(_responseTimeRecorder.getIntervalHistogram());
+      _serviceTime.add(_serviceTimeRecorder.getIntervalHistogram());
+    }
+
+    private void add(KeyStats other)
+    {
+      other.drain();
+      _responseTime.add(other._responseTime);
+      _serviceTime.add(other._serviceTime);
+      _errors.addAndGet(other._errors.get());
+      _dropped.addAndGet(other._dropped.get());
+    }
+
+    private void print(PrintStream out, String key, double elapsedSeconds)
+    {
+      drain();
+      final long count = _responseTime.getTotalCount();
+      out.printf("%-40s %10d %8d %8d %9.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+          key, count, _errors.get(), _dropped.get(), elapsedSeconds > 0 ? count / elapsedSeconds : 0,
+          toMillis(_responseTime.getValueAtPercentile(50)),
+          toMillis(_responseTime.getValueAtPercentile(90)),
+          toMillis(_responseTime.getValueAtPercentile(99)),
+          toMillis(_responseTime.getValueAtPercentile(99.9)),
+          toMillis(_responseTime.getMaxValue()));
+    }
+  }
+}
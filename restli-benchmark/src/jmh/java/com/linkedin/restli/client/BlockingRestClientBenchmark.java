@@ -0,0 +1,226 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.data.ByteString;
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the throughput and the allocation of {@link BlockingRestClient} calls made by many threads at once, each
+ * waiting for its response, with a transport which completes the responses from its own threads.
+ *
+ * {@link #blockingGet} calls the client from the 256 platform threads of JMH. {@link #threadPerRequestGet} starts a
+ * thread per call instead, as a thread-per-request service does, either a platform thread or a virtual thread. Virtual
+ * threads are created through reflection so that the benchmarks still build for the JDK 8 target; the virtual variant
+ * must run on JDK 21 or later, and {@code -p threadKind=platform} runs the other variants on older JDKs.
+ */
+@Fork(value = 2, jvmArgs = {"-Xmx64m"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockingRestClientBenchmark
+{
+  private static final int TRANSPORT_THREADS = 4;
+  private static final int CALLS_PER_INVOCATION = 1024;
+
+  @State(Scope.Benchmark)
+  public static class ClientState
+  {
+    ExecutorService _transportExecutor;
+    BlockingRestClient _client;
+    Request<EmptyRecord> _request;
+
+    @Setup
+    public void setUp()
+    {
+      _transportExecutor = Executors.newFixedThreadPool(TRANSPORT_THREADS);
+      final RestResponse response = new RestResponseBuilder()
+          .setStatus(200)
+          .setHeader(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_JSON)
+          .setHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+              AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString())
+          .setEntity(ByteString.copyString("{}", "UTF-8"))
+          .build();
+      _client = new BlockingRestClient(new RestClient(new AsyncTransportClient(_transportExecutor, response), "d2://"));
+      _request = new GetRequestBuilder<Long, EmptyRecord>("members", EmptyRecord.class,
+          new ResourceSpecImpl(EnumSet.of(ResourceMethod.GET), Collections.emptyMap(), Collections.emptyMap(),
+              Long.class, null, null, EmptyRecord.class, Collections.emptyMap()),
+          new RestliRequestOptionsBuilder().setProtocolVersionOption(ProtocolVersionOption.FORCE_USE_LATEST).build())
+          .id(1L)
+          .build();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+      _transportExecutor.shutdownNow();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState
+  {
+    @Param({"platform", "virtual"})
+    String threadKind;
+
+    ThreadFactory _threadFactory;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException
+    {
+      if ("platform".equals(threadKind))
+      {
+        _threadFactory = Thread::new;
+        return;
+      }
+      final Object builder;
+      try
+      {
+        builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      }
+      catch (NoSuchMethodException e)
+      {
+        throw new IllegalStateException("Virtual threads require JDK 21 or later, run with -p threadKind=platform", e);
+      }
+      _threadFactory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    }
+  }
+
+  @Benchmark
+  @Threads(256)
+  public Response<EmptyRecord> blockingGet(ClientState state) throws RemoteInvocationException
+  {
+    return state._client.sendRequest(state._request);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(CALLS_PER_INVOCATION)
+  public int threadPerRequestGet(ClientState state, ThreadState threadState) throws InterruptedException
+  {
+    final CountDownLatch done = new CountDownLatch(CALLS_PER_INVOCATION);
+    final AtomicInteger failures = new AtomicInteger();
+    for (int i = 0; i < CALLS_PER_INVOCATION; i++)
+    {
+      threadState._threadFactory.newThread(() ->
+      {
+        try
+        {
+          state._client.sendRequest(state._request);
+        }
+        catch (RemoteInvocationException e)
+        {
+          failures.incrementAndGet();
+        }
+        finally
+        {
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    if (failures.get() > 0)
+    {
+      throw new IllegalStateException(failures.get() + " calls failed");
+    }
+    return CALLS_PER_INVOCATION;
+  }
+
+  /**
+   * Transport which answers every request with the same response, from its own threads.
+   */
+  private static class AsyncTransportClient implements com.linkedin.r2.transport.common.Client
+  {
+    private final ExecutorService _executor;
+    private final RestResponse _response;
+
+    AsyncTransportClient(ExecutorService executor, RestResponse response)
+    {
+      _executor = executor;
+      _response = response;
+    }
+
+    @Override
+    public Future<RestResponse> restRequest(RestRequest request)
+    {
+      return restRequest(request, new RequestContext());
+    }
+
+    @Override
+    public Future<RestResponse> restRequest(RestRequest request, RequestContext requestContext)
+    {
+      final FutureCallback<RestResponse> future = new FutureCallback<>();
+      restRequest(request, requestContext, future);
+      return future;
+    }
+
+    @Override
+    public void restRequest(RestRequest request, Callback<RestResponse> callback)
+    {
+      restRequest(request, new RequestContext(), callback);
+    }
+
+    @Override
+    public void restRequest(RestRequest request, RequestContext requestContext, Callback<RestResponse> callback)
+    {
+      _executor.execute(() -> callback.onSuccess(_response));
+    }
+
+    @Override
+    public void shutdown(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.uribuilders;
+
+import com.linkedin.data.schema.PathSpec;
+import com.linkedin.restli.client.BatchGetEntityRequestBuilder;
+import com.linkedin.restli.client.FindRequestBuilder;
+import com.linkedin.restli.client.GetRequestBuilder;
+import com.linkedin.restli.client.Request;
+import com.linkedin.restli.client.RestliRequestOptions;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures building the URIs of typical requests with {@link RestliUriBuilderUtil}: a GET of a subresource entity, a
+ * BATCH_GET of {@value #BATCH_SIZE} entities with a projection, and a paginated FINDER with a few parameters.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UriBuilderBenchmark
+{
+  private static final int BATCH_SIZE = 20;
+  private static final String URI_PREFIX = "d2://";
+  private static final ProtocolVersion VERSION = AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion();
+  private static final ResourceSpec COLLECTION_SPEC = new ResourceSpecImpl(EnumSet.allOf(ResourceMethod.class),
+      Collections.emptyMap(), Collections.emptyMap(), Long.class, null, null, EmptyRecord.class, Collections.emptyMap());
+
+  @State(Scope.Benchmark)
+  public static class RequestState
+  {
+    Request<?> _getRequest;
+    Request<?> _batchGetRequest;
+    Request<?> _findRequest;
+
+    @Setup
+    public void setUp()
+    {
+      _getRequest = new GetRequestBuilder<Long, EmptyRecord>("groups/{groupId}/members", EmptyRecord.class,
+          COLLECTION_SPEC, RestliRequestOptions.DEFAULT_OPTIONS)
+          .pathKey("groupId", 42L)
+          .id(12345L)
+          .build();
+
+      final List<Long> ids = new ArrayList<>(BATCH_SIZE);
+      for (long id = 0; id < BATCH_SIZE; id++)
+      {
+        ids.add(1000 + id);
+      }
+      _batchGetRequest = new BatchGetEntityRequestBuilder<Long, EmptyRecord>("members", COLLECTION_SPEC,
+          RestliRequestOptions.DEFAULT_OPTIONS)
+          .ids(ids)
+          .fields(new PathSpec("firstName"), new PathSpec("lastName"), new PathSpec("headline"))
+          .build();
+
+      _findRequest = new FindRequestBuilder<Long, EmptyRecord>("members", EmptyRecord.class, COLLECTION_SPEC,
+          RestliRequestOptions.DEFAULT_OPTIONS)
+          .name("search")
+          .setParam("keywords", "rest.li engineer")
+          .setParam("country", "us")
+          .paginate(20, 10)
+          .build();
+    }
+  }
+
+  @Benchmark
+  public URI get(RequestState state)
+  {
+    return RestliUriBuilderUtil.createUriBuilder(state._getRequest, URI_PREFIX, VERSION).build();
+  }
+
+  @Benchmark
+  public URI batchGet(RequestState state)
+  {
+    return RestliUriBuilderUtil.createUriBuilder(state._batchGetRequest, URI_PREFIX, VERSION).build();
+  }
+
+  @Benchmark
+  public URI find(RequestState state)
+  {
+    return RestliUriBuilderUtil.createUriBuilder(state._findRequest, URI_PREFIX, VERSION).build();
+  }
+}
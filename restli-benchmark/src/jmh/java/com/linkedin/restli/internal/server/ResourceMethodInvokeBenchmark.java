@@ -0,0 +1,171 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.restli.internal.server.model.ResourceMethodInvoker;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the ways of invoking a resource method with the arguments built for a request:
+ * <ul>
+ *   <li>{@link Method#invoke}, as {@link RestLiMethodInvoker} used to do;</li>
+ *   <li>a {@link MethodHandle} spread over the argument array;</li>
+ *   <li>a {@link MethodHandle} of the method's own arity, called with the arguments taken out of the array;</li>
+ *   <li>the same handle held in a static final field, which the JIT treats as a constant;</li>
+ *   <li>a function generated by {@link LambdaMetafactory} for the method;</li>
+ *   <li>the {@link ResourceMethodInvoker} that {@link RestLiMethodInvoker} now uses, which wraps such a function.</li>
+ * </ul>
+ * Except for the constant handle, all are held in fields, as they would be held by the resource method descriptor, so
+ * the JIT cannot treat them as constants and inline the resource method into the benchmark.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceMethodInvokeBenchmark
+{
+  public static class Resource
+  {
+    public String get(Long key, String field)
+    {
+      return field;
+    }
+  }
+
+  public interface Function2
+  {
+    Object apply(Object resource, Object a0, Object a1);
+  }
+
+  private static final MethodHandle CONSTANT_HANDLE = fixedArityHandle(getMethod());
+
+  private static Method getMethod()
+  {
+    try
+    {
+      return Resource.class.getMethod("get", Long.class, String.class);
+    }
+    catch (NoSuchMethodException e)
+    {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MethodHandle fixedArityHandle(Method method)
+  {
+    try
+    {
+      return MethodHandles.publicLookup()
+          .unreflect(method)
+          .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+    }
+    catch (IllegalAccessException e)
+    {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class InvokeState
+  {
+    Object _resource;
+    Method _method;
+    MethodHandle _handle;
+    MethodHandle _fixedArityHandle;
+    Function2 _function;
+    ResourceMethodInvoker _invoker;
+    Object[] _arguments;
+
+    @Setup
+    public void setUp() throws Throwable
+    {
+      _resource = new Resource();
+      _method = getMethod();
+      _handle = MethodHandles.publicLookup()
+          .unreflect(_method)
+          .asSpreader(Object[].class, _method.getParameterCount())
+          .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+      _fixedArityHandle = fixedArityHandle(_method);
+
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      final MethodHandle target = lookup.unreflect(_method);
+      _function = (Function2) LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function2.class),
+          MethodType.methodType(Object.class, Object.class, Object.class, Object.class), target, target.type())
+          .getTarget()
+          .invoke();
+
+      _invoker = ResourceMethodInvoker.of(_method);
+      _arguments = new Object[] { 12345L, "field" };
+    }
+  }
+
+  @Benchmark
+  public Object reflection(InvokeState state) throws Exception
+  {
+    return state._method.invoke(state._resource, state._arguments);
+  }
+
+  @Benchmark
+  public Object methodHandle(InvokeState state) throws Throwable
+  {
+    return (Object) state._handle.invokeExact(state._resource, state._arguments);
+  }
+
+  @Benchmark
+  public Object fixedArityHandle(InvokeState state) throws Throwable
+  {
+    final Object[] arguments = state._arguments;
+    return (Object) state._fixedArityHandle.invokeExact(state._resource, arguments[0], arguments[1]);
+  }
+
+  @Benchmark
+  public Object constantHandle(InvokeState state) throws Throwable
+  {
+    final Object[] arguments = state._arguments;
+    return (Object) CONSTANT_HANDLE.invokeExact(state._resource, arguments[0], arguments[1]);
+  }
+
+  @Benchmark
+  public Object lambdaMetafactory(InvokeState state)
+  {
+    final Object[] arguments = state._arguments;
+    return state._function.apply(state._resource, arguments[0], arguments[1]);
+  }
+
+  @Benchmark
+  public Object resourceMethodInvoker(InvokeState state) throws Exception
+  {
+    return state._invoker.invoke(state._resource, state._arguments);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.internal.server.util.RestLiSyntaxException;
+import com.linkedin.restli.server.Key;
+import com.linkedin.restli.server.RestLiConfig;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures {@link RestLiRouter#process} on a server of {@value #RESOURCE_COUNT} collection resources, each with a
+ * subresource. The {@code contextOnly} benchmark measures building the request context alone, which has to be
+ * subtracted from the routing benchmarks.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouterBenchmark
+{
+  private static final int RESOURCE_COUNT = 400;
+
+  @State(Scope.Benchmark)
+  public static class RouterState
+  {
+    @Param({"/resource217/12345", "/resource217/12345/subresource/67890", "/resource217?q=search"})
+    String _path;
+
+    RestLiRouter _router;
+    RestRequest _request;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException
+    {
+      final Method method = RouterBenchmark.class.getDeclaredMethod("contextOnly", RouterState.class);
+      final Map<String, ResourceModel> rootResources = new HashMap<>();
+      for (int i = 0; i < RESOURCE_COUNT; i++)
+      {
+        final ResourceModel resource = collection("resource" + i, "resourceId", null, method);
+        resource.addResourceMethodDescriptor(ResourceMethodDescriptor.createForFinder(method,
+            Collections.emptyList(), "search", null, ResourceMethodDescriptor.InterfaceType.SYNC, new DataMap()));
+        resource.addSubResource("subresource", collection("subresource", "subresourceId", RouterBenchmark.class, method));
+        rootResources.put("/" + resource.getName(), resource);
+      }
+
+      _router = new RestLiRouter(rootResources, new RestLiConfig());
+      _request = new RestRequestBuilder(URI.create(_path))
+          .setHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+              AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString())
+          .build();
+    }
+
+    private static ResourceModel collection(String name, String keyName, Class<?> parentResourceClass, Method method)
+    {
+      final Key key = new Key(keyName, Long.class);
+      final ResourceModel resource = new ResourceModel(key, null, null, Collections.singleton(key), EmptyRecord.class,
+          RouterBenchmark.class, parentResourceClass, name, ResourceType.COLLECTION, "com.linkedin.benchmark");
+      resource.addResourceMethodDescriptor(ResourceMethodDescriptor.createForRestful(ResourceMethod.GET, method,
+          ResourceMethodDescriptor.InterfaceType.SYNC));
+      resource.addResourceMethodDescriptor(ResourceMethodDescriptor.createForRestful(ResourceMethod.GET_ALL, method,
+          ResourceMethodDescriptor.InterfaceType.SYNC));
+      return resource;
+    }
+  }
+
+  @Benchmark
+  public ServerResourceContext contextOnly(RouterState state) throws RestLiSyntaxException
+  {
+    return new ResourceContextImpl(new PathKeysImpl(), state._request, new RequestContext());
+  }
+
+  @Benchmark
+  public ResourceMethodDescriptor route(RouterState state) throws RestLiSyntaxException
+  {
+    return state._router.process(new ResourceContextImpl(new PathKeysImpl(), state._request, new RequestContext()));
+  }
+}
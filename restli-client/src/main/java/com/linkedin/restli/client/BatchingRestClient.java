@@ -0,0 +1,391 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.Callbacks;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.data.schema.PathSpec;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.multiplexer.MultiplexedRequest;
+import com.linkedin.restli.client.multiplexer.MultiplexedResponse;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.client.ResponseFutureImpl;
+import com.linkedin.restli.internal.common.CookieUtil;
+import com.linkedin.util.ArgumentUtil;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Decorator Rest.li {@link Client} implementation that transparently batches GET requests. GET requests to resources
+ * supporting BATCH_GET are held for a short window, and the ones which can be batched together, i.e. which only differ
+ * by their id, are sent as a single BATCH_GET request. The response of each GET request is then extracted from the
+ * BATCH_GET response, as with {@link BatchGetRequestUtil#unbatchKVResponse(Request, Response, Object)}. A GET request
+ * which could not be batched with any other is sent unchanged when the window ends.
+ *
+ * Requests are batched along the {@link BatchingKey} semantics, and must also have the same projection, headers and
+ * cookies. GET requests sent with a non-empty {@link RequestContext} are never batched, since the context may carry
+ * hints which are specific to the request. All the other requests are delegated to the decorated {@link Client}.
+ */
+public class BatchingRestClient implements Client
+{
+  private final Client _client;
+  private final ScheduledExecutorService _scheduler;
+  private final long _windowMs;
+  private final int _maxBatchSize;
+  // Guards the pending batches without a monitor, so that threads enqueuing requests never pin virtual threads
+  private final Lock _pendingBatchesLock = new ReentrantLock();
+  private final Map<BatchKey, Batch> _pendingBatches = new HashMap<>();
+
+  /**
+   * @param client client to send the requests with.
+   * @param scheduler scheduler of the end of the batching windows.
+   * @param windowMs time GET requests are held for batching, counting from the first request of a batch.
+   * @param maxBatchSize number of GET requests after which a batch is sent without waiting for the end of its window.
+   */
+  public BatchingRestClient(Client client, ScheduledExecutorService scheduler, long windowMs, int maxBatchSize)
+  {
+    ArgumentUtil.notNull(client, "client");
+    ArgumentUtil.notNull(scheduler, "scheduler");
+    if (windowMs < 0)
+    {
+      throw new IllegalArgumentException("Invalid batching window: " + windowMs);
+    }
+    if (maxBatchSize < 1)
+    {
+      throw new IllegalArgumentException("Invalid maximum batch size: " + maxBatchSize);
+    }
+
+    _client = client;
+    _scheduler = scheduler;
+    _windowMs = windowMs;
+    _maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Sends the pending batches right away, then shuts down the decorated client.
+   */
+  @Override
+  public void shutdown(Callback<None> callback)
+  {
+    final List<Batch> batches;
+    _pendingBatchesLock.lock();
+    try
+    {
+      batches = new ArrayList<>(_pendingBatches.values());
+      _pendingBatches.clear();
+    }
+    finally
+    {
+      _pendingBatchesLock.unlock();
+    }
+    batches.forEach(Batch::send);
+    _client.shutdown(callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, RequestContext requestContext)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<>(callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, RequestContext requestContext,
+      ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<>(callback, errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      RequestContext requestContext)
+  {
+    return sendRequest(requestBuilder.build(), requestContext);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      RequestContext requestContext, ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(requestBuilder.build(), requestContext, errorHandlingBehavior);
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public <T> void sendRequest(Request<T> request, RequestContext requestContext, Callback<Response<T>> callback)
+  {
+    if (isBatchable(request, requestContext))
+    {
+      enqueue((GetRequest) request, (Callback) callback);
+    }
+    else
+    {
+      _client.sendRequest(request, requestContext, callback);
+    }
+  }
+
+  @Override
+  public <T> void sendRequest(RequestBuilder<? extends Request<T>> requestBuilder, RequestContext requestContext,
+      Callback<Response<T>> callback)
+  {
+    sendRequest(requestBuilder.build(), requestContext, callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request)
+  {
+    return sendRequest(request, new RequestContext());
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(request, new RequestContext(), errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder)
+  {
+    return sendRequest(requestBuilder.build(), new RequestContext());
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(requestBuilder.build(), new RequestContext(), errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> void sendRequest(Request<T> request, Callback<Response<T>> callback)
+  {
+    sendRequest(request, new RequestContext(), callback);
+  }
+
+  @Override
+  public <T> void sendRequest(RequestBuilder<? extends Request<T>> requestBuilder, Callback<Response<T>> callback)
+  {
+    sendRequest(requestBuilder.build(), new RequestContext(), callback);
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest)
+  {
+    _client.sendRequest(multiplexedRequest, new RequestContext(), Callbacks.empty());
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest, Callback<MultiplexedResponse> callback)
+  {
+    _client.sendRequest(multiplexedRequest, new RequestContext(), callback);
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest, RequestContext requestContext,
+      Callback<MultiplexedResponse> callback)
+  {
+    _client.sendRequest(multiplexedRequest, requestContext, callback);
+  }
+
+  private static boolean isBatchable(Request<?> request, RequestContext requestContext)
+  {
+    return request instanceof GetRequest
+        && ((GetRequest<?>) request).getObjectId() != null
+        && request.getResourceProperties().getSupportedMethods().contains(ResourceMethod.BATCH_GET)
+        && requestContext.getLocalAttrs().isEmpty();
+  }
+
+  private <V extends RecordTemplate> void enqueue(GetRequest<V> request, Callback<Response<V>> callback)
+  {
+    final BatchGetKVRequest<Object, V> batchRequest = BatchGetRequestBuilder.batchKV(request);
+    final BatchKey key = new BatchKey(batchRequest);
+    final Batch batch;
+    final boolean created;
+    final boolean full;
+    _pendingBatchesLock.lock();
+    try
+    {
+      Batch pending = _pendingBatches.get(key);
+      created = pending == null;
+      if (created)
+      {
+        pending = new Batch();
+        _pendingBatches.put(key, pending);
+      }
+      pending.add(request, batchRequest, callback);
+      full = pending.size() >= _maxBatchSize;
+      if (full)
+      {
+        _pendingBatches.remove(key);
+      }
+      batch = pending;
+    }
+    finally
+    {
+      _pendingBatchesLock.unlock();
+    }
+
+    // Scheduled out of the lock since scheduling takes the lock of the scheduler. A batch sent because it is full
+    // before the window ends is not sent again.
+    if (created && !full)
+    {
+      _scheduler.schedule(() -> sendIfPending(key, batch), _windowMs, TimeUnit.MILLISECONDS);
+    }
+    if (full)
+    {
+      batch.send();
+    }
+  }
+
+  private void sendIfPending(BatchKey key, Batch batch)
+  {
+    _pendingBatchesLock.lock();
+    try
+    {
+      // The batch may have been sent already because it became full
+      if (!_pendingBatches.remove(key, batch))
+      {
+        return;
+      }
+    }
+    finally
+    {
+      _pendingBatchesLock.unlock();
+    }
+    batch.send();
+  }
+
+  /**
+   * GET requests held for batching together, with the callbacks to complete with their responses.
+   */
+  private final class Batch
+  {
+    private final List<GetRequest<RecordTemplate>> _requests = new ArrayList<>();
+    private final List<BatchGetKVRequest<Object, RecordTemplate>> _batchRequests = new ArrayList<>();
+    private final List<Callback<Response<RecordTemplate>>> _callbacks = new ArrayList<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void add(GetRequest<?> request, BatchGetKVRequest<?, ?> batchRequest, Callback<?> callback)
+    {
+      _requests.add((GetRequest) request);
+      _batchRequests.add((BatchGetKVRequest) batchRequest);
+      _callbacks.add((Callback) callback);
+    }
+
+    private int size()
+    {
+      return _requests.size();
+    }
+
+    private void send()
+    {
+      if (_requests.size() == 1)
+      {
+        _client.sendRequest(_requests.get(0), new RequestContext(), _callbacks.get(0));
+        return;
+      }
+
+      final BatchGetKVRequest<Object, RecordTemplate> batchRequest = BatchGetRequestBuilder.batchKV(_batchRequests, false);
+      _client.sendRequest(batchRequest, new RequestContext(), new Callback<Response<BatchKVResponse<Object, RecordTemplate>>>()
+      {
+        @Override
+        public void onError(Throwable e)
+        {
+          _callbacks.forEach(callback -> callback.onError(e));
+        }
+
+        @Override
+        public void onSuccess(Response<BatchKVResponse<Object, RecordTemplate>> result)
+        {
+          for (int i = 0; i < _requests.size(); i++)
+          {
+            final Response<RecordTemplate> response;
+            try
+            {
+              response = BatchGetRequestUtil.unbatchKVResponse(batchRequest, result, _requests.get(i).getObjectId());
+            }
+            catch (RemoteInvocationException e)
+            {
+              _callbacks.get(i).onError(e);
+              continue;
+            }
+            _callbacks.get(i).onSuccess(response);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Identifies the GET requests which can be batched together.
+   */
+  private static final class BatchKey
+  {
+    private final BatchingKey<RecordTemplate, BatchGetKVRequest<?, ?>> _batchingKey;
+    private final Set<PathSpec> _fields;
+    private final Map<String, String> _headers;
+    private final List<String> _cookies;
+
+    private BatchKey(BatchGetKVRequest<?, ?> request)
+    {
+      _batchingKey = new BatchingKey<>(request, false);
+      _fields = request.getFields();
+      _headers = request.getHeaders();
+      // Encoded, as cookies with different values are equal
+      _cookies = CookieUtil.encodeCookies(request.getCookies());
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass())
+      {
+        return false;
+      }
+      BatchKey that = (BatchKey) o;
+      return _batchingKey.equals(that._batchingKey) && Objects.equals(_fields, that._fields)
+          && Objects.equals(_headers, that._headers) && Objects.equals(_cookies, that._cookies);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(_batchingKey, _fields, _headers, _cookies);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Blocking facade of a {@link Client}, such as a {@link RestClient} sending requests through D2, for the services which
+ * handle each request on its own thread and wait for the responses of their downstream calls.
+ *
+ * The calling thread waits for the response by parking, without holding any monitor, from sending the request until
+ * its response is decoded. This client can then be called from virtual threads without pinning their carrier thread,
+ * which lets a thread-per-request service have as many outstanding calls as it has requests in flight instead of as
+ * many as it has platform threads.
+ *
+ * Unlike {@link ResponseFuture#getResponse()}, an interrupted wait restores the interrupt status of the thread before
+ * throwing, so that the interruption is not lost for the caller. An interrupted or timed out wait also cancels the
+ * future of the response, for the clients which support cancelling their outstanding requests.
+ */
+public class BlockingRestClient
+{
+  private final Client _client;
+
+  /**
+   * @param client client which sends the requests.
+   */
+  public BlockingRestClient(Client client)
+  {
+    _client = client;
+  }
+
+  /**
+   * @return the client which sends the requests.
+   */
+  public Client getClient()
+  {
+    return _client;
+  }
+
+  /**
+   * Sends a request and waits for its response.
+   *
+   * @param request to send
+   * @return the response of the request
+   * @throws RemoteInvocationException if the request failed, or if the thread was interrupted while waiting
+   */
+  public <T> Response<T> sendRequest(Request<T> request) throws RemoteInvocationException
+  {
+    return sendRequest(request, new RequestContext());
+  }
+
+  /**
+   * Sends a request and waits for its response.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @return the response of the request
+   * @throws RemoteInvocationException if the request failed, or if the thread was interrupted while waiting
+   */
+  public <T> Response<T> sendRequest(Request<T> request, RequestContext requestContext) throws RemoteInvocationException
+  {
+    return sendRequest(request, requestContext, ErrorHandlingBehavior.FAIL_ON_ERROR);
+  }
+
+  /**
+   * Sends a request and waits for its response.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param errorHandlingBehavior whether error responses are returned or thrown
+   * @return the response of the request
+   * @throws RemoteInvocationException if the request failed, or if the thread was interrupted while waiting
+   */
+  public <T> Response<T> sendRequest(Request<T> request, RequestContext requestContext,
+      ErrorHandlingBehavior errorHandlingBehavior) throws RemoteInvocationException
+  {
+    final ResponseFuture<T> future = _client.sendRequest(request, requestContext, errorHandlingBehavior);
+    try
+    {
+      return future.getResponse();
+    }
+    catch (RemoteInvocationException e)
+    {
+      cancelIfInterrupted(future, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Sends a request and waits at most the given time for its response. The time is also the timeout of the request
+   * unless the request context sets a shorter one, so that the request is not kept outstanding after the caller gave
+   * up on it. The request is then sent with a copy of the request context, so that the context of the caller is left
+   * as is.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param timeout maximum time to wait for the response
+   * @param unit unit of the timeout
+   * @return the response of the request
+   * @throws RemoteInvocationException if the request failed, or if the thread was interrupted while waiting
+   * @throws TimeoutException if the response was not received in time
+   */
+  public <T> Response<T> sendRequest(Request<T> request, RequestContext requestContext, long timeout, TimeUnit unit)
+      throws RemoteInvocationException, TimeoutException
+  {
+    final long timeoutMs = unit.toMillis(timeout);
+    final Object requestTimeout = requestContext.getLocalAttr(R2Constants.REQUEST_TIMEOUT);
+    RequestContext sentContext = requestContext;
+    if (!(requestTimeout instanceof Number) || ((Number) requestTimeout).longValue() > timeoutMs)
+    {
+      sentContext = requestContext.clone();
+      sentContext.putLocalAttr(R2Constants.REQUEST_TIMEOUT, (int) Math.min(Integer.MAX_VALUE, timeoutMs));
+    }
+
+    final ResponseFuture<T> future = _client.sendRequest(request, sentContext);
+    try
+    {
+      return future.getResponse(timeout, unit);
+    }
+    catch (RemoteInvocationException e)
+    {
+      cancelIfInterrupted(future, e);
+      throw e;
+    }
+    catch (TimeoutException e)
+    {
+      future.cancel(true);
+      throw e;
+    }
+  }
+
+  private static void cancelIfInterrupted(ResponseFuture<?> future, RemoteInvocationException e)
+  {
+    if (e.getCause() instanceof InterruptedException)
+    {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,671 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.Callbacks;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.multiplexer.MultiplexedRequest;
+import com.linkedin.restli.client.multiplexer.MultiplexedResponse;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.EntityResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.ResourceProperties;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.common.TypeSpec;
+import com.linkedin.restli.internal.client.ResponseFutureImpl;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import com.linkedin.restli.internal.client.response.BatchEntityResponse;
+import com.linkedin.restli.internal.common.CookieUtil;
+import com.linkedin.restli.internal.common.ProtocolVersionUtil;
+import com.linkedin.util.ArgumentUtil;
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SystemClock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Decorator Rest.li {@link Client} implementation that caches the entities returned by GET and BATCH_GET requests. The
+ * entities are cached by resource, key, projection, query parameters, headers and cookies, so a BATCH_GET request reuses the
+ * entities of earlier GET requests and the other way around. {@link BatchGetEntityRequest}s are served key by key: the
+ * keys found in the cache are removed from the request sent, and their entities are merged into its response.
+ *
+ * Entities are cached for the time to live of their resource, set with {@link #setTimeToLive(String, long)}. For a
+ * while after their time to live, stale entities are still served, but trigger a refresh of the entity in the
+ * background. The number of cached entities is bounded, the least used ones being evicted first.
+ *
+ * Entities served from the cache are shared by all the callers, and are therefore read-only. They are served with the
+ * headers of the response they were cached from, but without its cookies.
+ */
+public class CachingRestClient implements Client
+{
+  private final Client _client;
+  private final long _defaultTimeToLiveMs;
+  private final long _staleWhileRevalidateMs;
+  private final Clock _clock;
+  private final ConcurrentMap<String, Long> _timeToLiveByResource = new ConcurrentHashMap<>();
+  private final Cache<EntryKey, Entry> _cache;
+
+  /**
+   * @param client client to send the requests with.
+   * @param maxEntries maximum number of cached entities.
+   * @param defaultTimeToLiveMs time to live of the entities of resources without their own time to live, or 0 to only
+   *                            cache the resources with their own time to live.
+   * @param staleWhileRevalidateMs time stale entities are still served after their time to live, while they are
+   *                               refreshed.
+   */
+  public CachingRestClient(Client client, long maxEntries, long defaultTimeToLiveMs, long staleWhileRevalidateMs)
+  {
+    this(client, maxEntries, defaultTimeToLiveMs, staleWhileRevalidateMs, SystemClock.instance());
+  }
+
+  CachingRestClient(Client client, long maxEntries, long defaultTimeToLiveMs, long staleWhileRevalidateMs, Clock clock)
+  {
+    ArgumentUtil.notNull(client, "client");
+    if (defaultTimeToLiveMs < 0 || staleWhileRevalidateMs < 0)
+    {
+      throw new IllegalArgumentException("Invalid time to live: " + defaultTimeToLiveMs + ", " + staleWhileRevalidateMs);
+    }
+
+    _client = client;
+    _defaultTimeToLiveMs = defaultTimeToLiveMs;
+    _staleWhileRevalidateMs = staleWhileRevalidateMs;
+    _clock = clock;
+    _cache = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfter(new Expiry<EntryKey, Entry>()
+        {
+          @Override
+          public long expireAfterCreate(EntryKey key, Entry entry, long currentTime)
+          {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry._staleUntil - _clock.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(EntryKey key, Entry entry, long currentTime, long currentDuration)
+          {
+            return expireAfterCreate(key, entry, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(EntryKey key, Entry entry, long currentTime, long currentDuration)
+          {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Sets the time to live of the entities of a resource.
+   *
+   * @param baseUriTemplate base URI template of the resource, as in {@link Request#getBaseUriTemplate()}.
+   * @param timeToLiveMs time to live of the entities of the resource, or 0 to not cache them.
+   */
+  public void setTimeToLive(String baseUriTemplate, long timeToLiveMs)
+  {
+    if (timeToLiveMs < 0)
+    {
+      throw new IllegalArgumentException("Invalid time to live: " + timeToLiveMs);
+    }
+    _timeToLiveByResource.put(baseUriTemplate, timeToLiveMs);
+  }
+
+  /**
+   * Removes all the cached entities.
+   */
+  public void invalidateAll()
+  {
+    _cache.invalidateAll();
+  }
+
+  /**
+   * @return number of cached entities, including stale ones.
+   */
+  public long size()
+  {
+    _cache.cleanUp();
+    return _cache.estimatedSize();
+  }
+
+  @Override
+  public void shutdown(Callback<None> callback)
+  {
+    _cache.invalidateAll();
+    _client.shutdown(callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, RequestContext requestContext)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<>(callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, RequestContext requestContext,
+      ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<>(callback, errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      RequestContext requestContext)
+  {
+    return sendRequest(requestBuilder.build(), requestContext);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      RequestContext requestContext, ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(requestBuilder.build(), requestContext, errorHandlingBehavior);
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public <T> void sendRequest(Request<T> request, RequestContext requestContext, Callback<Response<T>> callback)
+  {
+    final long timeToLiveMs = getTimeToLive(request);
+    if (timeToLiveMs > 0 && request instanceof GetRequest && ((GetRequest<?>) request).getObjectId() != null)
+    {
+      sendGetRequest((GetRequest) request, requestContext, (Callback) callback, timeToLiveMs);
+    }
+    else if (timeToLiveMs > 0 && request instanceof BatchGetEntityRequest)
+    {
+      sendBatchGetRequest((BatchGetEntityRequest) request, requestContext, (Callback) callback, timeToLiveMs);
+    }
+    else
+    {
+      _client.sendRequest(request, requestContext, callback);
+    }
+  }
+
+  @Override
+  public <T> void sendRequest(RequestBuilder<? extends Request<T>> requestBuilder, RequestContext requestContext,
+      Callback<Response<T>> callback)
+  {
+    sendRequest(requestBuilder.build(), requestContext, callback);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request)
+  {
+    return sendRequest(request, new RequestContext());
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(request, new RequestContext(), errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder)
+  {
+    return sendRequest(requestBuilder.build(), new RequestContext());
+  }
+
+  @Override
+  public <T> ResponseFuture<T> sendRequest(RequestBuilder<? extends Request<T>> requestBuilder,
+      ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(requestBuilder.build(), new RequestContext(), errorHandlingBehavior);
+  }
+
+  @Override
+  public <T> void sendRequest(Request<T> request, Callback<Response<T>> callback)
+  {
+    sendRequest(request, new RequestContext(), callback);
+  }
+
+  @Override
+  public <T> void sendRequest(RequestBuilder<? extends Request<T>> requestBuilder, Callback<Response<T>> callback)
+  {
+    sendRequest(requestBuilder.build(), new RequestContext(), callback);
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest)
+  {
+    _client.sendRequest(multiplexedRequest, new RequestContext(), Callbacks.empty());
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest, Callback<MultiplexedResponse> callback)
+  {
+    _client.sendRequest(multiplexedRequest, new RequestContext(), callback);
+  }
+
+  @Override
+  public void sendRequest(MultiplexedRequest multiplexedRequest, RequestContext requestContext,
+      Callback<MultiplexedResponse> callback)
+  {
+    _client.sendRequest(multiplexedRequest, requestContext, callback);
+  }
+
+  private long getTimeToLive(Request<?> request)
+  {
+    return _timeToLiveByResource.getOrDefault(request.getBaseUriTemplate(), _defaultTimeToLiveMs);
+  }
+
+  private <V extends RecordTemplate> void sendGetRequest(GetRequest<V> request, RequestContext requestContext,
+      Callback<Response<V>> callback, long timeToLiveMs)
+  {
+    final EntryKey key = new EntryKey(new RequestKey(request), request.getObjectId());
+    final Entry entry = lookup(key);
+    if (entry != null)
+    {
+      if (entry.needsRefresh(_clock.currentTimeMillis()))
+      {
+        _client.sendRequest(request, new RequestContext(), new StoringCallback<>(key, timeToLiveMs, entry));
+      }
+      @SuppressWarnings("unchecked")
+      final V record = (V) entry._record;
+      callback.onSuccess(new ResponseImpl<>(HttpStatus.S_200_OK.getCode(), entry._headers, Collections.emptyList(),
+          record, null));
+      return;
+    }
+
+    _client.sendRequest(request, requestContext, new Callback<Response<V>>()
+    {
+      @Override
+      public void onError(Throwable e)
+      {
+        callback.onError(e);
+      }
+
+      @Override
+      public void onSuccess(Response<V> result)
+      {
+        if (result.getStatus() == HttpStatus.S_200_OK.getCode())
+        {
+          store(key, result, result.getEntity(), timeToLiveMs);
+        }
+        callback.onSuccess(result);
+      }
+    });
+  }
+
+  private <K, V extends RecordTemplate> void sendBatchGetRequest(BatchGetEntityRequest<K, V> request,
+      RequestContext requestContext, Callback<Response<BatchKVResponse<K, EntityResponse<V>>>> callback,
+      long timeToLiveMs)
+  {
+    final RequestKey requestKey = new RequestKey(request);
+    final long now = _clock.currentTimeMillis();
+    final Map<K, V> cached = new HashMap<>();
+    final Set<K> missing = new HashSet<>();
+    final Set<K> stale = new HashSet<>();
+    Map<String, String> cachedHeaders = null;
+    for (Object id : request.getObjectIds())
+    {
+      @SuppressWarnings("unchecked")
+      final K key = (K) id;
+      final Entry entry = lookup(new EntryKey(requestKey, key));
+      if (entry == null)
+      {
+        missing.add(key);
+        continue;
+      }
+      @SuppressWarnings("unchecked")
+      final V record = (V) entry._record;
+      cached.put(key, record);
+      if (cachedHeaders == null)
+      {
+        cachedHeaders = entry._headers;
+      }
+      if (entry.needsRefresh(now))
+      {
+        stale.add(key);
+      }
+    }
+
+    if (!stale.isEmpty())
+    {
+      _client.sendRequest(withIds(request, stale), new RequestContext(),
+          new BatchStoringCallback<>(requestKey, timeToLiveMs, Callbacks.empty()));
+    }
+
+    if (missing.isEmpty())
+    {
+      // Served with the headers of the response of one of the entities, as a single response would have them all
+      final BatchKVResponse<K, EntityResponse<V>> entity =
+          toBatchResponse(request, cached, ProtocolVersionUtil.extractProtocolVersion(cachedHeaders));
+      callback.onSuccess(new ResponseImpl<>(HttpStatus.S_200_OK.getCode(), cachedHeaders, Collections.emptyList(),
+          entity, null));
+      return;
+    }
+
+    final BatchGetEntityRequest<K, V> sentRequest = cached.isEmpty() ? request : withIds(request, missing);
+    _client.sendRequest(sentRequest, requestContext,
+        new BatchStoringCallback<>(requestKey, timeToLiveMs, new Callback<Response<BatchKVResponse<K, EntityResponse<V>>>>()
+        {
+          @Override
+          public void onError(Throwable e)
+          {
+            callback.onError(e);
+          }
+
+          @Override
+          public void onSuccess(Response<BatchKVResponse<K, EntityResponse<V>>> result)
+          {
+            if (cached.isEmpty())
+            {
+              callback.onSuccess(result);
+              return;
+            }
+            final BatchKVResponse<K, EntityResponse<V>> entity =
+                toBatchResponse(request, cached, ProtocolVersionUtil.extractProtocolVersion(result.getHeaders()));
+            entity.merge(result.getEntity());
+            callback.onSuccess(new ResponseImpl<>(result, entity));
+          }
+        }));
+  }
+
+  private Entry lookup(EntryKey key)
+  {
+    final Entry entry = _cache.getIfPresent(key);
+    if (entry == null || entry._staleUntil <= _clock.currentTimeMillis())
+    {
+      return null;
+    }
+    return entry;
+  }
+
+  private void store(EntryKey key, Response<?> response, RecordTemplate record, long timeToLiveMs)
+  {
+    if (record == null)
+    {
+      return;
+    }
+
+    final RecordTemplate copy;
+    try
+    {
+      copy = record.copy();
+    }
+    catch (CloneNotSupportedException e)
+    {
+      return;
+    }
+    copy.data().makeReadOnly();
+    final long expiresAt = _clock.currentTimeMillis() + timeToLiveMs;
+    final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.putAll(response.getHeaders());
+    _cache.put(key, new Entry(copy, Collections.unmodifiableMap(headers), expiresAt,
+        expiresAt + _staleWhileRevalidateMs));
+  }
+
+  /**
+   * @return a copy of the request for the given subset of its ids.
+   */
+  @SuppressWarnings("deprecation")
+  private static <K, V extends RecordTemplate> BatchGetEntityRequest<K, V> withIds(BatchGetEntityRequest<K, V> request,
+      Set<K> ids)
+  {
+    final Map<String, Object> queryParams = new HashMap<>(request.getQueryParamsObjects());
+    queryParams.put(RestConstants.QUERY_BATCH_IDS_PARAM, ids);
+    return new BatchGetEntityRequest<>(request.getHeaders(),
+        request.getCookies(),
+        request.getResponseDecoder(),
+        Collections.unmodifiableMap(queryParams),
+        request.getQueryParamClasses(),
+        request.getResourceSpec(),
+        request.getBaseUriTemplate(),
+        request.getPathKeys(),
+        request.getRequestOptions());
+  }
+
+  /**
+   * @return a response of the request for the given cached entities.
+   */
+  @SuppressWarnings("unchecked")
+  private static <K, V extends RecordTemplate> BatchKVResponse<K, EntityResponse<V>> toBatchResponse(
+      BatchGetEntityRequest<K, V> request, Map<K, V> cached, ProtocolVersion version)
+  {
+    final DataMap results = new DataMap();
+    final DataMap statuses = new DataMap();
+    cached.forEach((key, record) ->
+    {
+      final String keyString = BatchResponse.keyToString(key, version);
+      results.put(keyString, record.data());
+      statuses.put(keyString, HttpStatus.S_200_OK.getCode());
+    });
+    final DataMap data = new DataMap();
+    data.put(BatchResponse.RESULTS, results);
+    data.put(BatchResponse.STATUSES, statuses);
+    data.put(BatchResponse.ERRORS, new DataMap());
+
+    final ResourceProperties properties = request.getResourceProperties();
+    return new BatchEntityResponse<>(data,
+        (TypeSpec<K>) properties.getKeyType(),
+        (TypeSpec<V>) properties.getValueType(),
+        properties.getKeyParts(),
+        properties.getComplexKeyType(),
+        version);
+  }
+
+  /**
+   * Caches the entity of a GET response, and clears the refresh flag of the stale entry it replaces.
+   */
+  private final class StoringCallback<V extends RecordTemplate> implements Callback<Response<V>>
+  {
+    private final EntryKey _key;
+    private final long _timeToLiveMs;
+    private final Entry _staleEntry;
+
+    private StoringCallback(EntryKey key, long timeToLiveMs, Entry staleEntry)
+    {
+      _key = key;
+      _timeToLiveMs = timeToLiveMs;
+      _staleEntry = staleEntry;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _staleEntry._refreshing.set(false);
+    }
+
+    @Override
+    public void onSuccess(Response<V> result)
+    {
+      if (result.getStatus() == HttpStatus.S_200_OK.getCode())
+      {
+        store(_key, result, result.getEntity(), _timeToLiveMs);
+      }
+      _staleEntry._refreshing.set(false);
+    }
+  }
+
+  /**
+   * Caches the successful entities of a BATCH_GET response before completing the given callback.
+   */
+  private final class BatchStoringCallback<K, V extends RecordTemplate>
+      implements Callback<Response<BatchKVResponse<K, EntityResponse<V>>>>
+  {
+    private final RequestKey _requestKey;
+    private final long _timeToLiveMs;
+    private final Callback<Response<BatchKVResponse<K, EntityResponse<V>>>> _callback;
+
+    private BatchStoringCallback(RequestKey requestKey, long timeToLiveMs,
+        Callback<Response<BatchKVResponse<K, EntityResponse<V>>>> callback)
+    {
+      _requestKey = requestKey;
+      _timeToLiveMs = timeToLiveMs;
+      _callback = callback;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _callback.onError(e);
+    }
+
+    @Override
+    public void onSuccess(Response<BatchKVResponse<K, EntityResponse<V>>> result)
+    {
+      result.getEntity().getResults().forEach((key, entityResponse) ->
+      {
+        if (entityResponse.getError() == null && entityResponse.hasEntry()
+            && (!entityResponse.hasStatus() || entityResponse.getStatus() == HttpStatus.S_200_OK))
+        {
+          store(new EntryKey(_requestKey, key), result, entityResponse.getEntity(), _timeToLiveMs);
+        }
+      });
+      _callback.onSuccess(result);
+    }
+  }
+
+  private static final class Entry
+  {
+    private final RecordTemplate _record;
+    private final Map<String, String> _headers;
+    private final long _expiresAt;
+    private final long _staleUntil;
+    private final AtomicBoolean _refreshing = new AtomicBoolean();
+
+    private Entry(RecordTemplate record, Map<String, String> headers, long expiresAt, long staleUntil)
+    {
+      _record = record;
+      _headers = headers;
+      _expiresAt = expiresAt;
+      _staleUntil = staleUntil;
+    }
+
+    /**
+     * @return true if the entry is stale and nobody refreshes it yet, in which case the caller must refresh it.
+     */
+    private boolean needsRefresh(long now)
+    {
+      return now >= _expiresAt && _refreshing.compareAndSet(false, true);
+    }
+  }
+
+  /**
+   * Identifies what a GET or BATCH_GET request returns for any of its keys: the resource, projection, query parameters
+   * other than the ids, headers and cookies, which may carry the authentication of the caller.
+   */
+  private static final class RequestKey
+  {
+    private final String _baseUriTemplate;
+    private final Map<String, Object> _pathKeys;
+    private final Map<String, Object> _queryParams;
+    private final Map<String, String> _headers;
+    private final List<String> _cookies;
+    private final int _hashCode;
+
+    private RequestKey(Request<?> request)
+    {
+      _baseUriTemplate = request.getBaseUriTemplate();
+      _pathKeys = request.getPathKeys();
+      if (request.getQueryParamsObjects().containsKey(RestConstants.QUERY_BATCH_IDS_PARAM))
+      {
+        _queryParams = new HashMap<>(request.getQueryParamsObjects());
+        _queryParams.remove(RestConstants.QUERY_BATCH_IDS_PARAM);
+      }
+      else
+      {
+        _queryParams = request.getQueryParamsObjects();
+      }
+      _headers = request.getHeaders();
+      // Encoded, as cookies with different values are equal
+      _cookies = CookieUtil.encodeCookies(request.getCookies());
+      _hashCode = Objects.hash(_baseUriTemplate, _pathKeys, _queryParams, _headers, _cookies);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass())
+      {
+        return false;
+      }
+      RequestKey that = (RequestKey) o;
+      return _hashCode == that._hashCode && _baseUriTemplate.equals(that._baseUriTemplate)
+          && Objects.equals(_pathKeys, that._pathKeys) && Objects.equals(_queryParams, that._queryParams)
+          && Objects.equals(_headers, that._headers) && _cookies.equals(that._cookies);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _hashCode;
+    }
+  }
+
+  private static final class EntryKey
+  {
+    private final RequestKey _requestKey;
+    private final Object _id;
+
+    private EntryKey(RequestKey requestKey, Object id)
+    {
+      _requestKey = requestKey;
+      _id = id;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass())
+      {
+        return false;
+      }
+      EntryKey that = (EntryKey) o;
+      return _requestKey.equals(that._requestKey) && _id.equals(that._id);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return 31 * _requestKey.hashCode() + _id.hashCode();
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.metrics.ClientCallMetrics;
+import com.linkedin.restli.client.metrics.ClientMetricsRecorder;
+import com.linkedin.restli.common.ResourceMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Measures a request sent by {@link RestClient}, and records its metrics before passing on its response. The
+ * measurements taken while the request is encoded and its response decoded are added through the
+ * {@link RequestContext} of the request, see {@link #get(RequestContext)}.
+ *
+ * Each measurement is taken on the thread handling that step of the request, and is read once the request completed,
+ * after the hand-offs between these threads.
+ */
+class ClientCallMetricsCallback<T> implements Callback<Response<T>>, ClientCallMetrics
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ClientCallMetricsCallback.class);
+  private static final String REQUEST_CONTEXT_KEY = "RESTLI_CLIENT_CALL_METRICS";
+
+  private final Callback<Response<T>> _callback;
+  private final ClientMetricsRecorder _recorder;
+  private final RequestContext _requestContext;
+  private final String _serviceName;
+  private final String _resourceMethodIdentifier;
+  private final ResourceMethod _method;
+  private final int _partitionId;
+  private final boolean _hedged;
+  private final long _startNanos = System.nanoTime();
+
+  private long _encodeNanos = -1;
+  private int _requestSize = -1;
+  private long _responseReceivedNanos = -1;
+  private int _responseSize = -1;
+  private long _latencyNanos;
+  private long _decodeNanos = -1;
+  private Throwable _error;
+
+  ClientCallMetricsCallback(Request<T> request, RequestContext requestContext, int partitionId, boolean hedged,
+      ClientMetricsRecorder recorder, Callback<Response<T>> callback)
+  {
+    _callback = callback;
+    _recorder = recorder;
+    _requestContext = requestContext;
+    _serviceName = request.getServiceName();
+    _resourceMethodIdentifier = request.getResourceMethodIdentifier();
+    _method = request.getMethod();
+    _partitionId = partitionId;
+    _hedged = hedged;
+    requestContext.putLocalAttr(REQUEST_CONTEXT_KEY, this);
+  }
+
+  /**
+   * @return the metrics of the request being sent with the given context, or null if the client records no metrics.
+   */
+  static ClientCallMetricsCallback<?> get(RequestContext requestContext)
+  {
+    return (ClientCallMetricsCallback<?>) requestContext.getLocalAttr(REQUEST_CONTEXT_KEY);
+  }
+
+  /**
+   * Records that the request was built.
+   *
+   * @param encodeStartNanos time at which building the request started
+   * @param requestSize size of the body of the request, or -1 if unknown
+   */
+  void onRequestEncoded(long encodeStartNanos, int requestSize)
+  {
+    _encodeNanos = System.nanoTime() - encodeStartNanos;
+    _requestSize = requestSize;
+  }
+
+  /**
+   * Records that the response was received, before it is decoded.
+   *
+   * @param responseSize size of the body of the response, or -1 if unknown
+   */
+  void onResponseReceived(int responseSize)
+  {
+    _responseReceivedNanos = System.nanoTime();
+    _responseSize = responseSize;
+  }
+
+  @Override
+  public void onSuccess(Response<T> result)
+  {
+    record(null);
+    _callback.onSuccess(result);
+  }
+
+  @Override
+  public void onError(Throwable e)
+  {
+    record(e);
+    _callback.onError(e);
+  }
+
+  private void record(Throwable error)
+  {
+    final long nowNanos = System.nanoTime();
+    _latencyNanos = nowNanos - _startNanos;
+    if (_responseReceivedNanos >= 0)
+    {
+      _decodeNanos = nowNanos - _responseReceivedNanos;
+    }
+    _error = error;
+    // The context may be reused for other requests
+    _requestContext.removeLocalAttr(REQUEST_CONTEXT_KEY);
+
+    try
+    {
+      _recorder.record(this);
+    }
+    catch (RuntimeException e)
+    {
+      LOG.warn("Failed to record the metrics of a request to " + _resourceMethodIdentifier, e);
+    }
+  }
+
+  @Override
+  public String getServiceName()
+  {
+    return _serviceName;
+  }
+
+  @Override
+  public String getResourceMethodIdentifier()
+  {
+    return _resourceMethodIdentifier;
+  }
+
+  @Override
+  public ResourceMethod getMethod()
+  {
+    return _method;
+  }
+
+  @Override
+  public long getLatencyNanos()
+  {
+    return _latencyNanos;
+  }
+
+  @Override
+  public long getEncodeNanos()
+  {
+    return _encodeNanos;
+  }
+
+  @Override
+  public long getDecodeNanos()
+  {
+    return _decodeNanos;
+  }
+
+  @Override
+  public int getRequestSize()
+  {
+    return _requestSize;
+  }
+
+  @Override
+  public int getResponseSize()
+  {
+    return _responseSize;
+  }
+
+  @Override
+  public Throwable getError()
+  {
+    return _error;
+  }
+
+  @Override
+  public int getPartitionId()
+  {
+    return _partitionId;
+  }
+
+  @Override
+  public boolean isHedged()
+  {
+    return _hedged;
+  }
+}
@@ -24,6 +24,7 @@ import com.linkedin.d2.balancer.util.URIKeyPair;
 import com.linkedin.d2.balancer.util.URIMappingResult;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.internal.common.util.CollectionUtils;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.restli.client.response.BatchKVResponse;
 import com.linkedin.restli.client.uribuilders.RestliUriBuilderUtil;
@@ -63,10 +64,26 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
   private static final Set<ResourceMethod> SG_STRATEGY_METHODS = EnumSet.of(ResourceMethod.BATCH_GET, ResourceMethod.BATCH_DELETE,
           ResourceMethod.BATCH_PARTIAL_UPDATE, ResourceMethod.BATCH_UPDATE);
   private final URIMapper _uriMapper;
+  private final PartitionKeyEncoder _partitionKeyEncoder;
 
   public DefaultScatterGatherStrategy(URIMapper uriMapper)
+  {
+    this(uriMapper, null);
+  }
+
+  /**
+   * Creates a strategy which maps the keys of batch requests to hosts by their partition key, without building a request
+   * URI per key, whenever the {@link URIMapper} supports it for the service. Partition keys are encoded by the given
+   * encoder, which must produce what the partition key regex of the service would extract from the request URI of a key.
+   * {@link #getUris(Request, ProtocolVersion)} is not used for the requests mapped that way.
+   *
+   * @param uriMapper mapper of requests to hosts.
+   * @param partitionKeyEncoder encoder of resource keys into partition keys, or null to always map request URIs.
+   */
+  public DefaultScatterGatherStrategy(URIMapper uriMapper, PartitionKeyEncoder partitionKeyEncoder)
   {
     _uriMapper = uriMapper;
+    _partitionKeyEncoder = partitionKeyEncoder;
   }
 
   /**
@@ -206,11 +223,15 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
    * ProtocolVersion, Map, Map, Map, Callback)} to handle custom response gathering.
    */
   @Override
-  @SuppressWarnings("rawtypes")
   public <K, T> List<URIKeyPair<K>> getUris(Request<T> request, ProtocolVersion version) {
     BatchRequest<T> batchRequest = safeCastRequest(request);
     @SuppressWarnings("unchecked")
     Set<K> keys = (Set<K>) batchRequest.getObjectIds();
+    return getUris(batchRequest, keys, version);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private <K, T> List<URIKeyPair<K>> getUris(BatchRequest<T> batchRequest, Set<K> keys, ProtocolVersion version) {
     return keys.stream()
         .map(key -> {
           Request unbatchRequestByKey = unbatchRequestByKey(batchRequest, key);
@@ -238,6 +259,44 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
     return _uriMapper.mapUris(uris);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * If this strategy has a {@link PartitionKeyEncoder} and the {@link URIMapper} supports key mapping for the service,
+   * the keys of the batch request are mapped by their partition key. Otherwise, their URIs are mapped as usual.
+   */
+  @Override
+  public <K, T> URIMappingResult<K> mapRequest(Request<T> request, ProtocolVersion version)
+      throws ServiceUnavailableException
+  {
+    if (_partitionKeyEncoder != null && _uriMapper.isKeyMappingSupported(request.getServiceName()))
+    {
+      BatchRequest<T> batchRequest = safeCastRequest(request);
+      @SuppressWarnings("unchecked")
+      Set<K> keys = (Set<K>) batchRequest.getObjectIds();
+      Map<K, String> partitionKeys = new HashMap<>(CollectionUtils.getMapInitialCapacity(keys.size(), 0.75f), 0.75f);
+      for (K key : keys)
+      {
+        partitionKeys.put(key, _partitionKeyEncoder.encode(key, version));
+      }
+      return _uriMapper.mapKeys(request.getServiceName(), partitionKeys);
+    }
+    return ScatterGatherStrategy.super.mapRequest(request, version);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The URIs of the given keys are mapped by {@link URIMapper#mapUris(List, URI)}, which picks the next host of the
+   * hash ring of their partition instead of the excluded host.
+   */
+  @Override
+  public <K, T> URIMappingResult<K> mapKeysToOtherHosts(Request<T> request, ProtocolVersion version, Set<K> keys,
+      URI excludedHost) throws ServiceUnavailableException
+  {
+    return _uriMapper.mapUris(getUris(safeCastRequest(request), keys, version), excludedHost);
+  }
+
   /**
    * Get corresponding batch request builder for the given batch request, with given keys or body properly
    * set in the builder.
@@ -615,7 +674,7 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
    * {@inheritDoc}
    */
   @Override
-  @SuppressWarnings("unchecked")
+  @SuppressWarnings({"unchecked", "rawtypes"})
   public <K, T> void onAllResponsesReceived(Request<T> request, ProtocolVersion protocolVersion,
                                             Map<RequestInfo, Response<T>> successResponses,
                                             Map<RequestInfo, Throwable> failureResponses,
@@ -623,10 +682,16 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
                                             Callback<Response<T>> callback)
   {
     BatchRequest<T> batchRequest = safeCastRequest(request);
+    // BATCH_GET responses already decoded into BatchKVResponse are merged after the final response is constructed,
+    // so that their keys are not decoded again
+    boolean mergeDecodedResponses = batchRequest instanceof BatchGetKVRequest || batchRequest instanceof BatchGetEntityRequest;
     // initialize an empty dataMap for final response entity
     DataMap gatheredResponseDataMap = initializeResponseContainer();
     // gather success response
-    successResponses.forEach((req, response) -> gatherResponse(gatheredResponseDataMap, req, response.getEntity()));
+    if (!mergeDecodedResponses)
+    {
+      successResponses.forEach((req, response) -> gatherResponse(gatheredResponseDataMap, req, response.getEntity()));
+    }
     // gather failure response
     failureResponses.forEach((req, e) ->
             {
@@ -642,6 +707,11 @@ public class DefaultScatterGatherStrategy implements ScatterGatherStrategy
               protocolVersion);
     }
     T gatheredResponse = constructResponseFromDataMap(batchRequest, protocolVersion, gatheredResponseDataMap);
+    if (mergeDecodedResponses)
+    {
+      successResponses.values().forEach(response ->
+          ((BatchKVResponse) gatheredResponse).merge((BatchKVResponse) response.getEntity()));
+    }
     if (!successResponses.isEmpty())
     {
       Response<T> firstResponse = successResponses.values().iterator().next();
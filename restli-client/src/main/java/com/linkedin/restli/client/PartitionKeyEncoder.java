@@ -0,0 +1,45 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.jersey.api.uri.UriComponent;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.internal.common.URIParamUtils;
+
+
+/**
+ * Encodes a resource key into its partition key, which is the string the partition key regex of the service would
+ * extract from the request uri of the key. It lets {@link DefaultScatterGatherStrategy} map the keys of a batch request
+ * to hosts without building a request uri per key.
+ */
+@FunctionalInterface
+public interface PartitionKeyEncoder
+{
+  /**
+   * Encodes the key as the last path segment of its request uri, for services whose partition key regex extracts the
+   * whole key from the path, such as {@code /resource/(\d+)}.
+   */
+  PartitionKeyEncoder PATH_SEGMENT =
+      (key, version) -> URIParamUtils.encodeKeyForUri(key, UriComponent.Type.PATH_SEGMENT, version);
+
+  /**
+   * @param key resource key
+   * @param version protocol version
+   * @return partition key of the resource key.
+   */
+  String encode(Object key, ProtocolVersion version);
+}
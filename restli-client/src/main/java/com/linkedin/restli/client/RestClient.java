@@ -24,8 +24,8 @@ import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.KeyMapper;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
-import com.linkedin.d2.balancer.util.URIKeyPair;
 import com.linkedin.d2.balancer.util.URIMappingResult;
+import com.linkedin.data.ByteString;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.multipart.MultiPartMIMEUtils;
@@ -42,16 +42,22 @@ import com.linkedin.r2.message.stream.StreamRequest;
 import com.linkedin.r2.message.stream.StreamRequestBuilder;
 import com.linkedin.r2.message.stream.StreamResponse;
 import com.linkedin.r2.message.stream.entitystream.ByteStringWriter;
+import com.linkedin.r2.message.stream.entitystream.EntityStream;
+import com.linkedin.r2.message.stream.entitystream.Observer;
 import com.linkedin.r2.message.stream.entitystream.adapter.EntityStreamAdapters;
 import com.linkedin.r2.message.timing.FrameworkTimingKeys;
 import com.linkedin.r2.message.timing.TimingCallback;
 import com.linkedin.r2.message.timing.TimingContextUtil;
+import com.linkedin.restli.client.metrics.ClientMetricsRecorder;
 import com.linkedin.restli.client.multiplexer.MultiplexedCallback;
 import com.linkedin.restli.client.multiplexer.MultiplexedRequest;
 import com.linkedin.restli.client.multiplexer.MultiplexedResponse;
 import com.linkedin.restli.client.uribuilders.MultiplexerUriBuilder;
 import com.linkedin.restli.client.uribuilders.RestliUriBuilderUtil;
 import com.linkedin.restli.client.util.RestLiClientConfig;
+import com.linkedin.restli.common.BatchCollectionResponse;
+import com.linkedin.restli.common.BatchFinderCriteriaResult;
+import com.linkedin.restli.common.CollectionResponse;
 import com.linkedin.restli.common.ContentType;
 import com.linkedin.restli.common.HttpMethod;
 import com.linkedin.restli.common.OperationNameGenerator;
@@ -63,6 +69,9 @@ import com.linkedin.restli.common.attachments.RestLiAttachmentDataSourceWriter;
 import com.linkedin.restli.common.attachments.RestLiDataSourceIterator;
 import com.linkedin.restli.disruptor.DisruptRestController;
 import com.linkedin.restli.disruptor.DisruptRestControllerContainer;
+import com.linkedin.restli.internal.client.BatchCollectionResponseDecoder;
+import com.linkedin.restli.internal.client.CollectionElementStreamDecoder;
+import com.linkedin.restli.internal.client.RequestBodySizeEstimator;
 import com.linkedin.restli.internal.client.RequestBodyTransformer;
 import com.linkedin.restli.internal.client.ResponseFutureImpl;
 import com.linkedin.restli.internal.common.AllProtocolVersions;
@@ -78,8 +87,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import javax.activation.MimeTypeParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -155,6 +162,9 @@ public class RestClient implements Client {
       .expireAfterWrite(Duration.ofSeconds(30))
       .build();
 
+  private final RequestBodySizeEstimator _requestBodySizeEstimator = new RequestBodySizeEstimator();
+  private final ScatterGatherHedgeBudget _scatterGatherHedgeBudget;
+
   /**
    * Constructor
    *
@@ -222,6 +232,10 @@ public class RestClient implements Client {
     _acceptTypes = acceptTypes;
     _contentType = contentType;
     _restLiClientConfig = restLiClientConfig == null ? new RestLiClientConfig() : restLiClientConfig;
+    final ScatterGatherConfig scatterGatherConfig = _restLiClientConfig.getScatterGatherConfig();
+    _scatterGatherHedgeBudget = scatterGatherConfig == null ? null
+        : new ScatterGatherHedgeBudget(scatterGatherConfig.getHedgeBudgetPercent(),
+            scatterGatherConfig.getMaxHedgeBurst());
   }
 
 
@@ -300,8 +314,25 @@ public class RestClient implements Client {
   }
 
   private <T> void sendRequestNoScatterGather(final Request<T> request, final RequestContext requestContext,
-      final Callback<Response<T>> callback)
+      Callback<Response<T>> callback)
+  {
+    sendRequestNoScatterGather(request, requestContext, -1, false, callback);
+  }
+
+  /**
+   * @param partitionId partition of a scattered request, or -1
+   * @param hedged true if the request is a hedged copy of a scattered request
+   */
+  private <T> void sendRequestNoScatterGather(final Request<T> request, final RequestContext requestContext,
+      int partitionId, boolean hedged, Callback<Response<T>> callback)
   {
+    final ClientMetricsRecorder metricsRecorder = _restLiClientConfig.getClientMetricsRecorder();
+    if (metricsRecorder != null)
+    {
+      callback = new ClientCallMetricsCallback<>(request, requestContext, partitionId, hedged, metricsRecorder,
+          callback);
+    }
+
     //Here we need to decide if we want to use StreamRequest/StreamResponse or RestRequest/RestResponse.
     //Eventually we will move completely to StreamRequest/StreamResponse for all traffic.
     //However for the time being we will only use StreamRequest/StreamResponse for traffic that contains attachments.
@@ -315,7 +346,11 @@ public class RestClient implements Client {
     //Note that it is not possible for the list of streaming attachments to be non-null and have 0 elements. If the
     //list of streaming attachments is non null then it must have at least one attachment. The request builders enforce
     //this invariant.
-    if (_restLiClientConfig.isUseStreaming() || request.getStreamingAttachments() != null || request.getRequestOptions().getAcceptResponseAttachments())
+    //
+    //Requests with large bodies are also sent as StreamRequest, if configured, so that their body is encoded while it
+    //is written instead of on the calling thread.
+    if (_restLiClientConfig.isUseStreaming() || request.getStreamingAttachments() != null || request.getRequestOptions().getAcceptResponseAttachments()
+        || hasLargeRequestBody(request))
     {
       //Set content type and accept type correctly and use StreamRequest/StreamResponse
       sendStreamRequest(request, requestContext, new RestLiStreamCallbackAdapter<>(request.getResponseDecoder(), callback, requestContext));
@@ -326,6 +361,26 @@ public class RestClient implements Client {
     }
   }
 
+  private boolean hasLargeRequestBody(Request<?> request)
+  {
+    final String bodySizeKey = getBodySizeKey(request);
+    return bodySizeKey != null
+        && _requestBodySizeEstimator.getEstimate(bodySizeKey) >= _restLiClientConfig.getStreamingRequestBodyThreshold();
+  }
+
+  /**
+   * @return the key of the request type in the {@link RequestBodySizeEstimator}, or null if the request has no body or
+   *         the size of its body is not needed, because bodies are never streamed with the default threshold.
+   */
+  private String getBodySizeKey(Request<?> request)
+  {
+    if (_restLiClientConfig.getStreamingRequestBodyThreshold() == Integer.MAX_VALUE || request.getInputRecord() == null)
+    {
+      return null;
+    }
+    return RequestBodySizeEstimator.getKey(request);
+  }
+
   private <T> void sendStreamRequest(final Request<T> request,
                                      RequestContext requestContext,
                                      Callback<StreamResponse> callback)
@@ -357,6 +412,7 @@ public class RestClient implements Client {
           request.getHeaders(),
           CookieUtil.encodeCookies(request.getCookies()),
           methodName,
+          getBodySizeKey(request),
           protocolVersion,
           request.getRequestOptions(),
           request.getStreamingAttachments(),
@@ -418,6 +474,7 @@ public class RestClient implements Client {
           input != null ? RequestBodyTransformer.transform(request, protocolVersion) : null, request.getHeaders(),
           CookieUtil.encodeCookies(request.getCookies()),
           methodName,
+          getBodySizeKey(request),
           protocolVersion,
           request.getRequestOptions(),
           callback);
@@ -709,6 +766,48 @@ public class RestClient implements Client {
     sendRequest(requestBuilder.build(), new RequestContext(), callback);
   }
 
+  /**
+   * Sends a FINDER or GET_ALL request, and passes its response to the callback as soon as its headers are received,
+   * with the stream of the elements of the collection as its entity. The elements are decoded as they are read from
+   * the stream, and the body of the response is read as the elements are, so that collections of any size can be
+   * consumed in constant memory. The paging and metadata of the collection are not decoded.
+   *
+   * The request is sent as a stream request, and error responses are passed to the callback as they are by
+   * {@link #sendRequest(Request, RequestContext, Callback)}.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param callback to call with the response, whose elements must be read by setting a
+   *                 {@link com.linkedin.entitystream.Reader} on its entity
+   */
+  public <T extends RecordTemplate> void streamElements(Request<CollectionResponse<T>> request,
+      RequestContext requestContext, Callback<Response<com.linkedin.entitystream.EntityStream<T>>> callback)
+  {
+    @SuppressWarnings("unchecked")
+    final Class<T> elementClass = (Class<T>) request.getResponseDecoder().getEntityClass();
+    sendStreamRequest(request, requestContext, new RestLiStreamCallbackAdapter<>(
+        CollectionElementStreamDecoder.forCollection(elementClass), callback, requestContext));
+  }
+
+  /**
+   * Same as {@link #streamElements(Request, RequestContext, Callback)} for BATCH_FINDER requests, the elements of the
+   * stream being the results of each criteria.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param callback to call with the response, whose results must be read by setting a
+   *                 {@link com.linkedin.entitystream.Reader} on its entity
+   */
+  public <T extends RecordTemplate> void streamBatchFinderResults(Request<BatchCollectionResponse<T>> request,
+      RequestContext requestContext,
+      Callback<Response<com.linkedin.entitystream.EntityStream<BatchFinderCriteriaResult<T>>>> callback)
+  {
+    final Class<T> elementClass =
+        ((BatchCollectionResponseDecoder<T>) request.getResponseDecoder()).getElementClass();
+    sendStreamRequest(request, requestContext, new RestLiStreamCallbackAdapter<>(
+        CollectionElementStreamDecoder.forBatchFinder(elementClass), callback, requestContext));
+  }
+
   @Override
   public void sendRequest(MultiplexedRequest multiplexedRequest)
   {
@@ -767,6 +866,8 @@ public class RestClient implements Client {
    * @param headers additional headers to be added to the request
    * @param cookies the cookies to be sent with the request
    * @param methodName the method name (used for finders and actions)
+   * @param bodySizeKey the key of the request type in the {@link RequestBodySizeEstimator}, or null to not record
+   *                    the size of the body
    * @param protocolVersion the version of the Rest.li protocol used to build this request
    * @param requestOptions contains compression force on/off overrides, request content type and accept types
    * @param callback to call on request completion. In the event of an error, the callback
@@ -781,17 +882,24 @@ public class RestClient implements Client {
                                    Map<String, String> headers,
                                    List<String> cookies,
                                    String methodName,
+                                   String bodySizeKey,
                                    ProtocolVersion protocolVersion,
                                    RestliRequestOptions requestOptions,
                                    Callback<RestResponse> callback)
   {
     try
     {
+      final ClientCallMetricsCallback<?> callMetrics = ClientCallMetricsCallback.get(requestContext);
+      final long encodeStartNanos = callMetrics != null ? System.nanoTime() : 0L;
       TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.CLIENT_REQUEST_RESTLI_SERIALIZATION.key());
       RestRequest request =
-          buildRestRequest(uri, method, dataMap, headers, cookies, protocolVersion, requestOptions.getContentType(),
-                           requestOptions.getAcceptTypes(), false);
+          buildRestRequest(uri, method, dataMap, headers, cookies, bodySizeKey, protocolVersion,
+                           requestOptions.getContentType(), requestOptions.getAcceptTypes(), false);
       TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.CLIENT_REQUEST_RESTLI_SERIALIZATION.key());
+      if (callMetrics != null)
+      {
+        callMetrics.onRequestEncoded(encodeStartNanos, dataMap != null ? request.getEntity().length() : -1);
+      }
 
       String operation = OperationNameGenerator.generate(method, methodName);
       requestContext.putLocalAttr(R2Constants.OPERATION, operation);
@@ -824,6 +932,8 @@ public class RestClient implements Client {
    * @param headers additional headers to be added to the request
    * @param cookies the cookies to be sent with the request
    * @param methodName the method name (used for finders and actions)
+   * @param bodySizeKey the key of the request type in the {@link RequestBodySizeEstimator}, or null to not record
+   *                    the size of the body
    * @param protocolVersion the version of the Rest.li protocol used to build this request
    * @param requestOptions contains compression force on/off overrides, request content type and accept types
    * @param callback to call on request completion. In the event of an error, the callback
@@ -838,6 +948,7 @@ public class RestClient implements Client {
                                      Map<String, String> headers,
                                      List<String> cookies,
                                      String methodName,
+                                     String bodySizeKey,
                                      ProtocolVersion protocolVersion,
                                      RestliRequestOptions requestOptions,
                                      List<Object> streamingAttachments,
@@ -845,12 +956,19 @@ public class RestClient implements Client {
   {
     try
     {
+      final ClientCallMetricsCallback<?> callMetrics = ClientCallMetricsCallback.get(requestContext);
+      final long encodeStartNanos = callMetrics != null ? System.nanoTime() : 0L;
       TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.CLIENT_REQUEST_RESTLI_SERIALIZATION.key());
       final StreamRequest request =
-          buildStreamRequest(uri, method, dataMap, headers, cookies, protocolVersion, requestOptions.getContentType(),
-                             requestOptions.getAcceptTypes(), requestOptions.getAcceptResponseAttachments(),
-                             streamingAttachments);
+          buildStreamRequest(uri, method, dataMap, headers, cookies, bodySizeKey, protocolVersion,
+                             requestOptions.getContentType(), requestOptions.getAcceptTypes(),
+                             requestOptions.getAcceptResponseAttachments(), streamingAttachments);
       TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.CLIENT_REQUEST_RESTLI_SERIALIZATION.key());
+      if (callMetrics != null)
+      {
+        // The size of streamed bodies is only known once they are written
+        callMetrics.onRequestEncoded(encodeStartNanos, -1);
+      }
 
       String operation = OperationNameGenerator.generate(method, methodName);
       requestContext.putLocalAttr(R2Constants.OPERATION, operation);
@@ -881,6 +999,7 @@ public class RestClient implements Client {
                                        DataMap dataMap,
                                        Map<String, String> headers,
                                        List<String> cookies,
+                                       String bodySizeKey,
                                        ProtocolVersion protocolVersion,
                                        ContentType contentType,
                                        List<ContentType> acceptTypes,
@@ -897,7 +1016,7 @@ public class RestClient implements Client {
     if (type != null)
     {
       requestBuilder.setHeader(RestConstants.HEADER_CONTENT_TYPE, type.getHeaderKey());
-      requestBuilder.setEntity(type.getCodec().mapToByteString(dataMap));
+      requestBuilder.setEntity(encodeRequestBody(type, dataMap, bodySizeKey));
     }
 
     addProtocolVersionHeader(requestBuilder, protocolVersion);
@@ -915,6 +1034,7 @@ public class RestClient implements Client {
                                            DataMap dataMap,
                                            Map<String, String> headers,
                                            List<String> cookies,
+                                           String bodySizeKey,
                                            ProtocolVersion protocolVersion,
                                            ContentType contentType,
                                            List<ContentType> acceptTypes,
@@ -945,7 +1065,7 @@ public class RestClient implements Client {
       //eligible to have attachments. This is because all such requests are POST or PUTs. Even an action request
       //with empty action parameters will have an empty JSON ({}) as the body.
       assert (type != null);
-      firstPartWriter = new ByteStringWriter(type.getCodec().mapToByteString(dataMap));
+      firstPartWriter = new ByteStringWriter(encodeRequestBody(type, dataMap, bodySizeKey));
 
       //Our protocol does not use an epilogue or a preamble.
       final MultiPartMIMEWriter.Builder attachmentsBuilder = new MultiPartMIMEWriter.Builder();
@@ -979,18 +1099,68 @@ public class RestClient implements Client {
       if (dataMap != null && type != null && type.supportsStreaming())
       {
         requestBuilder.setHeader(RestConstants.HEADER_CONTENT_TYPE, type.getHeaderKey());
-        return requestBuilder.build(EntityStreamAdapters.fromGenericEntityStream(
-            type.getStreamCodec().encodeMap(dataMap)));
+        final EntityStream entityStream =
+            EntityStreamAdapters.fromGenericEntityStream(type.getStreamCodec().encodeMap(dataMap));
+        if (bodySizeKey != null)
+        {
+          entityStream.addObserver(new RequestBodySizeObserver(bodySizeKey));
+        }
+        return requestBuilder.build(entityStream);
       }
       else
       {
         return Messages.toStreamRequest(
-            buildRestRequest(uri, method, dataMap, headers, cookies, protocolVersion, contentType, acceptTypes,
-                acceptResponseAttachments));
+            buildRestRequest(uri, method, dataMap, headers, cookies, bodySizeKey, protocolVersion, contentType,
+                acceptTypes, acceptResponseAttachments));
       }
     }
   }
 
+  /**
+   * Encodes the request body, and records its size for the next requests of the same type if it is needed.
+   */
+  private ByteString encodeRequestBody(ContentType type, DataMap dataMap, String bodySizeKey) throws IOException
+  {
+    final ByteString body = type.getCodec().mapToByteString(dataMap);
+    if (bodySizeKey != null)
+    {
+      _requestBodySizeEstimator.record(bodySizeKey, body.length());
+    }
+    return body;
+  }
+
+  /**
+   * Records the size of a request body encoded while it is streamed, once it is entirely written.
+   */
+  private class RequestBodySizeObserver implements Observer
+  {
+    private final String _bodySizeKey;
+    private int _size = 0;
+
+    RequestBodySizeObserver(String bodySizeKey)
+    {
+      _bodySizeKey = bodySizeKey;
+    }
+
+    @Override
+    public void onDataAvailable(ByteString data)
+    {
+      _size += data.length();
+    }
+
+    @Override
+    public void onDone()
+    {
+      _requestBodySizeEstimator.record(_bodySizeKey, _size);
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      // The size of a body which failed to be written is not representative
+    }
+  }
+
   /**
    * Adds the protocol version of Rest.li used to build the request to the headers for this request
    * @param builder
@@ -1080,7 +1250,6 @@ public class RestClient implements Client {
   }
 
 
-  @SuppressWarnings("unchecked")
   private <K, T> void handleScatterGatherRequest(final Request<T> request,
       final RequestContext requestContext,
       final ScatterGatherStrategy strategy,
@@ -1097,11 +1266,10 @@ public class RestClient implements Client {
       @Override
       public void onSuccess(ProtocolVersion protocolVersion)
       {
-        List<URIKeyPair<K>> scatteredKeys = strategy.getUris(request, protocolVersion);
         URIMappingResult<K> mappingResults;
         try
         {
-          mappingResults = strategy.mapUris(scatteredKeys);
+          mappingResults = strategy.mapRequest(request, protocolVersion);
         }
         catch (ServiceUnavailableException e)
         {
@@ -1120,40 +1288,9 @@ public class RestClient implements Client {
         // for mapped keys, we will send scattered requests
         List<RequestInfo> scatteredRequests =
             strategy.scatterRequest(request, requestContext, mappingResults);
-        // we are using counter instead of CountDownLatch to avoid blocking this thread in CountDownLatch.await
-        final AtomicInteger reqCount = new AtomicInteger(scatteredRequests.size());
-        final Map<RequestInfo, Response<T>> successResponses = new ConcurrentHashMap<>();
-        final Map<RequestInfo, Throwable> failureResponses = new ConcurrentHashMap<>();
-        for (RequestInfo requestInfo : scatteredRequests)
-        {
-          Callback<Response<T>> cb = new Callback<Response<T>>()
-          {
-            @Override
-            public void onSuccess(Response<T> response)
-            {
-              successResponses.put(requestInfo, response);
-              if (reqCount.decrementAndGet() == 0)
-              {
-                // all scattered requests are handled
-                strategy.onAllResponsesReceived(request, protocolVersion, successResponses, failureResponses,
-                        mappingResults.getUnmappedKeys(), callback);
-              }
-            }
-
-            @Override
-            public void onError(Throwable e)
-            {
-              failureResponses.put(requestInfo, e);
-              if (reqCount.decrementAndGet() == 0)
-              {
-                // all scattered requests are handled
-                strategy.onAllResponsesReceived(request, protocolVersion, successResponses, failureResponses,
-                        mappingResults.getUnmappedKeys(), callback);
-              }
-            }
-          };
-          sendRequestNoScatterGather((Request<T>)requestInfo.getRequest(), requestInfo.getRequestContext(), cb);
-        }
+        new ScatterGatherCall<>(request, protocolVersion, strategy, mappingResults,
+            _restLiClientConfig.getScatterGatherConfig(), _scatterGatherHedgeBudget,
+            RestClient.this::sendRequestNoScatterGather, callback).send(scatteredRequests);
       }
     });
   }
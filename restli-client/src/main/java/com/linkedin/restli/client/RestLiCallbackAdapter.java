@@ -52,6 +52,11 @@ public class RestLiCallbackAdapter<T> extends CallbackAdapter<Response<T>, RestR
   @Override
   protected Response<T> convertResponse(RestResponse response) throws Exception
   {
+    final ClientCallMetricsCallback<?> callMetrics = ClientCallMetricsCallback.get(_requestContext);
+    if (callMetrics != null)
+    {
+      callMetrics.onResponseReceived(response.getEntity().length());
+    }
     TimingContextUtil.beginTiming(_requestContext, FrameworkTimingKeys.CLIENT_RESPONSE_RESTLI_DESERIALIZATION.key());
     Response<T> convertedResponse = _decoder.decodeResponse(response);
     TimingContextUtil.endTiming(_requestContext, FrameworkTimingKeys.CLIENT_RESPONSE_RESTLI_DESERIALIZATION.key());
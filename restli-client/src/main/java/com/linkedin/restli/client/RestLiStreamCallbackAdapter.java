@@ -100,6 +100,11 @@ public class RestLiStreamCallbackAdapter<T> implements Callback<StreamResponse>
   @Override
   public void onSuccess(StreamResponse result)
   {
+    final ClientCallMetricsCallback<?> callMetrics = ClientCallMetricsCallback.get(_requestContext);
+    if (callMetrics != null)
+    {
+      callMetrics.onResponseReceived(-1);
+    }
     Callback<Response<T>> callback = new TimingCallback.Builder<>(_wrappedCallback, _requestContext)
         .addEndTimingKey(FrameworkTimingKeys.CLIENT_RESPONSE_RESTLI_DESERIALIZATION.key())
         .build();
@@ -0,0 +1,409 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.URIMappingResult;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.ResourceMethod;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Sends the requests a scatter-gather request is scattered into, and gathers their responses with
+ * {@link ScatterGatherStrategy#onAllResponsesReceived}.
+ *
+ * Without a {@link ScatterGatherConfig}, all the responses are waited for. Otherwise, the responses of a BATCH_GET are
+ * gathered when the deadline is reached, with the requests still outstanding failed with a
+ * {@link RestLiScatterGatherException}, and the requests still outstanding after the hedge delay are sent again to
+ * other hosts owning their keys, within the {@link ScatterGatherHedgeBudget}. The other hosts are picked by
+ * {@link ScatterGatherStrategy#mapKeysToOtherHosts}, so a hedge is split into several requests when the keys of a
+ * request belong to partitions no single other host serves. Either the response of a request or the responses of all
+ * the requests of its hedge are used, whichever come first, unless they include an error and the others are still
+ * outstanding. The responses of the other methods are all waited for and never hedged, since their writes could be
+ * applied after the deadline, or twice.
+ *
+ * @param <K> type of the keys of the request
+ * @param <T> type of the response
+ */
+class ScatterGatherCall<K, T>
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ScatterGatherCall.class);
+
+  /**
+   * Sends a scattered request.
+   */
+  interface Sender<T>
+  {
+    /**
+     * @param partitionId partition the request is sent to, or -1 if unknown
+     * @param hedged true if the request is a hedged copy of a scattered request
+     */
+    void send(Request<T> request, RequestContext requestContext, int partitionId, boolean hedged,
+        Callback<Response<T>> callback);
+  }
+
+  private final Request<T> _request;
+  private final ProtocolVersion _protocolVersion;
+  private final ScatterGatherStrategy _strategy;
+  private final URIMappingResult<K> _mappingResult;
+  private final ScatterGatherConfig _config;
+  private final ScatterGatherHedgeBudget _hedgeBudget;
+  private final Sender<T> _sender;
+  private final Callback<Response<T>> _callback;
+
+  // Guarded by this
+  private final Map<RequestInfo, Response<T>> _successResponses = new HashMap<>();
+  private final Map<RequestInfo, Throwable> _failureResponses = new HashMap<>();
+  private final List<ScatteredRequest> _scatteredRequests = new ArrayList<>();
+  private int _remaining;
+  private boolean _gathered;
+
+  private volatile ScheduledFuture<?> _deadline;
+
+  /**
+   * @param config configuration of the deadline and of hedging, or null to wait for all the responses
+   * @param hedgeBudget budget of the hedged requests of the client, or null if the config does not hedge requests
+   */
+  ScatterGatherCall(Request<T> request, ProtocolVersion protocolVersion, ScatterGatherStrategy strategy,
+      URIMappingResult<K> mappingResult, ScatterGatherConfig config, ScatterGatherHedgeBudget hedgeBudget,
+      Sender<T> sender, Callback<Response<T>> callback)
+  {
+    _request = request;
+    _protocolVersion = protocolVersion;
+    _strategy = strategy;
+    _mappingResult = mappingResult;
+    _config = config;
+    _hedgeBudget = hedgeBudget;
+    _sender = sender;
+    _callback = callback;
+  }
+
+  @SuppressWarnings("unchecked")
+  void send(List<RequestInfo> requestInfos)
+  {
+    final boolean readOnly = _request.getMethod() == ResourceMethod.BATCH_GET;
+    final boolean hedging = readOnly && _config != null && _config.getHedgeDelayMs() > 0 && _hedgeBudget != null;
+    synchronized (this)
+    {
+      for (RequestInfo requestInfo : requestInfos)
+      {
+        final URI targetHost = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestInfo.getRequestContext());
+        final Integer partitionId = targetHost == null ? null : _mappingResult.getHostPartitionInfo().get(targetHost);
+        // The context is copied before the request is sent, as the client adds to it while it is sent
+        final RequestContext hedgeContext =
+            hedging && targetHost != null ? requestInfo.getRequestContext().clone() : null;
+        _scatteredRequests.add(new ScatteredRequest(requestInfo, targetHost, partitionId == null ? -1 : partitionId,
+            hedgeContext));
+      }
+      _remaining = _scatteredRequests.size();
+    }
+
+    if (_scatteredRequests.isEmpty())
+    {
+      gather();
+      return;
+    }
+
+    if (readOnly && _config != null && _config.getDeadlineMs() > 0)
+    {
+      _deadline = _config.getScheduler().schedule(this::onDeadline, _config.getDeadlineMs(), TimeUnit.MILLISECONDS);
+    }
+    for (ScatteredRequest scatteredRequest : _scatteredRequests)
+    {
+      if (scatteredRequest._hedgeContext != null)
+      {
+        _hedgeBudget.onScatteredRequest();
+        scatteredRequest._hedge = _config.getScheduler().schedule(scatteredRequest::hedge, _config.getHedgeDelayMs(),
+            TimeUnit.MILLISECONDS);
+      }
+      _sender.send((Request<T>) scatteredRequest._requestInfo.getRequest(),
+          scatteredRequest._requestInfo.getRequestContext(), scatteredRequest._partitionId, false, scatteredRequest);
+    }
+  }
+
+  private void onDeadline()
+  {
+    synchronized (this)
+    {
+      if (_gathered)
+      {
+        return;
+      }
+      _gathered = true;
+      for (ScatteredRequest scatteredRequest : _scatteredRequests)
+      {
+        if (!scatteredRequest._done)
+        {
+          scatteredRequest._done = true;
+          _failureResponses.put(scatteredRequest._requestInfo, new RestLiScatterGatherException(
+              "No response from partition " + scatteredRequest._partitionId + " within the scatter-gather deadline of "
+                  + _config.getDeadlineMs() + " ms"));
+        }
+      }
+    }
+    gather();
+  }
+
+  /**
+   * Gathers the responses, once no more responses are added to them.
+   */
+  private void gather()
+  {
+    final ScheduledFuture<?> deadline = _deadline;
+    if (deadline != null)
+    {
+      deadline.cancel(false);
+    }
+    for (ScatteredRequest scatteredRequest : _scatteredRequests)
+    {
+      scatteredRequest.cancelHedge();
+    }
+    _strategy.onAllResponsesReceived(_request, _protocolVersion, _successResponses, _failureResponses,
+        _mappingResult.getUnmappedKeys(), _callback);
+  }
+
+  /**
+   * A scattered request, and the requests of its hedge if it was hedged. It is the callback of the scattered request.
+   */
+  private class ScatteredRequest implements Callback<Response<T>>
+  {
+    private final RequestInfo _requestInfo;
+    private final URI _targetHost;
+    private final int _partitionId;
+    private final RequestContext _hedgeContext;
+
+    // Guarded by ScatterGatherCall.this
+    private boolean _outstanding = true;
+    private List<HedgeRequest> _hedgeRequests;
+    private int _hedgeOutstanding;
+    private boolean _hedgeFailed;
+    private boolean _done;
+
+    private volatile ScheduledFuture<?> _hedge;
+
+    ScatteredRequest(RequestInfo requestInfo, URI targetHost, int partitionId, RequestContext hedgeContext)
+    {
+      _requestInfo = requestInfo;
+      _targetHost = targetHost;
+      _partitionId = partitionId;
+      _hedgeContext = hedgeContext;
+    }
+
+    @Override
+    public void onSuccess(Response<T> response)
+    {
+      onResponse(response, null);
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      onResponse(null, e);
+    }
+
+    private void onResponse(Response<T> response, Throwable error)
+    {
+      final boolean last;
+      synchronized (ScatterGatherCall.this)
+      {
+        _outstanding = false;
+        if (_done || (error != null && _hedgeOutstanding > 0 && !_hedgeFailed))
+        {
+          // The hedge was used, or will be
+          return;
+        }
+        last = done(error == null ? Collections.singletonMap(_requestInfo, response) : Collections.emptyMap(), error);
+      }
+      onDone(last);
+    }
+
+    private void onHedgeResponse(HedgeRequest hedgeRequest, Response<T> response, Throwable error)
+    {
+      final boolean last;
+      synchronized (ScatterGatherCall.this)
+      {
+        _hedgeOutstanding--;
+        if (_done)
+        {
+          return;
+        }
+        if (error != null)
+        {
+          _hedgeFailed = true;
+          if (_outstanding)
+          {
+            // The scattered request will be used
+            return;
+          }
+          last = done(Collections.emptyMap(), error);
+        }
+        else
+        {
+          hedgeRequest._response = response;
+          if (_hedgeOutstanding > 0 || _hedgeFailed)
+          {
+            return;
+          }
+          final Map<RequestInfo, Response<T>> responses = new HashMap<>();
+          for (HedgeRequest request : _hedgeRequests)
+          {
+            responses.put(request._requestInfo, request._response);
+          }
+          last = done(responses, null);
+        }
+      }
+      onDone(last);
+    }
+
+    /**
+     * Adds the responses used for this request, or the error of this request.
+     * @return true if this was the last request to be done
+     */
+    private boolean done(Map<RequestInfo, Response<T>> responses, Throwable error)
+    {
+      _done = true;
+      if (error == null)
+      {
+        _successResponses.putAll(responses);
+      }
+      else
+      {
+        _failureResponses.put(_requestInfo, error);
+      }
+      final boolean last = --_remaining == 0;
+      _gathered |= last;
+      return last;
+    }
+
+    private void onDone(boolean last)
+    {
+      cancelHedge();
+      if (last)
+      {
+        gather();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void hedge()
+    {
+      final Set<K> keys = _mappingResult.getMappedKeys().get(_targetHost);
+      if (keys == null || keys.isEmpty())
+      {
+        // Requests to custom partition ids have no keys to map to other hosts
+        return;
+      }
+      final URIMappingResult<K> hedgeMappingResult;
+      try
+      {
+        hedgeMappingResult = _strategy.mapKeysToOtherHosts(_request, _protocolVersion, keys, _targetHost);
+      }
+      catch (ServiceUnavailableException | RuntimeException e)
+      {
+        LOG.debug("Failed to map the keys of a scattered request to other hosts than " + _targetHost, e);
+        return;
+      }
+      if (hedgeMappingResult == null || hedgeMappingResult.getMappedKeys().isEmpty()
+          || !hedgeMappingResult.getUnmappedKeys().isEmpty())
+      {
+        // Some keys have no other host to be sent to
+        return;
+      }
+
+      final List<HedgeRequest> hedgeRequests = new ArrayList<>();
+      // The target host hint of each request is set to the other host its keys are mapped to
+      for (RequestInfo requestInfo : _strategy.scatterRequest(_request, _hedgeContext, hedgeMappingResult))
+      {
+        LoadBalancerStrategy.ExcludedHostHints.addRequestContextExcludedHost(requestInfo.getRequestContext(),
+            _targetHost);
+        final URI hedgeHost = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestInfo.getRequestContext());
+        final Integer partitionId = hedgeMappingResult.getHostPartitionInfo().get(hedgeHost);
+        hedgeRequests.add(new HedgeRequest(requestInfo, partitionId == null ? -1 : partitionId));
+      }
+
+      synchronized (ScatterGatherCall.this)
+      {
+        if (_done || !_hedgeBudget.tryAcquire())
+        {
+          return;
+        }
+        _hedgeRequests = hedgeRequests;
+        _hedgeOutstanding = hedgeRequests.size();
+      }
+
+      for (HedgeRequest hedgeRequest : hedgeRequests)
+      {
+        _sender.send((Request<T>) hedgeRequest._requestInfo.getRequest(), hedgeRequest._requestInfo.getRequestContext(),
+            hedgeRequest._partitionId, true, hedgeRequest);
+      }
+    }
+
+    private void cancelHedge()
+    {
+      final ScheduledFuture<?> hedge = _hedge;
+      if (hedge != null)
+      {
+        hedge.cancel(false);
+      }
+    }
+
+    /**
+     * One of the requests of the hedge of a scattered request, sent to another host owning some of its keys.
+     */
+    private class HedgeRequest implements Callback<Response<T>>
+    {
+      private final RequestInfo _requestInfo;
+      private final int _partitionId;
+
+      // Guarded by ScatterGatherCall.this
+      private Response<T> _response;
+
+      HedgeRequest(RequestInfo requestInfo, int partitionId)
+      {
+        _requestInfo = requestInfo;
+        _partitionId = partitionId;
+      }
+
+      @Override
+      public void onSuccess(Response<T> response)
+      {
+        onHedgeResponse(this, response, null);
+      }
+
+      @Override
+      public void onError(Throwable e)
+      {
+        onHedgeResponse(this, null, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+
+/**
+ * Configuration of how {@link RestClient} gathers the responses of scatter-gather requests, see
+ * {@link com.linkedin.restli.client.util.RestLiClientConfig#setScatterGatherConfig(ScatterGatherConfig)}.
+ *
+ * By default, the responses of all the scattered requests are waited for. With a deadline, the response is built
+ * from the responses received when the deadline is reached, and the keys of the other requests are returned as
+ * errors. With hedging, the scattered requests still outstanding after the hedge delay are sent again to other
+ * hosts owning their keys, picked by {@link ScatterGatherStrategy#mapKeysToOtherHosts}, and the first of the two
+ * responses is used. The number of hedged requests is bounded by a budget, a percentage of the scattered requests,
+ * so that hedging does not overload a slow service.
+ *
+ * The deadline and hedging only apply to BATCH_GET requests. The scattered requests of the other methods may write,
+ * so they are all waited for and never sent twice.
+ */
+public class ScatterGatherConfig
+{
+  private final ScheduledExecutorService _scheduler;
+  private long _deadlineMs = 0;
+  private long _hedgeDelayMs = 0;
+  private double _hedgeBudgetPercent = 5;
+  private int _maxHedgeBurst = 10;
+
+  /**
+   * @param scheduler scheduler of the deadlines and of the hedged requests
+   */
+  public ScatterGatherConfig(ScheduledExecutorService scheduler)
+  {
+    _scheduler = scheduler;
+  }
+
+  public ScheduledExecutorService getScheduler()
+  {
+    return _scheduler;
+  }
+
+  public long getDeadlineMs()
+  {
+    return _deadlineMs;
+  }
+
+  /**
+   * Sets the time, in milliseconds from sending the scattered requests, after which the response is built from the
+   * responses received so far. Defaults to 0, which waits for all the responses.
+   */
+  public ScatterGatherConfig setDeadlineMs(long deadlineMs)
+  {
+    _deadlineMs = deadlineMs;
+    return this;
+  }
+
+  public long getHedgeDelayMs()
+  {
+    return _hedgeDelayMs;
+  }
+
+  /**
+   * Sets the time, in milliseconds from sending a scattered request, after which it is sent again to another host of
+   * its partition if it is still outstanding. Defaults to 0, which never hedges requests.
+   */
+  public ScatterGatherConfig setHedgeDelayMs(long hedgeDelayMs)
+  {
+    _hedgeDelayMs = hedgeDelayMs;
+    return this;
+  }
+
+  public double getHedgeBudgetPercent()
+  {
+    return _hedgeBudgetPercent;
+  }
+
+  /**
+   * Sets the maximum percentage of the scattered requests which are hedged over time. Defaults to 5.
+   */
+  public ScatterGatherConfig setHedgeBudgetPercent(double hedgeBudgetPercent)
+  {
+    _hedgeBudgetPercent = hedgeBudgetPercent;
+    return this;
+  }
+
+  public int getMaxHedgeBurst()
+  {
+    return _maxHedgeBurst;
+  }
+
+  /**
+   * Sets the maximum number of hedged requests the unused budget can accumulate to. Defaults to 10.
+   */
+  public ScatterGatherConfig setMaxHedgeBurst(int maxHedgeBurst)
+  {
+    _maxHedgeBurst = maxHedgeBurst;
+    return this;
+  }
+}
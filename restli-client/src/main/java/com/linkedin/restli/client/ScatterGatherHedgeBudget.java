@@ -0,0 +1,79 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounds the number of hedged scattered requests of a {@link RestClient}. Each scattered request adds a percentage of
+ * a token to the budget, up to a maximum burst, and each hedged request takes a whole token, so that at most that
+ * percentage of the scattered requests are hedged over time. The budget starts full.
+ *
+ * This class is thread safe.
+ */
+class ScatterGatherHedgeBudget
+{
+  // Tokens are counted in thousandths, so that a percentage of a token is added without rounding errors
+  private static final long TOKEN = 1000;
+
+  private final long _tokensPerRequest;
+  private final long _maxTokens;
+  private final AtomicLong _tokens;
+
+  ScatterGatherHedgeBudget(double budgetPercent, int maxBurst)
+  {
+    _tokensPerRequest = Math.round(budgetPercent * TOKEN / 100);
+    _maxTokens = maxBurst * TOKEN;
+    _tokens = new AtomicLong(_maxTokens);
+  }
+
+  /**
+   * Adds the share of a scattered request to the budget.
+   */
+  void onScatteredRequest()
+  {
+    long tokens;
+    do
+    {
+      tokens = _tokens.get();
+      if (tokens >= _maxTokens)
+      {
+        return;
+      }
+    }
+    while (!_tokens.compareAndSet(tokens, Math.min(tokens + _tokensPerRequest, _maxTokens)));
+  }
+
+  /**
+   * @return true if the budget allows another hedged request, which is then taken from the budget.
+   */
+  boolean tryAcquire()
+  {
+    long tokens;
+    do
+    {
+      tokens = _tokens.get();
+      if (tokens < TOKEN)
+      {
+        return false;
+      }
+    }
+    while (!_tokens.compareAndSet(tokens, tokens - TOKEN));
+    return true;
+  }
+}
@@ -72,6 +72,41 @@ public interface ScatterGatherStrategy
    */
   <K> URIMappingResult<K> mapUris(List<URIKeyPair<K>> uris) throws ServiceUnavailableException;
 
+  /**
+   * Maps a request to several hosts. By default, this maps the URIs returned by {@link #getUris(Request, ProtocolVersion)}
+   * with {@link #mapUris(List)}. Strategies which can map the keys of a request without building a URI for each of them
+   * can override this.
+   * @param request rest.li request to be scattered
+   * @param version protocol version
+   * @param <K> batch request key type.
+   * @return list of URI mapping result, including both mapped and unmapped keys.
+   * @throws ServiceUnavailableException if the service is unavailable.
+   */
+  default <K, T> URIMappingResult<K> mapRequest(Request<T> request, ProtocolVersion version)
+      throws ServiceUnavailableException
+  {
+    List<URIKeyPair<K>> uris = getUris(request, version);
+    return mapUris(uris);
+  }
+
+  /**
+   * Maps some keys of a request to other hosts than the given one, which the keys were mapped to by
+   * {@link #mapRequest(Request, ProtocolVersion)}. This is used to send a scattered request again to other hosts owning
+   * its keys when it is hedged. By default, keys are not mapped to other hosts, and scattered requests are not hedged.
+   * @param request rest.li request which was scattered
+   * @param version protocol version
+   * @param keys keys mapped to the excluded host
+   * @param excludedHost host the keys must not be mapped to
+   * @param <K> batch request key type.
+   * @return URI mapping result of the keys, or null if they cannot be mapped to other hosts.
+   * @throws ServiceUnavailableException if the service is unavailable.
+   */
+  default <K, T> URIMappingResult<K> mapKeysToOtherHosts(Request<T> request, ProtocolVersion version, Set<K> keys,
+      URI excludedHost) throws ServiceUnavailableException
+  {
+    return null;
+  }
+
   /**
    * Disassemble a request to individual request per key or other custom partition ids, given d2 routing information.
    * Returns a map of {@link Request}, one per host to be sent to. Keys routed to this host will be
@@ -0,0 +1,91 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import com.linkedin.restli.common.ResourceMethod;
+
+
+/**
+ * Measurements of a single request sent by a {@link com.linkedin.restli.client.RestClient}, passed to its
+ * {@link ClientMetricsRecorder} once the response is decoded or the request failed. Scatter-gather requests are
+ * measured for each of the requests they are scattered into.
+ *
+ * The measurements are only valid while {@link ClientMetricsRecorder#record(ClientCallMetrics)} runs.
+ */
+public interface ClientCallMetrics
+{
+  /**
+   * @return name of the service the request was sent to, which is the first path segment of its resource.
+   */
+  String getServiceName();
+
+  /**
+   * @return identifier of the resource method of the request, such as {@code groups/{}/contacts:finder:search}, see
+   *         {@link com.linkedin.restli.common.ResourceMethodIdentifierGenerator}.
+   */
+  String getResourceMethodIdentifier();
+
+  /**
+   * @return method of the request.
+   */
+  ResourceMethod getMethod();
+
+  /**
+   * @return time, in nanoseconds, from sending the request to its response being decoded or its failure.
+   */
+  long getLatencyNanos();
+
+  /**
+   * @return time, in nanoseconds, taken to build and encode the request, or -1 if the request failed before it was
+   *         built.
+   */
+  long getEncodeNanos();
+
+  /**
+   * @return time, in nanoseconds, from the response being received to it being decoded, or -1 if no successful
+   *         response was received. For streamed responses this includes the time reading the body.
+   */
+  long getDecodeNanos();
+
+  /**
+   * @return size, in bytes, of the body of the request, or -1 if the request has no body or its body is streamed.
+   */
+  int getRequestSize();
+
+  /**
+   * @return size, in bytes, of the body of the response, or -1 if no successful response was received or its body
+   *         is streamed.
+   */
+  int getResponseSize();
+
+  /**
+   * @return error the request failed with, or null if it succeeded.
+   */
+  Throwable getError();
+
+  /**
+   * @return partition the request was sent to, if it is one of the requests a scatter-gather request is scattered
+   *         into, or -1.
+   */
+  int getPartitionId();
+
+  /**
+   * @return true if the request is a hedged copy of a scattered request still outstanding after the hedge delay, see
+   *         {@link com.linkedin.restli.client.ScatterGatherConfig#setHedgeDelayMs(long)}.
+   */
+  boolean isHedged();
+}
@@ -0,0 +1,125 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SystemClock;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * {@link HistogramClientMetricsRecorder} which exports the metrics of each resource method as a
+ * {@link ClientOperationMetricsJmxMBean}, named
+ * {@code com.linkedin.restli.client:type=ClientOperationMetrics,client=<client>,service=<service>,method=<method>}.
+ * The MBean of a resource method is registered when its first request is recorded.
+ *
+ * The percentiles exported are those of the values recorded during the last completed interval, one minute by
+ * default. The exporter should be the only reader of the interval metrics of its {@link ClientOperationMetrics}.
+ */
+public class ClientMetricsJmxExporter extends HistogramClientMetricsRecorder
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ClientMetricsJmxExporter.class);
+  private static final String DOMAIN = "com.linkedin.restli.client";
+  private static final long DEFAULT_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+  private final MBeanServer _server;
+  private final String _clientName;
+  private final long _intervalMs;
+  private final Clock _clock;
+  private final Set<ObjectName> _registeredNames = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Exports the metrics to the platform MBean server, with intervals of one minute.
+   *
+   * @param clientName name of the client, which tells apart the metrics of the clients of the same JVM
+   */
+  public ClientMetricsJmxExporter(String clientName)
+  {
+    this(ManagementFactory.getPlatformMBeanServer(), clientName, DEFAULT_INTERVAL_MS, SystemClock.instance());
+  }
+
+  /**
+   * @param server MBean server the metrics are exported to
+   * @param clientName name of the client, which tells apart the metrics of the clients of the same JVM
+   * @param intervalMs length of the intervals the percentiles are computed over, in milliseconds
+   * @param clock clock the intervals are measured with
+   */
+  public ClientMetricsJmxExporter(MBeanServer server, String clientName, long intervalMs, Clock clock)
+  {
+    _server = server;
+    _clientName = clientName;
+    _intervalMs = intervalMs;
+    _clock = clock;
+  }
+
+  /**
+   * Unregisters the MBeans of the resource methods.
+   */
+  public void shutdown()
+  {
+    for (ObjectName name : _registeredNames)
+    {
+      try
+      {
+        if (_server.isRegistered(name))
+        {
+          _server.unregisterMBean(name);
+        }
+      }
+      catch (Exception e)
+      {
+        LOG.warn("Failed to unregister MBean " + name, e);
+      }
+      _registeredNames.remove(name);
+    }
+  }
+
+  @Override
+  protected void onOperationMetricsAdded(ClientOperationMetrics operationMetrics)
+  {
+    ObjectName name = null;
+    try
+    {
+      name = getName(operationMetrics);
+      _server.registerMBean(new ClientOperationMetricsJmx(operationMetrics, _intervalMs, _clock), name);
+      _registeredNames.add(name);
+    }
+    catch (Exception e)
+    {
+      LOG.warn("Failed to register MBean " + (name != null ? name : operationMetrics.getResourceMethodIdentifier()), e);
+    }
+  }
+
+  /**
+   * @return name of the MBean of the metrics of a resource method.
+   */
+  ObjectName getName(ClientOperationMetrics operationMetrics) throws MalformedObjectNameException
+  {
+    return new ObjectName(DOMAIN + ":type=ClientOperationMetrics"
+        + ",client=" + ObjectName.quote(_clientName)
+        + ",service=" + ObjectName.quote(operationMetrics.getServiceName())
+        + ",method=" + ObjectName.quote(operationMetrics.getResourceMethodIdentifier()));
+  }
+}
@@ -0,0 +1,37 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+
+/**
+ * Records the metrics of the requests sent by a {@link com.linkedin.restli.client.RestClient}, see
+ * {@link com.linkedin.restli.client.util.RestLiClientConfig#setClientMetricsRecorder(ClientMetricsRecorder)}.
+ *
+ * Implementations must be thread safe. They are called on the thread completing each request, before the callback
+ * of the request, so they should record the metrics without blocking. {@link HistogramClientMetricsRecorder} is the
+ * default implementation.
+ */
+public interface ClientMetricsRecorder
+{
+  /**
+   * Records the metrics of a request, once its response is decoded or it failed. Exceptions thrown are logged and
+   * otherwise ignored.
+   *
+   * @param call metrics of the request, which must not be kept after this method returns
+   */
+  void record(ClientCallMetrics call);
+}
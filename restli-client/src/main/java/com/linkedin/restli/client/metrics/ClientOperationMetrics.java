@@ -0,0 +1,260 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.restli.client.RestLiResponseException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+
+/**
+ * Metrics of the requests to one resource method of one service, recorded by a
+ * {@link HistogramClientMetricsRecorder}.
+ *
+ * The latencies, the encode and decode times and the sizes of the bodies are recorded into fixed size histograms
+ * without locking, and are read as the histograms of the values recorded since they were last read, see
+ * {@link #getIntervalMetrics()}. The latencies of the requests scattered to each partition by scatter-gather requests
+ * are also recorded by partition. The numbers of calls, of errors and of hedged requests are counted since the
+ * metrics were created.
+ *
+ * This class is thread safe.
+ */
+public class ClientOperationMetrics
+{
+  // Times are recorded in microseconds, and are capped to 100 seconds
+  private static final long HIGHEST_TIME_MICROS = TimeUnit.SECONDS.toMicros(100);
+  // Sizes are recorded in bytes, and are capped to 1 GB
+  private static final long HIGHEST_SIZE = 1L << 30;
+  // Latencies are recorded with a precision of 1%. The encode and decode times and the sizes are recorded with a
+  // precision of about 6%, which takes about 8 times less memory than latencies
+  private static final int LATENCY_SIGNIFICANT_DIGITS = 2;
+  private static final int SIGNIFICANT_DIGITS = 1;
+
+  private final String _serviceName;
+  private final String _resourceMethodIdentifier;
+
+  private final Recorder _latency = new Recorder(HIGHEST_TIME_MICROS, LATENCY_SIGNIFICANT_DIGITS);
+  private final Recorder _encodeTime = new Recorder(HIGHEST_TIME_MICROS, SIGNIFICANT_DIGITS);
+  private final Recorder _decodeTime = new Recorder(HIGHEST_TIME_MICROS, SIGNIFICANT_DIGITS);
+  private final Recorder _requestSize = new Recorder(HIGHEST_SIZE, SIGNIFICANT_DIGITS);
+  private final Recorder _responseSize = new Recorder(HIGHEST_SIZE, SIGNIFICANT_DIGITS);
+  private final LongAdder _callCount = new LongAdder();
+  private final LongAdder _errorCount = new LongAdder();
+  private final Map<String, LongAdder> _errorCounts = new ConcurrentHashMap<>();
+  private final LongAdder _hedgedCallCount = new LongAdder();
+  private final Map<Integer, Recorder> _partitionLatencies = new ConcurrentHashMap<>();
+
+  ClientOperationMetrics(String serviceName, String resourceMethodIdentifier)
+  {
+    _serviceName = serviceName;
+    _resourceMethodIdentifier = resourceMethodIdentifier;
+  }
+
+  /**
+   * @return name of the service of the resource method.
+   */
+  public String getServiceName()
+  {
+    return _serviceName;
+  }
+
+  /**
+   * @return identifier of the resource method.
+   */
+  public String getResourceMethodIdentifier()
+  {
+    return _resourceMethodIdentifier;
+  }
+
+  /**
+   * @return number of requests recorded.
+   */
+  public long getCallCount()
+  {
+    return _callCount.sum();
+  }
+
+  /**
+   * @return number of requests recorded which failed.
+   */
+  public long getErrorCount()
+  {
+    return _errorCount.sum();
+  }
+
+  /**
+   * @return number of requests recorded which failed, by class of error, see {@link #getErrorClass(Throwable)}.
+   */
+  public Map<String, Long> getErrorCounts()
+  {
+    final Map<String, Long> errorCounts = new TreeMap<>();
+    _errorCounts.forEach((errorClass, count) -> errorCounts.put(errorClass, count.sum()));
+    return errorCounts;
+  }
+
+  /**
+   * @return number of requests recorded which were hedged copies of scattered requests.
+   */
+  public long getHedgedCallCount()
+  {
+    return _hedgedCallCount.sum();
+  }
+
+  /**
+   * Returns the histograms of the values recorded since the previous call. The metrics of an operation should then
+   * only be read by a single exporter.
+   *
+   * @return histograms of the values recorded since the previous call.
+   */
+  public IntervalMetrics getIntervalMetrics()
+  {
+    final Map<Integer, Histogram> partitionLatencies = new TreeMap<>();
+    _partitionLatencies.forEach((partitionId, latency) -> partitionLatencies.put(partitionId,
+        latency.getIntervalHistogram()));
+    return new IntervalMetrics(_latency.getIntervalHistogram(), _encodeTime.getIntervalHistogram(),
+        _decodeTime.getIntervalHistogram(), _requestSize.getIntervalHistogram(), _responseSize.getIntervalHistogram(),
+        partitionLatencies);
+  }
+
+  void record(ClientCallMetrics call)
+  {
+    _callCount.increment();
+    recordTime(_latency, call.getLatencyNanos());
+    recordTime(_encodeTime, call.getEncodeNanos());
+    recordTime(_decodeTime, call.getDecodeNanos());
+    recordSize(_requestSize, call.getRequestSize());
+    recordSize(_responseSize, call.getResponseSize());
+
+    if (call.getPartitionId() >= 0)
+    {
+      recordTime(_partitionLatencies.computeIfAbsent(call.getPartitionId(),
+          partitionId -> new Recorder(HIGHEST_TIME_MICROS, SIGNIFICANT_DIGITS)), call.getLatencyNanos());
+    }
+    if (call.isHedged())
+    {
+      _hedgedCallCount.increment();
+    }
+
+    final Throwable error = call.getError();
+    if (error != null)
+    {
+      _errorCount.increment();
+      _errorCounts.computeIfAbsent(getErrorClass(error), errorClass -> new LongAdder()).increment();
+    }
+  }
+
+  private static void recordTime(Recorder recorder, long nanos)
+  {
+    if (nanos >= 0)
+    {
+      recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TIME_MICROS));
+    }
+  }
+
+  private static void recordSize(Recorder recorder, int size)
+  {
+    if (size >= 0)
+    {
+      recorder.recordValue(Math.min(size, HIGHEST_SIZE));
+    }
+  }
+
+  /**
+   * Classifies errors by the status of error responses, such as {@code HTTP_503}, and by the class of the cause of
+   * the other errors, such as {@code TimeoutException}, so that the number of classes is bounded.
+   *
+   * @param error error a request failed with
+   * @return class of the error.
+   */
+  static String getErrorClass(Throwable error)
+  {
+    if (error instanceof RestLiResponseException)
+    {
+      return "HTTP_" + ((RestLiResponseException) error).getStatus();
+    }
+
+    Throwable cause = error;
+    while (cause instanceof RemoteInvocationException && cause.getCause() != null)
+    {
+      cause = cause.getCause();
+    }
+    return cause.getClass().getSimpleName();
+  }
+
+  /**
+   * Histograms of the values recorded during an interval. Times are in microseconds and sizes in bytes.
+   */
+  public static class IntervalMetrics
+  {
+    private final Histogram _latency;
+    private final Histogram _encodeTime;
+    private final Histogram _decodeTime;
+    private final Histogram _requestSize;
+    private final Histogram _responseSize;
+    private final Map<Integer, Histogram> _partitionLatencies;
+
+    IntervalMetrics(Histogram latency, Histogram encodeTime, Histogram decodeTime, Histogram requestSize,
+        Histogram responseSize, Map<Integer, Histogram> partitionLatencies)
+    {
+      _latency = latency;
+      _encodeTime = encodeTime;
+      _decodeTime = decodeTime;
+      _requestSize = requestSize;
+      _responseSize = responseSize;
+      _partitionLatencies = partitionLatencies;
+    }
+
+    public Histogram getLatency()
+    {
+      return _latency;
+    }
+
+    public Histogram getEncodeTime()
+    {
+      return _encodeTime;
+    }
+
+    public Histogram getDecodeTime()
+    {
+      return _decodeTime;
+    }
+
+    public Histogram getRequestSize()
+    {
+      return _requestSize;
+    }
+
+    public Histogram getResponseSize()
+    {
+      return _responseSize;
+    }
+
+    /**
+     * @return latencies of the requests scattered to each partition, by partition id.
+     */
+    public Map<Integer, Histogram> getPartitionLatencies()
+    {
+      return _partitionLatencies;
+    }
+  }
+}
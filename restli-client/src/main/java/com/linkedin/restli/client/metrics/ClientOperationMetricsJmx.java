@@ -0,0 +1,191 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import com.linkedin.util.clock.Clock;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Implementation of {@link ClientOperationMetricsJmxMBean}. The interval histograms are harvested from the metrics when
+ * they are read, at most once per interval, so that all the readers see the same values during an interval.
+ */
+public class ClientOperationMetricsJmx implements ClientOperationMetricsJmxMBean
+{
+  private final ClientOperationMetrics _operationMetrics;
+  private final long _intervalMs;
+  private final Clock _clock;
+
+  private ClientOperationMetrics.IntervalMetrics _intervalMetrics;
+  private long _intervalEndMs;
+
+  public ClientOperationMetricsJmx(ClientOperationMetrics operationMetrics, long intervalMs, Clock clock)
+  {
+    _operationMetrics = operationMetrics;
+    _intervalMs = intervalMs;
+    _clock = clock;
+    _intervalMetrics = operationMetrics.getIntervalMetrics();
+    _intervalEndMs = clock.currentTimeMillis();
+  }
+
+  @Override
+  public String getServiceName()
+  {
+    return _operationMetrics.getServiceName();
+  }
+
+  @Override
+  public String getResourceMethodIdentifier()
+  {
+    return _operationMetrics.getResourceMethodIdentifier();
+  }
+
+  @Override
+  public long getCallCount()
+  {
+    return _operationMetrics.getCallCount();
+  }
+
+  @Override
+  public long getErrorCount()
+  {
+    return _operationMetrics.getErrorCount();
+  }
+
+  @Override
+  public Map<String, Long> getErrorCounts()
+  {
+    return _operationMetrics.getErrorCounts();
+  }
+
+  @Override
+  public long getIntervalCallCount()
+  {
+    return getIntervalMetrics().getLatency().getTotalCount();
+  }
+
+  @Override
+  public long getLatency50PctMicros()
+  {
+    return getIntervalMetrics().getLatency().getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getLatency90PctMicros()
+  {
+    return getIntervalMetrics().getLatency().getValueAtPercentile(90);
+  }
+
+  @Override
+  public long getLatency99PctMicros()
+  {
+    return getIntervalMetrics().getLatency().getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getLatencyMaxMicros()
+  {
+    return getIntervalMetrics().getLatency().getMaxValue();
+  }
+
+  @Override
+  public long getEncodeTime50PctMicros()
+  {
+    return getIntervalMetrics().getEncodeTime().getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getEncodeTime99PctMicros()
+  {
+    return getIntervalMetrics().getEncodeTime().getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getDecodeTime50PctMicros()
+  {
+    return getIntervalMetrics().getDecodeTime().getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getDecodeTime99PctMicros()
+  {
+    return getIntervalMetrics().getDecodeTime().getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getRequestSize50PctBytes()
+  {
+    return getIntervalMetrics().getRequestSize().getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getRequestSize99PctBytes()
+  {
+    return getIntervalMetrics().getRequestSize().getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getRequestSizeMaxBytes()
+  {
+    return getIntervalMetrics().getRequestSize().getMaxValue();
+  }
+
+  @Override
+  public long getResponseSize50PctBytes()
+  {
+    return getIntervalMetrics().getResponseSize().getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getResponseSize99PctBytes()
+  {
+    return getIntervalMetrics().getResponseSize().getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getResponseSizeMaxBytes()
+  {
+    return getIntervalMetrics().getResponseSize().getMaxValue();
+  }
+
+  @Override
+  public long getHedgedCallCount()
+  {
+    return _operationMetrics.getHedgedCallCount();
+  }
+
+  @Override
+  public Map<Integer, Long> getPartitionLatency99PctMicros()
+  {
+    final Map<Integer, Long> latencies = new TreeMap<>();
+    getIntervalMetrics().getPartitionLatencies().forEach((partitionId, latency) -> latencies.put(partitionId,
+        latency.getValueAtPercentile(99)));
+    return latencies;
+  }
+
+  private synchronized ClientOperationMetrics.IntervalMetrics getIntervalMetrics()
+  {
+    final long nowMs = _clock.currentTimeMillis();
+    if (nowMs - _intervalEndMs >= _intervalMs)
+    {
+      _intervalMetrics = _operationMetrics.getIntervalMetrics();
+      _intervalEndMs = nowMs;
+    }
+    return _intervalMetrics;
+  }
+}
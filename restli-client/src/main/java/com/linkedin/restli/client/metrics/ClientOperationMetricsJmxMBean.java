@@ -0,0 +1,83 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import java.util.Map;
+
+
+/**
+ * JMX view of the {@link ClientOperationMetrics} of a resource method. The counts are since the client started, and
+ * the percentiles are those of the last completed interval, see {@link ClientMetricsJmxExporter}.
+ */
+public interface ClientOperationMetricsJmxMBean
+{
+  String getServiceName();
+
+  String getResourceMethodIdentifier();
+
+  long getCallCount();
+
+  long getErrorCount();
+
+  /**
+   * @return number of errors by class, such as {@code HTTP_503} or {@code TimeoutException}.
+   */
+  Map<String, Long> getErrorCounts();
+
+  /**
+   * @return number of requests recorded during the last interval.
+   */
+  long getIntervalCallCount();
+
+  long getLatency50PctMicros();
+
+  long getLatency90PctMicros();
+
+  long getLatency99PctMicros();
+
+  long getLatencyMaxMicros();
+
+  long getEncodeTime50PctMicros();
+
+  long getEncodeTime99PctMicros();
+
+  long getDecodeTime50PctMicros();
+
+  long getDecodeTime99PctMicros();
+
+  long getRequestSize50PctBytes();
+
+  long getRequestSize99PctBytes();
+
+  long getRequestSizeMaxBytes();
+
+  long getResponseSize50PctBytes();
+
+  long getResponseSize99PctBytes();
+
+  long getResponseSizeMaxBytes();
+
+  /**
+   * @return number of requests which were hedged copies of scattered requests.
+   */
+  long getHedgedCallCount();
+
+  /**
+   * @return 99th percentile of the latencies of the requests scattered to each partition, by partition id.
+   */
+  Map<Integer, Long> getPartitionLatency99PctMicros();
+}
@@ -0,0 +1,86 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Records the metrics of the requests into the {@link ClientOperationMetrics} of their resource method. Recording a
+ * request does not lock nor allocate, except for the first request of each resource method and for the first error
+ * of each class.
+ *
+ * This class is thread safe.
+ */
+public class HistogramClientMetricsRecorder implements ClientMetricsRecorder
+{
+  private final ConcurrentMap<String, ClientOperationMetrics> _operationMetrics = new ConcurrentHashMap<>();
+
+  @Override
+  public void record(ClientCallMetrics call)
+  {
+    getOrCreateOperationMetrics(call).record(call);
+  }
+
+  /**
+   * @return metrics of the resource methods requests were recorded for.
+   */
+  public Collection<ClientOperationMetrics> getOperationMetrics()
+  {
+    return Collections.unmodifiableCollection(_operationMetrics.values());
+  }
+
+  /**
+   * @param resourceMethodIdentifier identifier of a resource method
+   * @return metrics of the resource method, or null if no request was recorded for it.
+   */
+  public ClientOperationMetrics getOperationMetrics(String resourceMethodIdentifier)
+  {
+    return _operationMetrics.get(resourceMethodIdentifier);
+  }
+
+  /**
+   * Called once for the metrics of each resource method, after they are created for its first request and before
+   * the request is recorded into them.
+   *
+   * @param operationMetrics metrics of the resource method
+   */
+  protected void onOperationMetricsAdded(ClientOperationMetrics operationMetrics)
+  {
+  }
+
+  private ClientOperationMetrics getOrCreateOperationMetrics(ClientCallMetrics call)
+  {
+    final String resourceMethodIdentifier = call.getResourceMethodIdentifier();
+    ClientOperationMetrics operationMetrics = _operationMetrics.get(resourceMethodIdentifier);
+    if (operationMetrics == null)
+    {
+      final ClientOperationMetrics newOperationMetrics =
+          new ClientOperationMetrics(call.getServiceName(), resourceMethodIdentifier);
+      operationMetrics = _operationMetrics.putIfAbsent(resourceMethodIdentifier, newOperationMetrics);
+      if (operationMetrics == null)
+      {
+        operationMetrics = newOperationMetrics;
+        onOperationMetricsAdded(operationMetrics);
+      }
+    }
+    return operationMetrics;
+  }
+}
@@ -24,6 +24,7 @@ import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.internal.common.util.CollectionUtils;
+import com.linkedin.restli.common.BatchResponse;
 import com.linkedin.restli.common.ComplexKeySpec;
 import com.linkedin.restli.common.ComplexResourceKey;
 import com.linkedin.restli.common.CompoundKey;
@@ -50,6 +51,8 @@ public class BatchKVResponse<K, V extends RecordTemplate> extends RecordTemplate
   public static final String ERRORS = "errors";
 
   private static final String BATCH_KV_RESPONSE_CLASSNAME = BatchKVResponse.class.getSimpleName();
+  // Fields of the batch response data, including the statuses which the server returns for some methods
+  private static final String[] MERGED_FIELDS = {RESULTS, ERRORS, BatchResponse.STATUSES};
 
   private RecordDataSchema _schema;
   private Class<V> _valueClass;
@@ -289,6 +292,33 @@ public class BatchKVResponse<K, V extends RecordTemplate> extends RecordTemplate
     return _errors;
   }
 
+  /**
+   * Adds the entries of another response to this one, without decoding their keys again. The keys of the two responses
+   * must be disjoint, as they are for the responses of the requests scattered from the same batch request.
+   *
+   * @param other response of the same type whose entries to add.
+   */
+  public void merge(BatchKVResponse<K, V> other)
+  {
+    final DataMap data = data();
+    for (String field : MERGED_FIELDS)
+    {
+      final DataMap otherEntries = other.data().getDataMap(field);
+      if (otherEntries != null && !otherEntries.isEmpty())
+      {
+        DataMap entries = data.getDataMap(field);
+        if (entries == null)
+        {
+          entries = new DataMap(CollectionUtils.getMapInitialCapacity(otherEntries.size(), 0.75f), 0.75f);
+          data.put(field, entries);
+        }
+        entries.putAll(otherEntries);
+      }
+    }
+    _results.putAll(other._results);
+    _errors.putAll(other._errors);
+  }
+
   @Override
   public RecordDataSchema schema()
   {
@@ -16,12 +16,8 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.linkedin.data.DataMap;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.jersey.api.uri.UriComponent;
-import com.linkedin.jersey.api.uri.UriTemplate;
 import com.linkedin.restli.client.Request;
 import com.linkedin.restli.common.CompoundKey;
 import com.linkedin.restli.common.ProtocolVersion;
@@ -33,13 +29,17 @@ import java.net.URI;
 /**
  * Abstract class for constructing URIs and related components for a {@link Request}
  *
+ * URIs are written into a single buffer: the base URI template is bound with {@link CompiledUriTemplate}, keys are
+ * appended as already encoded path segments and query parameters are encoded in place, producing the same URIs as
+ * {@link com.linkedin.jersey.api.uri.UriBuilder} without its intermediate strings.
+ *
  * @author kparikh
  */
 abstract class AbstractRestliRequestUriBuilder<R extends Request<?>> implements RestliUriBuilder
 {
-  private static final Cache<String, URI> URI_TEMPLATE_STRING_TO_URI_CACHE = Caffeine.newBuilder()
-      .maximumSize(1000)
-      .build();
+  // Room for the keys and query parameters when sizing the URI buffers
+  private static final int ESTIMATED_VARIABLE_LENGTH = 64;
+
   protected final R _request;
   protected final ProtocolVersion _version;
   protected final CompoundKey _assocKey; // can be null
@@ -75,78 +75,102 @@ abstract class AbstractRestliRequestUriBuilder<R extends Request<?>> implements
     return _request;
   }
 
-  private String bindPathKeys()
-  {
-    UriTemplate template = _request.getUriTemplate();
-    return template.createURI(URIParamUtils.encodePathKeysForUri(_request.getPathKeys(), _version));
-  }
-
-  private final String addPrefix(String uri)
-  {
-    return _uriPrefix + uri;
-  }
-
-  protected void appendKeyToPath(UriBuilder uriBuilder, Object key)
+  protected void appendKeyToPath(StringBuilder uri, Object key)
   {
     if (!_request.getResourceProperties().isKeylessResource())
     {
-      uriBuilder.path(URIParamUtils.encodeKeyForUri(key, UriComponent.Type.PATH_SEGMENT, _version));
+      appendPathSegment(uri, URIParamUtils.encodeKeyForUri(key, UriComponent.Type.PATH_SEGMENT, _version));
     }
   }
 
-  protected void appendQueryParams(UriBuilder b)
+  protected void appendQueryParams(StringBuilder uri)
   {
     DataMap params = QueryParamsUtil.convertToDataMap(_request.getQueryParamsObjects(),
                                                       _request.getQueryParamClasses(),
                                                       _version,
                                                       _request.getRequestOptions().getProjectionDataMapSerializer());
-    URIParamUtils.addSortedParams(b, params, _version);
+    URIParamUtils.appendSortedParams(uri, params, _version);
   }
 
-  protected final void appendAssocKeys(UriBuilder uriBuilder)
+  protected final void appendAssocKeys(StringBuilder uri)
   {
     if (_assocKey != null && _assocKey.getNumParts() != 0)
     {
-      uriBuilder.path(URIParamUtils.encodeKeyForUri(_assocKey, UriComponent.Type.PATH_SEGMENT, _version));
+      appendPathSegment(uri, URIParamUtils.encodeKeyForUri(_assocKey, UriComponent.Type.PATH_SEGMENT, _version));
     }
   }
 
   @Override
   public final URI buildBaseUri()
   {
-    return URI.create(bindPathKeys());
+    final CompiledUriTemplate template = CompiledUriTemplate.forRequest(_request);
+    final StringBuilder uri = new StringBuilder(template.getFixedLength() + ESTIMATED_VARIABLE_LENGTH);
+    template.bind(uri, _request.getPathKeys(), _version);
+    return URI.create(uri.toString());
   }
 
   @Override
   public final URI buildWithoutQueryParams()
   {
-    return getUriBuilderWithoutQueryParams().build();
+    final StringBuilder uri = createUriBuffer();
+    appendUriWithoutQueryParams(uri);
+    return toUri(uri);
   }
 
   @Override
   public final URI build()
   {
-    UriBuilder b = getUriBuilderWithoutQueryParams();
-    appendQueryParams(b);
-    return b.build();
+    final StringBuilder uri = createUriBuffer();
+    appendUriWithoutQueryParams(uri);
+    appendQueryParams(uri);
+    return toUri(uri);
   }
 
   /**
-   * @return The URI builder (without query params) for this request.
+   * Appends the URI of this request, without its query params, to the given buffer.
    */
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
-    final URI uri;
+    uri.append(_uriPrefix);
     if (_request.getPathKeys().isEmpty())
     {
       // if path keys are empty we don't need to bind the path keys, we can directly use the request base uri template.
-      uri = URI_TEMPLATE_STRING_TO_URI_CACHE.get(addPrefix(_request.getBaseUriTemplate()), URI::create);
+      uri.append(_request.getBaseUriTemplate());
     }
     else
     {
-      uri = URI.create(addPrefix(bindPathKeys()));
+      CompiledUriTemplate.forRequest(_request).bind(uri, _request.getPathKeys(), _version);
+    }
+  }
+
+  private StringBuilder createUriBuffer()
+  {
+    return new StringBuilder(_uriPrefix.length() + _request.getBaseUriTemplate().length() + ESTIMATED_VARIABLE_LENGTH);
+  }
+
+  /**
+   * Appends an encoded path segment, separated from the path with a slash as with
+   * {@link com.linkedin.jersey.api.uri.UriBuilder#path(String)}.
+   */
+  private static void appendPathSegment(StringBuilder uri, String segment)
+  {
+    if (segment == null)
+    {
+      throw new IllegalArgumentException("Path segment is null");
     }
+    if (segment.isEmpty())
+    {
+      return;
+    }
+    if (uri.length() > 0 && uri.charAt(uri.length() - 1) != '/')
+    {
+      uri.append('/');
+    }
+    uri.append(segment);
+  }
 
-    return UriBuilder.fromUri(uri);
+  private static URI toUri(StringBuilder uri)
+  {
+    return URI.create(UriComponent.encodeTemplateNames(uri.toString()));
   }
 }
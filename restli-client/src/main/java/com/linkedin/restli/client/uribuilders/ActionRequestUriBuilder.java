@@ -17,7 +17,6 @@
 package com.linkedin.restli.client.uribuilders;
 
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.ActionRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -33,14 +32,13 @@ class ActionRequestUriBuilder extends AbstractRestliRequestUriBuilder<ActionRequ
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     ActionRequest<?> actionRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
+    super.appendUriWithoutQueryParams(uri);
     if (actionRequest.getId() != null)
     {
-      appendKeyToPath(b, actionRequest.getId());
+      appendKeyToPath(uri, actionRequest.getId());
     }
-    return b;
   }
 }
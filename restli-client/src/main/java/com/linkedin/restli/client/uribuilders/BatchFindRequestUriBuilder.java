@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.BatchFindRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -34,10 +33,9 @@ public class BatchFindRequestUriBuilder extends AbstractRestliRequestUriBuilder<
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendAssocKeys(b);
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendAssocKeys(uri);
   }
 }
@@ -0,0 +1,123 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.uribuilders;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedin.jersey.api.uri.UriComponent;
+import com.linkedin.jersey.api.uri.UriTemplate;
+import com.linkedin.restli.client.Request;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.internal.common.URIParamUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Base URI template of a resource, split once into its fixed parts and its path key variables, so that binding the
+ * path keys of a request only appends strings to the URI being built. It produces the same URIs as
+ * {@link UriTemplate#createURI(Map)} with the path keys encoded by
+ * {@link URIParamUtils#encodePathKeysForUri(Map, ProtocolVersion)}.
+ */
+final class CompiledUriTemplate
+{
+  private static final Cache<String, CompiledUriTemplate> BASE_URI_TEMPLATE_CACHE = Caffeine.newBuilder()
+      .maximumSize(1000)
+      .build();
+  // Same as the template variable pattern of UriTemplate
+  private static final Pattern TEMPLATE_NAMES_PATTERN = Pattern.compile("\\{(\\w[-\\w\\.]*)\\}");
+
+  // There is one more fixed part than variables, each variable being between two fixed parts
+  private final String[] _fixedParts;
+  private final String[] _variables;
+  private final int _fixedLength;
+
+  private CompiledUriTemplate(UriTemplate template)
+  {
+    // Recover the normalized template, without the regular expressions of the variables, which is what UriTemplate
+    // binds the values into
+    final Map<String, String> variableTemplates = new HashMap<>();
+    for (String variable : template.getTemplateVariables())
+    {
+      variableTemplates.put(variable, '{' + variable + '}');
+    }
+    final String normalizedTemplate = template.createURI(variableTemplates);
+
+    final List<String> fixedParts = new ArrayList<>();
+    final List<String> variables = new ArrayList<>();
+    final Matcher matcher = TEMPLATE_NAMES_PATTERN.matcher(normalizedTemplate);
+    int start = 0;
+    int fixedLength = 0;
+    while (matcher.find())
+    {
+      fixedParts.add(normalizedTemplate.substring(start, matcher.start()));
+      variables.add(matcher.group(1));
+      fixedLength += matcher.start() - start;
+      start = matcher.end();
+    }
+    fixedParts.add(normalizedTemplate.substring(start));
+    fixedLength += normalizedTemplate.length() - start;
+
+    _fixedParts = fixedParts.toArray(new String[0]);
+    _variables = variables.toArray(new String[0]);
+    _fixedLength = fixedLength;
+  }
+
+  /**
+   * @return the compiled base URI template of the request.
+   */
+  static CompiledUriTemplate forRequest(Request<?> request)
+  {
+    return BASE_URI_TEMPLATE_CACHE.get(request.getBaseUriTemplate(),
+        template -> new CompiledUriTemplate(request.getUriTemplate()));
+  }
+
+  /**
+   * @return length of the template without its variables, to size the URI buffers.
+   */
+  int getFixedLength()
+  {
+    return _fixedLength;
+  }
+
+  /**
+   * Appends the template to the URI, with its variables replaced by the encoded path keys. Variables without a path key
+   * are replaced by the empty string.
+   */
+  void bind(StringBuilder uri, Map<String, Object> pathKeys, ProtocolVersion version)
+  {
+    uri.append(_fixedParts[0]);
+    for (int i = 0; i < _variables.length; i++)
+    {
+      final Object pathKey = pathKeys.get(_variables[i]);
+      if (pathKey != null)
+      {
+        final String value = URIParamUtils.encodeKeyForUri(pathKey, UriComponent.Type.PATH_SEGMENT, version);
+        if (value == null)
+        {
+          throw new IllegalArgumentException("Missing value for path key " + _variables[i]);
+        }
+        uri.append(value);
+      }
+      uri.append(_fixedParts[i + 1]);
+    }
+  }
+}
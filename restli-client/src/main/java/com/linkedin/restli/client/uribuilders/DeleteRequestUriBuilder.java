@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.DeleteRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -32,11 +31,10 @@ class DeleteRequestUriBuilder extends AbstractRestliRequestUriBuilder<DeleteRequ
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     DeleteRequest<?> deleteRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendKeyToPath(b, deleteRequest.getId());
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendKeyToPath(uri, deleteRequest.getId());
   }
 }
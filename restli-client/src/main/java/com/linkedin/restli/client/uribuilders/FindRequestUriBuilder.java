@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.FindRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -32,10 +31,9 @@ class FindRequestUriBuilder extends AbstractRestliRequestUriBuilder<FindRequest<
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendAssocKeys(b);
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendAssocKeys(uri);
   }
 }
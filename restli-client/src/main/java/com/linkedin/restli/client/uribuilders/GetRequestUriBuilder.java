@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.GetRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -32,11 +31,10 @@ class GetRequestUriBuilder extends AbstractRestliRequestUriBuilder<GetRequest<?>
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     GetRequest<?> getRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendKeyToPath(b, getRequest.getObjectId());
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendKeyToPath(uri, getRequest.getObjectId());
   }
 }
@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.PartialUpdateEntityRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -34,11 +33,10 @@ class PartialUpdateEntityRequestUriBuilder extends AbstractRestliRequestUriBuild
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     PartialUpdateEntityRequest<?> partialUpdateEntityRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendKeyToPath(b, partialUpdateEntityRequest.getId());
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendKeyToPath(uri, partialUpdateEntityRequest.getId());
   }
 }
@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.PartialUpdateRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -32,11 +31,10 @@ class PartialUpdateRequestUriBuilder extends AbstractRestliRequestUriBuilder<Par
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     PartialUpdateRequest<?> partialUpdateRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendKeyToPath(b, partialUpdateRequest.getId());
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendKeyToPath(uri, partialUpdateRequest.getId());
   }
 }
@@ -16,7 +16,6 @@
 
 package com.linkedin.restli.client.uribuilders;
 
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.client.UpdateRequest;
 import com.linkedin.restli.common.ProtocolVersion;
 
@@ -32,11 +31,10 @@ public class UpdateRequestUriBuilder extends AbstractRestliRequestUriBuilder<Upd
   }
 
   @Override
-  protected UriBuilder getUriBuilderWithoutQueryParams()
+  protected void appendUriWithoutQueryParams(StringBuilder uri)
   {
     UpdateRequest<?> updateRequest = getRequest();
-    UriBuilder b = super.getUriBuilderWithoutQueryParams();
-    appendKeyToPath(b, updateRequest.getId());
-    return b;
+    super.appendUriWithoutQueryParams(uri);
+    appendKeyToPath(uri, updateRequest.getId());
   }
 }
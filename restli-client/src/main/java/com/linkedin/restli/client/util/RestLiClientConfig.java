@@ -16,7 +16,9 @@
 package com.linkedin.restli.client.util;
 
 
+import com.linkedin.restli.client.ScatterGatherConfig;
 import com.linkedin.restli.client.ScatterGatherStrategy;
+import com.linkedin.restli.client.metrics.ClientMetricsRecorder;
 
 /**
  * Configuration for rest.li clients.
@@ -27,6 +29,9 @@ import com.linkedin.restli.client.ScatterGatherStrategy;
 public class RestLiClientConfig {
   private Boolean _useStreaming = false;
   private ScatterGatherStrategy _scatterGatherStrategy = null;
+  private int _streamingRequestBodyThreshold = Integer.MAX_VALUE;
+  private ClientMetricsRecorder _clientMetricsRecorder = null;
+  private ScatterGatherConfig _scatterGatherConfig = null;
 
   public boolean isUseStreaming() {
     return _useStreaming;
@@ -46,6 +51,53 @@ public class RestLiClientConfig {
     _scatterGatherStrategy = scatterGatherStrategy;
   }
 
+  public int getStreamingRequestBodyThreshold()
+  {
+    return _streamingRequestBodyThreshold;
+  }
+
+  /**
+   * Sets the estimated encoded size, in bytes, from which request bodies are encoded as a stream while they are written
+   * to the network, instead of being encoded entirely on the calling thread before the request is sent. The estimate is
+   * the running average of the body sizes of the same method of the same resource. Requests are sent as stream
+   * requests when their body is streamed. Defaults to {@link Integer#MAX_VALUE}, which never streams bodies unless
+   * {@link #setUseStreaming(boolean)} is set.
+   */
+  public void setStreamingRequestBodyThreshold(int streamingRequestBodyThreshold)
+  {
+    _streamingRequestBodyThreshold = streamingRequestBodyThreshold;
+  }
+
+  public ClientMetricsRecorder getClientMetricsRecorder()
+  {
+    return _clientMetricsRecorder;
+  }
+
+  /**
+   * Sets the recorder of the metrics of each request sent, such as its latency, the time taken to encode it and to
+   * decode its response, and the sizes of their bodies. Defaults to null, which records no metrics. See
+   * {@link com.linkedin.restli.client.metrics.ClientMetricsJmxExporter} to export them through JMX.
+   */
+  public void setClientMetricsRecorder(ClientMetricsRecorder clientMetricsRecorder)
+  {
+    _clientMetricsRecorder = clientMetricsRecorder;
+  }
+
+  public ScatterGatherConfig getScatterGatherConfig()
+  {
+    return _scatterGatherConfig;
+  }
+
+  /**
+   * Sets the deadline and the hedging of the requests scattered by scatter-gather requests. Defaults to null, which
+   * waits for the responses of all the scattered requests and never hedges them. The hedging budget is created with
+   * the client, so this should be set before the client is created.
+   */
+  public void setScatterGatherConfig(ScatterGatherConfig scatterGatherConfig)
+  {
+    _scatterGatherConfig = scatterGatherConfig;
+  }
+
   @Override
   public boolean equals(Object obj)
   {
@@ -58,13 +110,15 @@ public class RestLiClientConfig {
       return false;
     }
     RestLiClientConfig c = (RestLiClientConfig) obj;
-    return _useStreaming == c.isUseStreaming();
+    return _useStreaming == c.isUseStreaming()
+        && _streamingRequestBodyThreshold == c.getStreamingRequestBodyThreshold();
   }
 
   @Override
   public int hashCode()
   {
     int hashCode = _useStreaming.hashCode();
+    hashCode = 31 * hashCode + _streamingRequestBodyThreshold;
     return hashCode;
   }
 }
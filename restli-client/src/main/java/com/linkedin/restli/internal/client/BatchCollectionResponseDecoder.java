@@ -47,6 +47,14 @@ public class BatchCollectionResponseDecoder<T extends RecordTemplate>
     return BatchFinderCriteriaResult.class;
   }
 
+  /**
+   * @return class of the elements of the results of each criteria.
+   */
+  public Class<T> getElementClass()
+  {
+    return _elementClass;
+  }
+
   @Override
   @SuppressWarnings({"unchecked", "rawtypes"})
   public BatchCollectionResponse<T> wrapResponse(DataMap dataMap, Map<String, String> headers, ProtocolVersion version)
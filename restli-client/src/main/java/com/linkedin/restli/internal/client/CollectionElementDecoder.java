@@ -0,0 +1,326 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataComplex;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.entitystream.JacksonJsonDataDecoder;
+import com.linkedin.data.parser.NonBlockingDataParser;
+import com.linkedin.entitystream.EntityStream;
+import com.linkedin.entitystream.EntityStreams;
+import com.linkedin.entitystream.ReadHandle;
+import com.linkedin.entitystream.WriteHandle;
+import com.linkedin.entitystream.Writer;
+import com.linkedin.r2.message.stream.entitystream.FullEntityReader;
+import com.linkedin.r2.message.stream.entitystream.adapter.EntityStreamAdapters;
+import com.linkedin.restli.client.RestLiDecodingException;
+import com.linkedin.restli.common.CollectionResponse;
+import com.linkedin.restli.common.ContentType;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+/**
+ * Decodes the elements of a collection response body, such as the body of a FINDER, GET_ALL or BATCH_FINDER response,
+ * into an {@link EntityStream} of elements, without building the whole response.
+ *
+ * The elements are the records of the {@value CollectionResponse#ELEMENTS} array of the body. JSON bodies are parsed
+ * as the elements are read: the next chunk of the body is only requested once the elements decoded from the previous
+ * ones have been read, so that the memory used does not depend on the number of elements. The bodies of the other
+ * content types are decoded entirely before their elements are written.
+ *
+ * @param <E> type of the elements
+ */
+class CollectionElementDecoder<E> implements Writer<E>
+{
+  private final Function<DataMap, E> _elementWrapper;
+  private final Queue<DataMap> _elements = new ConcurrentLinkedQueue<>();
+  // Number of pending calls to drain(), the elements being only written by the call which incremented it from 0
+  private final AtomicInteger _drainCount = new AtomicInteger();
+  // Whether the body decoder asked for the next chunk of the body, which is held until the decoded elements are read
+  private final AtomicBoolean _chunkRequested = new AtomicBoolean();
+  private volatile ReadHandle _bodyReadHandle;
+  // Starts reading a body which is decoded entirely, once the elements are read
+  private Runnable _fullBodyReading;
+  private volatile WriteHandle<? super E> _writeHandle;
+  private volatile boolean _bodyDecoded;
+  private volatile Throwable _error;
+  private boolean _finished;
+
+  private CollectionElementDecoder(Function<DataMap, E> elementWrapper)
+  {
+    _elementWrapper = elementWrapper;
+  }
+
+  /**
+   * @param body body of the response, which is read by the returned stream
+   * @param contentType content type of the body
+   * @param elementWrapper creates the elements from their data
+   * @return stream of the elements of the body.
+   */
+  static <E> EntityStream<E> decodeElements(com.linkedin.r2.message.stream.entitystream.EntityStream body,
+      ContentType contentType, Function<DataMap, E> elementWrapper)
+  {
+    final CollectionElementDecoder<E> decoder = new CollectionElementDecoder<>(elementWrapper);
+    if (ContentType.JSON.equals(contentType))
+    {
+      EntityStreamAdapters.toGenericEntityStream(body).setReader(decoder.new JsonBodyDecoder());
+    }
+    else
+    {
+      decoder._fullBodyReading = () -> body.setReader(new FullEntityReader(decoder.new FullBodyCallback(contentType)));
+    }
+    return EntityStreams.newEntityStream(decoder);
+  }
+
+  /**
+   * @param body decoded body of the response
+   * @param elementWrapper creates the elements from their data
+   * @return stream of the elements of the body.
+   */
+  static <E> EntityStream<E> fromDecodedBody(DataMap body, Function<DataMap, E> elementWrapper)
+  {
+    final CollectionElementDecoder<E> decoder = new CollectionElementDecoder<>(elementWrapper);
+    decoder.addElements(body);
+    decoder._bodyDecoded = true;
+    return EntityStreams.newEntityStream(decoder);
+  }
+
+  @Override
+  public void onInit(WriteHandle<? super E> wh)
+  {
+    _writeHandle = wh;
+    if (_fullBodyReading != null)
+    {
+      _fullBodyReading.run();
+    }
+  }
+
+  @Override
+  public void onWritePossible()
+  {
+    drain();
+  }
+
+  @Override
+  public void onAbort(Throwable e)
+  {
+    final ReadHandle bodyReadHandle = _bodyReadHandle;
+    if (bodyReadHandle != null)
+    {
+      bodyReadHandle.cancel();
+    }
+  }
+
+  private void addElements(DataMap body)
+  {
+    final DataList elements = body == null ? null : body.getDataList(CollectionResponse.ELEMENTS);
+    if (elements != null)
+    {
+      for (Object element : elements)
+      {
+        if (element instanceof DataMap)
+        {
+          _elements.add((DataMap) element);
+        }
+      }
+    }
+  }
+
+  private void onBodyDecoded(Throwable error)
+  {
+    if (error == null)
+    {
+      _bodyDecoded = true;
+    }
+    else
+    {
+      _error = error;
+    }
+    drain();
+  }
+
+  /**
+   * Writes as many decoded elements as the reader requested, then requests the next chunk of the body if all of them
+   * are written, or finishes the stream once the whole body is decoded.
+   */
+  private void drain()
+  {
+    if (_writeHandle == null || _drainCount.getAndIncrement() != 0)
+    {
+      return;
+    }
+
+    do
+    {
+      final WriteHandle<? super E> wh = _writeHandle;
+      DataMap element;
+      while (!_finished && wh.remaining() > 0 && (element = _elements.poll()) != null)
+      {
+        try
+        {
+          wh.write(_elementWrapper.apply(element));
+        }
+        catch (RuntimeException e)
+        {
+          finish(new RestLiDecodingException("Could not wrap a collection element", e));
+        }
+      }
+
+      if (!_finished && _elements.isEmpty())
+      {
+        if (_error != null)
+        {
+          finish(new RestLiDecodingException("Could not decode REST response", _error));
+        }
+        else if (_bodyDecoded)
+        {
+          _finished = true;
+          wh.done();
+        }
+        else if (wh.remaining() > 0 && _chunkRequested.compareAndSet(true, false))
+        {
+          _bodyReadHandle.request(1);
+        }
+      }
+    }
+    while (_drainCount.decrementAndGet() != 0);
+  }
+
+  private void finish(Throwable error)
+  {
+    _finished = true;
+    _elements.clear();
+    final ReadHandle bodyReadHandle = _bodyReadHandle;
+    if (bodyReadHandle != null && !_bodyDecoded)
+    {
+      bodyReadHandle.cancel();
+    }
+    _writeHandle.error(error);
+  }
+
+  /**
+   * Decodes a JSON body, taking out the records of the arrays of the top level object to queue them as elements.
+   */
+  private class JsonBodyDecoder extends JacksonJsonDataDecoder<DataMap>
+  {
+    // Depth of the object or array being decoded, the top level object being at depth 1
+    private int _depth = 0;
+
+    JsonBodyDecoder()
+    {
+      super(START_OBJECT_TOKEN);
+    }
+
+    @Override
+    public void onInit(ReadHandle rh)
+    {
+      _bodyReadHandle = rh;
+      getResult().whenComplete((rest, e) -> onBodyDecoded(e));
+      super.onInit(new ReadHandle()
+      {
+        @Override
+        public void request(int n)
+        {
+          // The decoder only ever requests one chunk at a time
+          _chunkRequested.set(true);
+          drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+          rh.cancel();
+        }
+      });
+    }
+
+    @Override
+    protected DataComplex createDataObject(NonBlockingDataParser parser)
+    {
+      _depth++;
+      return super.createDataObject(parser);
+    }
+
+    @Override
+    protected DataComplex createDataList(NonBlockingDataParser parser)
+    {
+      _depth++;
+      return super.createDataList(parser);
+    }
+
+    @Override
+    protected DataComplex postProcessDataComplex(DataComplex dataComplex)
+    {
+      _depth--;
+      return super.postProcessDataComplex(dataComplex);
+    }
+
+    @Override
+    protected void addValue(Object value)
+    {
+      if (_depth == 2 && isCurrList() && value instanceof DataMap)
+      {
+        _elements.add((DataMap) value);
+      }
+      else
+      {
+        super.addValue(value);
+      }
+    }
+  }
+
+  /**
+   * Queues the elements of a body decoded entirely.
+   */
+  private class FullBodyCallback implements Callback<ByteString>
+  {
+    private final ContentType _contentType;
+
+    FullBodyCallback(ContentType contentType)
+    {
+      _contentType = contentType;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      onBodyDecoded(e);
+    }
+
+    @Override
+    public void onSuccess(ByteString result)
+    {
+      try
+      {
+        addElements(_contentType.getCodec().readMap(result));
+      }
+      catch (Exception e)
+      {
+        onBodyDecoded(e);
+        return;
+      }
+      onBodyDecoded(null);
+    }
+  }
+}
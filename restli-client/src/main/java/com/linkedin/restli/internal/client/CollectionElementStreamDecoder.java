@@ -0,0 +1,108 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.template.DataTemplateUtil;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.entitystream.EntityStream;
+import com.linkedin.r2.message.stream.StreamResponse;
+import com.linkedin.restli.client.Response;
+import com.linkedin.restli.client.RestLiDecodingException;
+import com.linkedin.restli.common.BatchFinderCriteriaResult;
+import com.linkedin.restli.common.ContentType;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.CookieUtil;
+import java.util.Map;
+import java.util.function.Function;
+import javax.activation.MimeTypeParseException;
+
+
+/**
+ * Converts the response of a FINDER, GET_ALL or BATCH_FINDER request into a response whose entity is the stream of the
+ * elements of the collection. The response is passed on as soon as its headers are received, and the elements are
+ * decoded as they are read from the stream, see {@link CollectionElementDecoder}.
+ *
+ * Responses with attachments are not supported.
+ *
+ * @param <E> type of the elements
+ */
+public class CollectionElementStreamDecoder<E> extends RestResponseDecoder<EntityStream<E>>
+{
+  private final Class<?> _elementClass;
+  private final Function<DataMap, E> _elementWrapper;
+
+  private CollectionElementStreamDecoder(Class<?> elementClass, Function<DataMap, E> elementWrapper)
+  {
+    _elementClass = elementClass;
+    _elementWrapper = elementWrapper;
+  }
+
+  /**
+   * @return decoder of the elements of FINDER and GET_ALL responses.
+   */
+  public static <T extends RecordTemplate> CollectionElementStreamDecoder<T> forCollection(Class<T> elementClass)
+  {
+    return new CollectionElementStreamDecoder<>(elementClass, data -> DataTemplateUtil.wrap(data, elementClass));
+  }
+
+  /**
+   * @return decoder of the results of each criteria of BATCH_FINDER responses.
+   */
+  public static <T extends RecordTemplate> CollectionElementStreamDecoder<BatchFinderCriteriaResult<T>> forBatchFinder(
+      Class<T> elementClass)
+  {
+    return new CollectionElementStreamDecoder<>(BatchFinderCriteriaResult.class,
+        data -> new BatchFinderCriteriaResult<>(data, elementClass));
+  }
+
+  @Override
+  public void decodeResponse(StreamResponse streamResponse, Callback<Response<EntityStream<E>>> responseCallback)
+  {
+    final ContentType contentType;
+    try
+    {
+      contentType = ContentType.getContentType(streamResponse.getHeader(RestConstants.HEADER_CONTENT_TYPE))
+          .orElse(ContentType.JSON);
+    }
+    catch (MimeTypeParseException e)
+    {
+      responseCallback.onError(new RestLiDecodingException("Could not decode Content-Type header in response", e));
+      return;
+    }
+
+    final ResponseImpl<EntityStream<E>> response = new ResponseImpl<>(streamResponse.getStatus(),
+        streamResponse.getHeaders(), CookieUtil.decodeSetCookies(streamResponse.getCookies()));
+    response.setEntity(
+        CollectionElementDecoder.decodeElements(streamResponse.getEntityStream(), contentType, _elementWrapper));
+    responseCallback.onSuccess(response);
+  }
+
+  @Override
+  public Class<?> getEntityClass()
+  {
+    return _elementClass;
+  }
+
+  @Override
+  public EntityStream<E> wrapResponse(DataMap dataMap, Map<String, String> headers, ProtocolVersion version)
+  {
+    return CollectionElementDecoder.fromDecodedBody(dataMap, _elementWrapper);
+  }
+}
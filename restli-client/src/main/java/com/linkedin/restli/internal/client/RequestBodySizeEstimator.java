@@ -0,0 +1,73 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedin.restli.client.Request;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Keeps a running estimate of the encoded size of the request bodies of each type of request, that is each method of
+ * each resource, so that large bodies such as the ones of batch creates and batch updates can be streamed.
+ *
+ * The estimate is an exponentially weighted moving average of the recorded sizes. Updates are not synchronized: a
+ * concurrent update may be lost, which only makes the estimate slightly less accurate.
+ */
+public class RequestBodySizeEstimator
+{
+  // The weight of a new size in the average is 1 / 2^WEIGHT_SHIFT
+  private static final int WEIGHT_SHIFT = 2;
+
+  private final Cache<String, AtomicInteger> _estimates = Caffeine.newBuilder()
+      .maximumSize(1000)
+      .build();
+
+  /**
+   * @return key identifying the type of the request, to record and look up the size of its body.
+   */
+  public static String getKey(Request<?> request)
+  {
+    final String methodName = request.getMethodName();
+    final StringBuilder key = new StringBuilder(request.getBaseUriTemplate()).append(' ').append(request.getMethod());
+    if (methodName != null)
+    {
+      key.append(' ').append(methodName);
+    }
+    return key.toString();
+  }
+
+  /**
+   * @return estimated encoded size of the request bodies of this type, or 0 if no size has been recorded for it.
+   */
+  public int getEstimate(String key)
+  {
+    final AtomicInteger estimate = _estimates.getIfPresent(key);
+    return estimate == null ? 0 : estimate.get();
+  }
+
+  /**
+   * Records the encoded size of a request body of this type.
+   */
+  public void record(String key, int size)
+  {
+    final AtomicInteger estimate = _estimates.get(key, k -> new AtomicInteger());
+    final int current = estimate.get();
+    estimate.set(current == 0 ? size : current + ((size - current) >> WEIGHT_SHIFT));
+  }
+}
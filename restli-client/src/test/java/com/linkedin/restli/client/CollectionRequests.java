@@ -0,0 +1,63 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import java.util.Collections;
+import java.util.EnumSet;
+
+
+/**
+ * Requests on a collection of {@link TestRecord}s keyed by longs, shared by the tests of the client decorators.
+ */
+final class CollectionRequests
+{
+  static final String TEST_URI = "test";
+  static final ResourceSpec COLL_SPEC =
+      new ResourceSpecImpl(EnumSet.allOf(ResourceMethod.class),
+          Collections.emptyMap(),
+          Collections.emptyMap(),
+          Long.class,
+          null,
+          null,
+          TestRecord.class,
+          Collections.emptyMap());
+
+  private CollectionRequests()
+  {
+  }
+
+  static GetRequest<TestRecord> createGetRequest(Long id)
+  {
+    return createGetRequestBuilder(id).build();
+  }
+
+  static GetRequestBuilder<Long, TestRecord> createGetRequestBuilder(Long id)
+  {
+    return new GetRequestBuilder<Long, TestRecord>(TEST_URI, TestRecord.class, COLL_SPEC,
+        RestliRequestOptions.DEFAULT_OPTIONS).id(id);
+  }
+
+  static BatchGetEntityRequest<Long, TestRecord> createBatchGetRequest(Long... ids)
+  {
+    return new BatchGetEntityRequestBuilder<Long, TestRecord>(TEST_URI, COLL_SPEC,
+        RestliRequestOptions.DEFAULT_OPTIONS).ids(ids).build();
+  }
+}
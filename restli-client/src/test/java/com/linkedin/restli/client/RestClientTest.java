@@ -31,7 +31,12 @@ import com.linkedin.r2.message.rest.RestException;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.r2.message.stream.StreamRequest;
+import com.linkedin.r2.message.stream.StreamResponse;
 import com.linkedin.r2.transport.common.Client;
+import com.linkedin.restli.client.metrics.ClientOperationMetrics;
+import com.linkedin.restli.client.metrics.HistogramClientMetricsRecorder;
+import com.linkedin.restli.client.util.RestLiClientConfig;
 import com.linkedin.restli.common.ContentType;
 import com.linkedin.restli.common.EmptyRecord;
 import com.linkedin.restli.common.ErrorDetails;
@@ -127,6 +132,82 @@ public class RestClientTest
 
   }
 
+  @Test
+  public void testLargeRequestBodiesStreamed()
+  {
+    Client client = EasyMock.createMock(Client.class);
+    Capture<RestRequest> restRequestCapture = EasyMock.newCapture();
+    Capture<StreamRequest> streamRequestCapture = EasyMock.newCapture();
+    client.restRequest(EasyMock.capture(restRequestCapture), EasyMock.anyObject(RequestContext.class),
+        EasyMock.<Callback<RestResponse>>anyObject());
+    client.streamRequest(EasyMock.capture(streamRequestCapture), EasyMock.anyObject(RequestContext.class),
+        EasyMock.<Callback<StreamResponse>>anyObject());
+    EasyMock.replay(client);
+
+    RestLiClientConfig config = new RestLiClientConfig();
+    config.setStreamingRequestBodyThreshold(16);
+    RestClient restClient = new RestClient(client, "http://localhost", config);
+    RestliRequestOptions options = new RestliRequestOptionsBuilder()
+        .setProtocolVersionOption(ProtocolVersionOption.FORCE_USE_LATEST)
+        .build();
+    Request<EmptyRecord> request = new UpdateRequestBuilder<Long, ErrorResponse>("resource", ErrorResponse.class,
+        new ResourceSpecImpl(), options)
+        .input(new ErrorResponse().setMessage("A body larger than the streaming threshold"))
+        .build();
+
+    // The size of the first body is not known yet, it is encoded on the calling thread
+    restClient.sendRequest(request);
+    // The second one is expected to be large, it is encoded while it is written
+    restClient.sendRequest(request);
+
+    EasyMock.verify(client);
+    Assert.assertTrue(restRequestCapture.getValue().getEntity().length() > 16);
+    Assert.assertEquals(streamRequestCapture.getValue().getURI(), restRequestCapture.getValue().getURI());
+  }
+
+  @Test
+  public void testClientMetricsRecorded() throws Exception
+  {
+    HistogramClientMetricsRecorder recorder = new HistogramClientMetricsRecorder();
+    RestLiClientConfig config = new RestLiClientConfig();
+    config.setClientMetricsRecorder(recorder);
+    Map<String, String> headers = Collections.singletonMap(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+        AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString());
+    Request<ErrorResponse> request =
+        mockRequest(ErrorResponse.class, ProtocolVersionOption.FORCE_USE_LATEST, ContentType.JSON);
+
+    byte[] body = "{\"message\":\"metrics\"}".getBytes("UTF-8");
+    new RestClient(new MockClient(200, headers, body), "http://localhost", config).sendRequest(request).getResponse();
+    try
+    {
+      new RestClient(new MockClient(503, headers, new byte[0]), "http://localhost", config)
+          .sendRequest(request).getResponse();
+      Assert.fail("The request should fail");
+    }
+    catch (RestLiResponseException e)
+    {
+      Assert.assertEquals(e.getStatus(), 503);
+    }
+
+    ClientOperationMetrics metrics = recorder.getOperationMetrics(request.getResourceMethodIdentifier());
+    Assert.assertEquals(metrics.getServiceName(), request.getServiceName());
+    Assert.assertEquals(metrics.getCallCount(), 2);
+    Assert.assertEquals(metrics.getErrorCount(), 1);
+    Assert.assertEquals(metrics.getErrorCounts(), Collections.singletonMap("HTTP_503", 1L));
+
+    ClientOperationMetrics.IntervalMetrics intervalMetrics = metrics.getIntervalMetrics();
+    Assert.assertEquals(intervalMetrics.getLatency().getTotalCount(), 2);
+    Assert.assertEquals(intervalMetrics.getEncodeTime().getTotalCount(), 2);
+    // GET requests have no body
+    Assert.assertEquals(intervalMetrics.getRequestSize().getTotalCount(), 0);
+    // Only the successful response is decoded
+    Assert.assertEquals(intervalMetrics.getDecodeTime().getTotalCount(), 1);
+    Assert.assertEquals(intervalMetrics.getResponseSize().getTotalCount(), 1);
+    Assert.assertEquals(intervalMetrics.getResponseSize().getMaxValue(), body.length, body.length / 16.0);
+    // The metrics are read per interval
+    Assert.assertEquals(metrics.getIntervalMetrics().getLatency().getTotalCount(), 0);
+  }
+
   private enum SendRequestOption
   {
     REQUEST_NO_CONTEXT(false, false),
@@ -0,0 +1,171 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import java.net.HttpCookie;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.linkedin.restli.client.CollectionRequests.*;
+import static org.mockito.Mockito.*;
+
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class TestBatchingRestClient
+{
+  private ScheduledExecutorService _scheduler;
+
+  @BeforeClass
+  public void setUp()
+  {
+    _scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterClass
+  public void tearDown()
+  {
+    _scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testBatchesGetRequests() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    doAnswer(invocation ->
+    {
+      final BatchGetKVRequest<Long, TestRecord> request = (BatchGetKVRequest<Long, TestRecord>) invocation.getArguments()[0];
+      final DataMap results = new DataMap();
+      // id 3 is not found
+      for (Object id : request.getObjectIds())
+      {
+        if (!id.equals(3L))
+        {
+          results.put(id.toString(), new TestRecord().setId((Long) id).data());
+        }
+      }
+      final DataMap errors = new DataMap();
+      errors.put("3", new ErrorResponse().setStatus(HttpStatus.S_404_NOT_FOUND.getCode()).data());
+      final DataMap data = new DataMap();
+      data.put(BatchResponse.RESULTS, results);
+      data.put(BatchResponse.ERRORS, errors);
+      final BatchKVResponse<Long, TestRecord> entity = new BatchKVResponse<>(data, Long.class, TestRecord.class,
+          Collections.emptyMap(), AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion());
+      ((Callback) invocation.getArguments()[2]).onSuccess(
+          new ResponseImpl<>(HttpStatus.S_200_OK.getCode(), Collections.emptyMap(), Collections.emptyList(), entity, null));
+      return null;
+    }).when(underlying).sendRequest(any(Request.class), any(RequestContext.class), any(Callback.class));
+
+    // The batch is full before the end of the window
+    final Client client = new BatchingRestClient(underlying, _scheduler, 60000, 4);
+    final FutureCallback<Response<TestRecord>> callback1 = new FutureCallback<>();
+    final FutureCallback<Response<TestRecord>> callback2 = new FutureCallback<>();
+    final FutureCallback<Response<TestRecord>> callback3 = new FutureCallback<>();
+    final FutureCallback<Response<TestRecord>> duplicate = new FutureCallback<>();
+    client.sendRequest(createGetRequest(1L), callback1);
+    client.sendRequest(createGetRequest(2L), callback2);
+    client.sendRequest(createGetRequest(3L), callback3);
+    client.sendRequest(createGetRequest(1L), duplicate);
+
+    final ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+    verify(underlying, times(1)).sendRequest(captor.capture(), any(RequestContext.class), any(Callback.class));
+    Assert.assertEquals(captor.getValue().getMethod(), ResourceMethod.BATCH_GET);
+    Assert.assertEquals(((BatchRequest<?>) captor.getValue()).getObjectIds(), new HashSet<>(Arrays.asList(1L, 2L, 3L)));
+
+    Assert.assertEquals(callback1.get().getEntity().getId(), Long.valueOf(1L));
+    Assert.assertEquals(callback2.get().getEntity().getId(), Long.valueOf(2L));
+    Assert.assertEquals(duplicate.get().getEntity().getId(), Long.valueOf(1L));
+    try
+    {
+      callback3.get();
+      Assert.fail("The GET request of a missing entity should fail");
+    }
+    catch (ExecutionException e)
+    {
+      Assert.assertEquals(((RestLiResponseException) e.getCause()).getStatus(), HttpStatus.S_404_NOT_FOUND.getCode());
+    }
+  }
+
+  @Test
+  public void testSendsSingleRequestAfterWindow() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final Client client = new BatchingRestClient(underlying, _scheduler, 10, 100);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    client.sendRequest(request, new FutureCallback<>());
+
+    verify(underlying, timeout(5000).times(1)).sendRequest(eq(request), any(RequestContext.class), any(Callback.class));
+  }
+
+  @Test
+  public void testDoesNotBatchIncompatibleRequests()
+  {
+    final Client underlying = mock(Client.class);
+    final Client client = new BatchingRestClient(underlying, _scheduler, 60000, 2);
+
+    // Requests with a request context are sent right away
+    final RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr("attr", "value");
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    client.sendRequest(request, requestContext, new FutureCallback<>());
+    verify(underlying, times(1)).sendRequest(eq(request), eq(requestContext), any(Callback.class));
+
+    // Requests with different projections are batched separately
+    final Set<Request<?>> sent = new HashSet<>();
+    doAnswer(invocation -> sent.add((Request<?>) invocation.getArguments()[0]))
+        .when(underlying).sendRequest(any(Request.class), any(RequestContext.class), any(Callback.class));
+    client.sendRequest(createGetRequest(1L), new FutureCallback<>());
+    client.sendRequest(createGetRequestBuilder(2L).fields(TestRecord.fields().id()).build(), new FutureCallback<>());
+    Assert.assertTrue(sent.isEmpty());
+    client.sendRequest(createGetRequest(3L), new FutureCallback<>());
+    Assert.assertEquals(sent.size(), 1);
+    Assert.assertEquals(((BatchRequest<?>) sent.iterator().next()).getObjectIds(), new HashSet<>(Arrays.asList(1L, 3L)));
+
+    // Requests with different cookie values are batched separately
+    sent.clear();
+    client.sendRequest(createGetRequestBuilder(4L).addCookie(new HttpCookie("session", "first")).build(),
+        new FutureCallback<>());
+    client.sendRequest(createGetRequestBuilder(5L).addCookie(new HttpCookie("session", "second")).build(),
+        new FutureCallback<>());
+    Assert.assertTrue(sent.isEmpty());
+    client.sendRequest(createGetRequestBuilder(6L).addCookie(new HttpCookie("session", "first")).build(),
+        new FutureCallback<>());
+    Assert.assertEquals(sent.size(), 1);
+    Assert.assertEquals(((BatchRequest<?>) sent.iterator().next()).getObjectIds(), new HashSet<>(Arrays.asList(4L, 6L)));
+  }
+}
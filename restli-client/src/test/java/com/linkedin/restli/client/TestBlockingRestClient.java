@@ -0,0 +1,181 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.internal.client.ResponseFutureImpl;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.linkedin.restli.client.CollectionRequests.*;
+import static org.mockito.Mockito.*;
+
+
+public class TestBlockingRestClient
+{
+  @Test
+  public void testSendRequest() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    final FutureCallback<Response<TestRecord>> callback = new FutureCallback<>();
+    callback.onSuccess(new ResponseImpl<>(HttpStatus.S_200_OK.getCode(), Collections.emptyMap(), Collections.emptyList(),
+        new TestRecord().setId(1L), null));
+    when(underlying.sendRequest(eq(request), any(RequestContext.class), eq(ErrorHandlingBehavior.FAIL_ON_ERROR)))
+        .thenReturn(new ResponseFutureImpl<>(callback));
+
+    final BlockingRestClient client = new BlockingRestClient(underlying);
+    Assert.assertSame(client.getClient(), underlying);
+    Assert.assertEquals(client.sendRequest(request).getEntity().getId(), Long.valueOf(1L));
+  }
+
+  @Test
+  public void testSendRequestTimeout() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    when(underlying.sendRequest(eq(request), any(RequestContext.class)))
+        .thenReturn(new ResponseFutureImpl<>(new FutureCallback<>()));
+
+    final BlockingRestClient client = new BlockingRestClient(underlying);
+    final RequestContext requestContext = new RequestContext();
+    final ArgumentCaptor<RequestContext> sentContext = ArgumentCaptor.forClass(RequestContext.class);
+    try
+    {
+      client.sendRequest(request, requestContext, 10, TimeUnit.MILLISECONDS);
+      Assert.fail("The response should time out");
+    }
+    catch (TimeoutException e)
+    {
+      // expected
+    }
+    // The request does not outlive the wait for its response, and the context of the caller is left as is
+    verify(underlying).sendRequest(eq(request), sentContext.capture());
+    Assert.assertEquals(sentContext.getValue().getLocalAttr(R2Constants.REQUEST_TIMEOUT), 10);
+    Assert.assertNull(requestContext.getLocalAttr(R2Constants.REQUEST_TIMEOUT));
+
+    // Shorter request timeouts are kept
+    requestContext.putLocalAttr(R2Constants.REQUEST_TIMEOUT, 5);
+    try
+    {
+      client.sendRequest(request, requestContext, 1, TimeUnit.SECONDS);
+      Assert.fail("The response should time out");
+    }
+    catch (TimeoutException e)
+    {
+      // expected
+    }
+    verify(underlying, times(2)).sendRequest(eq(request), sentContext.capture());
+    Assert.assertEquals(sentContext.getValue().getLocalAttr(R2Constants.REQUEST_TIMEOUT), 5);
+    Assert.assertEquals(requestContext.getLocalAttr(R2Constants.REQUEST_TIMEOUT), 5);
+  }
+
+  @Test
+  public void testInterruptStatusRestored() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    when(underlying.sendRequest(eq(request), any(RequestContext.class), eq(ErrorHandlingBehavior.FAIL_ON_ERROR)))
+        .thenReturn(new ResponseFutureImpl<>(new FutureCallback<>()));
+
+    Thread.currentThread().interrupt();
+    try
+    {
+      new BlockingRestClient(underlying).sendRequest(request);
+      Assert.fail("The wait should be interrupted");
+    }
+    catch (RemoteInvocationException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof InterruptedException);
+      // Clears the interrupt status for the next tests
+      Assert.assertTrue(Thread.interrupted());
+    }
+  }
+
+  @Test
+  public void testTimeoutCancelsRequest() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    final CompletableFuture<Response<TestRecord>> response = new CompletableFuture<>();
+    when(underlying.sendRequest(eq(request), any(RequestContext.class))).thenReturn(new ResponseFutureImpl<>(response));
+
+    try
+    {
+      new BlockingRestClient(underlying).sendRequest(request, new RequestContext(), 10, TimeUnit.MILLISECONDS);
+      Assert.fail("The response should time out");
+    }
+    catch (TimeoutException e)
+    {
+      // expected
+    }
+    Assert.assertTrue(response.isCancelled());
+    Assert.assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void testInterruptCancelsRequest() throws Exception
+  {
+    final Client underlying = mock(Client.class);
+    final GetRequest<TestRecord> request = createGetRequest(1L);
+    final CompletableFuture<Response<TestRecord>> response = new CompletableFuture<>();
+    when(underlying.sendRequest(eq(request), any(RequestContext.class))).thenReturn(new ResponseFutureImpl<>(response));
+
+    final BlockingRestClient client = new BlockingRestClient(underlying);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final AtomicBoolean interrupted = new AtomicBoolean();
+    final Thread caller = new Thread(() ->
+    {
+      try
+      {
+        client.sendRequest(request, new RequestContext(), 1, TimeUnit.MINUTES);
+      }
+      catch (Throwable e)
+      {
+        error.set(e);
+      }
+      interrupted.set(Thread.currentThread().isInterrupted());
+    });
+    caller.start();
+    // Interrupts the caller once it waits for the response, rather than before it sends the request
+    while (caller.getState() != Thread.State.TIMED_WAITING && caller.isAlive())
+    {
+      Thread.sleep(1);
+    }
+    caller.interrupt();
+    caller.join(10000);
+
+    Assert.assertFalse(caller.isAlive());
+    Assert.assertTrue(error.get() instanceof RemoteInvocationException, String.valueOf(error.get()));
+    Assert.assertTrue(error.get().getCause() instanceof InterruptedException);
+    Assert.assertTrue(interrupted.get());
+    Assert.assertTrue(response.isCancelled());
+  }
+}
@@ -0,0 +1,216 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.EntityResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.common.TypeSpec;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import com.linkedin.restli.internal.client.response.BatchEntityResponse;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.util.clock.SettableClock;
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.linkedin.restli.client.CollectionRequests.*;
+import static org.mockito.Mockito.*;
+
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class TestCachingRestClient
+{
+  private static final String RESPONSE_HEADER = "X-Response";
+
+  @Test
+  public void testGetServedFromCacheThenRefreshed() throws Exception
+  {
+    final List<Request<?>> sent = new ArrayList<>();
+    final Client underlying = createUnderlyingClient(sent);
+    final SettableClock clock = new SettableClock(0);
+    final CachingRestClient client = new CachingRestClient(underlying, 100, 1000, 500, clock);
+
+    Assert.assertEquals(get(client, 1L).getId(), Long.valueOf(1L));
+    Assert.assertEquals(sent.size(), 1);
+
+    // Fresh entry
+    final TestRecord cached = get(client, 1L);
+    Assert.assertEquals(cached.getId(), Long.valueOf(1L));
+    Assert.assertTrue(cached.data().isReadOnly());
+    Assert.assertEquals(sent.size(), 1);
+
+    // Stale entry, served while refreshed once
+    clock.setCurrentTimeMillis(1200);
+    Assert.assertEquals(get(client, 1L).getId(), Long.valueOf(1L));
+    Assert.assertEquals(sent.size(), 2);
+    clock.setCurrentTimeMillis(1300);
+    get(client, 1L);
+    Assert.assertEquals(sent.size(), 2);
+
+    // Expired entry
+    clock.setCurrentTimeMillis(5000);
+    get(client, 1L);
+    Assert.assertEquals(sent.size(), 3);
+
+    // Other projections are cached separately
+    client.sendRequest(createGetRequestBuilder(1L).fields(TestRecord.fields().id()).build()).get();
+    Assert.assertEquals(sent.size(), 4);
+  }
+
+  @Test
+  public void testTimeToLivePerResource() throws Exception
+  {
+    final List<Request<?>> sent = new ArrayList<>();
+    final CachingRestClient client = new CachingRestClient(createUnderlyingClient(sent), 100, 0, 0, new SettableClock());
+    get(client, 1L);
+    get(client, 1L);
+    Assert.assertEquals(sent.size(), 2);
+
+    client.setTimeToLive(TEST_URI, 1000);
+    get(client, 1L);
+    get(client, 1L);
+    Assert.assertEquals(sent.size(), 3);
+    Assert.assertEquals(client.size(), 1);
+  }
+
+  @Test
+  public void testBatchGetSendsMissingKeysOnly() throws Exception
+  {
+    final List<Request<?>> sent = new ArrayList<>();
+    final CachingRestClient client = new CachingRestClient(createUnderlyingClient(sent), 100, 1000, 0, new SettableClock());
+    get(client, 1L);
+    get(client, 2L);
+
+    final BatchKVResponse<Long, EntityResponse<TestRecord>> response =
+        client.sendRequest(createBatchGetRequest(1L, 2L, 3L)).getResponseEntity();
+    Assert.assertEquals(sent.size(), 3);
+    Assert.assertEquals(((BatchRequest<?>) sent.get(2)).getObjectIds(), Collections.singleton(3L));
+    Assert.assertEquals(response.getResults().size(), 3);
+    for (long id = 1; id <= 3; id++)
+    {
+      Assert.assertEquals(response.getResults().get(id).getEntity().getId(), Long.valueOf(id));
+      Assert.assertEquals(response.getResults().get(id).getStatus(), HttpStatus.S_200_OK);
+    }
+
+    // All the keys are cached now
+    final BatchKVResponse<Long, EntityResponse<TestRecord>> cached =
+        client.sendRequest(createBatchGetRequest(1L, 2L, 3L)).getResponseEntity();
+    Assert.assertEquals(sent.size(), 3);
+    Assert.assertEquals(cached.getResults().keySet(), new HashSet<>(Arrays.asList(1L, 2L, 3L)));
+    Assert.assertEquals(get(client, 3L).getId(), Long.valueOf(3L));
+    Assert.assertEquals(sent.size(), 3);
+  }
+
+  @Test
+  public void testCachedResponsesHaveOriginHeaders() throws Exception
+  {
+    final List<Request<?>> sent = new ArrayList<>();
+    final CachingRestClient client = new CachingRestClient(createUnderlyingClient(sent), 100, 1000, 0, new SettableClock());
+    client.sendRequest(createGetRequest(1L)).get();
+
+    final Response<TestRecord> cached = client.sendRequest(createGetRequest(1L)).get();
+    Assert.assertEquals(sent.size(), 1);
+    Assert.assertEquals(cached.getHeader(RESPONSE_HEADER), "1");
+    Assert.assertEquals(cached.getHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION),
+        AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString());
+    // Cookies are meant for the caller of the origin request only
+    Assert.assertTrue(cached.getCookies().isEmpty());
+
+    final Response<BatchKVResponse<Long, EntityResponse<TestRecord>>> batchCached =
+        client.sendRequest(createBatchGetRequest(1L)).get();
+    Assert.assertEquals(sent.size(), 1);
+    Assert.assertEquals(batchCached.getHeader(RESPONSE_HEADER), "1");
+    Assert.assertTrue(batchCached.getCookies().isEmpty());
+  }
+
+  @Test
+  public void testCookiesAreCachedSeparately() throws Exception
+  {
+    final List<Request<?>> sent = new ArrayList<>();
+    final CachingRestClient client = new CachingRestClient(createUnderlyingClient(sent), 100, 1000, 0, new SettableClock());
+    client.sendRequest(createGetRequestBuilder(1L).addCookie(new HttpCookie("session", "first")).build()).get();
+    client.sendRequest(createGetRequestBuilder(1L).addCookie(new HttpCookie("session", "first")).build()).get();
+    Assert.assertEquals(sent.size(), 1);
+
+    // The entity fetched with the session of another caller is not served
+    client.sendRequest(createGetRequestBuilder(1L).addCookie(new HttpCookie("session", "second")).build()).get();
+    Assert.assertEquals(sent.size(), 2);
+    get(client, 1L);
+    Assert.assertEquals(sent.size(), 3);
+  }
+
+  private static TestRecord get(Client client, Long id) throws Exception
+  {
+    return client.sendRequest(createGetRequestBuilder(id).build()).getResponseEntity();
+  }
+
+  /**
+   * @return client which returns an entity with the requested id for each GET and BATCH_GET request.
+   */
+  private static Client createUnderlyingClient(List<Request<?>> sent)
+  {
+    final Client underlying = mock(Client.class);
+    doAnswer(invocation ->
+    {
+      final Request<?> request = (Request<?>) invocation.getArguments()[0];
+      sent.add(request);
+      final Object entity;
+      if (request instanceof GetRequest)
+      {
+        entity = new TestRecord().setId((Long) ((GetRequest<?>) request).getObjectId());
+      }
+      else
+      {
+        final DataMap results = new DataMap();
+        final DataMap statuses = new DataMap();
+        for (Object id : ((BatchRequest<?>) request).getObjectIds())
+        {
+          results.put(id.toString(), new TestRecord().setId((Long) id).data());
+          statuses.put(id.toString(), HttpStatus.S_200_OK.getCode());
+        }
+        final DataMap data = new DataMap();
+        data.put(BatchResponse.RESULTS, results);
+        data.put(BatchResponse.STATUSES, statuses);
+        data.put(BatchResponse.ERRORS, new DataMap());
+        entity = new BatchEntityResponse<>(data, TypeSpec.forClassMaybeNull(Long.class), new TypeSpec<>(TestRecord.class),
+            Collections.emptyMap(), null, AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion());
+      }
+      final Map<String, String> headers = new HashMap<>();
+      headers.put(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+          AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString());
+      headers.put(RESPONSE_HEADER, String.valueOf(sent.size()));
+      ((Callback) invocation.getArguments()[2]).onSuccess(new ResponseImpl<>(HttpStatus.S_200_OK.getCode(), headers,
+          Collections.singletonList(new HttpCookie("session", "origin")), entity, null));
+      return null;
+    }).when(underlying).sendRequest(any(Request.class), any(RequestContext.class), any(Callback.class));
+    return underlying;
+  }
+}
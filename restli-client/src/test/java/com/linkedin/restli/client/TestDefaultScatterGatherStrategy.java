@@ -48,6 +48,7 @@ import com.linkedin.restli.internal.common.AllProtocolVersions;
 import com.linkedin.restli.internal.common.TestConstants;
 
 
+import org.mockito.ArgumentCaptor;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -240,6 +241,46 @@ public class TestDefaultScatterGatherStrategy
     Assert.assertEquals(mappingResult, expectedMappingResult);
   }
 
+  @Test
+  public void testMapRequestByPartitionKeys() throws ServiceUnavailableException
+  {
+    ProtocolVersion version = AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion();
+    URIMapper uriMapper = mock(URIMapper.class);
+    ScatterGatherStrategy sgStrategy = new DefaultScatterGatherStrategy(uriMapper, PartitionKeyEncoder.PATH_SEGMENT);
+    Map<Long, String> partitionKeys = new HashMap<>();
+    partitionKeys.put(1L, "1");
+    partitionKeys.put(2L, "2");
+    partitionKeys.put(3L, "3");
+    partitionKeys.put(4L, "4");
+    String serviceName = _batchGetRequest.getServiceName();
+    when(uriMapper.isKeyMappingSupported(serviceName)).thenReturn(true);
+    when(uriMapper.<Long>mapKeys(serviceName, partitionKeys)).thenReturn(_mappingResult);
+
+    Assert.assertEquals(sgStrategy.<Long, BatchResponse<TestRecord>>mapRequest(_batchGetRequest, version), _mappingResult);
+    verify(uriMapper, never()).mapUris(any());
+
+    // falls back to mapping request uris when the mapper cannot map keys
+    when(uriMapper.isKeyMappingSupported(serviceName)).thenReturn(false);
+    when(uriMapper.mapUris(_batchToUris)).thenReturn(_mappingResult);
+    Assert.assertEquals(sgStrategy.<Long, BatchResponse<TestRecord>>mapRequest(_batchGetRequest, version), _mappingResult);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMapKeysToOtherHosts() throws ServiceUnavailableException
+  {
+    ProtocolVersion version = AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion();
+    URIMapper uriMapper = mock(URIMapper.class);
+    ScatterGatherStrategy sgStrategy = new DefaultScatterGatherStrategy(uriMapper, PartitionKeyEncoder.PATH_SEGMENT);
+    ArgumentCaptor<List> uris = ArgumentCaptor.forClass(List.class);
+    when(uriMapper.mapUris(uris.capture(), eq(_host1URI))).thenReturn(_mappingResult);
+
+    // Only the uris of the given keys are mapped, even if the mapper can map keys without them
+    Assert.assertEquals(sgStrategy.<Long, BatchResponse<TestRecord>>mapKeysToOtherHosts(_batchGetRequest, version,
+        _mappedKeys.get(_host1URI), _host1URI), _mappingResult);
+    Assert.assertEquals(new HashSet<>(uris.getValue()), new HashSet<>(_batchToUris.subList(0, 2)));
+  }
+
   @DataProvider(name = "scatterBatchRequestProvider")
   private static Object[][] scatterBatchRequestProvider()
   {
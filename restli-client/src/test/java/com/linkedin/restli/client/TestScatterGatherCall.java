@@ -0,0 +1,406 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.URIMappingResult;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.test.util.ClockedExecutor;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class TestScatterGatherCall
+{
+  private static final URI HOST1 = URI.create("http://host1:8080/");
+  private static final URI HOST2 = URI.create("http://host2:8080/");
+  // Other hosts of partition 0, then of partitions 1 and 2
+  private static final URI HOST3 = URI.create("http://host3:8080/");
+  private static final URI HOST4 = URI.create("http://host4:8080/");
+  private static final URI HOST5 = URI.create("http://host5:8080/");
+  private static final Set<Long> KEYS1 = new HashSet<>(Arrays.asList(1L, 2L));
+  private static final Set<Long> KEYS2 = new HashSet<>(Arrays.asList(3L, 4L));
+
+  private ClockedExecutor _executor;
+  private ScatterGatherStrategy _strategy;
+  private Request<Object> _request;
+  private URIMappingResult<Long> _mappingResult;
+  private RequestInfo _requestInfo1;
+  private RequestInfo _requestInfo2;
+  private List<Sent> _sent;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() throws ServiceUnavailableException
+  {
+    _executor = new ClockedExecutor();
+    _strategy = mock(ScatterGatherStrategy.class);
+    _request = mock(Request.class);
+    when(_request.getMethod()).thenReturn(ResourceMethod.BATCH_GET);
+    final Map<URI, Set<Long>> mappedKeys = new HashMap<>();
+    mappedKeys.put(HOST1, KEYS1);
+    mappedKeys.put(HOST2, KEYS2);
+    final Map<URI, Integer> hostToPartitionId = new HashMap<>();
+    hostToPartitionId.put(HOST1, 0);
+    hostToPartitionId.put(HOST2, 1);
+    _mappingResult = new URIMappingResult<>(mappedKeys, Collections.emptyMap(), hostToPartitionId);
+    // The keys of each host belong to a partition served by another host
+    stubOtherHosts(HOST1, KEYS1, Collections.singletonMap(HOST3, KEYS1), Collections.singletonMap(HOST3, 0));
+    stubOtherHosts(HOST2, KEYS2, Collections.singletonMap(HOST4, KEYS2), Collections.singletonMap(HOST4, 1));
+    // Requests are scattered to the hosts of the mapping result, as by DefaultScatterGatherStrategy
+    when(_strategy.scatterRequest(eq(_request), any(RequestContext.class), any(URIMappingResult.class)))
+        .thenAnswer(invocation ->
+        {
+          final RequestContext requestContext = (RequestContext) invocation.getArguments()[1];
+          final URIMappingResult<Long> mappingResult = (URIMappingResult<Long>) invocation.getArguments()[2];
+          final List<RequestInfo> requestInfos = new ArrayList<>();
+          for (URI host : mappingResult.getMappedKeys().keySet())
+          {
+            final RequestContext scatteredContext = requestContext.clone();
+            KeyMapper.TargetHostHints.setRequestContextTargetHost(scatteredContext, host);
+            requestInfos.add(new RequestInfo(mock(Request.class), scatteredContext));
+          }
+          return requestInfos;
+        });
+    _requestInfo1 = new RequestInfo(mock(Request.class), createRequestContext(HOST1));
+    _requestInfo2 = new RequestInfo(mock(Request.class), createRequestContext(HOST2));
+    _sent = new ArrayList<>();
+  }
+
+  @Test
+  public void testWaitsForAllResponses()
+  {
+    send(null);
+    Assert.assertEquals(_sent.size(), 2);
+    Assert.assertEquals(_sent.get(0)._partitionId, 0);
+    Assert.assertEquals(_sent.get(1)._partitionId, 1);
+
+    _sent.get(0)._callback.onSuccess(mockResponse());
+    verifyNotGathered();
+    final Exception error = new RuntimeException();
+    _sent.get(1)._callback.onError(error);
+
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses.keySet(), Collections.singleton(_requestInfo1));
+    Assert.assertEquals(gathered._failureResponses, Collections.singletonMap(_requestInfo2, error));
+  }
+
+  @Test
+  public void testDeadlineGathersPartialResults()
+  {
+    send(new ScatterGatherConfig(_executor).setDeadlineMs(100));
+    final Response<Object> response = mockResponse();
+    _sent.get(0)._callback.onSuccess(response);
+    _executor.runFor(99);
+    verifyNotGathered();
+    _executor.runFor(1);
+
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses, Collections.singletonMap(_requestInfo1, response));
+    Assert.assertEquals(gathered._failureResponses.keySet(), Collections.singleton(_requestInfo2));
+    Assert.assertTrue(gathered._failureResponses.get(_requestInfo2) instanceof RestLiScatterGatherException);
+
+    // Late responses are ignored
+    _sent.get(1)._callback.onSuccess(mockResponse());
+    verifyGathered();
+  }
+
+  @Test
+  public void testHedgesStragglers()
+  {
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50));
+    _sent.get(0)._callback.onSuccess(mockResponse());
+    _executor.runFor(50);
+
+    Assert.assertEquals(_sent.size(), 3);
+    final Sent hedged = _sent.get(2);
+    Assert.assertTrue(hedged._hedged);
+    Assert.assertEquals(hedged._partitionId, 1);
+    // The hedge is sent to the other host owning the keys of the straggler
+    Assert.assertEquals(KeyMapper.TargetHostHints.getRequestContextTargetHost(hedged._requestContext), HOST4);
+    Assert.assertEquals(LoadBalancerStrategy.ExcludedHostHints.getRequestContextExcludedHosts(hedged._requestContext),
+        Collections.singleton(HOST2));
+    // The context of the scattered request is left as is
+    Assert.assertEquals(KeyMapper.TargetHostHints.getRequestContextTargetHost(_requestInfo2.getRequestContext()),
+        HOST2);
+
+    // The first response is used
+    final Response<Object> response = mockResponse();
+    hedged._callback.onSuccess(response);
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses.size(), 2);
+    // The response of the hedge is used in place of the one of the straggler
+    Assert.assertFalse(gathered._successResponses.containsKey(_requestInfo2));
+    Assert.assertTrue(gathered._successResponses.containsValue(response));
+    Assert.assertTrue(gathered._failureResponses.isEmpty());
+    _sent.get(1)._callback.onSuccess(mockResponse());
+    verifyGathered();
+  }
+
+  @Test
+  public void testHedgeSpanningPartitions() throws ServiceUnavailableException
+  {
+    // The keys of the straggler belong to two partitions, which no other single host serves
+    final Map<URI, Set<Long>> otherHosts = new HashMap<>();
+    otherHosts.put(HOST4, Collections.singleton(3L));
+    otherHosts.put(HOST5, Collections.singleton(4L));
+    final Map<URI, Integer> otherPartitions = new HashMap<>();
+    otherPartitions.put(HOST4, 1);
+    otherPartitions.put(HOST5, 2);
+    stubOtherHosts(HOST2, KEYS2, otherHosts, otherPartitions);
+
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50));
+    _sent.get(0)._callback.onSuccess(mockResponse());
+    _executor.runFor(50);
+    Assert.assertEquals(_sent.size(), 4);
+    final Sent hedged1 = getHedgedTo(HOST4);
+    final Sent hedged2 = getHedgedTo(HOST5);
+    Assert.assertEquals(hedged1._partitionId, 1);
+    Assert.assertEquals(hedged2._partitionId, 2);
+
+    // The hedge is only used once all its requests responded
+    hedged1._callback.onSuccess(mockResponse());
+    verifyNotGathered();
+    hedged2._callback.onSuccess(mockResponse());
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses.size(), 3);
+    Assert.assertFalse(gathered._successResponses.containsKey(_requestInfo2));
+    Assert.assertTrue(gathered._failureResponses.isEmpty());
+  }
+
+  @Test
+  public void testFailedHedgeWaitsForScatteredRequest() throws ServiceUnavailableException
+  {
+    final Map<URI, Set<Long>> otherHosts = new HashMap<>();
+    otherHosts.put(HOST4, Collections.singleton(3L));
+    otherHosts.put(HOST5, Collections.singleton(4L));
+    final Map<URI, Integer> otherPartitions = new HashMap<>();
+    otherPartitions.put(HOST4, 1);
+    otherPartitions.put(HOST5, 2);
+    stubOtherHosts(HOST2, KEYS2, otherHosts, otherPartitions);
+
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50));
+    _sent.get(0)._callback.onSuccess(mockResponse());
+    _executor.runFor(50);
+    getHedgedTo(HOST4)._callback.onError(new RuntimeException());
+    getHedgedTo(HOST5)._callback.onSuccess(mockResponse());
+    verifyNotGathered();
+
+    final Response<Object> response = mockResponse();
+    _sent.get(1)._callback.onSuccess(response);
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses.get(_requestInfo2), response);
+    Assert.assertEquals(gathered._successResponses.size(), 2);
+  }
+
+  @Test
+  public void testNoHedgeWithoutOtherHost() throws ServiceUnavailableException
+  {
+    // The partition of the keys of the straggler has no other host
+    stubOtherHosts(HOST2, KEYS2, Collections.emptyMap(), Collections.emptyMap());
+    final ScatterGatherHedgeBudget hedgeBudget = new ScatterGatherHedgeBudget(0, 1);
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50), hedgeBudget);
+    _sent.get(0)._callback.onSuccess(mockResponse());
+    _executor.runFor(50);
+
+    Assert.assertEquals(_sent.size(), 2);
+    Assert.assertTrue(hedgeBudget.tryAcquire());
+  }
+
+  @Test
+  public void testHedgeWaitsForOtherResponseOnError()
+  {
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50));
+    _executor.runFor(50);
+    Assert.assertEquals(_sent.size(), 4);
+
+    _sent.get(0)._callback.onError(new RuntimeException());
+    _sent.get(1)._callback.onSuccess(mockResponse());
+    verifyNotGathered();
+    getHedged(0)._callback.onSuccess(mockResponse());
+
+    final Gathered gathered = verifyGathered();
+    Assert.assertEquals(gathered._successResponses.keySet().size(), 2);
+    Assert.assertTrue(gathered._failureResponses.isEmpty());
+  }
+
+  @Test
+  public void testWriteBatchesAreNotHedged() throws ServiceUnavailableException
+  {
+    for (ResourceMethod method : Arrays.asList(ResourceMethod.BATCH_CREATE, ResourceMethod.BATCH_UPDATE,
+        ResourceMethod.BATCH_PARTIAL_UPDATE, ResourceMethod.BATCH_DELETE))
+    {
+      setUp();
+      when(_request.getMethod()).thenReturn(method);
+      send(new ScatterGatherConfig(_executor).setDeadlineMs(100).setHedgeDelayMs(50));
+      _sent.get(0)._callback.onSuccess(mockResponse());
+      _executor.runFor(1000);
+
+      // The outstanding request may still be applied, so it is neither sent again nor given up on
+      Assert.assertEquals(_sent.size(), 2, method.toString());
+      verifyNotGathered();
+      _sent.get(1)._callback.onSuccess(mockResponse());
+      final Gathered gathered = verifyGathered();
+      Assert.assertEquals(gathered._successResponses.size(), 2);
+      Assert.assertTrue(gathered._failureResponses.isEmpty());
+    }
+  }
+
+  @Test
+  public void testHedgeBudget()
+  {
+    // The budget starts with a single hedge, and scattered requests add none
+    final ScatterGatherHedgeBudget hedgeBudget = new ScatterGatherHedgeBudget(0, 1);
+    send(new ScatterGatherConfig(_executor).setHedgeDelayMs(50), hedgeBudget);
+    _executor.runFor(50);
+    Assert.assertEquals(_sent.size(), 3);
+    Assert.assertFalse(hedgeBudget.tryAcquire());
+
+    final ScatterGatherHedgeBudget percentBudget = new ScatterGatherHedgeBudget(50, 1);
+    Assert.assertTrue(percentBudget.tryAcquire());
+    percentBudget.onScatteredRequest();
+    Assert.assertFalse(percentBudget.tryAcquire());
+    percentBudget.onScatteredRequest();
+    Assert.assertTrue(percentBudget.tryAcquire());
+  }
+
+  private void send(ScatterGatherConfig config)
+  {
+    send(config, config == null ? null : new ScatterGatherHedgeBudget(config.getHedgeBudgetPercent(),
+        config.getMaxHedgeBurst()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void send(ScatterGatherConfig config, ScatterGatherHedgeBudget hedgeBudget)
+  {
+    new ScatterGatherCall<>(_request, AllProtocolVersions.LATEST_PROTOCOL_VERSION, _strategy, _mappingResult, config,
+        hedgeBudget, (request, requestContext, partitionId, hedged, callback) ->
+            _sent.add(new Sent(requestContext, partitionId, hedged, callback)),
+        (Callback<Response<Object>>) mock(Callback.class))
+        .send(Arrays.asList(_requestInfo1, _requestInfo2));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void verifyNotGathered()
+  {
+    verify(_strategy, never()).onAllResponsesReceived(any(Request.class), any(ProtocolVersion.class), any(Map.class),
+        any(Map.class), any(Map.class), any(Callback.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Gathered verifyGathered()
+  {
+    final ArgumentCaptor<Map> successResponses = ArgumentCaptor.forClass(Map.class);
+    final ArgumentCaptor<Map> failureResponses = ArgumentCaptor.forClass(Map.class);
+    verify(_strategy, times(1)).onAllResponsesReceived(eq(_request), eq(AllProtocolVersions.LATEST_PROTOCOL_VERSION),
+        successResponses.capture(), failureResponses.capture(), eq(Collections.emptyMap()), any(Callback.class));
+    return new Gathered(successResponses.getValue(), failureResponses.getValue());
+  }
+
+  private Sent getHedged(int partitionId)
+  {
+    return _sent.stream().filter(sent -> sent._hedged && sent._partitionId == partitionId).findFirst().get();
+  }
+
+  private Sent getHedgedTo(URI host)
+  {
+    return _sent.stream()
+        .filter(sent -> sent._hedged
+            && host.equals(KeyMapper.TargetHostHints.getRequestContextTargetHost(sent._requestContext)))
+        .findFirst()
+        .get();
+  }
+
+  /**
+   * Stubs the strategy to map the given keys, mapped to the excluded host, to other hosts.
+   */
+  private void stubOtherHosts(URI excludedHost, Set<Long> keys, Map<URI, Set<Long>> otherHosts,
+      Map<URI, Integer> otherPartitions) throws ServiceUnavailableException
+  {
+    final Map<Integer, Set<Long>> unmappedKeys =
+        otherHosts.isEmpty() ? Collections.singletonMap(_mappingResult.getHostPartitionInfo().get(excludedHost), keys)
+            : Collections.emptyMap();
+    when(_strategy.mapKeysToOtherHosts(eq(_request), any(ProtocolVersion.class), eq(keys), eq(excludedHost)))
+        .thenReturn(new URIMappingResult<>(otherHosts, unmappedKeys, otherPartitions));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Response<Object> mockResponse()
+  {
+    return mock(Response.class);
+  }
+
+  private static RequestContext createRequestContext(URI targetHost)
+  {
+    final RequestContext requestContext = new RequestContext();
+    KeyMapper.TargetHostHints.setRequestContextTargetHost(requestContext, targetHost);
+    return requestContext;
+  }
+
+  private static class Sent
+  {
+    private final RequestContext _requestContext;
+    private final int _partitionId;
+    private final boolean _hedged;
+    private final Callback<Response<Object>> _callback;
+
+    Sent(RequestContext requestContext, int partitionId, boolean hedged, Callback<Response<Object>> callback)
+    {
+      _requestContext = requestContext;
+      _partitionId = partitionId;
+      _hedged = hedged;
+      _callback = callback;
+    }
+  }
+
+  private static class Gathered
+  {
+    private final Map<RequestInfo, Response<Object>> _successResponses;
+    private final Map<RequestInfo, Throwable> _failureResponses;
+
+    Gathered(Map<RequestInfo, Response<Object>> successResponses, Map<RequestInfo, Throwable> failureResponses)
+    {
+      _successResponses = successResponses;
+      _failureResponses = failureResponses;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client.metrics;
+
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.util.clock.SettableClock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestClientMetricsJmxExporter
+{
+  private static final String RESOURCE_METHOD = "groups/{}/contacts:finder:search";
+
+  @Test
+  public void testExportedMetrics() throws Exception
+  {
+    final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    final SettableClock clock = new SettableClock();
+    final ClientMetricsJmxExporter exporter = new ClientMetricsJmxExporter(server, "test", 1000, clock);
+
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(10), 100, null));
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(20), 200,
+        new RemoteInvocationException(new TimeoutException())));
+
+    final ObjectName name = exporter.getName(exporter.getOperationMetrics(RESOURCE_METHOD));
+    Assert.assertTrue(server.isRegistered(name));
+    Assert.assertEquals(server.getAttribute(name, "ServiceName"), "groups");
+    Assert.assertEquals(server.getAttribute(name, "CallCount"), 2L);
+    Assert.assertEquals(server.getAttribute(name, "ErrorCount"), 1L);
+    Assert.assertEquals(server.getAttribute(name, "ErrorCounts"), Collections.singletonMap("TimeoutException", 1L));
+
+    // The percentiles are those of the last completed interval
+    Assert.assertEquals(server.getAttribute(name, "IntervalCallCount"), 0L);
+    clock.addDuration(1000);
+    Assert.assertEquals(server.getAttribute(name, "IntervalCallCount"), 2L);
+    Assert.assertEquals((long) server.getAttribute(name, "LatencyMaxMicros"), 20000L, 200.0);
+    Assert.assertEquals((long) server.getAttribute(name, "RequestSizeMaxBytes"), 200L, 200 / 16.0);
+    Assert.assertEquals(server.getAttribute(name, "ResponseSizeMaxBytes"), 0L);
+
+    // The values stay the same until the interval ends
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(30), 300, null));
+    Assert.assertEquals(server.getAttribute(name, "IntervalCallCount"), 2L);
+    clock.addDuration(1000);
+    Assert.assertEquals(server.getAttribute(name, "IntervalCallCount"), 1L);
+    Assert.assertEquals(server.getAttribute(name, "CallCount"), 3L);
+
+    exporter.shutdown();
+    Assert.assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  public void testPartitionMetrics() throws Exception
+  {
+    final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    final SettableClock clock = new SettableClock();
+    final ClientMetricsJmxExporter exporter = new ClientMetricsJmxExporter(server, "test", 1000, clock);
+
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(10), 100, null, 0));
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(50), 100, null, 1));
+    exporter.record(new Call(TimeUnit.MILLISECONDS.toNanos(20), 100, null));
+
+    final ObjectName name = exporter.getName(exporter.getOperationMetrics(RESOURCE_METHOD));
+    Assert.assertEquals(server.getAttribute(name, "HedgedCallCount"), 1L);
+    clock.addDuration(1000);
+    @SuppressWarnings("unchecked")
+    final Map<Integer, Long> latencies = (Map<Integer, Long>) server.getAttribute(name, "PartitionLatency99PctMicros");
+    Assert.assertEquals(latencies.keySet(), new HashSet<>(Arrays.asList(0, 1)));
+    Assert.assertEquals((long) latencies.get(0), 10000L, 10000 / 16.0);
+    Assert.assertEquals((long) latencies.get(1), 50000L, 50000 / 16.0);
+    exporter.shutdown();
+  }
+
+  @Test
+  public void testErrorClass()
+  {
+    Assert.assertEquals(ClientOperationMetrics.getErrorClass(new RemoteInvocationException("failed")),
+        "RemoteInvocationException");
+    Assert.assertEquals(ClientOperationMetrics.getErrorClass(
+        new RemoteInvocationException(new RemoteInvocationException(new TimeoutException()))), "TimeoutException");
+    Assert.assertEquals(ClientOperationMetrics.getErrorClass(new IllegalStateException()), "IllegalStateException");
+  }
+
+  private static class Call implements ClientCallMetrics
+  {
+    private final long _latencyNanos;
+    private final int _requestSize;
+    private final Throwable _error;
+    private final int _partitionId;
+
+    Call(long latencyNanos, int requestSize, Throwable error)
+    {
+      this(latencyNanos, requestSize, error, -1);
+    }
+
+    Call(long latencyNanos, int requestSize, Throwable error, int partitionId)
+    {
+      _latencyNanos = latencyNanos;
+      _requestSize = requestSize;
+      _error = error;
+      _partitionId = partitionId;
+    }
+
+    @Override
+    public String getServiceName()
+    {
+      return "groups";
+    }
+
+    @Override
+    public String getResourceMethodIdentifier()
+    {
+      return RESOURCE_METHOD;
+    }
+
+    @Override
+    public ResourceMethod getMethod()
+    {
+      return ResourceMethod.FINDER;
+    }
+
+    @Override
+    public long getLatencyNanos()
+    {
+      return _latencyNanos;
+    }
+
+    @Override
+    public long getEncodeNanos()
+    {
+      return 1000;
+    }
+
+    @Override
+    public long getDecodeNanos()
+    {
+      return -1;
+    }
+
+    @Override
+    public int getRequestSize()
+    {
+      return _requestSize;
+    }
+
+    @Override
+    public int getResponseSize()
+    {
+      return -1;
+    }
+
+    @Override
+    public Throwable getError()
+    {
+      return _error;
+    }
+
+    @Override
+    public int getPartitionId()
+    {
+      return _partitionId;
+    }
+
+    @Override
+    public boolean isHedged()
+    {
+      return _partitionId == 1;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataMap;
+import com.linkedin.entitystream.EntityStream;
+import com.linkedin.entitystream.ReadHandle;
+import com.linkedin.entitystream.Reader;
+import com.linkedin.r2.message.stream.StreamResponse;
+import com.linkedin.r2.message.stream.StreamResponseBuilder;
+import com.linkedin.r2.message.stream.entitystream.EntityStreams;
+import com.linkedin.r2.message.stream.entitystream.WriteHandle;
+import com.linkedin.r2.message.stream.entitystream.Writer;
+import com.linkedin.restli.client.Response;
+import com.linkedin.restli.client.RestLiDecodingException;
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.BatchFinderCriteriaResult;
+import com.linkedin.restli.common.ContentType;
+import com.linkedin.restli.common.RestConstants;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestCollectionElementStreamDecoder
+{
+  private static final String COLLECTION_BODY =
+      "{\"elements\":[{\"id\":1,\"message\":\"a\"},{\"id\":2,\"message\":\"b\"},{\"id\":3,\"message\":\"c\"}],"
+          + "\"paging\":{\"count\":10,\"start\":0,\"links\":[]}}";
+
+  @Test
+  public void testElementsReadOnDemand() throws Exception
+  {
+    final ChunkWriter body = new ChunkWriter(ByteString.copyString(COLLECTION_BODY, "UTF-8"), 8);
+    final EntityStream<TestRecord> elements =
+        decode(CollectionElementStreamDecoder.forCollection(TestRecord.class), body, ContentType.JSON);
+
+    final ElementReader<TestRecord> reader = new ElementReader<>();
+    elements.setReader(reader);
+    reader.request(1);
+    Assert.assertEquals(reader._elements.size(), 1);
+    Assert.assertEquals(reader._elements.get(0).getId(), Long.valueOf(1L));
+    // The rest of the body is not read until more elements are requested
+    Assert.assertTrue(body._chunksWritten < body._chunkCount);
+    Assert.assertFalse(reader._done);
+
+    reader.request(Integer.MAX_VALUE);
+    Assert.assertTrue(reader._done);
+    Assert.assertNull(reader._error);
+    Assert.assertEquals(reader._elements.size(), 3);
+    Assert.assertEquals(reader._elements.get(1).getMessage(), "b");
+    Assert.assertEquals(reader._elements.get(2).getId(), Long.valueOf(3L));
+  }
+
+  @Test
+  public void testBatchFinderResults() throws Exception
+  {
+    final String batchFinderBody = "{\"elements\":[{\"elements\":[{\"id\":1},{\"id\":2}],\"isError\":false},"
+        + "{\"elements\":[],\"error\":{\"status\":404},\"isError\":true}]}";
+    final ChunkWriter body = new ChunkWriter(ByteString.copyString(batchFinderBody, "UTF-8"), 16);
+    final EntityStream<BatchFinderCriteriaResult<TestRecord>> results =
+        decode(CollectionElementStreamDecoder.forBatchFinder(TestRecord.class), body, ContentType.JSON);
+
+    final ElementReader<BatchFinderCriteriaResult<TestRecord>> reader = new ElementReader<>();
+    results.setReader(reader);
+    reader.request(Integer.MAX_VALUE);
+    Assert.assertTrue(reader._done);
+    Assert.assertEquals(reader._elements.size(), 2);
+    Assert.assertFalse(reader._elements.get(0).isError());
+    Assert.assertEquals(reader._elements.get(0).getElements().get(1).getId(), Long.valueOf(2L));
+    Assert.assertTrue(reader._elements.get(1).isError());
+    Assert.assertEquals(reader._elements.get(1).getError().getStatus(), Integer.valueOf(404));
+  }
+
+  @Test
+  public void testNonJsonBody() throws Exception
+  {
+    final DataMap bodyData = ContentType.JSON.getCodec().readMap(ByteString.copyString(COLLECTION_BODY, "UTF-8"));
+    final ChunkWriter body = new ChunkWriter(ContentType.PSON.getCodec().mapToByteString(bodyData), 8);
+    final EntityStream<TestRecord> elements =
+        decode(CollectionElementStreamDecoder.forCollection(TestRecord.class), body, ContentType.PSON);
+
+    final ElementReader<TestRecord> reader = new ElementReader<>();
+    elements.setReader(reader);
+    reader.request(Integer.MAX_VALUE);
+    Assert.assertTrue(reader._done);
+    Assert.assertEquals(reader._elements.size(), 3);
+    Assert.assertEquals(reader._elements.get(2).getMessage(), "c");
+  }
+
+  @Test
+  public void testInvalidBody() throws Exception
+  {
+    final ChunkWriter body = new ChunkWriter(ByteString.copyString("{\"elements\":[{\"id\":1},{\"id\":", "UTF-8"), 8);
+    final EntityStream<TestRecord> elements =
+        decode(CollectionElementStreamDecoder.forCollection(TestRecord.class), body, ContentType.JSON);
+
+    final ElementReader<TestRecord> reader = new ElementReader<>();
+    elements.setReader(reader);
+    reader.request(Integer.MAX_VALUE);
+    Assert.assertFalse(reader._done);
+    Assert.assertEquals(reader._elements.size(), 1);
+    Assert.assertTrue(reader._error instanceof RestLiDecodingException);
+  }
+
+  private static <E> EntityStream<E> decode(CollectionElementStreamDecoder<E> decoder, ChunkWriter body,
+      ContentType contentType) throws Exception
+  {
+    final StreamResponse streamResponse = new StreamResponseBuilder()
+        .setStatus(200)
+        .setHeader(RestConstants.HEADER_CONTENT_TYPE, contentType.getHeaderKey())
+        .build(EntityStreams.newEntityStream(body));
+
+    final FutureCallback<Response<EntityStream<E>>> callback = new FutureCallback<>();
+    decoder.decodeResponse(streamResponse, callback);
+    // The response is passed on before its body is read
+    Assert.assertTrue(callback.isDone());
+    Assert.assertEquals(body._chunksWritten, 0);
+    return callback.get().getEntity();
+  }
+
+  /**
+   * Writes a body in chunks of the given size, as they are requested.
+   */
+  private static class ChunkWriter implements Writer
+  {
+    private final ByteString _body;
+    private final int _chunkSize;
+    private final int _chunkCount;
+    private WriteHandle _wh;
+    private int _chunksWritten;
+
+    ChunkWriter(ByteString body, int chunkSize)
+    {
+      _body = body;
+      _chunkSize = chunkSize;
+      _chunkCount = (body.length() + chunkSize - 1) / chunkSize;
+    }
+
+    @Override
+    public void onInit(WriteHandle wh)
+    {
+      _wh = wh;
+    }
+
+    @Override
+    public void onWritePossible()
+    {
+      while (_wh.remaining() > 0 && _chunksWritten < _chunkCount)
+      {
+        final int offset = _chunksWritten * _chunkSize;
+        _wh.write(_body.slice(offset, Math.min(_chunkSize, _body.length() - offset)));
+        _chunksWritten++;
+      }
+      if (_chunksWritten == _chunkCount)
+      {
+        _wh.done();
+      }
+    }
+
+    @Override
+    public void onAbort(Throwable e)
+    {
+    }
+  }
+
+  /**
+   * Reads the elements only as they are requested by the test.
+   */
+  private static class ElementReader<E> implements Reader<E>
+  {
+    private final List<E> _elements = new ArrayList<>();
+    private ReadHandle _rh;
+    private boolean _done;
+    private Throwable _error;
+
+    void request(int n)
+    {
+      _rh.request(n);
+    }
+
+    @Override
+    public void onInit(ReadHandle rh)
+    {
+      _rh = rh;
+    }
+
+    @Override
+    public void onDataAvailable(E data)
+    {
+      _elements.add(data);
+    }
+
+    @Override
+    public void onDone()
+    {
+      _done = true;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _error = e;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import com.linkedin.restli.client.ActionRequestBuilder;
+import com.linkedin.restli.client.RestliRequestOptions;
+import com.linkedin.restli.client.UpdateRequestBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestRequestBodySizeEstimator
+{
+  @Test
+  public void testGetKey()
+  {
+    Assert.assertEquals(RequestBodySizeEstimator.getKey(
+        new UpdateRequestBuilder<Long, ErrorResponse>("groups/{groupId}/members", ErrorResponse.class,
+            new ResourceSpecImpl(), RestliRequestOptions.DEFAULT_OPTIONS)
+            .pathKey("groupId", 1L)
+            .input(new ErrorResponse())
+            .build()),
+        "groups/{groupId}/members update");
+    Assert.assertEquals(RequestBodySizeEstimator.getKey(
+        new ActionRequestBuilder<Long, EmptyRecord>("groups", EmptyRecord.class, new ResourceSpecImpl(),
+            RestliRequestOptions.DEFAULT_OPTIONS).name("purge").build()),
+        "groups action purge");
+  }
+
+  @Test
+  public void testEstimate()
+  {
+    final RequestBodySizeEstimator estimator = new RequestBodySizeEstimator();
+    Assert.assertEquals(estimator.getEstimate("batch"), 0);
+
+    estimator.record("batch", 10000);
+    Assert.assertEquals(estimator.getEstimate("batch"), 10000);
+
+    // Moving average of the sizes
+    estimator.record("batch", 2000);
+    Assert.assertEquals(estimator.getEstimate("batch"), 8000);
+    Assert.assertEquals(estimator.getEstimate("other"), 0);
+  }
+}
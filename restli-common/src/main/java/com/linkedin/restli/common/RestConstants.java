@@ -38,6 +38,8 @@ public interface RestConstants
   String HEADER_ID = "X-LinkedIn-Id"; // we are deprecating all X-Linkedin header prefixes and replacing them with X-RestLi
   String HEADER_RESTLI_ID = "X-RestLi-Id"; // replacement for X-LinkedIn-Id for when it is removed
   String HEADER_LOCATION = "Location";
+  String HEADER_ETAG = "ETag";
+  String HEADER_IF_NONE_MATCH = "If-None-Match";
   String HEADER_ACCEPT = "Accept";
   String HEADER_CONTENT_TYPE = "Content-Type";
   String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
@@ -66,6 +68,11 @@ public interface RestConstants
    */
   String HEADER_SKIP_RESPONSE_VALIDATION = "x-restli-skip-response-validation";
 
+  /**
+   * Priority of a request for the admission control of the server: "critical", "default" or "sheddable".
+   */
+  String HEADER_RESTLI_PRIORITY = "X-RestLi-Priority";
+
   // Default supported mime types.
   Set<String> SUPPORTED_MIME_TYPES = new LinkedHashSet<>(
       Arrays.asList(HEADER_VALUE_APPLICATION_LICOR_TEXT,
@@ -458,6 +458,38 @@ public class QueryParamsDataMap
     addSortedParams(uriBuilder, queryString(params));
   }
 
+  /**
+   * Same as {@link #addSortedParams(UriBuilder, DataMap)}, but appending the parameters to the given URI, which must not
+   * have a query yet.
+   *
+   * @param uri
+   * @param params
+   */
+  public static void appendSortedParams(StringBuilder uri, DataMap params)
+  {
+    final Map<String, List<String>> queryString = queryString(params);
+    final List<String> keysList = new ArrayList<>(queryString.keySet());
+    Collections.sort(keysList);
+
+    char separator = '?';
+    for (String key : keysList)
+    {
+      // Create a new list to make sure it's modifiable and can be sorted.
+      final List<String> values = new ArrayList<>(queryString.get(key));
+      Collections.sort(values);
+      final String encodedKey = UriComponent.encode(key, UriComponent.Type.QUERY_PARAM);
+      for (String value : values)
+      {
+        uri.append(separator).append(encodedKey);
+        separator = '&';
+        if (!value.isEmpty())
+        {
+          uri.append('=').append(UriComponent.encode(value, UriComponent.Type.QUERY_PARAM));
+        }
+      }
+    }
+  }
+
   /**
    * Because of backwards compatibility concerns, array fields of the key component of a
    * {@link ComplexResourceKey}s in a get request will be represented in the request url in the old
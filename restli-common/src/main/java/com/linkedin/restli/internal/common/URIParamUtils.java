@@ -465,6 +465,78 @@ public class URIParamUtils
     }
   }
 
+  /**
+   * Appends the given parameters to the given URI as its query, in sorted order. The URI is the same as the one built
+   * with {@link #addSortedParams(UriBuilder, DataMap, ProtocolVersion)}, but the parameters are encoded straight into
+   * the given buffer.
+   *
+   * @param uri the URI, which must not have a query yet
+   * @param params The {@link DataMap} representing the parameters
+   * @param version The {@link ProtocolVersion}
+   */
+  public static void appendSortedParams(StringBuilder uri, DataMap params, ProtocolVersion version)
+  {
+    if (version.compareTo(AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion()) < 0)
+    {
+      QueryParamsDataMap.appendSortedParams(uri, params);
+      return;
+    }
+
+    // Sort the parameters by encoded name, with an insertion sort since there are only a few of them
+    final int size = params.size();
+    final String[] names = new String[size];
+    final Object[] values = new Object[size];
+    int count = 0;
+    for (Map.Entry<String, Object> entry : params.entrySet())
+    {
+      final String name = RestConstants.PROJECTION_PARAMETERS.contains(entry.getKey()) ? entry.getKey()
+          : encodeString(entry.getKey(), URLEscaper.Escaping.URL_ESCAPING, UriComponent.Type.QUERY_PARAM);
+      int i = count++;
+      while (i > 0 && names[i - 1].compareTo(name) > 0)
+      {
+        names[i] = names[i - 1];
+        values[i] = values[i - 1];
+        i--;
+      }
+      names[i] = name;
+      values[i] = entry.getValue();
+    }
+
+    for (int i = 0; i < size; i++)
+    {
+      uri.append(i == 0 ? '?' : '&').append(names[i]);
+      final int valueStart = uri.length();
+      uri.append('=');
+      if (RestConstants.PROJECTION_PARAMETERS.contains(names[i]))
+      {
+        // Serialize the projection MaskTree values
+        if (values[i] instanceof String)
+        {
+          uri.append(UriComponent.contextualEncode((String) values[i], UriComponent.Type.QUERY_PARAM, true));
+        }
+        else if (values[i] instanceof DataMap)
+        {
+          uri.append(UriComponent.contextualEncode(URIMaskUtil.encodeMaskForURI((DataMap) values[i]),
+              UriComponent.Type.QUERY_PARAM, true));
+        }
+        else
+        {
+          throw new IllegalArgumentException("Invalid projection field data type");
+        }
+      }
+      else
+      {
+        // The encoded value only has characters which are valid in a query parameter
+        encodeDataObject(values[i], URLEscaper.Escaping.URL_ESCAPING, UriComponent.Type.QUERY_PARAM, uri);
+      }
+      if (uri.length() == valueStart + 1)
+      {
+        // Empty values are appended without the separator, as with UriBuilder
+        uri.setLength(valueStart);
+      }
+    }
+  }
+
   /**
    * replace the values of the given queryParam with new ones
    * @param uri initial URI
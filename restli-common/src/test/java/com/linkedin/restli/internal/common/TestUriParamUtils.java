@@ -296,6 +296,39 @@ public class TestUriParamUtils
     Assert.assertEquals(query, "aParam=(empty:(),foo:bar,someField:someValue)&bParam=List(x,y,z)");
   }
 
+  @Test
+  public void appendSortedParams() throws CloneNotSupportedException
+  {
+    DataMap queryParams = new DataMap();
+    DataMap aParamMap = new DataMap();
+    aParamMap.put("someField", "some value");
+    aParamMap.put("foo", "b&r");
+    aParamMap.put("empty", new DataMap());
+    DataList bParamList = new DataList();
+    bParamList.add("x");
+    bParamList.add("");
+    queryParams.put("bParam", bParamList);
+    queryParams.put("aParam", aParamMap);
+    queryParams.put("c Param", 1L);
+    DataMap fields = new DataMap();
+    fields.put("id", 1);
+    fields.put("name", 1);
+    queryParams.put("fields", fields);
+
+    for (ProtocolVersion version : new ProtocolVersion[] { AllProtocolVersions.RESTLI_PROTOCOL_1_0_0.getProtocolVersion(),
+        AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion() })
+    {
+      UriBuilder uriBuilder = UriBuilder.fromPath("resource/1");
+      // Protocol 1.0 removes the projections from the parameters
+      URIParamUtils.addSortedParams(uriBuilder, queryParams.copy(), version);
+
+      StringBuilder uri = new StringBuilder("resource/1");
+      URIParamUtils.appendSortedParams(uri, queryParams.copy(), version);
+
+      Assert.assertEquals(uri.toString(), uriBuilder.build().toString());
+    }
+  }
+
   @Test
   public void replaceQueryParam()
   {
@@ -0,0 +1,240 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.server.model.Parameter;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.restspec.ResourceEntityType;
+import com.linkedin.restli.server.config.ResourceMethodConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Sibling requests of a multiplexed request, whose GET requests on the same collection are merged into BATCH_GET
+ * invocations of the resource.
+ *
+ * Each sibling request is a {@link Participant}. While a participant is {@link #setCurrent(Participant) current},
+ * {@link RestLiMethodInvoker} holds back its GET invocation instead of invoking the resource. Once every participant
+ * has either held back a GET or {@link Participant#depart() departed}, the GETs with the same path keys, parameters,
+ * projection masks and modes, and request headers, which carry their authentication and cookies, are invoked together
+ * as one BATCH_GET, and the result is split back into the individual responses. The BATCH_GET is invoked with a
+ * resource context of its own, whose path keys hold the batch keys, and the response headers and cookies it sets go to
+ * every merged request.
+ *
+ * Only GET and BATCH_GET methods without query, header or own key parameters are merged, since those would need
+ * to be the same for all the merged requests. A GET which reaches the invoker outside of the synchronous handling of
+ * its request, for example after an asynchronous filter, is invoked on its own.
+ */
+public final class BatchingScope
+{
+  private static final ThreadLocal<Participant> CURRENT = new ThreadLocal<>();
+
+  private static final Set<Parameter.ParamType> BATCHABLE_PARAMETER_TYPES = Collections.unmodifiableSet(EnumSet.of(
+      Parameter.ParamType.RESOURCE_KEY,
+      Parameter.ParamType.BATCH,
+      Parameter.ParamType.CALLBACK,
+      Parameter.ParamType.PARSEQ_CONTEXT,
+      Parameter.ParamType.PARSEQ_CONTEXT_PARAM,
+      Parameter.ParamType.PROJECTION,
+      Parameter.ParamType.PROJECTION_PARAM,
+      Parameter.ParamType.METADATA_PROJECTION_PARAM,
+      Parameter.ParamType.RESOURCE_CONTEXT,
+      Parameter.ParamType.RESOURCE_CONTEXT_PARAM));
+
+  private final List<HeldGet> _heldGets = new ArrayList<>();
+  private int _pending;
+
+  /**
+   * @return a new participant of the scope. All participants must be created before any of them departs.
+   */
+  public synchronized Participant newParticipant()
+  {
+    _pending++;
+    return new Participant();
+  }
+
+  /**
+   * Sets the participant whose request is being handled on the current thread, or null once it is handled.
+   */
+  public static void setCurrent(Participant participant)
+  {
+    if (participant == null)
+    {
+      CURRENT.remove();
+    }
+    else
+    {
+      CURRENT.set(participant);
+    }
+  }
+
+  static Participant getCurrent()
+  {
+    return CURRENT.get();
+  }
+
+  /**
+   * @return the BATCH_GET method to merge invocations of the given GET method into, or null if it can't be merged.
+   */
+  static ResourceMethodDescriptor findBatchGet(ResourceMethodDescriptor descriptor)
+  {
+    if (descriptor.getType() != ResourceMethod.GET
+        || descriptor.getResourceModel().getResourceEntityType() == ResourceEntityType.UNSTRUCTURED_DATA
+        || !isBatchable(descriptor))
+    {
+      return null;
+    }
+    final ResourceMethodDescriptor batchGet = descriptor.getResourceModel().findMethod(ResourceMethod.BATCH_GET);
+    return batchGet != null && isBatchable(batchGet) ? batchGet : null;
+  }
+
+  private static boolean isBatchable(ResourceMethodDescriptor descriptor)
+  {
+    for (Parameter<?> parameter : descriptor.getParameters())
+    {
+      if (!BATCHABLE_PARAMETER_TYPES.contains(parameter.getParamType()))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void done(HeldGet heldGet)
+  {
+    final List<HeldGet> heldGets;
+    synchronized (this)
+    {
+      if (heldGet != null)
+      {
+        _heldGets.add(heldGet);
+      }
+      if (--_pending > 0)
+      {
+        return;
+      }
+      heldGets = new ArrayList<>(_heldGets);
+      _heldGets.clear();
+    }
+
+    final Map<List<Object>, List<HeldGet>> groups = new LinkedHashMap<>();
+    for (HeldGet get : heldGets)
+    {
+      groups.computeIfAbsent(get._key, key -> new ArrayList<>()).add(get);
+    }
+    for (List<HeldGet> group : groups.values())
+    {
+      group.get(0)._invoker.invokeBatched(group);
+    }
+  }
+
+  /**
+   * A sibling request of the multiplexed request.
+   */
+  public final class Participant
+  {
+    private boolean _done;
+
+    private Participant()
+    {
+    }
+
+    /**
+     * Marks the request as no longer able to hold back a GET. Does nothing if it already did or departed.
+     */
+    public void depart()
+    {
+      if (markDone())
+      {
+        done(null);
+      }
+    }
+
+    /**
+     * Holds back a GET invocation until the other participants are done.
+     *
+     * @return false if the participant is already done, and the GET must be invoked right away.
+     */
+    boolean hold(HeldGet heldGet)
+    {
+      if (markDone())
+      {
+        done(heldGet);
+        return true;
+      }
+      return false;
+    }
+
+    private boolean markDone()
+    {
+      synchronized (BatchingScope.this)
+      {
+        if (_done)
+        {
+          return false;
+        }
+        _done = true;
+        return true;
+      }
+    }
+  }
+
+  /**
+   * A GET invocation held back to be merged with others.
+   */
+  static final class HeldGet
+  {
+    final RestLiMethodInvoker _invoker;
+    final List<Object> _key;
+    final ResourceMethodDescriptor _descriptor;
+    final ResourceMethodDescriptor _batchGet;
+    final ResourceMethodConfig _config;
+    final ServerResourceContext _context;
+    final Callback<Object> _callback;
+    final Runnable _invokeAlone;
+
+    HeldGet(RestLiMethodInvoker invoker, ResourceMethodDescriptor descriptor, ResourceMethodDescriptor batchGet,
+        ResourceMethodConfig config, ServerResourceContext context, Callback<Object> callback, Runnable invokeAlone)
+    {
+      _invoker = invoker;
+      // The request headers are part of the key, so that a request is never answered with the credentials of another,
+      // and so are the projection modes, so that entities are projected the same way for all the merged requests
+      _key = Arrays.asList(new RequestCoalescer.Key(descriptor, context, true), context.getRequestHeaders(),
+          context.getProjectionMode(), context.getMetadataProjectionMode(), context.isFillInDefaultsRequested());
+      _descriptor = descriptor;
+      _batchGet = batchGet;
+      _config = config;
+      _context = context;
+      _callback = callback;
+      _invokeAlone = invokeAlone;
+    }
+
+    Object getEntityKey()
+    {
+      return _context.getPathKeys().get(_descriptor.getResourceModel().getKeyName());
+    }
+  }
+}
@@ -0,0 +1,290 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.model.Parameter;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.restspec.ResourceEntityType;
+import com.linkedin.restli.server.BatchResult;
+import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.config.ResourceMethodConfig;
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Shares a single invocation of a resource method among identical concurrent requests, for GET, BATCH_GET and FINDER
+ * methods with {@link ResourceMethodConfig#shouldCoalesceRequests()} enabled.
+ *
+ * Requests are identical if they target the same method with the same path keys, query parameters, header parameters
+ * and projection masks. A BATCH_GET request also joins an in-flight BATCH_GET whose keys include all of its keys, and
+ * receives the part of the result for its own keys. Response headers and cookies set by the resource method are copied
+ * to every request sharing the invocation.
+ *
+ * The result of the invocation is shared by all the requests, so response filters of coalesced methods must not
+ * modify the entities in place. Methods whose result depends on anything else in the request, such as the identity of
+ * the caller, must not enable coalescing.
+ */
+final class RequestCoalescer
+{
+  private final ConcurrentMap<Key, List<Flight>> _flights = new ConcurrentHashMap<>();
+
+  /**
+   * @return true if requests to the given method are coalesced.
+   */
+  static boolean isEnabled(ResourceMethodDescriptor descriptor, ResourceMethodConfig config)
+  {
+    if (config == null || !config.shouldCoalesceRequests()
+        || descriptor.getResourceModel().getResourceEntityType() == ResourceEntityType.UNSTRUCTURED_DATA)
+    {
+      return false;
+    }
+    final ResourceMethod type = descriptor.getType();
+    return type == ResourceMethod.GET || type == ResourceMethod.BATCH_GET || type == ResourceMethod.FINDER;
+  }
+
+  /**
+   * Joins an in-flight invocation of the same request, or starts a new one.
+   *
+   * @return the callback to invoke the resource method with, or null if the request joined an in-flight invocation
+   *         and will be completed with its result.
+   */
+  Callback<Object> join(ResourceMethodDescriptor descriptor, ServerResourceContext context, Callback<Object> callback)
+  {
+    final boolean batch = descriptor.getType() == ResourceMethod.BATCH_GET;
+    final Set<?> batchKeys = batch ? context.getPathKeys().getBatchIds() : null;
+    final Key key = new Key(descriptor, context, batch);
+    final Flight flight = new Flight(key, context, batchKeys, callback);
+
+    final boolean[] joined = new boolean[1];
+    _flights.compute(key, (k, flights) ->
+    {
+      if (flights == null)
+      {
+        flights = new ArrayList<>(1);
+      }
+      else
+      {
+        for (Flight inFlight : flights)
+        {
+          if (inFlight.covers(batchKeys))
+          {
+            inFlight._followers.add(flight);
+            joined[0] = true;
+            return flights;
+          }
+        }
+      }
+      flights.add(flight);
+      return flights;
+    });
+    return joined[0] ? null : flight;
+  }
+
+  /**
+   * @return number of invocations in flight.
+   */
+  int getInFlightCount()
+  {
+    return _flights.values().stream().mapToInt(List::size).sum();
+  }
+
+  private void land(Flight flight)
+  {
+    _flights.computeIfPresent(flight._key, (k, flights) ->
+    {
+      flights.remove(flight);
+      return flights.isEmpty() ? null : flights;
+    });
+  }
+
+  /**
+   * An invocation of a resource method, and the requests waiting for its result. Followers are only added while the
+   * flight is in {@link #_flights}, and are read after it has been removed, both under the lock of its key.
+   */
+  private final class Flight implements Callback<Object>
+  {
+    private final Key _key;
+    private final ServerResourceContext _context;
+    private final Set<?> _batchKeys;
+    private final Callback<Object> _callback;
+    private final List<Flight> _followers = new ArrayList<>();
+
+    Flight(Key key, ServerResourceContext context, Set<?> batchKeys, Callback<Object> callback)
+    {
+      _key = key;
+      _context = context;
+      _batchKeys = batchKeys;
+      _callback = callback;
+    }
+
+    boolean covers(Set<?> batchKeys)
+    {
+      return batchKeys == null || _batchKeys.containsAll(batchKeys);
+    }
+
+    @Override
+    public void onSuccess(Object result)
+    {
+      land(this);
+      if (!_followers.isEmpty())
+      {
+        final Map<String, String> headers = new HashMap<>(_context.getResponseHeaders());
+        final List<HttpCookie> cookies = new ArrayList<>(_context.getResponseCookies());
+        for (Flight follower : _followers)
+        {
+          headers.forEach(follower._context::setResponseHeader);
+          cookies.forEach(follower._context::addResponseCookie);
+          follower._callback.onSuccess(follower.select(result, _batchKeys));
+        }
+      }
+      _callback.onSuccess(result);
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      land(this);
+      for (Flight follower : _followers)
+      {
+        follower._callback.onError(e);
+      }
+      _callback.onError(e);
+    }
+
+    /**
+     * @return the part of a batch result for the keys of this request.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object select(Object result, Set<?> resultKeys)
+    {
+      if (_batchKeys == null || _batchKeys.size() == resultKeys.size() || !(result instanceof Map))
+      {
+        return result;
+      }
+
+      final Map<Object, Object> data = new HashMap<>();
+      for (Object batchKey : _batchKeys)
+      {
+        final Object value = ((Map<?, ?>) result).get(batchKey);
+        if (value != null)
+        {
+          data.put(batchKey, value);
+        }
+      }
+      if (!(result instanceof BatchResult))
+      {
+        return data;
+      }
+
+      final BatchResult<?, ?> batchResult = (BatchResult<?, ?>) result;
+      final Map<Object, Object> statuses = new HashMap<>();
+      final Map<Object, RestLiServiceException> errors = new HashMap<>();
+      for (Object batchKey : _batchKeys)
+      {
+        if (batchResult.getStatuses().containsKey(batchKey))
+        {
+          statuses.put(batchKey, batchResult.getStatuses().get(batchKey));
+        }
+        if (batchResult.getErrors().containsKey(batchKey))
+        {
+          errors.put(batchKey, batchResult.getErrors().get(batchKey));
+        }
+      }
+      return new BatchResult(data, statuses, errors);
+    }
+  }
+
+  /**
+   * Identity of a request for coalescing and batching. The keys of the entities a request targets can be left out, to
+   * be matched separately.
+   */
+  static final class Key
+  {
+    private final Object[] _parts;
+    private final int _hashCode;
+
+    /**
+     * @param withoutEntityKeys whether to leave out the batch keys and the key of the resource itself.
+     */
+    Key(ResourceMethodDescriptor descriptor, ServerResourceContext context, boolean withoutEntityKeys)
+    {
+      final Map<String, Object> parameters = new HashMap<>(context.getParameters());
+      Map<String, Object> pathKeys = context.getPathKeys().getKeyMap();
+      if (withoutEntityKeys)
+      {
+        parameters.remove(RestConstants.QUERY_BATCH_IDS_PARAM);
+        final String keyName = descriptor.getResourceModel().getKeyName();
+        if (keyName != null && pathKeys.containsKey(keyName))
+        {
+          pathKeys = new HashMap<>(pathKeys);
+          pathKeys.remove(keyName);
+        }
+      }
+
+      final List<String> headerParameters = new ArrayList<>();
+      for (Parameter<?> parameter : descriptor.getParameters())
+      {
+        if (parameter.getParamType() == Parameter.ParamType.HEADER)
+        {
+          headerParameters.add(context.getRequestHeaders().get(parameter.getName()));
+        }
+      }
+
+      _parts = new Object[] {
+          descriptor,
+          context.getRestliProtocolVersion(),
+          pathKeys,
+          parameters,
+          headerParameters,
+          dataMap(context.getProjectionMask()),
+          dataMap(context.getMetadataProjectionMask()),
+          dataMap(context.getPagingProjectionMask()),
+          context.getAlwaysProjectedFields()
+      };
+      _hashCode = Arrays.hashCode(_parts);
+    }
+
+    private static Object dataMap(MaskTree mask)
+    {
+      return mask == null ? null : mask.getDataMap();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      return o instanceof Key && _hashCode == ((Key) o)._hashCode && Arrays.equals(_parts, ((Key) o)._parts);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _hashCode;
+    }
+  }
+}
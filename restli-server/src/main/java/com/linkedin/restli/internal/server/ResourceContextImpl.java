@@ -44,9 +44,11 @@ import com.linkedin.restli.internal.common.QueryParamsDataMap;
 import com.linkedin.restli.internal.common.URIParamUtils;
 import com.linkedin.restli.internal.server.util.ArgumentUtils;
 import com.linkedin.restli.internal.server.util.MIMEParse;
+import com.linkedin.restli.internal.server.util.ProjectionPlan;
 import com.linkedin.restli.internal.server.util.RestLiSyntaxException;
 import com.linkedin.restli.server.LocalRequestProjectionMask;
 import com.linkedin.restli.server.ProjectionMode;
+import com.linkedin.restli.server.RequestParseCache;
 import com.linkedin.restli.server.RestLiResponseAttachments;
 import com.linkedin.restli.server.RestLiServiceException;
 import com.linkedin.restli.server.RoutingException;
@@ -100,6 +102,8 @@ public class ResourceContextImpl implements ServerResourceContext
   private MaskTree                                  _pagingProjectionMask;
   // Fields to always include during projection
   private Set<String> _alwaysProjectedFields;
+  // Plan of the projection mask and of the always projected fields, compiled when first used
+  private ProjectionPlan _projectionPlan;
 
   //For streaming attachments
   private RestLiAttachmentReader                    _requestAttachmentReader;
@@ -140,10 +144,28 @@ public class ResourceContextImpl implements ServerResourceContext
    * @throws RestLiSyntaxException if the syntax of query parameters in the request is
    *           incorrect
    */
-  @SuppressWarnings("unchecked")
   public ResourceContextImpl(final MutablePathKeys pathKeys,
                              final Request request,
                              final RequestContext requestContext) throws RestLiSyntaxException
+  {
+    this(pathKeys, request, requestContext, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pathKeys path keys object
+   * @param request request
+   * @param requestContext context for the request
+   * @param parseCache cache of decoded projection masks and query parameters, or null to always parse them
+   * @throws RestLiSyntaxException if the syntax of query parameters in the request is
+   *           incorrect
+   */
+  @SuppressWarnings("unchecked")
+  public ResourceContextImpl(final MutablePathKeys pathKeys,
+                             final Request request,
+                             final RequestContext requestContext,
+                             final RequestParseCache parseCache) throws RestLiSyntaxException
   {
     _pathKeys = pathKeys;
     _request = request;
@@ -178,8 +200,15 @@ public class ResourceContextImpl implements ServerResourceContext
       {
         TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST_RESTLI_URI_PARSE_2.key());
 
-        Map<String, List<String>> queryParameters = UriComponent.decodeQuery(_request.getURI(), false);
-        _parameters = URIParamUtils.parseUriParams(queryParameters);
+        if (parseCache != null)
+        {
+          _parameters = parseCache.parseQueryParameters(_request.getURI());
+        }
+        else
+        {
+          Map<String, List<String>> queryParameters = UriComponent.decodeQuery(_request.getURI(), false);
+          _parameters = URIParamUtils.parseUriParams(queryParameters);
+        }
 
         TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST_RESTLI_URI_PARSE_2.key());
       }
@@ -213,7 +242,7 @@ public class ResourceContextImpl implements ServerResourceContext
     {
       if (_parameters.containsKey(RestConstants.FIELDS_PARAM))
       {
-        _projectionMask = ArgumentUtils.parseProjectionParameter(getParameter(RestConstants.FIELDS_PARAM));
+        _projectionMask = parseProjectionParameter(RestConstants.FIELDS_PARAM, parseCache);
       }
       else
       {
@@ -222,7 +251,7 @@ public class ResourceContextImpl implements ServerResourceContext
 
       if (_parameters.containsKey(RestConstants.METADATA_FIELDS_PARAM))
       {
-        _metadataProjectionMask = ArgumentUtils.parseProjectionParameter(getParameter(RestConstants.METADATA_FIELDS_PARAM));
+        _metadataProjectionMask = parseProjectionParameter(RestConstants.METADATA_FIELDS_PARAM, parseCache);
       }
       else
       {
@@ -231,7 +260,7 @@ public class ResourceContextImpl implements ServerResourceContext
 
       if (_parameters.containsKey(RestConstants.PAGING_FIELDS_PARAM))
       {
-        _pagingProjectionMask = ArgumentUtils.parseProjectionParameter(getParameter(RestConstants.PAGING_FIELDS_PARAM));
+        _pagingProjectionMask = parseProjectionParameter(RestConstants.PAGING_FIELDS_PARAM, parseCache);
       }
       else
       {
@@ -248,6 +277,48 @@ public class ResourceContextImpl implements ServerResourceContext
     _fillInDefaultValues = getParameter(RestConstants.FILL_IN_DEFAULTS_PARAM) != null;
   }
 
+  /**
+   * Constructor of the context of a BATCH_GET merging GET requests which only differ by their keys. The context is a
+   * copy of the context of one of the GET requests, with the given path keys, which hold the batch keys. Its response
+   * headers, cookies and batch key errors start out empty.
+   *
+   * @param context context of one of the merged GET requests
+   * @param pathKeys path keys of the BATCH_GET
+   */
+  ResourceContextImpl(final ResourceContextImpl context, final MutablePathKeys pathKeys)
+  {
+    _pathKeys = pathKeys;
+    _request = context._request;
+    _parameters = context._parameters;
+    _requestHeaders = new TreeMap<>(context._requestHeaders);
+    _responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    _requestCookies = context._requestCookies;
+    _responseCookies = new ArrayList<>();
+    _batchKeyErrors = new HashMap<>();
+    _requestContext = context._requestContext;
+    _protocolVersion = context._protocolVersion;
+    _requestMimeType = context._requestMimeType;
+    _responseMimeType = context._responseMimeType;
+    _projectionMode = context._projectionMode;
+    _projectionMask = context._projectionMask;
+    _metadataProjectionMode = context._metadataProjectionMode;
+    _metadataProjectionMask = context._metadataProjectionMask;
+    _pagingProjectionMask = context._pagingProjectionMask;
+    _alwaysProjectedFields = context._alwaysProjectedFields;
+    _projectionPlan = context._projectionPlan;
+    _responseAttachmentsAllowed = context._responseAttachmentsAllowed;
+    _customRequestContext = context._customRequestContext == null ? null : new HashMap<>(context._customRequestContext);
+    _fillInDefaultValues = context._fillInDefaultValues;
+  }
+
+  private MaskTree parseProjectionParameter(String paramName, RequestParseCache parseCache) throws RestLiSyntaxException
+  {
+    final String projectionParam = getParameter(paramName);
+    return parseCache != null
+        ? parseCache.decodeMask(projectionParam)
+        : ArgumentUtils.parseProjectionParameter(projectionParam);
+  }
+
   private static boolean isResponseAttachmentsAllowed(Request request)
   {
     final String acceptTypeHeader = request.getHeader(RestConstants.HEADER_ACCEPT);
@@ -361,6 +432,23 @@ public class ResourceContextImpl implements ServerResourceContext
   public void setProjectionMask(MaskTree projectionMask)
   {
     _projectionMask = projectionMask;
+    _projectionPlan = null;
+  }
+
+  /**
+   * Returns the plan projecting root object entities, looked up once per request instead of once per entity. The
+   * projection mask must not be modified in place once entities are projected.
+   *
+   * @return plan of the projection mask and of the always projected fields, or null if there is no projection mask.
+   */
+  public ProjectionPlan getProjectionPlan()
+  {
+    if (_projectionPlan == null && _projectionMask != null)
+    {
+      // Threads projecting entities concurrently may compile the same plan, which is immutable
+      _projectionPlan = ProjectionPlan.forMask(_projectionMask.getDataMap(), _alwaysProjectedFields);
+    }
+    return _projectionPlan;
   }
 
   @Override
@@ -708,6 +796,7 @@ public class ResourceContextImpl implements ServerResourceContext
   public void setAlwaysProjectedFields(Set<String> alwaysProjectedFields)
   {
     this._alwaysProjectedFields = alwaysProjectedFields;
+    _projectionPlan = null;
   }
 
   @Override
@@ -27,27 +27,39 @@ import com.linkedin.parseq.promise.Promises;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.timing.FrameworkTimingKeys;
 import com.linkedin.r2.message.timing.TimingContextUtil;
+import com.linkedin.r2.util.RequestTimeoutUtil;
 import com.linkedin.restli.common.ConfigValue;
 import com.linkedin.restli.common.EmptyRecord;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.methods.arguments.BatchGetArgumentBuilder;
 import com.linkedin.restli.internal.server.methods.arguments.RestLiArgumentBuilder;
 import com.linkedin.restli.internal.server.model.Parameter;
 import com.linkedin.restli.internal.server.model.Parameter.ParamType;
 import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceMethodInvoker;
 import com.linkedin.restli.restspec.MaxBatchSizeSchema;
+import com.linkedin.restli.server.BatchResult;
 import com.linkedin.restli.server.NonResourceRequestHandler;
 import com.linkedin.restli.server.ResourceContext;
 import com.linkedin.restli.server.RestLiRequestData;
+import com.linkedin.restli.server.RestLiRequestDataImpl;
 import com.linkedin.restli.server.RestLiServiceException;
 import com.linkedin.restli.server.UnstructuredDataReactiveResult;
 import com.linkedin.restli.server.config.ResourceMethodConfig;
+import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
+import com.linkedin.restli.server.config.RestLiMethodConfigBuilder;
 import com.linkedin.restli.server.resources.BaseResource;
 import com.linkedin.restli.server.resources.ResourceFactory;
+import com.linkedin.util.clock.SystemClock;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 
@@ -71,6 +83,8 @@ public class RestLiMethodInvoker
   private final ResourceFactory _resourceFactory;
   private final Engine _engine;
   private final String _internalErrorMessage;
+  private final ResourceMethodConfigProvider _methodConfigProvider;
+  private final RequestCoalescer _requestCoalescer = new RequestCoalescer();
 
   // This ThreadLocal stores Context of task that is currently being executed.
   // When it is set, new tasks do not start new plans but instead are scheduled
@@ -82,26 +96,35 @@ public class RestLiMethodInvoker
   public RestLiMethodInvoker(final ResourceFactory resourceFactory,
                              final Engine engine,
                              final String internalErrorMessage)
+  {
+    this(resourceFactory, engine, internalErrorMessage,
+        ResourceMethodConfigProvider.build(new RestLiMethodConfigBuilder().build()));
+  }
+
+  /**
+   * @param methodConfigProvider provider of the configuration of the resource methods the invoker invokes in place of
+   *                             the routed ones, namely the BATCH_GET methods merging multiplexed GET requests
+   */
+  public RestLiMethodInvoker(final ResourceFactory resourceFactory,
+                             final Engine engine,
+                             final String internalErrorMessage,
+                             final ResourceMethodConfigProvider methodConfigProvider)
   {
     _resourceFactory = resourceFactory;
     _engine = engine;
     _internalErrorMessage = internalErrorMessage;
+    _methodConfigProvider = methodConfigProvider;
   }
 
   @SuppressWarnings("deprecation")
   private void doInvoke(final ResourceMethodDescriptor descriptor,
       final ResourceMethodConfig methodConfig,
-      final RestLiCallback callback,
+      final Callback<Object> callback,
       final Object resource,
       final ServerResourceContext resourceContext,
       final Object... arguments) throws IllegalAccessException
   {
-    final Method method = descriptor.getMethod();
-
-    final RequestContext requestContext = resourceContext.getRawRequestContext();
-    TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST_RESTLI.key());
-    TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST.key());
-    TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.RESOURCE.key());
+    final ResourceMethodInvoker invoker = descriptor.getInvoker();
 
     try
     {
@@ -135,12 +158,12 @@ public class RestLiMethodInvoker
             }
           };
 
-          method.invoke(resource, arguments);
+          invoker.invoke(resource, arguments);
           // App code should use the callback
           break;
 
         case SYNC:
-          Object applicationResult = method.invoke(resource, arguments);
+          Object applicationResult = invoker.invoke(resource, arguments);
           callback.onSuccess(applicationResult);
           break;
 
@@ -156,8 +179,8 @@ public class RestLiMethodInvoker
             contextIndex = descriptor.indexOfParameterType(ParamType.PARSEQ_CONTEXT);
           }
           // run through the engine to get the context
-          Task<Object> restliTask = withTimeout(createRestLiParSeqTask(arguments, contextIndex, method, resource),
-                  methodConfig);
+          Task<Object> restliTask = withTimeout(createRestLiParSeqTask(arguments, contextIndex, invoker, resource),
+                  methodConfig, resourceContext);
 
           // propagate the result to the callback
           restliTask.addListener(new CallbackPromiseAdapter<>(callback));
@@ -174,8 +197,8 @@ public class RestLiMethodInvoker
 
           //addListener requires Task<Object> in this case
           @SuppressWarnings("unchecked")
-          Task<Object> task = withTimeout((Task<Object>) method.invoke(resource, arguments),
-                  methodConfig);
+          Task<Object> task = withTimeout((Task<Object>) invoker.invoke(resource, arguments),
+                  methodConfig, resourceContext);
           if (task == null)
           {
             callback.onError(new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
@@ -212,25 +235,47 @@ public class RestLiMethodInvoker
     }
   }
 
-  // Apply timeout to parseq task if timeout configuration is specified for this method.
-  private Task<Object> withTimeout(final Task<Object> task, ResourceMethodConfig config)
+  // Apply timeout to parseq task if timeout configuration is specified for this method, or if the request has a
+  // deadline. The plan is cancelled when the timeout expires.
+  private Task<Object> withTimeout(final Task<Object> task, ResourceMethodConfig config, ResourceContext resourceContext)
   {
+    if (task == null)
+    {
+      return null;
+    }
+
+    Long timeoutMs = null;
+    String timeoutSource = null;
     if (config != null)
     {
       ConfigValue<Long> timeout = config.getTimeoutMs();
       if (timeout != null && timeout.getValue() != null && timeout.getValue() > 0)
       {
-        if (timeout.getSource().isPresent())
-        {
-          return task.withTimeout("src: " + timeout.getSource().get(), timeout.getValue(), TimeUnit.MILLISECONDS);
-        }
-        else
-        {
-          return task.withTimeout(timeout.getValue(), TimeUnit.MILLISECONDS);
-        }
+        timeoutMs = timeout.getValue();
+        timeoutSource = timeout.getSource().orElse(null);
       }
     }
-    return task;
+
+    final Long remainingTimeMs =
+        RequestTimeoutUtil.getRemainingTimeMs(resourceContext.getRawRequestContext(), SystemClock.instance());
+    if (remainingTimeMs != null && (timeoutMs == null || remainingTimeMs < timeoutMs))
+    {
+      timeoutMs = Math.max(1L, remainingTimeMs);
+      timeoutSource = "request deadline";
+    }
+
+    if (timeoutMs == null)
+    {
+      return task;
+    }
+    if (timeoutSource != null)
+    {
+      return task.withTimeout("src: " + timeoutSource, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    else
+    {
+      return task.withTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
   }
 
   private void addListenerFromContext(Task<Object> task, ResourceContext resourceContext)
@@ -284,7 +329,7 @@ public class RestLiMethodInvoker
     }
   }
 
-  private boolean checkEngine(final RestLiCallback callback, final ResourceMethodDescriptor desc)
+  private boolean checkEngine(final Callback<Object> callback, final ResourceMethodDescriptor desc)
   {
     if (_engine == null)
     {
@@ -314,9 +359,9 @@ public class RestLiMethodInvoker
   {
     try
     {
-      ResourceMethodDescriptor resourceMethodDescriptor = invokableMethod.getResourceMethod();
-      ResourceMethodConfig resourceMethodConfig = invokableMethod.getResourceMethodConfig();
-      Object resource = _resourceFactory.create(resourceMethodDescriptor.getResourceModel().getResourceClass());
+      final ResourceMethodDescriptor resourceMethodDescriptor = invokableMethod.getResourceMethod();
+      final ResourceMethodConfig resourceMethodConfig = invokableMethod.getResourceMethodConfig();
+      final Object resource = _resourceFactory.create(resourceMethodDescriptor.getResourceModel().getResourceClass());
 
       // Acquire a handle on the ResourceContext when setting it in order to obtain any response attachments that need to
       // be streamed back.
@@ -326,11 +371,182 @@ public class RestLiMethodInvoker
         ((BaseResource) resource).setContext(resourceContext);
       }
 
-      Object[] args = restLiArgumentBuilder.buildArguments(requestData, invokableMethod);
+      final Object[] args = restLiArgumentBuilder.buildArguments(requestData, invokableMethod);
       // Validate the batch size for batch requests
       validateMaxBatchSize(requestData, resourceMethodDescriptor, resourceContext);
+
+      final RequestContext requestContext = resourceContext.getRawRequestContext();
+      TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST_RESTLI.key());
+      TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST.key());
+      TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.RESOURCE.key());
+
+      final BatchingScope.Participant participant = BatchingScope.getCurrent();
+      final ResourceMethodDescriptor batchGet =
+          participant == null ? null : BatchingScope.findBatchGet(resourceMethodDescriptor);
+      if (batchGet != null)
+      {
+        // Hold the GET back to merge it with the GETs of sibling requests into a BATCH_GET
+        final BatchingScope.HeldGet heldGet = new BatchingScope.HeldGet(this, resourceMethodDescriptor, batchGet,
+            resourceMethodConfig, resourceContext, callback,
+            () -> invokeResource(resourceMethodDescriptor, resourceMethodConfig, callback, resource, resourceContext, args));
+        if (participant.hold(heldGet))
+        {
+          return;
+        }
+      }
+
+      invokeResource(resourceMethodDescriptor, resourceMethodConfig, callback, resource, resourceContext, args);
+    }
+    catch (Exception e)
+    {
+      callback.onError(e);
+    }
+  }
+
+  private void invokeResource(final ResourceMethodDescriptor descriptor,
+      final ResourceMethodConfig methodConfig,
+      final Callback<Object> callback,
+      final Object resource,
+      final ServerResourceContext resourceContext,
+      final Object[] arguments)
+  {
+    Callback<Object> invocationCallback = callback;
+    try
+    {
+      if (RequestCoalescer.isEnabled(descriptor, methodConfig))
+      {
+        invocationCallback = _requestCoalescer.join(descriptor, resourceContext, callback);
+        if (invocationCallback == null)
+        {
+          // The request is completed by an identical request already being processed
+          return;
+        }
+      }
       // Now invoke the resource implementation.
-      doInvoke(resourceMethodDescriptor, resourceMethodConfig, callback, resource, resourceContext, args);
+      doInvoke(descriptor, methodConfig, invocationCallback, resource, resourceContext, arguments);
+    }
+    catch (Exception e)
+    {
+      invocationCallback.onError(e);
+    }
+  }
+
+  /**
+   * Invokes GETs held back by a {@link BatchingScope} which only differ by their keys as BATCH_GETs, and completes
+   * each of them with its part of the result. A single GET, or a GET whose batch would have a single key, is invoked
+   * on its own. The BATCH_GET is invoked with its own method configuration and with a resource context of its own,
+   * copied from the context of the first GET with the keys of the batch, and the response headers and cookies set by
+   * the resource go to every merged GET, since they all have the same request headers.
+   */
+  void invokeBatched(final List<BatchingScope.HeldGet> heldGets)
+  {
+    final Map<Object, List<BatchingScope.HeldGet>> heldGetsByKey = new LinkedHashMap<>();
+    for (BatchingScope.HeldGet heldGet : heldGets)
+    {
+      heldGetsByKey.computeIfAbsent(heldGet.getEntityKey(), key -> new ArrayList<>()).add(heldGet);
+    }
+
+    final ResourceMethodDescriptor batchGet = heldGets.get(0)._batchGet;
+    final MaxBatchSizeSchema maxBatchSize = batchGet.getMaxBatchSize();
+    final int chunkSize = maxBatchSize != null && maxBatchSize.isValidate() ? maxBatchSize.getValue() : Integer.MAX_VALUE;
+    final List<Object> keys = new ArrayList<>(heldGetsByKey.keySet());
+    for (int start = 0; start < keys.size(); start += chunkSize)
+    {
+      final Map<Object, List<BatchingScope.HeldGet>> chunk = new LinkedHashMap<>();
+      for (Object key : keys.subList(start, Math.min(keys.size(), start + chunkSize)))
+      {
+        chunk.put(key, heldGetsByKey.get(key));
+      }
+      if (chunk.size() == 1 || !(heldGets.get(0)._context instanceof ResourceContextImpl))
+      {
+        chunk.values().iterator().next().forEach(heldGet -> heldGet._invokeAlone.run());
+      }
+      else
+      {
+        invokeBatchGet(batchGet, chunk);
+      }
+    }
+  }
+
+  private void invokeBatchGet(final ResourceMethodDescriptor batchGet,
+      final Map<Object, List<BatchingScope.HeldGet>> heldGetsByKey)
+  {
+    final BatchingScope.HeldGet first = heldGetsByKey.values().iterator().next().get(0);
+    final String keyName = batchGet.getResourceModel().getKeyName();
+    final MutablePathKeys pathKeys = new PathKeysImpl();
+    first._context.getPathKeys().getKeyMap().forEach((name, value) ->
+    {
+      if (!name.equals(keyName))
+      {
+        pathKeys.append(name, value);
+      }
+    });
+    pathKeys.setBatchKeys(new LinkedHashSet<>(heldGetsByKey.keySet()));
+    final ServerResourceContext resourceContext =
+        new ResourceContextImpl((ResourceContextImpl) first._context, pathKeys);
+    final ResourceMethodConfig methodConfig = _methodConfigProvider.apply(batchGet);
+
+    final Callback<Object> callback = new Callback<Object>()
+    {
+      @Override
+      public void onError(Throwable e)
+      {
+        heldGetsByKey.values().forEach(heldGets -> heldGets.forEach(heldGet ->
+        {
+          copyResponseHeaders(resourceContext, heldGet._context);
+          heldGet._callback.onError(e);
+        }));
+      }
+
+      @Override
+      public void onSuccess(Object result)
+      {
+        if (!(result instanceof Map))
+        {
+          onError(new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+              "Unexpected result returned by the resource method: " + batchGet));
+          return;
+        }
+
+        final Map<?, ?> data = (Map<?, ?>) result;
+        final Map<?, RestLiServiceException> errors =
+            result instanceof BatchResult ? ((BatchResult<?, ?>) result).getErrors() : Collections.emptyMap();
+        heldGetsByKey.forEach((key, heldGets) ->
+        {
+          RestLiServiceException error = resourceContext.getBatchKeyErrors().get(key);
+          if (error == null)
+          {
+            error = errors.get(key);
+          }
+          for (BatchingScope.HeldGet heldGet : heldGets)
+          {
+            copyResponseHeaders(resourceContext, heldGet._context);
+            if (error != null)
+            {
+              heldGet._callback.onError(error);
+            }
+            else
+            {
+              // A missing entity is answered with a 404, as if the GET had returned null
+              heldGet._callback.onSuccess(data.get(key));
+            }
+          }
+        });
+      }
+    };
+
+    try
+    {
+      final Object resource = _resourceFactory.create(batchGet.getResourceModel().getResourceClass());
+      if (BaseResource.class.isAssignableFrom(resource.getClass()))
+      {
+        ((BaseResource) resource).setContext(resourceContext);
+      }
+      final RestLiRequestData requestData =
+          new RestLiRequestDataImpl.Builder().batchKeys(heldGetsByKey.keySet()).build();
+      final Object[] args = new BatchGetArgumentBuilder().buildArguments(requestData,
+          new RoutingResult(resourceContext, batchGet, methodConfig));
+      doInvoke(batchGet, methodConfig, callback, resource, resourceContext, args);
     }
     catch (Exception e)
     {
@@ -338,6 +554,12 @@ public class RestLiMethodInvoker
     }
   }
 
+  private static void copyResponseHeaders(ServerResourceContext from, ServerResourceContext to)
+  {
+    from.getResponseHeaders().forEach(to::setResponseHeader);
+    from.getResponseCookies().forEach(to::addResponseCookie);
+  }
+
   /**
    * Method is used to validate if the request's batch size is under
    * the allowed max batch size which is defined in the server resource.
@@ -397,7 +619,7 @@ public class RestLiMethodInvoker
    */
   private static Task<Object> createRestLiParSeqTask(final Object[] arguments,
       final int contextIndex,
-      final Method method,
+      final ResourceMethodInvoker invoker,
       final Object resource)
   {
     return Task.async(context ->
@@ -409,7 +631,7 @@ public class RestLiMethodInvoker
           // we can now supply the context
           arguments[contextIndex] = context;
         }
-        Object applicationResult = method.invoke(resource, arguments);
+        Object applicationResult = invoker.invoke(resource, arguments);
         if (applicationResult == null)
         {
           return Promises.error(new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
@@ -442,9 +664,9 @@ public class RestLiMethodInvoker
    */
   private static class CallbackPromiseAdapter<T> implements PromiseListener<T>
   {
-    private final RestLiCallback _callback;
+    private final Callback<Object> _callback;
 
-    CallbackPromiseAdapter(final RestLiCallback callback)
+    CallbackPromiseAdapter(final Callback<Object> callback)
     {
       _callback = callback;
     }
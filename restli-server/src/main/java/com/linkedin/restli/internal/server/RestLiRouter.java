@@ -42,18 +42,12 @@ import com.linkedin.restli.server.ResourceLevel;
 import com.linkedin.restli.server.RestLiConfig;
 import com.linkedin.restli.server.RestLiServiceException;
 import com.linkedin.restli.server.RoutingException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +62,7 @@ public class RestLiRouter
   private static final Logger log = LoggerFactory.getLogger(RestLiRouter.class);
   private static final Map<ResourceMethodMatchKey, ResourceMethod> _resourceMethodLookup = setupResourceMethodLookup();
   private final Map<String, ResourceModel> _pathRootResourceMap;
+  private volatile RouteTrie _routeTrie;
   private final RestLiConfig _restLiConfig;
 
   /**
@@ -98,55 +93,63 @@ public class RestLiRouter
     _restLiConfig = restLiConfig;
   }
 
-  private static final Pattern SLASH_PATTERN = Pattern.compile(Pattern.quote("/"));
-
   /**
    * Processes provided {@link Request}.
    */
   public ResourceMethodDescriptor process(final ServerResourceContext context)
   {
-    String path = context.getRequestURI().getRawPath();
+    final String path = context.getRequestURI().getRawPath();
     if (path.length() < 2)
     {
       throw new RoutingException(HttpStatus.S_404_NOT_FOUND.getCode());
     }
 
-    if (path.charAt(0) == '/')
+    final int start = path.charAt(0) == '/' ? 1 : 0;
+    // Trailing empty segments are ignored
+    int end = path.length();
+    while (end > start && path.charAt(end - 1) == '/')
     {
-      path = path.substring(1);
+      end--;
     }
 
-    Queue<String> remainingPath = new LinkedList<>(Arrays.asList(SLASH_PATTERN.split(path)));
-
-    String rootPath = "/" + remainingPath.poll();
-
-    ResourceModel currentResource;
-    try
-    {
-      currentResource =
-          _pathRootResourceMap.get(URLDecoder.decode(rootPath,
-                                                     RestConstants.DEFAULT_CHARSET_NAME));
-    }
-    catch (UnsupportedEncodingException e)
+    final int rootEnd = segmentEnd(path, start, end);
+    final RouteTrie.Node root = getRouteTrie().getRoot(path, start, rootEnd);
+    if (root == null)
     {
-      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the root path",
-                                        e);
+      throw new RoutingException(String.format("No root resource defined for path '/%s'",
+                                               path.substring(start, rootEnd)),
+                                 HttpStatus.S_404_NOT_FOUND.getCode());
     }
-    if (currentResource == null)
+
+    return processResourceTree(root, context, path, rootEnd, end);
+  }
+
+  private RouteTrie getRouteTrie()
+  {
+    RouteTrie routeTrie = _routeTrie;
+    if (routeTrie == null)
     {
-      throw new RoutingException(String.format("No root resource defined for path '%s'",
-                                               rootPath),
-                                 HttpStatus.S_404_NOT_FOUND.getCode());
+      // Compiled on first use rather than in the constructor, since the resource map may be filled in after
+      routeTrie = new RouteTrie(_pathRootResourceMap);
+      _routeTrie = routeTrie;
     }
+    return routeTrie;
+  }
 
-    return processResourceTree(currentResource, context, remainingPath);
+  private static int segmentEnd(final String path, final int start, final int end)
+  {
+    final int slash = path.indexOf('/', start);
+    return slash < 0 || slash > end ? end : slash;
   }
 
-  private ResourceMethodDescriptor processResourceTree(final ResourceModel resource,
+  private ResourceMethodDescriptor processResourceTree(final RouteTrie.Node root,
                                             final ServerResourceContext context,
-                                            final Queue<String> remainingPath)
+                                            final String path,
+                                            final int rootEnd,
+                                            final int end)
   {
-    ResourceModel currentResource = resource;
+    RouteTrie.Node currentNode = root;
+    ResourceModel currentResource = root.getResource();
 
     // iterate through all path segments, simultaneously descending the resource hierarchy
     // and parsing path keys where applicable;
@@ -154,17 +157,19 @@ public class RestLiRouter
     // currentResource, and to parse the necessary information into the context
     ResourceLevel currentLevel = currentResource.getResourceLevel();
 
-    while (remainingPath.peek() != null)
+    for (int segmentStart = rootEnd + 1; segmentStart <= end; )
     {
-      String currentPathSegment = remainingPath.poll();
+      final int segmentEnd = segmentEnd(path, segmentStart, end);
 
       if (currentLevel.equals(ResourceLevel.ENTITY))
       {
-        currentResource = currentResource.getSubResource(parseSubresourceName(currentPathSegment));
+        currentNode = currentNode.getSubResource(path, segmentStart, segmentEnd);
+        currentResource = currentNode == null ? null : currentNode.getResource();
         currentLevel = currentResource == null ? ResourceLevel.ANY : currentResource.getResourceLevel();
       }
       else
       {
+        final String currentPathSegment = path.substring(segmentStart, segmentEnd);
         if (currentResource.getKeys().isEmpty())
         {
           throw new RoutingException(String.format("Path key not supported on resource '%s' for URI '%s'",
@@ -212,33 +217,23 @@ public class RestLiRouter
       {
         throw new RoutingException(HttpStatus.S_404_NOT_FOUND.getCode());
       }
+
+      segmentStart = segmentEnd + 1;
     }
 
     parseBatchKeysParameter(currentResource, context); //now we know the key type, look for batch parameter
 
-    return findMethodDescriptor(currentResource, currentLevel, context);
-  }
-
-  /** given path segment, parses subresource name out of it */
-  private String parseSubresourceName(final String pathSegment)
-  {
-    try
-    {
-      return URLDecoder.decode(pathSegment, RestConstants.DEFAULT_CHARSET_NAME);
-    }
-    catch (UnsupportedEncodingException e)
-    {
-      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the subresource name", e);
-    }
+    return findMethodDescriptor(currentNode, currentLevel, context);
   }
 
-  private ResourceMethodDescriptor findMethodDescriptor(final ResourceModel resource,
+  private ResourceMethodDescriptor findMethodDescriptor(final RouteTrie.Node node,
                                              final ResourceLevel resourceLevel,
                                              final ServerResourceContext context)
   {
+    ResourceModel resource = node.getResource();
     ResourceMethod type = mapResourceMethod(context, resourceLevel);
     String methodName = context.getMethodName(type);
-    ResourceMethodDescriptor methodDescriptor = resource.matchMethod(type, methodName, resourceLevel);
+    ResourceMethodDescriptor methodDescriptor = node.matchMethod(type, methodName, resourceLevel);
 
     if (methodDescriptor != null)
     {
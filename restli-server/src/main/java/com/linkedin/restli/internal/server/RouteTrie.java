@@ -0,0 +1,221 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.server.ResourceLevel;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Resource hierarchy compiled for {@link RestLiRouter}. Each node holds a {@link ResourceModel}, a table of its
+ * subresources keyed by path segment, and the resource methods indexed by type and name.
+ *
+ * Segments are looked up in place in the request path, so resource names are matched without splitting the path or
+ * allocating substrings. Only segments with escaped characters are URL decoded first.
+ */
+final class RouteTrie
+{
+  private final SegmentTable _roots;
+
+  /**
+   * @param pathRootResourceMap a map of resource root paths to corresponding {@link ResourceModel}s
+   */
+  RouteTrie(Map<String, ResourceModel> pathRootResourceMap)
+  {
+    _roots = new SegmentTable(pathRootResourceMap.size());
+    for (Map.Entry<String, ResourceModel> entry : pathRootResourceMap.entrySet())
+    {
+      final String rootPath = entry.getKey();
+      if (rootPath.length() > 1 && rootPath.charAt(0) == '/')
+      {
+        _roots.put(rootPath.substring(1), new Node(entry.getValue()));
+      }
+    }
+  }
+
+  /**
+   * @return the root resource named by the given path segment, or null if there is none.
+   */
+  Node getRoot(String path, int start, int end)
+  {
+    return _roots.get(path, start, end);
+  }
+
+  /**
+   * Compiled {@link ResourceModel}.
+   */
+  static final class Node
+  {
+    private final ResourceModel _resource;
+    private final SegmentTable _subResources;
+    private final Map<ResourceMethod, ResourceMethodDescriptor> _methods = new EnumMap<>(ResourceMethod.class);
+    private final Map<String, ResourceMethodDescriptor> _finders = new HashMap<>();
+    private final Map<String, ResourceMethodDescriptor> _batchFinders = new HashMap<>();
+    private final Map<ResourceLevel, Map<String, ResourceMethodDescriptor>> _actions = new EnumMap<>(ResourceLevel.class);
+
+    private Node(ResourceModel resource)
+    {
+      _resource = resource;
+
+      final Map<String, ResourceModel> subResources = resource.getSubResourceMap();
+      _subResources = new SegmentTable(subResources.size());
+      for (Map.Entry<String, ResourceModel> entry : subResources.entrySet())
+      {
+        _subResources.put(entry.getKey(), new Node(entry.getValue()));
+      }
+
+      // The first matching method wins, as in ResourceModel#matchMethod
+      for (ResourceMethodDescriptor method : resource.getResourceMethodDescriptors())
+      {
+        switch (method.getType())
+        {
+          case ACTION:
+            _actions.computeIfAbsent(method.getActionResourceLevel(), level -> new HashMap<>())
+                .putIfAbsent(method.getActionName(), method);
+            break;
+          case FINDER:
+            _finders.putIfAbsent(method.getFinderName(), method);
+            break;
+          case BATCH_FINDER:
+            _batchFinders.putIfAbsent(method.getBatchFinderName(), method);
+            break;
+          default:
+            break;
+        }
+        _methods.putIfAbsent(method.getType(), method);
+      }
+    }
+
+    ResourceModel getResource()
+    {
+      return _resource;
+    }
+
+    /**
+     * @return the subresource named by the given path segment, or null if there is none.
+     */
+    Node getSubResource(String path, int start, int end)
+    {
+      return _subResources.get(path, start, end);
+    }
+
+    /**
+     * Same as {@link ResourceModel#matchMethod(ResourceMethod, String, ResourceLevel)}.
+     */
+    ResourceMethodDescriptor matchMethod(ResourceMethod type, String name, ResourceLevel resourceLevel)
+    {
+      switch (type)
+      {
+        case ACTION:
+          final Map<String, ResourceMethodDescriptor> actions = _actions.get(resourceLevel);
+          return actions == null ? null : actions.get(name);
+        case FINDER:
+          return _finders.get(name);
+        case BATCH_FINDER:
+          return _batchFinders.get(name);
+        default:
+          return _methods.get(type);
+      }
+    }
+  }
+
+  /**
+   * Open-addressing table of nodes keyed by path segment, looked up with a region of the request path.
+   */
+  private static final class SegmentTable
+  {
+    private final String[] _keys;
+    private final Node[] _nodes;
+    private final int _mask;
+
+    SegmentTable(int size)
+    {
+      final int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 + 1) << 1;
+      _keys = new String[capacity];
+      _nodes = new Node[capacity];
+      _mask = capacity - 1;
+    }
+
+    void put(String key, Node node)
+    {
+      int slot = key.hashCode() & _mask;
+      while (_keys[slot] != null && !_keys[slot].equals(key))
+      {
+        slot = (slot + 1) & _mask;
+      }
+      _keys[slot] = key;
+      _nodes[slot] = node;
+    }
+
+    Node get(String path, int start, int end)
+    {
+      int hash = 0;
+      for (int i = start; i < end; i++)
+      {
+        final char c = path.charAt(i);
+        if (c == '%' || c == '+')
+        {
+          return getDecoded(decode(path.substring(start, end)));
+        }
+        hash = 31 * hash + c;
+      }
+
+      final int length = end - start;
+      for (int slot = hash & _mask; _keys[slot] != null; slot = (slot + 1) & _mask)
+      {
+        final String key = _keys[slot];
+        if (key.length() == length && key.regionMatches(0, path, start, length))
+        {
+          return _nodes[slot];
+        }
+      }
+      return null;
+    }
+
+    private Node getDecoded(String decoded)
+    {
+      for (int slot = decoded.hashCode() & _mask; _keys[slot] != null; slot = (slot + 1) & _mask)
+      {
+        if (_keys[slot].equals(decoded))
+        {
+          return _nodes[slot];
+        }
+      }
+      return null;
+    }
+
+    private static String decode(String segment)
+    {
+      try
+      {
+        return URLDecoder.decode(segment, RestConstants.DEFAULT_CHARSET_NAME);
+      }
+      catch (UnsupportedEncodingException e)
+      {
+        throw new RestLiInternalException("UnsupportedEncodingException while trying to decode a path segment", e);
+      }
+    }
+  }
+}
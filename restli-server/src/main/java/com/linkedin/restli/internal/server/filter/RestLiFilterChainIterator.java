@@ -35,10 +35,32 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Iterates through a filter chain and executes each filter's logic.
  *
+ * Filters which inherit the default {@link Filter#onRequest} or {@link Filter#onResponse} are skipped in that phase,
+ * since the default implementation only passes the call on. Filters always see errors, because the default
+ * {@link Filter#onError} also records the error in the response context. Filter futures which are already completed
+ * successfully are continued directly instead of through dependent stages.
+ *
  * @author gye
  */
 public class RestLiFilterChainIterator
 {
+  private static final ClassValue<Boolean> HANDLES_REQUEST = new ClassValue<Boolean>()
+  {
+    @Override
+    protected Boolean computeValue(Class<?> type)
+    {
+      return overrides(type, "onRequest", FilterRequestContext.class);
+    }
+  };
+  private static final ClassValue<Boolean> HANDLES_RESPONSE = new ClassValue<Boolean>()
+  {
+    @Override
+    protected Boolean computeValue(Class<?> type)
+    {
+      return overrides(type, "onResponse", FilterRequestContext.class, FilterResponseContext.class);
+    }
+  };
+
   private List<Filter> _filters;
   private FilterChainDispatcher _filterChainDispatcher;
   private FilterChainCallback _filterChainCallback;
@@ -57,6 +79,11 @@ public class RestLiFilterChainIterator
                         RestLiFilterResponseContextFactory filterResponseContextFactory,
                         RestLiCallback restLiCallback)
   {
+    while (_cursor < _filters.size() && !HANDLES_REQUEST.get(_filters.get(_cursor).getClass()))
+    {
+      _cursor++;
+    }
+
     if (_cursor < _filters.size())
     {
       CompletableFuture<Void> filterFuture;
@@ -69,6 +96,11 @@ public class RestLiFilterChainIterator
         onError(th, requestContext, filterResponseContextFactory.fromThrowable(th));
         return;
       }
+      if (isCompletedNormally(filterFuture))
+      {
+        onRequest(requestContext, filterResponseContextFactory, restLiCallback);
+        return;
+      }
       filterFuture.thenAccept((v) ->
         onRequest(requestContext, filterResponseContextFactory, restLiCallback)
       );
@@ -89,6 +121,11 @@ public class RestLiFilterChainIterator
 
   public void onResponse(FilterRequestContext requestContext, FilterResponseContext responseContext)
   {
+    while (_cursor > 0 && !HANDLES_RESPONSE.get(_filters.get(_cursor - 1).getClass()))
+    {
+      _cursor--;
+    }
+
     if (_cursor > 0)
     {
       CompletableFuture<Void> filterFuture;
@@ -102,6 +139,11 @@ public class RestLiFilterChainIterator
         onError(th, requestContext, responseContext);
         return;
       }
+      if (isCompletedNormally(filterFuture))
+      {
+        onResponse(requestContext, responseContext);
+        return;
+      }
       filterFuture.thenAccept((v) ->
         onResponse(requestContext, responseContext)
       );
@@ -155,6 +197,26 @@ public class RestLiFilterChainIterator
     }
   }
 
+  private static boolean isCompletedNormally(CompletableFuture<Void> future)
+  {
+    return future.isDone() && !future.isCompletedExceptionally();
+  }
+
+  /**
+   * @return false if the filter class inherits the default implementation of the given {@link Filter} method
+   */
+  private static boolean overrides(Class<?> filterClass, String methodName, Class<?>... parameterTypes)
+  {
+    try
+    {
+      return filterClass.getMethod(methodName, parameterTypes).getDeclaringClass() != Filter.class;
+    }
+    catch (NoSuchMethodException | SecurityException e)
+    {
+      return true;
+    }
+  }
+
   // There are two cases that are handled by this method. In one case, the filter completes exceptionally with an
   // intended error; in another, the filter unexpectedly throws a runtime exception.
   private void updateResponseContextWithError(Throwable throwable, FilterResponseContext responseContext)
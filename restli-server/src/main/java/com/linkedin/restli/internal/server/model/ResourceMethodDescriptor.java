@@ -62,6 +62,7 @@ public class ResourceMethodDescriptor
   private ResourceModel                                 _resourceModel;
   private final ResourceMethod                          _type;
   private final Method                                  _method;
+  private final ResourceMethodInvoker                   _invoker;
   private final List<Parameter<?>>                      _parameters;
   private final String                                  _finderName;
   private final String                                  _batchFinderName;
@@ -359,6 +360,7 @@ public class ResourceMethodDescriptor
     super();
     _type = type;
     _method = method;
+    _invoker = ResourceMethodInvoker.of(method);
     _parameters = parameters;
     _finderName = finderName;
     _batchFinderName = batchFinderName;
@@ -416,6 +418,16 @@ public class ResourceMethodDescriptor
     return _method;
   }
 
+  /**
+   * Get the {@link ResourceMethodInvoker} built for the resource {@link Method}.
+   *
+   * @return {@link ResourceMethodInvoker}
+   */
+  public ResourceMethodInvoker getInvoker()
+  {
+    return _invoker;
+  }
+
   /**
    * Get resource method name.
    *
@@ -0,0 +1,481 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Invoker of a resource method, built once per {@link ResourceMethodDescriptor} when the resource model is built.
+ *
+ * Methods taking up to {@value #MAX_GENERATED_ARITY} arguments are called through a class generated by
+ * {@link LambdaMetafactory} for the method, which calls it directly, rather than through reflection. The other
+ * methods, and the methods whose classes cannot be linked from the generated class, are called with
+ * {@link Method#invoke(Object, Object...)}.
+ *
+ * Either way, {@link #invoke(Object, Object...)} has the contract of {@link Method#invoke(Object, Object...)}: wrong
+ * arguments are rejected with an {@link IllegalArgumentException}, and the exceptions thrown by the method are wrapped
+ * in an {@link InvocationTargetException}.
+ */
+public abstract class ResourceMethodInvoker
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceMethodInvoker.class);
+
+  static final int MAX_GENERATED_ARITY = 8;
+
+  private static final Class<?>[] FUNCTIONS = {
+      Function0.class, Function1.class, Function2.class, Function3.class, Function4.class,
+      Function5.class, Function6.class, Function7.class, Function8.class};
+  private static final Class<?>[] CONSUMERS = {
+      Consumer0.class, Consumer1.class, Consumer2.class, Consumer3.class, Consumer4.class,
+      Consumer5.class, Consumer6.class, Consumer7.class, Consumer8.class};
+
+  private final Method _method;
+
+  private ResourceMethodInvoker(Method method)
+  {
+    _method = method;
+  }
+
+  /**
+   * @return an invoker of the method, or null if there is no method.
+   */
+  public static ResourceMethodInvoker of(Method method)
+  {
+    if (method == null)
+    {
+      return null;
+    }
+    if (method.getParameterCount() <= MAX_GENERATED_ARITY && isLinkable(method))
+    {
+      try
+      {
+        return new GeneratedInvoker(method);
+      }
+      catch (Throwable e)
+      {
+        LOGGER.debug("Invoking " + method + " through reflection", e);
+      }
+    }
+    return new ReflectiveInvoker(method);
+  }
+
+  /**
+   * @return the invoked method.
+   */
+  public Method getMethod()
+  {
+    return _method;
+  }
+
+  /**
+   * Invokes the method, as {@link Method#invoke(Object, Object...)} does.
+   *
+   * @param resource instance of the resource the method is invoked on
+   * @param arguments arguments of the method
+   * @return the result of the method, or null if it returns void
+   * @throws IllegalAccessException if the method is not accessible
+   * @throws IllegalArgumentException if the resource or the arguments do not match the method
+   * @throws InvocationTargetException if the method threw an exception
+   */
+  public abstract Object invoke(Object resource, Object... arguments)
+      throws IllegalAccessException, InvocationTargetException;
+
+  /**
+   * @return true if the method is called through a generated function rather than through reflection.
+   */
+  abstract boolean isGenerated();
+
+  /**
+   * @return true if the method is a public instance method of a public class, and the class generated to call it would
+   *         resolve the same classes as the method.
+   */
+  private static boolean isLinkable(Method method)
+  {
+    if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+        || !Modifier.isPublic(method.getDeclaringClass().getModifiers())
+        || !isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType()))
+    {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes())
+    {
+      if (!isVisible(parameterType))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isVisible(Class<?> type)
+  {
+    while (type.isArray())
+    {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive())
+    {
+      return true;
+    }
+    try
+    {
+      return Class.forName(type.getName(), false, ResourceMethodInvoker.class.getClassLoader()) == type;
+    }
+    catch (ClassNotFoundException | LinkageError e)
+    {
+      return false;
+    }
+  }
+
+  private static final class ReflectiveInvoker extends ResourceMethodInvoker
+  {
+    ReflectiveInvoker(Method method)
+    {
+      super(method);
+    }
+
+    @Override
+    public Object invoke(Object resource, Object... arguments)
+        throws IllegalAccessException, InvocationTargetException
+    {
+      return getMethod().invoke(resource, arguments);
+    }
+
+    @Override
+    boolean isGenerated()
+    {
+      return false;
+    }
+  }
+
+  /**
+   * Calls the method through a function generated for it. The function casts the resource and the arguments to the
+   * types of the method before calling it, so an exception thrown when they have these types comes from the method.
+   * Otherwise, the arguments are left to {@link Method#invoke(Object, Object...)}, which converts them when a widening
+   * conversion applies, or rejects them.
+   */
+  private static final class GeneratedInvoker extends ResourceMethodInvoker
+  {
+    private final Class<?> _resourceClass;
+    // Parameter types, with primitive types replaced by their wrapper types
+    private final Class<?>[] _argumentTypes;
+    private final boolean[] _primitive;
+    private final Function _function;
+
+    GeneratedInvoker(Method method) throws Throwable
+    {
+      super(method);
+      _resourceClass = method.getDeclaringClass();
+      final Class<?>[] parameterTypes = method.getParameterTypes();
+      _argumentTypes = new Class<?>[parameterTypes.length];
+      _primitive = new boolean[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++)
+      {
+        _primitive[i] = parameterTypes[i].isPrimitive();
+        _argumentTypes[i] = _primitive[i] ? MethodType.methodType(parameterTypes[i]).wrap().returnType()
+            : parameterTypes[i];
+      }
+      final boolean returnsVoid = method.getReturnType() == void.class;
+
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      final MethodHandle target = lookup.unreflect(method);
+      final Class<?> functionType = (returnsVoid ? CONSUMERS : FUNCTIONS)[parameterTypes.length];
+      final MethodType erasedType = MethodType.genericMethodType(parameterTypes.length + 1)
+          .changeReturnType(returnsVoid ? void.class : Object.class);
+      final MethodType instantiatedType = target.type().wrap().changeReturnType(erasedType.returnType());
+      final CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(functionType),
+          erasedType, target, instantiatedType);
+      _function = (Function) callSite.getTarget().invoke();
+    }
+
+    @Override
+    public Object invoke(Object resource, Object... arguments)
+        throws IllegalAccessException, InvocationTargetException
+    {
+      if ((arguments == null ? 0 : arguments.length) != _argumentTypes.length)
+      {
+        return getMethod().invoke(resource, arguments);
+      }
+      try
+      {
+        return _function.call(resource, arguments);
+      }
+      catch (Throwable e)
+      {
+        if (!matches(resource, arguments))
+        {
+          // The function failed to cast the resource or an argument, before calling the method. Let reflection
+          // convert them, or reject them.
+          return getMethod().invoke(resource, arguments);
+        }
+        throw new InvocationTargetException(e);
+      }
+    }
+
+    @Override
+    boolean isGenerated()
+    {
+      return true;
+    }
+
+    /**
+     * @return true if the resource and the arguments have the types the function casts them to.
+     */
+    private boolean matches(Object resource, Object[] arguments)
+    {
+      if (!_resourceClass.isInstance(resource))
+      {
+        return false;
+      }
+      for (int i = 0; i < _argumentTypes.length; i++)
+      {
+        final Object argument = arguments[i];
+        if (argument == null ? _primitive[i] : !_argumentTypes[i].isInstance(argument))
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Function implemented by the classes generated for the methods, which takes the arguments out of the array and
+   * calls the method with them.
+   */
+  interface Function
+  {
+    Object call(Object r, Object[] a);
+  }
+
+  interface Function0 extends Function
+  {
+    Object apply(Object r);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r);
+    }
+  }
+
+  interface Function1 extends Function
+  {
+    Object apply(Object r, Object a0);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0]);
+    }
+  }
+
+  interface Function2 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1]);
+    }
+  }
+
+  interface Function3 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2]);
+    }
+  }
+
+  interface Function4 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2, Object a3);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2], a[3]);
+    }
+  }
+
+  interface Function5 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2], a[3], a[4]);
+    }
+  }
+
+  interface Function6 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2], a[3], a[4], a[5]);
+    }
+  }
+
+  interface Function7 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2], a[3], a[4], a[5], a[6]);
+    }
+  }
+
+  interface Function8 extends Function
+  {
+    Object apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6, Object a7);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      return apply(r, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]);
+    }
+  }
+
+  interface Consumer0 extends Function
+  {
+    void apply(Object r);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r);
+      return null;
+    }
+  }
+
+  interface Consumer1 extends Function
+  {
+    void apply(Object r, Object a0);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0]);
+      return null;
+    }
+  }
+
+  interface Consumer2 extends Function
+  {
+    void apply(Object r, Object a0, Object a1);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1]);
+      return null;
+    }
+  }
+
+  interface Consumer3 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2]);
+      return null;
+    }
+  }
+
+  interface Consumer4 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2, Object a3);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2], a[3]);
+      return null;
+    }
+  }
+
+  interface Consumer5 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2], a[3], a[4]);
+      return null;
+    }
+  }
+
+  interface Consumer6 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2], a[3], a[4], a[5]);
+      return null;
+    }
+  }
+
+  interface Consumer7 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2], a[3], a[4], a[5], a[6]);
+      return null;
+    }
+  }
+
+  interface Consumer8 extends Function
+  {
+    void apply(Object r, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6, Object a7);
+
+    @Override
+    default Object call(Object r, Object[] a)
+    {
+      apply(r, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]);
+      return null;
+    }
+  }
+}
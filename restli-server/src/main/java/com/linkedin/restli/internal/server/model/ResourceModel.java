@@ -409,6 +409,14 @@ public class ResourceModel implements ResourceDefinition
     return _pathSubResourceMap.values();
   }
 
+  /**
+   * @return unmodifiable map of sub-resources keyed by path
+   */
+  public Map<String, ResourceModel> getSubResourceMap()
+  {
+    return Collections.unmodifiableMap(_pathSubResourceMap);
+  }
+
   @Override
   public Map<String, ResourceDefinition> getSubResourceDefinitions()
   {
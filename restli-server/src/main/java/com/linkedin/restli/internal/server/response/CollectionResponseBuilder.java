@@ -34,11 +34,13 @@ import com.linkedin.restli.server.CollectionResult;
 import com.linkedin.restli.server.CollectionResult.PageIncrement;
 import com.linkedin.restli.server.RestLiResponseData;
 import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.StreamingCollectionResult;
 import com.linkedin.restli.server.ProjectionMode;
 import com.linkedin.restli.server.ResourceContext;
 
 import java.net.HttpCookie;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -51,11 +53,20 @@ public abstract class CollectionResponseBuilder<D extends RestLiResponseData<? e
     CollectionResponseEnvelope response = responseData.getResponseEnvelope();
     RestLiResponse.Builder builder = new RestLiResponse.Builder();
     CollectionResponse<AnyRecord> collectionResponse = new CollectionResponse<>(AnyRecord.class);
-    collectionResponse.setPaging(response.getCollectionResponsePaging());
-    DataList elementsMap = (DataList) collectionResponse.data().get(CollectionResponse.ELEMENTS);
-    for (RecordTemplate entry : response.getCollectionResponse())
+    List<? extends RecordTemplate> elements = response.getCollectionResponse();
+    if (elements instanceof StreamingElements && ((StreamingElements) elements).isStreamable())
     {
-      CheckedUtil.addWithoutChecking(elementsMap, entry.data());
+      // The elements and the paging are added as the response is encoded
+      builder.streamingElements((StreamingElements) elements);
+    }
+    else
+    {
+      collectionResponse.setPaging(response.getCollectionResponsePaging());
+      DataList elementsMap = (DataList) collectionResponse.data().get(CollectionResponse.ELEMENTS);
+      for (RecordTemplate entry : elements)
+      {
+        CheckedUtil.addWithoutChecking(elementsMap, entry.data());
+      }
     }
     if (response.getCollectionResponseCustomMetadata() != null)
     {
@@ -93,6 +104,15 @@ public abstract class CollectionResponseBuilder<D extends RestLiResponseData<? e
       CollectionResult<? extends RecordTemplate, ? extends RecordTemplate> collectionResult =
           (CollectionResult<? extends RecordTemplate, ? extends RecordTemplate>) object;
 
+      if (collectionResult instanceof StreamingCollectionResult)
+      {
+        Iterator<? extends RecordTemplate> iterator = ((StreamingCollectionResult<?, ?>) collectionResult).takeIterator();
+        if (iterator != null)
+        {
+          return buildStreamingRestLiResponseData(request, routingResult, iterator, collectionResult, headers, cookies);
+        }
+      }
+
       //Verify that a null wasn't passed into the collection result. If so, this is a developer error.
       if (collectionResult.getElements() == null)
       {
@@ -107,7 +127,6 @@ public abstract class CollectionResponseBuilder<D extends RestLiResponseData<? e
     }
   }
 
-  @SuppressWarnings("unchecked")
   private D buildRestLiResponseData(final Request request,
                                     final RoutingResult routingResult,
                                     final List<? extends RecordTemplate> elements,
@@ -120,14 +139,60 @@ public abstract class CollectionResponseBuilder<D extends RestLiResponseData<? e
     //Extract the resource context that contains projection information for root object entities, metadata and paging.
     final ResourceContext resourceContext = routingResult.getContext();
 
-    //Calculate paging metadata and apply projection
-    final CollectionMetadata paging =
-        RestUtils.buildMetadata(request.getURI(), resourceContext, routingResult.getResourceMethod(),
-                                elements, pageIncrement, totalResults);
+    final CollectionMetadata projectedPaging =
+        buildPaging(request, routingResult, elements.size(), pageIncrement, totalResults);
 
     TimingContextUtil.beginTiming(resourceContext.getRawRequestContext(),
         FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_PROJECTION_APPLY.key());
 
+    //For root object entities
+    List<AnyRecord> processedElements = new ArrayList<>(elements.size());
+    for (RecordTemplate entry : elements)
+    {
+      processedElements.add(processElement(routingResult, entry));
+    }
+
+    final AnyRecord projectedCustomMetadata = processCustomMetadata(resourceContext, customMetadata);
+
+    TimingContextUtil.endTiming(resourceContext.getRawRequestContext(),
+        FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_PROJECTION_APPLY.key());
+
+    return buildResponseData(HttpStatus.S_200_OK, processedElements, projectedPaging, projectedCustomMetadata, headers, cookies);
+  }
+
+  /**
+   * Builds the response data of a {@link StreamingCollectionResult}, whose elements are processed as they are read from
+   * the iterator, and whose paging is built once they have all been read.
+   */
+  private D buildStreamingRestLiResponseData(final Request request,
+                                             final RoutingResult routingResult,
+                                             final Iterator<? extends RecordTemplate> iterator,
+                                             final CollectionResult<? extends RecordTemplate, ? extends RecordTemplate> collectionResult,
+                                             final Map<String, String> headers,
+                                             final List<HttpCookie> cookies)
+  {
+    final StreamingElements elements = new StreamingElements(iterator,
+        entry -> processElement(routingResult, entry),
+        count -> buildPaging(request, routingResult, count, collectionResult.getPageIncrement(), collectionResult.getTotal()));
+    final AnyRecord projectedCustomMetadata =
+        processCustomMetadata(routingResult.getContext(), collectionResult.getMetadata());
+    return buildResponseData(HttpStatus.S_200_OK, elements, null, projectedCustomMetadata, headers, cookies);
+  }
+
+  /**
+   * Calculates paging metadata and applies projection.
+   */
+  private static CollectionMetadata buildPaging(final Request request,
+                                                final RoutingResult routingResult,
+                                                final int resultCount,
+                                                final PageIncrement pageIncrement,
+                                                final Integer totalResults)
+  {
+    final ResourceContext resourceContext = routingResult.getContext();
+    final CollectionMetadata paging =
+        RestUtils.buildMetadata(request.getURI(), resourceContext, routingResult.getResourceMethod(),
+                                resultCount, pageIncrement, totalResults);
+
     //PagingMetadata cannot be null at this point so we skip the null check. Notice here that we are using automatic
     //intentionally since resource methods cannot explicitly project paging. However, it should be noted that client
     //resource methods have the option of selectively setting the total to null. This happens if a client decides
@@ -146,50 +211,41 @@ public abstract class CollectionResponseBuilder<D extends RestLiResponseData<? e
     {
       pagingData = (DataMap) ResponseUtils.fillInDataDefault(CollectionMetadata.dataSchema(), pagingData);
     }
-    final CollectionMetadata projectedPaging = new CollectionMetadata(RestUtils.projectFields(pagingData,
+    return new CollectionMetadata(RestUtils.projectFields(pagingData,
             ProjectionMode.AUTOMATIC, resourceContext.getPagingProjectionMask()));
+  }
 
-
-    //For root object entities
-    List<AnyRecord> processedElements = new ArrayList<>(elements.size());
-    for (RecordTemplate entry : elements)
+  private static AnyRecord processElement(final RoutingResult routingResult, final RecordTemplate entry)
+  {
+    //We don't permit null elements in our lists. If so, this is a developer error.
+    if (entry == null)
     {
-      //We don't permit null elements in our lists. If so, this is a developer error.
-      if (entry == null)
-      {
-        throw new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
-            "Unexpected null encountered. Null element inside of a List returned by the resource method: " + routingResult.getResourceMethod());
-      }
-      DataMap rawData = entry.data();
-      if (resourceContext.isFillInDefaultsRequested())
-      {
-        rawData = (DataMap) ResponseUtils.fillInDataDefault(entry.schema(), rawData);
-      }
-      processedElements.add(new AnyRecord(RestUtils.projectFields(rawData, resourceContext)));
+      throw new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+          "Unexpected null encountered. Null element inside of a List returned by the resource method: " + routingResult.getResourceMethod());
     }
+    final ResourceContext resourceContext = routingResult.getContext();
+    DataMap rawData = entry.data();
+    if (resourceContext.isFillInDefaultsRequested())
+    {
+      rawData = (DataMap) ResponseUtils.fillInDataDefault(entry.schema(), rawData);
+    }
+    return new AnyRecord(RestUtils.projectFields(rawData, resourceContext));
+  }
 
-    //Now for custom metadata
-    final AnyRecord projectedCustomMetadata;
-    if (customMetadata != null)
+  private static AnyRecord processCustomMetadata(final ResourceContext resourceContext, final RecordTemplate customMetadata)
+  {
+    if (customMetadata == null)
     {
-      DataMap customMetadataWithDefault = customMetadata.data();
-      if (resourceContext.isFillInDefaultsRequested())
-      {
-        customMetadataWithDefault = (DataMap) ResponseUtils.fillInDataDefault(customMetadata.schema(), customMetadataWithDefault);
-      }
-      projectedCustomMetadata = new AnyRecord(RestUtils
-          .projectFields(customMetadataWithDefault, resourceContext.getMetadataProjectionMode(),
-              resourceContext.getMetadataProjectionMask(), resourceContext.getAlwaysProjectedFields()));
+      return null;
     }
-    else
+    DataMap customMetadataWithDefault = customMetadata.data();
+    if (resourceContext.isFillInDefaultsRequested())
     {
-      projectedCustomMetadata = null;
+      customMetadataWithDefault = (DataMap) ResponseUtils.fillInDataDefault(customMetadata.schema(), customMetadataWithDefault);
     }
-
-    TimingContextUtil.endTiming(resourceContext.getRawRequestContext(),
-        FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_PROJECTION_APPLY.key());
-
-    return buildResponseData(HttpStatus.S_200_OK, processedElements, projectedPaging, projectedCustomMetadata, headers, cookies);
+    return new AnyRecord(RestUtils
+        .projectFields(customMetadataWithDefault, resourceContext.getMetadataProjectionMode(),
+            resourceContext.getMetadataProjectionMask(), resourceContext.getAlwaysProjectedFields()));
   }
 
   abstract D buildResponseData(HttpStatus status,
@@ -85,6 +85,11 @@ public abstract class CollectionResponseEnvelope extends RestLiResponseEnvelope
    */
   public CollectionMetadata getCollectionResponsePaging()
   {
+    if (_collectionResponsePaging == null && _collectionResponse instanceof StreamingElements)
+    {
+      // The paging of streamed elements is built once they have all been read
+      return ((StreamingElements) _collectionResponse).getPaging();
+    }
     return _collectionResponsePaging;
   }
 
@@ -28,6 +28,7 @@ import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.schema.TyperefDataSchema;
 import com.linkedin.data.schema.UnionDataSchema;
 import com.linkedin.entitystream.EntityStream;
+import com.linkedin.entitystream.EntityStreams;
 import com.linkedin.r2.message.rest.RestException;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
@@ -305,4 +306,26 @@ public class ResponseUtils
     StreamResponse response = responseBuilder.build(EntityStreamAdapters.fromGenericEntityStream(entityStream));
     return new StreamException(response, restLiResponseException.getCause());
   }
+
+  /**
+   * Encodes a collection response whose elements are read from a
+   * {@link com.linkedin.restli.server.StreamingCollectionResult} as they are written to the returned stream.
+   *
+   * @return the entity stream, or null if the response has no elements to stream or the content type is not JSON, in
+   *         which case the response should be encoded from its {@link RestLiResponse#getDataMap()}.
+   */
+  public static EntityStream<ByteString> encodeIncrementally(RestLiResponse restLiResponse, ContentType contentType)
+  {
+    if (!RestConstants.HEADER_VALUE_APPLICATION_JSON.equals(contentType.getHeaderKey()))
+    {
+      return null;
+    }
+    final StreamingElements elements = restLiResponse.takeStreamingElements();
+    if (elements == null)
+    {
+      return null;
+    }
+    return EntityStreams.newEntityStream(
+        new StreamingCollectionWriter(restLiResponse.getDataMap(), elements, contentType.getCodec()));
+  }
 }
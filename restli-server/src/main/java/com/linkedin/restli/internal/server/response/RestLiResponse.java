@@ -16,8 +16,11 @@
 
 package com.linkedin.restli.internal.server.response;
 
+import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.collections.CheckedUtil;
 import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.restli.common.CollectionResponse;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.IdResponse;
 import com.linkedin.restli.common.ProtocolVersion;
@@ -45,6 +48,7 @@ public class RestLiResponse
   private final RecordTemplate _record;
   private final Map<String, String> _headers;
   private final List<HttpCookie> _cookies;
+  private StreamingElements _streamingElements;
 
   /**
    * Constructor is made private intentionally. Use builder to construct a new object of
@@ -58,9 +62,11 @@ public class RestLiResponse
    *          Response headers.
    * @param cookies
    */
-  private RestLiResponse(final HttpStatus status, final RecordTemplate record, final Map<String, String> headers, final List<HttpCookie> cookies)
+  private RestLiResponse(final HttpStatus status, final RecordTemplate record, final Map<String, String> headers, final List<HttpCookie> cookies,
+      final StreamingElements streamingElements)
   {
     _record = record;
+    _streamingElements = streamingElements;
     _status = status;
     _cookies = cookies == null ? new ArrayList<>() : cookies;
     _headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
@@ -119,6 +125,7 @@ public class RestLiResponse
    */
   public DataMap getDataMap()
   {
+    addStreamingElements();
     return _record == null ? null : _record.data();
   }
 
@@ -139,15 +146,52 @@ public class RestLiResponse
    */
   public RecordTemplate getEntity()
   {
+    addStreamingElements();
     return _record;
   }
 
+  /**
+   * Takes the elements of a collection response to encode them as they are read. The entity no longer gets them
+   * afterwards.
+   *
+   * @return the elements, or null if this is not a collection response with elements which can be streamed.
+   */
+  synchronized StreamingElements takeStreamingElements()
+  {
+    if (_streamingElements == null || !_streamingElements.isStreamable())
+    {
+      return null;
+    }
+    final StreamingElements streamingElements = _streamingElements;
+    _streamingElements = null;
+    return streamingElements;
+  }
+
+  /**
+   * Reads the elements of a collection response which were not streamed into the entity.
+   */
+  private synchronized void addStreamingElements()
+  {
+    if (_streamingElements != null)
+    {
+      final CollectionResponse<?> collectionResponse = (CollectionResponse<?>) _record;
+      final DataList elements = (DataList) collectionResponse.data().get(CollectionResponse.ELEMENTS);
+      for (RecordTemplate element : _streamingElements)
+      {
+        CheckedUtil.addWithoutChecking(elements, element.data());
+      }
+      collectionResponse.setPaging(_streamingElements.getPaging());
+      _streamingElements = null;
+    }
+  }
+
   public static class Builder
   {
     private HttpStatus _status = HttpStatus.S_200_OK;
     private RecordTemplate _record;
     private Map<String, String> _headers;
     private List<HttpCookie> _cookies;
+    private StreamingElements _streamingElements;
 
     /**
      * Build with status.
@@ -198,6 +242,18 @@ public class RestLiResponse
       return this;
     }
 
+    /**
+     * Build with elements of a {@link CollectionResponse} entity which are read as the response is encoded.
+     *
+     * @param streamingElements elements which are not in the entity yet.
+     * @return Reference to this object.
+     */
+    Builder streamingElements(StreamingElements streamingElements)
+    {
+      _streamingElements = streamingElements;
+      return this;
+    }
+
     /**
      * Construct a {@link RestLiResponse} based on the builder configuration.
      *
@@ -216,7 +272,7 @@ public class RestLiResponse
         }
       }
 
-      return new RestLiResponse(_status, _record, _headers, _cookies);
+      return new RestLiResponse(_status, _record, _headers, _cookies, _streamingElements);
     }
   }
 }
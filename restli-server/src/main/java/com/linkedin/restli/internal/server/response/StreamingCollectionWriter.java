@@ -0,0 +1,137 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.response;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.DataCodec;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.entitystream.WriteHandle;
+import com.linkedin.entitystream.Writer;
+import com.linkedin.restli.common.CollectionResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+
+/**
+ * Writes a JSON collection response whose elements are encoded as they are read from {@link StreamingElements}.
+ *
+ * The elements are written first, each element being encoded on its own by the JSON codec, followed by the paging
+ * and the other fields of the envelope. Encoded elements are gathered into chunks of about {@link #CHUNK_SIZE} bytes,
+ * and a chunk is only produced when the entity stream can take it.
+ */
+final class StreamingCollectionWriter implements Writer<ByteString>
+{
+  static final int CHUNK_SIZE = 8 * 1024;
+
+  private static final byte[] ELEMENTS_START =
+      ("{\"" + CollectionResponse.ELEMENTS + "\":[").getBytes(StandardCharsets.UTF_8);
+
+  private final DataMap _envelope;
+  private final StreamingElements _elements;
+  private final DataCodec _codec;
+  private WriteHandle<? super ByteString> _writeHandle;
+  private Iterator<RecordTemplate> _iterator;
+  private boolean _empty = true;
+  private boolean _done;
+
+  /**
+   * @param envelope the collection response without its elements and paging.
+   * @param elements the elements to stream.
+   * @param codec the JSON codec.
+   */
+  StreamingCollectionWriter(DataMap envelope, StreamingElements elements, DataCodec codec)
+  {
+    _envelope = envelope;
+    _elements = elements;
+    _codec = codec;
+  }
+
+  @Override
+  public void onInit(WriteHandle<? super ByteString> wh)
+  {
+    _writeHandle = wh;
+  }
+
+  @Override
+  public void onWritePossible()
+  {
+    while (_writeHandle.remaining() > 0)
+    {
+      if (_done)
+      {
+        _writeHandle.done();
+        break;
+      }
+
+      final ByteString chunk;
+      try
+      {
+        chunk = nextChunk();
+      }
+      catch (Exception e)
+      {
+        _done = true;
+        _writeHandle.error(e);
+        break;
+      }
+      _writeHandle.write(chunk);
+    }
+  }
+
+  @Override
+  public void onAbort(Throwable e)
+  {
+    // Nothing is held besides the iterator, which is no longer read
+  }
+
+  private ByteString nextChunk() throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(CHUNK_SIZE);
+    if (_iterator == null)
+    {
+      _iterator = _elements.streamElements();
+      out.write(ELEMENTS_START);
+    }
+
+    while (out.size() < CHUNK_SIZE && _iterator.hasNext())
+    {
+      if (!_empty)
+      {
+        out.write(',');
+      }
+      out.write(_codec.mapToBytes(_iterator.next().data()));
+      _empty = false;
+    }
+
+    if (!_iterator.hasNext())
+    {
+      out.write(']');
+      final DataMap rest = new DataMap(_envelope);
+      rest.remove(CollectionResponse.ELEMENTS);
+      rest.put(CollectionResponse.PAGING, _elements.getPaging().data());
+      // The rest is never empty since it has the paging; write its fields without the enclosing braces
+      final byte[] restBytes = _codec.mapToBytes(rest);
+      out.write(',');
+      out.write(restBytes, 1, restBytes.length - 1);
+      _done = true;
+    }
+    return ByteString.unsafeWrap(out.toByteArray());
+  }
+}
@@ -0,0 +1,148 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.response;
+
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.restli.common.CollectionMetadata;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+
+/**
+ * Elements of a collection response built from a {@link com.linkedin.restli.server.StreamingCollectionResult}, which
+ * are processed as they are read from the iterator of the resource.
+ *
+ * The elements are either {@link #streamElements() streamed} once by the response encoder, without being kept, or
+ * read into a list as soon as they are accessed through the {@link List} interface. The paging of the response depends on the
+ * number of elements, so it is only available once all the elements have been read.
+ */
+public final class StreamingElements extends AbstractList<RecordTemplate>
+{
+  private final Iterator<? extends RecordTemplate> _source;
+  private final Function<RecordTemplate, RecordTemplate> _processor;
+  private final IntFunction<CollectionMetadata> _paging;
+  private List<RecordTemplate> _elements;
+  private boolean _streaming;
+  private int _streamedCount;
+  private CollectionMetadata _pagingResult;
+
+  /**
+   * @param source iterator of the resource.
+   * @param processor validates and projects an element.
+   * @param paging builds the paging of the response from the number of elements.
+   */
+  StreamingElements(Iterator<? extends RecordTemplate> source,
+      Function<RecordTemplate, RecordTemplate> processor,
+      IntFunction<CollectionMetadata> paging)
+  {
+    _source = source;
+    _processor = processor;
+    _paging = paging;
+  }
+
+  @Override
+  public RecordTemplate get(int index)
+  {
+    return elements().get(index);
+  }
+
+  @Override
+  public int size()
+  {
+    return elements().size();
+  }
+
+  /**
+   * @return true if the elements can still be streamed.
+   */
+  public synchronized boolean isStreamable()
+  {
+    return !_streaming && _elements == null;
+  }
+
+  /**
+   * Streams the elements. Can only be used once, and only while the elements are {@link #isStreamable() streamable}.
+   */
+  public synchronized Iterator<RecordTemplate> streamElements()
+  {
+    if (!isStreamable())
+    {
+      throw new IllegalStateException("The elements have already been read");
+    }
+    _streaming = true;
+    return new Iterator<RecordTemplate>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return _source.hasNext();
+      }
+
+      @Override
+      public RecordTemplate next()
+      {
+        if (!_source.hasNext())
+        {
+          throw new NoSuchElementException();
+        }
+        final RecordTemplate element = _processor.apply(_source.next());
+        synchronized (StreamingElements.this)
+        {
+          _streamedCount++;
+        }
+        return element;
+      }
+    };
+  }
+
+  /**
+   * @return the paging of the response, reading the remaining elements into a list unless they are being streamed.
+   * @throws IllegalStateException if the elements are being streamed and have not all been read yet.
+   */
+  public synchronized CollectionMetadata getPaging()
+  {
+    if (_pagingResult == null)
+    {
+      if (_streaming && _source.hasNext())
+      {
+        throw new IllegalStateException("The paging is not known until all the elements are streamed");
+      }
+      _pagingResult = _paging.apply(_streaming ? _streamedCount : elements().size());
+    }
+    return _pagingResult;
+  }
+
+  private synchronized List<RecordTemplate> elements()
+  {
+    if (_elements == null)
+    {
+      if (_streaming)
+      {
+        throw new IllegalStateException("The elements have already been streamed");
+      }
+      final List<RecordTemplate> elements = new ArrayList<>();
+      _source.forEachRemaining(element -> elements.add(_processor.apply(element)));
+      _elements = elements;
+    }
+    return _elements;
+  }
+}
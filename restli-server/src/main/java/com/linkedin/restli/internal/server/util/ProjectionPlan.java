@@ -0,0 +1,412 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.collections.CheckedUtil;
+import com.linkedin.data.transform.filter.CopyFilter;
+import com.linkedin.data.transform.filter.FilterConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+
+/**
+ * A projection mask compiled for repeated use, producing the same result as {@link CopyFilter}.
+ *
+ * Masks made of positive fields, which is what clients send in {@code fields} query parameters, are compiled into a
+ * tree of field names. Projecting an entity then only looks up the selected fields, instead of evaluating the mask
+ * against every field of the entity. Within such masks, the items of arrays and the values of maps may be projected
+ * by a wildcard ({@code $*}) mask of positive fields, and arrays may be cut to a range ({@code $start} and
+ * {@code $count}). Masks with negations, with wildcards next to fields, or with escaped field names are delegated to
+ * {@link CopyFilter}.
+ *
+ * Plans project entities into new data maps, which the response builders hand to the filters as the response data,
+ * so the projection is not applied by the codecs while encoding the response. The codecs writing the size of a map
+ * before its entries could not skip fields while writing either.
+ *
+ * Plans are cached by mask content, so the same mask is compiled once across requests. Looking a plan up hashes the
+ * whole mask, so callers projecting several entities with the same mask should look it up once and keep it, as
+ * {@link com.linkedin.restli.internal.server.ResourceContextImpl#getProjectionPlan()} does for a request.
+ */
+public final class ProjectionPlan
+{
+  private static final int CACHE_SIZE = 1000;
+  private static final Cache<PlanKey, ProjectionPlan> PLANS = Caffeine.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private static final DataList EMPTY_DATALIST = new DataList();
+  static
+  {
+    EMPTY_DATALIST.makeReadOnly();
+  }
+
+  private final DataMap _mask;
+  private final Set<String> _alwaysIncludedFields;
+  private final Node _root;
+
+  private ProjectionPlan(DataMap mask, Set<String> alwaysIncludedFields)
+  {
+    _mask = mask;
+    _alwaysIncludedFields = alwaysIncludedFields;
+    _root = compile(mask, alwaysIncludedFields);
+  }
+
+  /**
+   * Returns the plan of the given mask, compiling it if it is not cached yet.
+   *
+   * @param mask data map of the projection {@link com.linkedin.data.transform.filter.request.MaskTree}.
+   * @param alwaysIncludedFields fields included whatever the mask.
+   */
+  public static ProjectionPlan forMask(DataMap mask, Set<String> alwaysIncludedFields)
+  {
+    final Set<String> fields = alwaysIncludedFields == null ? Collections.emptySet() : alwaysIncludedFields;
+    final ProjectionPlan cached = PLANS.getIfPresent(new PlanKey(mask, fields));
+    if (cached != null)
+    {
+      return cached;
+    }
+
+    final ProjectionPlan plan = new ProjectionPlan(readOnlyCopy(mask), Collections.unmodifiableSet(new HashSet<>(fields)));
+    PLANS.put(new PlanKey(plan._mask, plan._alwaysIncludedFields), plan);
+    return plan;
+  }
+
+  /**
+   * @return true if the mask was compiled, false if projections are delegated to {@link CopyFilter}.
+   */
+  boolean isCompiled()
+  {
+    return _root != null;
+  }
+
+  /**
+   * Projects an entity. Selected values are shared with the given data map, as with {@link CopyFilter}.
+   *
+   * @throws RuntimeException if the mask selects fields of a primitive value.
+   */
+  public DataMap project(DataMap data)
+  {
+    if (_root == null)
+    {
+      return (DataMap) new CopyFilter(_alwaysIncludedFields).filter(data, _mask);
+    }
+    return project(data, _root);
+  }
+
+  private static DataMap project(DataMap data, Node node)
+  {
+    if (node._fields == null)
+    {
+      return projectEntries(data, node);
+    }
+
+    final Object[] values = new Object[node._fields.length + node._extraFields.length];
+    int count = 0;
+    for (int i = 0; i < node._fields.length; i++)
+    {
+      final Object value = data.get(node._fields[i]);
+      if (value != null)
+      {
+        values[i] = node._children[i] == null ? value : projectChild(node._fields[i], value, node._children[i]);
+        count++;
+      }
+    }
+    for (int i = 0; i < node._extraFields.length; i++)
+    {
+      final Object value = data.get(node._extraFields[i]);
+      if (value != null)
+      {
+        values[node._fields.length + i] = value;
+        count++;
+      }
+    }
+
+    // Same initial capacity as CopyFilter, so that projected maps are laid out the same way
+    final DataMap result = new DataMap((int) (count / 0.75f) + 1);
+    for (int i = 0; i < values.length; i++)
+    {
+      if (values[i] != null)
+      {
+        final String field = i < node._fields.length ? node._fields[i] : node._extraFields[i - node._fields.length];
+        CheckedUtil.putWithoutChecking(result, field, values[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Projects the values of a map by a wildcard mask. Primitive values and always included fields are kept as is, and
+   * a range alone selects no entry.
+   */
+  private static DataMap projectEntries(DataMap data, Node node)
+  {
+    if (node._wildcard == null)
+    {
+      return new DataMap(1);
+    }
+
+    final DataMap result = new DataMap((int) (data.size() / 0.75f) + 1);
+    for (Map.Entry<String, Object> entry : data.entrySet())
+    {
+      final Object value = entry.getValue();
+      final boolean complex = value.getClass() == DataMap.class || value.getClass() == DataList.class;
+      CheckedUtil.putWithoutChecking(result, entry.getKey(),
+          complex && !node._alwaysIncludedFields.contains(entry.getKey())
+              ? projectChild(entry.getKey(), value, node._wildcard) : value);
+    }
+    return result;
+  }
+
+  private static Object projectChild(String field, Object value, Node child)
+  {
+    if (value.getClass() == DataMap.class)
+    {
+      return project((DataMap) value, child);
+    }
+    if (value.getClass() == DataList.class)
+    {
+      return projectList(field, (DataList) value, child);
+    }
+    throw new RuntimeException(
+        String.format("data is of primitive value: %1$s, but filter for field %2$s is complex", value, field));
+  }
+
+  private static DataList projectList(String field, DataList list, Node node)
+  {
+    // Field masks do not apply to array items, so the range of the array is copied as is unless there is a wildcard
+    final int start = node._fields == null ? node._start : 0;
+    final int end = node._fields == null ? (int) Math.min((long) start + node._count, list.size()) : list.size();
+    if (start >= end)
+    {
+      return EMPTY_DATALIST;
+    }
+    final DataList result = new DataList(end - start);
+    for (int i = start; i < end; i++)
+    {
+      final Object item = list.get(i);
+      CheckedUtil.addWithoutChecking(result, node._fields == null && node._wildcard != null
+          ? projectItem(field, item, node._wildcard) : item);
+    }
+    return result;
+  }
+
+  private static Object projectItem(String field, Object item, Node wildcard)
+  {
+    if (item.getClass() == DataMap.class || item.getClass() == DataList.class)
+    {
+      return projectChild(field, item, wildcard);
+    }
+    throw new RuntimeException(
+        String.format("Data type in instruction must be DataMap or DataList, but is: %1$s", item.getClass().getName()));
+  }
+
+  /**
+   * @return the compiled mask, or null if the mask is to be evaluated by {@link CopyFilter}.
+   */
+  private static Node compile(DataMap mask, Set<String> alwaysIncludedFields)
+  {
+    if (mask.isEmpty())
+    {
+      return null;
+    }
+    if (mask.containsKey(FilterConstants.WILDCARD) || mask.containsKey(FilterConstants.START)
+        || mask.containsKey(FilterConstants.COUNT))
+    {
+      return compileWildcard(mask, alwaysIncludedFields);
+    }
+
+    final List<String> fields = new ArrayList<>(mask.size());
+    final List<Node> children = new ArrayList<>(mask.size());
+    for (Map.Entry<String, Object> entry : mask.entrySet())
+    {
+      final String field = entry.getKey();
+      final Object operation = entry.getValue();
+      if (field.indexOf('$') >= 0)
+      {
+        return null;
+      }
+
+      Node child = null;
+      if (operation instanceof DataMap)
+      {
+        child = compile((DataMap) operation, alwaysIncludedFields);
+        if (child == null)
+        {
+          return null;
+        }
+      }
+      else if (!FilterConstants.POSITIVE.equals(operation))
+      {
+        return null;
+      }
+
+      fields.add(field);
+      // Always included fields override the mask
+      children.add(alwaysIncludedFields.contains(field) ? null : child);
+    }
+
+    final List<String> extraFields = new ArrayList<>();
+    for (String field : alwaysIncludedFields)
+    {
+      if (!mask.containsKey(field))
+      {
+        extraFields.add(field);
+      }
+    }
+
+    return new Node(fields.toArray(new String[0]), children.toArray(new Node[0]), extraFields.toArray(new String[0]));
+  }
+
+  /**
+   * @return the compiled mask made of a wildcard mask of positive fields and of a range, or null if the mask has
+   *         anything else.
+   */
+  private static Node compileWildcard(DataMap mask, Set<String> alwaysIncludedFields)
+  {
+    Node wildcard = null;
+    int start = 0;
+    int count = Integer.MAX_VALUE;
+    for (Map.Entry<String, Object> entry : mask.entrySet())
+    {
+      final Object operation = entry.getValue();
+      switch (entry.getKey())
+      {
+        case FilterConstants.WILDCARD:
+          wildcard = operation instanceof DataMap ? compile((DataMap) operation, alwaysIncludedFields) : null;
+          if (wildcard == null)
+          {
+            return null;
+          }
+          break;
+        case FilterConstants.START:
+          if (!(operation instanceof Integer) || (Integer) operation < 0)
+          {
+            return null;
+          }
+          start = (Integer) operation;
+          break;
+        case FilterConstants.COUNT:
+          if (!(operation instanceof Integer) || (Integer) operation < 0)
+          {
+            return null;
+          }
+          count = (Integer) operation;
+          break;
+        default:
+          return null;
+      }
+    }
+    return new Node(wildcard, start, count, alwaysIncludedFields);
+  }
+
+  private static DataMap readOnlyCopy(DataMap mask)
+  {
+    if (mask.isReadOnly())
+    {
+      return mask;
+    }
+    try
+    {
+      final DataMap copy = mask.copy();
+      copy.makeReadOnly();
+      return copy;
+    }
+    catch (CloneNotSupportedException e)
+    {
+      throw new IllegalStateException("Could not copy projection mask: " + mask, e);
+    }
+  }
+
+  /**
+   * Compiled mask, either of fields or of a wildcard and a range. A null child means the field is included as is.
+   */
+  private static final class Node
+  {
+    // Mask of fields
+    private final String[] _fields;
+    private final Node[] _children;
+    private final String[] _extraFields;
+
+    // Mask of a wildcard and a range, when there are no fields
+    private final Node _wildcard;
+    private final int _start;
+    private final int _count;
+    private final Set<String> _alwaysIncludedFields;
+
+    private Node(String[] fields, Node[] children, String[] extraFields)
+    {
+      _fields = fields;
+      _children = children;
+      _extraFields = extraFields;
+      _wildcard = null;
+      _start = 0;
+      _count = Integer.MAX_VALUE;
+      _alwaysIncludedFields = null;
+    }
+
+    private Node(Node wildcard, int start, int count, Set<String> alwaysIncludedFields)
+    {
+      _fields = null;
+      _children = null;
+      _extraFields = null;
+      _wildcard = wildcard;
+      _start = start;
+      _count = count;
+      _alwaysIncludedFields = alwaysIncludedFields;
+    }
+  }
+
+  private static final class PlanKey
+  {
+    private final DataMap _mask;
+    private final Set<String> _alwaysIncludedFields;
+
+    private PlanKey(DataMap mask, Set<String> alwaysIncludedFields)
+    {
+      _mask = mask;
+      _alwaysIncludedFields = alwaysIncludedFields;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass())
+      {
+        return false;
+      }
+      final PlanKey other = (PlanKey) o;
+      return _mask.equals(other._mask) && _alwaysIncludedFields.equals(other._alwaysIncludedFields);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(_mask, _alwaysIncludedFields);
+    }
+  }
+}
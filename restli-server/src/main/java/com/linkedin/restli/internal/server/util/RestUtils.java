@@ -25,7 +25,6 @@ import com.linkedin.data.it.IterationOrder;
 import com.linkedin.data.it.Predicate;
 import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.data.transform.filter.CopyFilter;
 import com.linkedin.data.transform.filter.request.MaskTree;
 import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.r2.message.RequestContext;
@@ -35,6 +34,7 @@ import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.Link;
 import com.linkedin.restli.common.LinkArray;
 import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.ResourceContextImpl;
 import com.linkedin.restli.internal.server.RestLiInternalException;
 import com.linkedin.restli.internal.server.ServerResourceContext;
 import com.linkedin.restli.internal.server.model.Parameter;
@@ -66,6 +66,20 @@ public class RestUtils
                                                  final List<?> resultElements,
                                                  final PageIncrement pageIncrement,
                                                  final Integer totalResults)
+  {
+    return buildMetadata(requestUri, resourceContext, methodDescriptor, resultElements.size(), pageIncrement, totalResults);
+  }
+
+  /**
+   * Same as {@link #buildMetadata(URI, ResourceContext, ResourceMethodDescriptor, List, PageIncrement, Integer)}, for
+   * results whose number of elements is known without a list of them.
+   */
+  public static CollectionMetadata buildMetadata(final URI requestUri,
+                                                 final ResourceContext resourceContext,
+                                                 final ResourceMethodDescriptor methodDescriptor,
+                                                 final int resultCount,
+                                                 final PageIncrement pageIncrement,
+                                                 final Integer totalResults)
   {
     CollectionMetadata metadata = new CollectionMetadata();
 
@@ -108,7 +122,7 @@ public class RestUtils
       }
 
       // next link if there are more results, or we returned a full page
-      Integer nextStart = getNextPageStart(resultElements.size(), totalResults, pagingContext, pageIncrement);
+      Integer nextStart = getNextPageStart(resultCount, totalResults, pagingContext, pageIncrement);
       if (nextStart != null)
       {
         // R2 doesn't expose host/port => can't build absolute URI (this is ok, as
@@ -268,8 +282,11 @@ public class RestUtils
    */
   public static DataMap projectFields(final DataMap dataMap, final ResourceContext resourceContext)
   {
+    // The plan of the request is kept by its context, so that the mask is not looked up again for every entity
+    final ProjectionPlan plan = resourceContext instanceof ResourceContextImpl
+        ? ((ResourceContextImpl) resourceContext).getProjectionPlan() : null;
     return projectFields(dataMap, resourceContext.getProjectionMode(), resourceContext.getProjectionMask(),
-        resourceContext.getAlwaysProjectedFields());
+        resourceContext.getAlwaysProjectedFields(), plan);
   }
 
   /**
@@ -284,6 +301,15 @@ public class RestUtils
    */
   public static DataMap projectFields(final DataMap dataMap, final ProjectionMode projectionMode,
       final MaskTree projectionMask, Set<String> alwaysIncludedFields)
+  {
+    return projectFields(dataMap, projectionMode, projectionMask, alwaysIncludedFields, null);
+  }
+
+  /**
+   * @param plan plan of the projection mask and of the always included fields, or null to look it up.
+   */
+  private static DataMap projectFields(final DataMap dataMap, final ProjectionMode projectionMode,
+      final MaskTree projectionMask, Set<String> alwaysIncludedFields, ProjectionPlan plan)
   {
     if (projectionMode == ProjectionMode.MANUAL)
     {
@@ -304,7 +330,7 @@ public class RestUtils
 
     try
     {
-      return (DataMap) new CopyFilter(alwaysIncludedFields).filter(dataMap, filterMap);
+      return (plan != null ? plan : ProjectionPlan.forMask(filterMap, alwaysIncludedFields)).project(dataMap);
     }
     catch (Exception e)
     {
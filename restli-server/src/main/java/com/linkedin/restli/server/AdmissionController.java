@@ -0,0 +1,390 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.stream.StreamException;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.RoutingResult;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.response.RestLiResponseException;
+import com.linkedin.restli.server.config.ResourceMethodConfig;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Limits the number of concurrent requests to resource methods, and rejects the requests above the limit with a 503
+ * right after routing, before their body is decoded. Set it with
+ * {@link RestLiConfig#setAdmissionController(AdmissionController)}, and enable it for resource methods with
+ * {@link com.linkedin.restli.server.config.RestLiMethodConfigBuilder#addConcurrencyLimit(String, int)}.
+ *
+ * Each limited resource method has its own {@link Limiter}, whose limit adapts to the latency of the method: it grows
+ * while the latency stays close to the lowest latency seen, and shrinks when the latency rises, which means requests
+ * are queueing somewhere in the server, or when requests fail with a 503 or a timeout. The configured concurrency limit
+ * of the method is the upper bound of the adaptive limit.
+ *
+ * Requests may carry a {@link RestConstants#HEADER_RESTLI_PRIORITY} header. {@link Priority#SHEDDABLE} requests are
+ * rejected first, and {@link Priority#CRITICAL} requests last. A request is counted until its response is returned,
+ * which for a streamed response is when the response starts.
+ */
+public class AdmissionController
+{
+  public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+  static final int MIN_LIMIT = 1;
+  static final double BACKOFF_RATIO = 0.9;
+  static final double SMOOTHING = 0.2;
+  static final double LATENCY_SMOOTHING = 0.1;
+  static final double MIN_GRADIENT = 0.5;
+  static final int MIN_LATENCY_RESET_SAMPLES = 1000;
+
+  /**
+   * Priority of a request, read from the {@link RestConstants#HEADER_RESTLI_PRIORITY} header.
+   */
+  public enum Priority
+  {
+    /**
+     * Admitted as long as the limit is not reached.
+     */
+    CRITICAL(1.0),
+    /**
+     * Rejected once 90% of the limit is used. This is the priority of requests without a valid priority header.
+     */
+    DEFAULT(0.9),
+    /**
+     * Rejected once half of the limit is used.
+     */
+    SHEDDABLE(0.5);
+
+    private final double _share;
+
+    Priority(double share)
+    {
+      _share = share;
+    }
+
+    static Priority fromHeader(String header)
+    {
+      if (header != null)
+      {
+        for (Priority priority : values())
+        {
+          if (priority.name().equalsIgnoreCase(header.trim()))
+          {
+            return priority;
+          }
+        }
+      }
+      return DEFAULT;
+    }
+  }
+
+  private final int _initialLimit;
+  private final LongSupplier _nanoClock;
+  private final ConcurrentMap<ResourceMethodDescriptor, Limiter> _limiters = new ConcurrentHashMap<>();
+
+  public AdmissionController()
+  {
+    this(DEFAULT_INITIAL_LIMIT);
+  }
+
+  /**
+   * @param initialLimit concurrency limit of a resource method before it adapts to the latency of the method. It is
+   *                     capped by the configured concurrency limit of the method.
+   */
+  public AdmissionController(int initialLimit)
+  {
+    this(initialLimit, System::nanoTime);
+  }
+
+  AdmissionController(int initialLimit, LongSupplier nanoClock)
+  {
+    if (initialLimit < MIN_LIMIT)
+    {
+      throw new IllegalArgumentException("Invalid initial concurrency limit: " + initialLimit);
+    }
+    _initialLimit = initialLimit;
+    _nanoClock = nanoClock;
+  }
+
+  /**
+   * @return the limiters of the resource methods which received requests, by resource method identifier.
+   */
+  public Map<String, Limiter> getLimiters()
+  {
+    final Map<String, Limiter> limiters = new TreeMap<>();
+    _limiters.forEach((method, limiter) -> limiters.put(method.getResourceMethodIdentifier(), limiter));
+    return Collections.unmodifiableMap(limiters);
+  }
+
+  /**
+   * @return number of requests rejected by all the limiters.
+   */
+  public long getShedCount()
+  {
+    return _limiters.values().stream().mapToLong(Limiter::getShedCount).sum();
+  }
+
+  /**
+   * @return true if the number of concurrent requests to the resource method is limited.
+   */
+  static boolean isLimited(RoutingResult routingResult)
+  {
+    final ResourceMethodConfig config = routingResult.getResourceMethodConfig();
+    return config != null && config.getConcurrencyLimit() > 0;
+  }
+
+  /**
+   * Admits a request to a limited resource method.
+   *
+   * @return the permit of the request, to release when the request completes.
+   * @throws RestLiServiceException with a 503 status if the request is rejected.
+   */
+  Permit acquire(Request request, RoutingResult routingResult)
+  {
+    final ResourceMethodDescriptor method = routingResult.getResourceMethod();
+    final Limiter limiter = _limiters.computeIfAbsent(method,
+        m -> new Limiter(routingResult.getResourceMethodConfig().getConcurrencyLimit(), _initialLimit));
+    final Priority priority = Priority.fromHeader(request.getHeaders().get(RestConstants.HEADER_RESTLI_PRIORITY));
+    if (!limiter.tryAcquire(priority))
+    {
+      throw new RestLiServiceException(HttpStatus.S_503_SERVICE_UNAVAILABLE,
+          "Too many concurrent requests to " + method.getResourceMethodIdentifier());
+    }
+    return new Permit(limiter, _nanoClock);
+  }
+
+  /**
+   * @return true if the error shows that the server is overloaded.
+   */
+  static boolean isOverloadError(Throwable error)
+  {
+    final int status;
+    if (error instanceof RestLiResponseException)
+    {
+      status = ((RestLiResponseException) error).getRestLiResponse().getStatus().getCode();
+    }
+    else if (error instanceof RestException)
+    {
+      status = ((RestException) error).getResponse().getStatus();
+    }
+    else if (error instanceof StreamException)
+    {
+      status = ((StreamException) error).getResponse().getStatus();
+    }
+    else if (error instanceof RestLiServiceException)
+    {
+      status = ((RestLiServiceException) error).getStatus().getCode();
+    }
+    else
+    {
+      return error instanceof TimeoutException || error.getCause() instanceof TimeoutException;
+    }
+    return status == HttpStatus.S_503_SERVICE_UNAVAILABLE.getCode() || status == HttpStatus.S_504_GATEWAY_TIMEOUT.getCode();
+  }
+
+  /**
+   * Adaptive concurrency limit of a resource method, with its metrics.
+   */
+  public static final class Limiter
+  {
+    private final int _maxLimit;
+    private double _limit;
+    private int _inFlight;
+    private long _admittedCount;
+    private long _shedCount;
+    private long _minLatencyNanos = Long.MAX_VALUE;
+    private double _smoothedLatencyNanos;
+    private int _samples;
+
+    Limiter(int maxLimit, int initialLimit)
+    {
+      _maxLimit = maxLimit;
+      _limit = Math.min(maxLimit, initialLimit);
+    }
+
+    synchronized boolean tryAcquire(Priority priority)
+    {
+      final int allowed = Math.max(MIN_LIMIT, (int) (_limit * priority._share));
+      if (_inFlight >= allowed)
+      {
+        _shedCount++;
+        return false;
+      }
+      _inFlight++;
+      _admittedCount++;
+      return true;
+    }
+
+    synchronized void release(long latencyNanos, boolean overloaded)
+    {
+      // The limit may only grow if it was actually used, otherwise the latency says nothing about it
+      final boolean limitUsed = _inFlight * 2 >= _limit;
+      _inFlight--;
+
+      if (overloaded)
+      {
+        _limit = Math.max(MIN_LIMIT, _limit * BACKOFF_RATIO);
+        return;
+      }
+
+      // Periodically forget the lowest latency, so that the limit recovers if the method became slower for good
+      if (++_samples >= MIN_LATENCY_RESET_SAMPLES)
+      {
+        _samples = 0;
+        _minLatencyNanos = latencyNanos;
+      }
+      _minLatencyNanos = Math.min(_minLatencyNanos, latencyNanos);
+      _smoothedLatencyNanos = _smoothedLatencyNanos == 0
+          ? latencyNanos
+          : _smoothedLatencyNanos * (1 - LATENCY_SMOOTHING) + latencyNanos * LATENCY_SMOOTHING;
+
+      final double gradient = _smoothedLatencyNanos == 0
+          ? 1.0
+          : Math.max(MIN_GRADIENT, Math.min(1.0, _minLatencyNanos / _smoothedLatencyNanos));
+      // The square root of the limit is the number of requests allowed to queue while the latency is stable
+      double newLimit = _limit * gradient + Math.sqrt(_limit);
+      if (newLimit > _limit && !limitUsed)
+      {
+        return;
+      }
+      newLimit = _limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+      _limit = Math.max(MIN_LIMIT, Math.min(_maxLimit, newLimit));
+    }
+
+    /**
+     * @return current concurrency limit.
+     */
+    public synchronized int getLimit()
+    {
+      return (int) _limit;
+    }
+
+    /**
+     * @return configured maximum of the concurrency limit.
+     */
+    public int getMaxLimit()
+    {
+      return _maxLimit;
+    }
+
+    /**
+     * @return number of admitted requests which have not completed yet.
+     */
+    public synchronized int getInFlight()
+    {
+      return _inFlight;
+    }
+
+    /**
+     * @return number of admitted requests.
+     */
+    public synchronized long getAdmittedCount()
+    {
+      return _admittedCount;
+    }
+
+    /**
+     * @return number of rejected requests.
+     */
+    public synchronized long getShedCount()
+    {
+      return _shedCount;
+    }
+
+    /**
+     * @return estimated time requests spend queueing, which is the smoothed latency above the lowest latency seen.
+     */
+    public synchronized double getQueueingDelayMs()
+    {
+      if (_minLatencyNanos == Long.MAX_VALUE)
+      {
+        return 0;
+      }
+      return Math.max(0, _smoothedLatencyNanos - _minLatencyNanos) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+
+  /**
+   * An admitted request, counted by its limiter until it is released.
+   */
+  static final class Permit
+  {
+    private final Limiter _limiter;
+    private final LongSupplier _nanoClock;
+    private final long _startNanos;
+    private boolean _released;
+
+    private Permit(Limiter limiter, LongSupplier nanoClock)
+    {
+      _limiter = limiter;
+      _nanoClock = nanoClock;
+      _startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Releases the permit. Only the first call has an effect.
+     *
+     * @param error the error of the request, or null if it succeeded.
+     */
+    void release(Throwable error)
+    {
+      synchronized (this)
+      {
+        if (_released)
+        {
+          return;
+        }
+        _released = true;
+      }
+      _limiter.release(_nanoClock.getAsLong() - _startNanos, error != null && isOverloadError(error));
+    }
+
+    /**
+     * @return a callback which releases the permit before completing the given callback.
+     */
+    <T> Callback<T> releaseOnCompletion(Callback<T> callback)
+    {
+      return new Callback<T>()
+      {
+        @Override
+        public void onError(Throwable e)
+        {
+          release(e);
+          callback.onError(e);
+        }
+
+        @Override
+        public void onSuccess(T result)
+        {
+          release(null);
+          callback.onSuccess(result);
+        }
+      };
+    }
+  }
+}
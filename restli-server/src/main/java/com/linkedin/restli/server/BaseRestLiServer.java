@@ -7,6 +7,7 @@ import com.linkedin.r2.message.Request;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.timing.FrameworkTimingKeys;
 import com.linkedin.r2.message.timing.TimingContextUtil;
+import com.linkedin.r2.util.RequestTimeoutUtil;
 import com.linkedin.restli.common.ContentType;
 import com.linkedin.restli.common.ErrorResponse;
 import com.linkedin.restli.common.HttpStatus;
@@ -45,6 +46,7 @@ import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
 import com.linkedin.restli.server.filter.Filter;
 import com.linkedin.restli.server.filter.FilterRequestContext;
 import com.linkedin.restli.server.resources.ResourceFactory;
+import com.linkedin.util.clock.SystemClock;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -52,6 +54,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
@@ -75,6 +78,9 @@ abstract class BaseRestLiServer
   private final ResourceMethodConfigProvider _methodConfigProvider;
   private final boolean _fillInDefaultValueConfigured;
   private final MethodAdapterProvider _methodAdapterProvider;
+  private final RequestParseCache _requestParseCache;
+  private final AdmissionController _admissionController;
+  private final ResponseCache _responseCache;
 
   BaseRestLiServer(RestLiConfig config,
       ResourceFactory resourceFactory,
@@ -88,7 +94,9 @@ abstract class BaseRestLiServer
 
     _router = new RestLiRouter(rootResources, config);
     resourceFactory.setRootResources(rootResources);
-    _methodInvoker = new RestLiMethodInvoker(resourceFactory, engine, config.getInternalErrorMessage());
+    _methodConfigProvider = ResourceMethodConfigProvider.build(config.getMethodConfig());
+    _methodInvoker = new RestLiMethodInvoker(resourceFactory, engine, config.getInternalErrorMessage(),
+        _methodConfigProvider);
 
     _errorResponseBuilder = new ErrorResponseBuilder(config.getErrorResponseFormat());
     _methodAdapterProvider = config.getMethodAdapterProvider();
@@ -96,8 +104,9 @@ abstract class BaseRestLiServer
 
     _filters = config.getFilters() != null ? config.getFilters() : new ArrayList<>();
     _fillInDefaultValueConfigured = config.shouldFillInDefaultValues();
-
-    _methodConfigProvider = ResourceMethodConfigProvider.build(config.getMethodConfig());
+    _requestParseCache = config.getRequestParseCache();
+    _admissionController = config.getAdmissionController();
+    _responseCache = config.getResponseCache();
   }
 
   /**
@@ -118,7 +127,9 @@ abstract class BaseRestLiServer
 
     _router = new RestLiRouter(rootResources, config);
     resourceFactory.setRootResources(rootResources);
-    _methodInvoker = new RestLiMethodInvoker(resourceFactory, engine, config.getInternalErrorMessage());
+    _methodConfigProvider = ResourceMethodConfigProvider.build(config.getMethodConfig());
+    _methodInvoker = new RestLiMethodInvoker(resourceFactory, engine, config.getInternalErrorMessage(),
+        _methodConfigProvider);
 
     _errorResponseBuilder = errorResponseBuilder;
     _methodAdapterProvider = config.getMethodAdapterProvider();
@@ -126,8 +137,9 @@ abstract class BaseRestLiServer
 
     _filters = config.getFilters() != null ? config.getFilters() : new ArrayList<>();
     _fillInDefaultValueConfigured = config.shouldFillInDefaultValues();
-
-    _methodConfigProvider = ResourceMethodConfigProvider.build(config.getMethodConfig());
+    _requestParseCache = config.getRequestParseCache();
+    _admissionController = config.getAdmissionController();
+    _responseCache = config.getResponseCache();
   }
 
   private boolean isSupportedProtocolVersion(ProtocolVersion clientProtocolVersion,
@@ -170,13 +182,31 @@ abstract class BaseRestLiServer
     }
   }
 
+  /**
+   * Ensures that the client still waits for the response to the request.
+   *
+   * @throws RestLiServiceException if the deadline of the request has passed.
+   */
+  private static void ensureRequestDeadlineNotPassed(RequestContext requestContext)
+      throws RestLiServiceException
+  {
+    final Long remainingTimeMs = RequestTimeoutUtil.getRemainingTimeMs(requestContext, SystemClock.instance());
+    if (remainingTimeMs != null && remainingTimeMs <= 0)
+    {
+      throw new RestLiServiceException(HttpStatus.S_504_GATEWAY_TIMEOUT, "Deadline of the request passed "
+          + -remainingTimeMs + "ms ago");
+    }
+  }
+
   protected RoutingResult getRoutingResult(Request request, RequestContext requestContext)
   {
+    ensureRequestDeadlineNotPassed(requestContext);
     ensureRequestUsesValidRestliProtocol(request, requestContext);
 
     try
     {
-      ServerResourceContext context = new ResourceContextImpl(new PathKeysImpl(), request, requestContext);
+      ServerResourceContext context = new ResourceContextImpl(new PathKeysImpl(), request, requestContext,
+          _requestParseCache);
       RestUtils.validateRequestHeadersAndUpdateResourceContext(request.getHeaders(), _supportedAcceptTypes,
           _customContentTypes, context, requestContext);
 
@@ -193,6 +223,46 @@ abstract class BaseRestLiServer
     }
   }
 
+  /**
+   * Admits a request to the resource method it was routed to, before its body is decoded.
+   *
+   * @return the permit of the request, or null if the number of concurrent requests to the method is not limited.
+   * @throws RestLiServiceException with a 503 status if the request is rejected.
+   */
+  protected AdmissionController.Permit admit(Request request, RoutingResult routingResult)
+  {
+    if (_admissionController == null || !AdmissionController.isLimited(routingResult))
+    {
+      return null;
+    }
+    return _admissionController.acquire(request, routingResult);
+  }
+
+  /**
+   * Hands the callback of an admitted request to the handler, making sure the permit of the request is released when
+   * the request completes, or if the handler fails.
+   */
+  protected static <T> void handleAdmitted(AdmissionController.Permit permit,
+      Callback<T> callback,
+      Consumer<Callback<T>> handler)
+  {
+    if (permit == null)
+    {
+      handler.accept(callback);
+      return;
+    }
+
+    try
+    {
+      handler.accept(permit.releaseOnCompletion(callback));
+    }
+    catch (RuntimeException | Error e)
+    {
+      permit.release(e);
+      throw e;
+    }
+  }
+
   protected RestLiResponseException buildPreRoutingError(Throwable throwable, Request request)
   {
     Map<String, String> requestHeaders = request.getHeaders();
@@ -261,6 +331,7 @@ abstract class BaseRestLiServer
     FilterChainDispatcher filterChainDispatcher = new FilterChainDispatcherImpl(routingResult,
         _methodInvoker,
         argumentBuilder);
+    filterChainDispatcher = ResponseCache.wrapDispatcher(filterChainDispatcher, routingResult);
 
     RestLiFilterChain filterChain = new RestLiFilterChain(_filters, filterChainDispatcher, filterChainCallback);
 
@@ -270,6 +341,19 @@ abstract class BaseRestLiServer
     filterChain.onRequest(filterContext, filterResponseContextFactory);
   }
 
+  /**
+   * Makes the request be answered from the response cache when it is found in it, for the servers which encode the
+   * response themselves. Their response callbacks then build the response with
+   * {@link ResponseCache#buildResponse(RoutingResult, RestLiResponse)}.
+   */
+  protected void trackCachedResponse(RoutingResult routingResult)
+  {
+    if (_responseCache != null && ResponseCache.isCacheable(routingResult))
+    {
+      _responseCache.track(routingResult);
+    }
+  }
+
   private RestLiArgumentBuilder lookupArgumentBuilder(ResourceMethodDescriptor method)
   {
     RestLiArgumentBuilder argumentBuilder = _methodAdapterProvider.getArgumentBuilder(method.getType());
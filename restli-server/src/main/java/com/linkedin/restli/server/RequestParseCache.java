@@ -0,0 +1,181 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import com.linkedin.jersey.api.uri.UriComponent;
+import com.linkedin.restli.internal.common.PathSegment.PathSegmentSyntaxException;
+import com.linkedin.restli.internal.common.URIParamUtils;
+import com.linkedin.restli.internal.server.util.ArgumentUtils;
+import com.linkedin.restli.internal.server.util.RestLiSyntaxException;
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Cache of decoded projection masks and query parameters, keyed by their raw string in the request URI. Set it with
+ * {@link RestLiConfig#setRequestParseCache(RequestParseCache)} to avoid parsing the same masks and parameters on
+ * every request.
+ *
+ * Projection masks returned by the cache are read-only and shared across requests: resources and filters that need
+ * to modify the mask of a request must set a copy with {@link ResourceContext#setProjectionMask(MaskTree)}.
+ * Query parameters are copied for every request, since Rest.li coerces them in place when building resource method
+ * arguments. Only Rest.li protocol 2.0 query parameters are cached.
+ *
+ * The cache holds a bounded number of entries and uses a frequency-based admission policy, so that a stream of unique
+ * inputs does not evict frequently used ones. Inputs longer than the configured maximum are parsed without being
+ * cached and counted as rejected.
+ */
+public class RequestParseCache
+{
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+  public static final int DEFAULT_MAX_INPUT_LENGTH = 4096;
+
+  private final Cache<String, DataMap> _masks;
+  private final Cache<String, DataMap> _queryParameters;
+  private final int _maxInputLength;
+  private final LongAdder _rejectedCount = new LongAdder();
+
+  public RequestParseCache()
+  {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_INPUT_LENGTH);
+  }
+
+  /**
+   * @param maxEntries maximum number of masks, and separately of query strings, held by the cache.
+   * @param maxInputLength length above which a mask or query string is not cached.
+   */
+  public RequestParseCache(int maxEntries, int maxInputLength)
+  {
+    if (maxEntries <= 0 || maxInputLength <= 0)
+    {
+      throw new IllegalArgumentException("Invalid request parse cache size: " + maxEntries + ", " + maxInputLength);
+    }
+    _masks = Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build();
+    _queryParameters = Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build();
+    _maxInputLength = maxInputLength;
+  }
+
+  /**
+   * Decodes a projection parameter, as {@link ArgumentUtils#parseProjectionParameter(String)} does.
+   *
+   * @param projectionParam projection parameter string to parse
+   * @return read-only {@link MaskTree} of the projection parameter
+   * @throws RestLiSyntaxException if projection parameter value is invalid
+   */
+  public MaskTree decodeMask(String projectionParam) throws RestLiSyntaxException
+  {
+    if (projectionParam == null)
+    {
+      return new MaskTree();
+    }
+    if (projectionParam.length() > _maxInputLength)
+    {
+      _rejectedCount.increment();
+      return ArgumentUtils.decodeMaskUriFormat(projectionParam);
+    }
+
+    DataMap mask = _masks.getIfPresent(projectionParam);
+    if (mask == null)
+    {
+      mask = ArgumentUtils.decodeMaskUriFormat(projectionParam).getDataMap();
+      mask.makeReadOnly();
+      _masks.put(projectionParam, mask);
+    }
+    return new MaskTree(mask);
+  }
+
+  /**
+   * Parses the query parameters of a Rest.li protocol 2.0 request URI.
+   *
+   * @param uri request URI
+   * @return mutable {@link DataMap} of the query parameters
+   * @throws PathSegmentSyntaxException if the syntax of query parameters is incorrect
+   */
+  public DataMap parseQueryParameters(URI uri) throws PathSegmentSyntaxException
+  {
+    final String query = uri.getRawQuery();
+    if (query == null || query.length() > _maxInputLength)
+    {
+      if (query != null)
+      {
+        _rejectedCount.increment();
+      }
+      return URIParamUtils.parseUriParams(UriComponent.decodeQuery(uri, false));
+    }
+
+    DataMap parameters = _queryParameters.getIfPresent(query);
+    if (parameters == null)
+    {
+      parameters = URIParamUtils.parseUriParams(UriComponent.decodeQuery(uri, false));
+      parameters.makeReadOnly();
+      _queryParameters.put(query, parameters);
+    }
+
+    try
+    {
+      return parameters.copy();
+    }
+    catch (CloneNotSupportedException e)
+    {
+      throw new IllegalStateException("Could not copy query parameters: " + query, e);
+    }
+  }
+
+  /**
+   * @return number of masks and query strings found in the cache.
+   */
+  public long getHitCount()
+  {
+    return _masks.stats().hitCount() + _queryParameters.stats().hitCount();
+  }
+
+  /**
+   * @return number of masks and query strings parsed because they were not in the cache.
+   */
+  public long getMissCount()
+  {
+    return _masks.stats().missCount() + _queryParameters.stats().missCount();
+  }
+
+  /**
+   * @return number of masks and query strings parsed without being cached, because they were too long.
+   */
+  public long getRejectedCount()
+  {
+    return _rejectedCount.sum();
+  }
+
+  /**
+   * @return ratio of cache hits to all lookups, or 1 if the cache has not been used yet.
+   */
+  public double getHitRate()
+  {
+    return _masks.stats().plus(_queryParameters.stats()).hitRate();
+  }
+
+  /**
+   * @return number of entries currently held by the cache.
+   */
+  public long getSize()
+  {
+    return _masks.estimatedSize() + _queryParameters.estimatedSize();
+  }
+}
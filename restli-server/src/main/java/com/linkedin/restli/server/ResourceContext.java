@@ -20,6 +20,7 @@ package com.linkedin.restli.server;
 import com.linkedin.data.transform.filter.request.MaskTree;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.util.RequestTimeoutUtil;
 
 import java.net.HttpCookie;
 import java.util.List;
@@ -242,4 +243,17 @@ public interface ResourceContext extends CustomRequestContext
   }
 
   default void setFillInDefaultValues(boolean fillInDefaultValues) {}
+
+  /**
+   * Returns the time, in milliseconds since the epoch, after which the client no longer waits for the response. The
+   * deadline comes from the time budget the client sent with the request, see
+   * {@link com.linkedin.r2.filter.transport.ServerDeadlineFilter}. Long running methods may check it to stop early, and
+   * pass it on to the requests they make by copying it to their request context.
+   *
+   * @return the deadline, or null if the request has none.
+   */
+  default Long getDeadline()
+  {
+    return RequestTimeoutUtil.getDeadline(getRawRequestContext());
+  }
 }
@@ -0,0 +1,461 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.r2.message.timing.FrameworkTimingKeys;
+import com.linkedin.r2.message.timing.TimingContextUtil;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.CookieUtil;
+import com.linkedin.restli.internal.server.RestLiCallback;
+import com.linkedin.restli.internal.server.RoutingResult;
+import com.linkedin.restli.internal.server.ServerResourceContext;
+import com.linkedin.restli.internal.server.filter.FilterChainDispatcher;
+import com.linkedin.restli.internal.server.response.ResponseUtils;
+import com.linkedin.restli.internal.server.response.RestLiResponse;
+import com.linkedin.restli.server.config.ResourceMethodConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cache of the encoded GET, BATCH_GET and FINDER responses. Set it with
+ * {@link RestLiConfig#setResponseCache(ResponseCache)}, and enable it for resource methods with
+ * {@link com.linkedin.restli.server.config.RestLiMethodConfigBuilder#addCacheResponses(String, boolean)}.
+ *
+ * Successful responses are stored as the bytes of their body, along with their content type and the headers set by
+ * the resource, keyed by request path, sorted query parameters, projections, accepted types, protocol version and the
+ * request headers the cache varies on. Their strong {@link RestConstants#HEADER_ETAG} is computed from these bytes.
+ *
+ * Requests go through the filters as usual. Once the request filters ran, a request found in the cache is answered
+ * without invoking the resource: the response filters see a response with the headers set by the resource but an
+ * empty entity, and its cached body is written as is, without being encoded again. Requests whose
+ * {@link RestConstants#HEADER_IF_NONE_MATCH} matches the response get a 304 without a body instead. Response filters
+ * may thus change the status and the headers of cached responses, but not their entity. Responses which set cookies
+ * are not cached, and only the responses encoded by the server are: responses handed to the caller as
+ * {@link RestLiResponse} are neither cached nor answered from the cache.
+ *
+ * Cached responses are shared by every caller whose requests have the same key, so only methods whose responses are
+ * the same for all of them may be cached; add the headers which identify callers to the vary headers otherwise.
+ * Entries expire after a fixed time to live; resources should call {@link #invalidate(String)} when their data changes.
+ */
+public class ResponseCache
+{
+  public static final long DEFAULT_MAX_SIZE_BYTES = 64L * 1024 * 1024;
+  public static final long DEFAULT_TIME_TO_LIVE_MS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final String ETAG_ALGORITHM = "SHA-256";
+  private static final int ETAG_BYTES = 16;
+  private static final String LOOKUP_KEY = ResponseCache.class.getName() + ".lookup";
+
+  private final Cache<Key, Entry> _responses;
+  private final List<String> _varyHeaders;
+
+  public ResponseCache()
+  {
+    this(DEFAULT_MAX_SIZE_BYTES, DEFAULT_TIME_TO_LIVE_MS);
+  }
+
+  /**
+   * @param maxSizeBytes maximum total size of the cached response bodies.
+   * @param timeToLiveMs time after which a cached response expires.
+   */
+  public ResponseCache(long maxSizeBytes, long timeToLiveMs)
+  {
+    this(maxSizeBytes, timeToLiveMs, Collections.emptyList());
+  }
+
+  /**
+   * @param maxSizeBytes maximum total size of the cached response bodies.
+   * @param timeToLiveMs time after which a cached response expires.
+   * @param varyHeaders request headers whose values are part of the cache key, such as the headers which identify the
+   *                    caller when responses differ between callers.
+   */
+  public ResponseCache(long maxSizeBytes, long timeToLiveMs, Collection<String> varyHeaders)
+  {
+    if (maxSizeBytes <= 0 || timeToLiveMs <= 0)
+    {
+      throw new IllegalArgumentException(
+          "Invalid response cache size or time to live: " + maxSizeBytes + ", " + timeToLiveMs);
+    }
+    _varyHeaders = new ArrayList<>(varyHeaders);
+    _responses = Caffeine.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .<Key, Entry>weigher((key, entry) -> entry._body.length() + key._uri.length())
+        .expireAfterWrite(timeToLiveMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Removes the cached responses of a resource.
+   *
+   * @param resourceName name of the resource, as in
+   *                     {@link com.linkedin.restli.server.filter.FilterRequestContext#getResourceName()}.
+   */
+  public void invalidate(String resourceName)
+  {
+    _responses.asMap().keySet().removeIf(key -> key._resourceName.equals(resourceName));
+  }
+
+  /**
+   * Removes all cached responses.
+   */
+  public void invalidateAll()
+  {
+    _responses.invalidateAll();
+  }
+
+  /**
+   * @return number of requests answered from the cache.
+   */
+  public long getHitCount()
+  {
+    return _responses.stats().hitCount();
+  }
+
+  /**
+   * @return number of cacheable requests not found in the cache.
+   */
+  public long getMissCount()
+  {
+    return _responses.stats().missCount();
+  }
+
+  /**
+   * @return ratio of cache hits to all lookups, or 1 if the cache has not been used yet.
+   */
+  public double getHitRate()
+  {
+    return _responses.stats().hitRate();
+  }
+
+  /**
+   * @return number of responses currently held by the cache.
+   */
+  public long getSize()
+  {
+    return _responses.estimatedSize();
+  }
+
+  /**
+   * @return true if the responses of the routed method may be cached.
+   */
+  static boolean isCacheable(RoutingResult routingResult)
+  {
+    final ResourceMethodConfig config = routingResult.getResourceMethodConfig();
+    if (config == null || !config.shouldCacheResponses())
+    {
+      return false;
+    }
+    final ResourceMethod type = routingResult.getResourceMethod().getType();
+    return type == ResourceMethod.GET || type == ResourceMethod.BATCH_GET || type == ResourceMethod.FINDER;
+  }
+
+  /**
+   * Makes the routed request look up its response in this cache once its request filters ran. Called by the servers
+   * which encode the response of the request themselves, before the request is handled.
+   */
+  void track(RoutingResult routingResult)
+  {
+    routingResult.getContext().putCustomContextData(LOOKUP_KEY, new Lookup(this));
+  }
+
+  /**
+   * @return a dispatcher which answers the request from the cache if it is tracked by a cache and found in it, or
+   *         the given dispatcher if the request is not tracked.
+   */
+  static FilterChainDispatcher wrapDispatcher(FilterChainDispatcher dispatcher, RoutingResult routingResult)
+  {
+    final Lookup lookup = getLookup(routingResult);
+    return lookup == null ? dispatcher : (requestData, restLiCallback) ->
+        lookup.dispatch(routingResult, restLiCallback, () -> dispatcher.onRequestSuccess(requestData, restLiCallback));
+  }
+
+  /**
+   * Builds the response of a request tracked by a cache, from the cached body for requests found in the cache, and
+   * caches the encoded responses of the other requests.
+   *
+   * @return the response, or null if the request was not looked up in a cache and should be encoded as usual.
+   */
+  static RestResponse buildResponse(RoutingResult routingResult, RestLiResponse restLiResponse)
+  {
+    final Lookup lookup = getLookup(routingResult);
+    if (lookup == null || lookup._key == null || restLiResponse.getStatus() != HttpStatus.S_200_OK)
+    {
+      return null;
+    }
+    return lookup.buildResponse(routingResult, restLiResponse);
+  }
+
+  private static Lookup getLookup(RoutingResult routingResult)
+  {
+    return (Lookup) routingResult.getContext().getCustomContextData(LOOKUP_KEY).orElse(null);
+  }
+
+  /**
+   * Weak comparison of entity tags, as defined for If-None-Match in RFC 7232.
+   */
+  static boolean matches(String ifNoneMatch, String etag)
+  {
+    if (ifNoneMatch.trim().equals("*"))
+    {
+      return true;
+    }
+    final String opaqueTag = stripWeak(etag);
+    for (String candidate : ifNoneMatch.split(","))
+    {
+      if (stripWeak(candidate.trim()).equals(opaqueTag))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeak(String etag)
+  {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+
+  /**
+   * Result of the resource method standing for a cached response in the response filters, which becomes an empty
+   * entity.
+   */
+  private static Object placeholderResult(ResourceMethod type)
+  {
+    switch (type)
+    {
+      case GET:
+        return new EmptyRecord();
+      case BATCH_GET:
+        return Collections.emptyMap();
+      default:
+        return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Lookup of a request in the cache, from its dispatch to the resource until its response is encoded.
+   */
+  private static final class Lookup
+  {
+    private final ResponseCache _cache;
+    // Set once the request filters ran
+    private Key _key;
+    private Entry _entry;
+
+    Lookup(ResponseCache cache)
+    {
+      _cache = cache;
+    }
+
+    void dispatch(RoutingResult routingResult, RestLiCallback restLiCallback, Runnable invokeResource)
+    {
+      final ServerResourceContext context = routingResult.getContext();
+      _key = new Key(routingResult, _cache._varyHeaders);
+      _entry = _cache._responses.getIfPresent(_key);
+      if (_entry == null)
+      {
+        invokeResource.run();
+        return;
+      }
+
+      final RequestContext requestContext = context.getRawRequestContext();
+      TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST_RESTLI.key());
+      TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_REQUEST.key());
+      TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.RESOURCE.key());
+      _entry._headers.forEach(context::setResponseHeader);
+      restLiCallback.onSuccess(placeholderResult(routingResult.getResourceMethod().getType()));
+    }
+
+    RestResponse buildResponse(RoutingResult routingResult, RestLiResponse restLiResponse)
+    {
+      final ServerResourceContext context = routingResult.getContext();
+      Entry entry = _entry;
+      final RestResponseBuilder builder;
+      if (entry == null)
+      {
+        final RestResponse response = ResponseUtils.buildResponse(routingResult, restLiResponse);
+        if (!restLiResponse.getCookies().isEmpty() || response.getEntity().length() == 0)
+        {
+          return response;
+        }
+        entry = new Entry(response.getEntity(), response.getHeader(RestConstants.HEADER_CONTENT_TYPE),
+            context.getResponseHeaders());
+        _cache._responses.put(_key, entry);
+        builder = response.builder();
+      }
+      else
+      {
+        builder = new RestResponseBuilder()
+            .setHeaders(restLiResponse.getHeaders())
+            .setCookies(CookieUtil.encodeSetCookies(restLiResponse.getCookies()))
+            .setStatus(HttpStatus.S_200_OK.getCode())
+            .setHeader(RestConstants.HEADER_CONTENT_TYPE, entry._contentType)
+            .setEntity(entry._body);
+      }
+
+      builder.setHeader(RestConstants.HEADER_ETAG, entry._etag);
+      final String ifNoneMatch = context.getRequestHeaders().get(RestConstants.HEADER_IF_NONE_MATCH);
+      if (ifNoneMatch != null && matches(ifNoneMatch, entry._etag))
+      {
+        builder.setStatus(HttpStatus.S_304_NOT_MODIFIED.getCode()).setEntity(ByteString.empty());
+        builder.removeHeader(RestConstants.HEADER_CONTENT_TYPE);
+      }
+      return builder.build();
+    }
+  }
+
+  /**
+   * Encoded body of a cached response, with the headers describing it.
+   */
+  private static final class Entry
+  {
+    private final ByteString _body;
+    private final String _contentType;
+    // Headers set by the resource
+    private final Map<String, String> _headers;
+    private final String _etag;
+
+    Entry(ByteString body, String contentType, Map<String, String> headers)
+    {
+      _body = body;
+      _contentType = contentType;
+      _headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      _headers.putAll(headers);
+      _etag = etag(body, contentType);
+    }
+
+    /**
+     * @return a strong entity tag of the body, which differs between the representations of the entity.
+     */
+    private static String etag(ByteString body, String contentType)
+    {
+      final MessageDigest digest;
+      try
+      {
+        digest = MessageDigest.getInstance(ETAG_ALGORITHM);
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+        throw new IllegalStateException(ETAG_ALGORITHM + " is not available", e);
+      }
+      digest.update(body.asByteBuffer());
+      digest.update(String.valueOf(contentType).getBytes(StandardCharsets.UTF_8));
+      final byte[] hash = Arrays.copyOf(digest.digest(), ETAG_BYTES);
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+    }
+  }
+
+  /**
+   * Identity of a cacheable request, as it is after the request filters ran. Top-level query parameters are sorted, so
+   * that their order does not matter.
+   */
+  private static final class Key
+  {
+    private final String _resourceName;
+    private final String _uri;
+    private final String _accept;
+    private final String _protocolVersion;
+    private final List<DataMap> _projections;
+    private final List<String> _varyHeaderValues;
+    private final int _hashCode;
+
+    Key(RoutingResult routingResult, List<String> varyHeaders)
+    {
+      final ServerResourceContext context = routingResult.getContext();
+      final Map<String, String> headers = context.getRequestHeaders();
+      _resourceName = routingResult.getResourceMethod().getResourceName();
+      _uri = normalize(context.getRequestURI().getRawPath(), context.getRequestURI().getRawQuery());
+      _accept = headers.get(RestConstants.HEADER_ACCEPT);
+      _protocolVersion = String.valueOf(context.getRestliProtocolVersion());
+      _projections = Arrays.asList(getDataMap(context.getProjectionMask()),
+          getDataMap(context.getMetadataProjectionMask()), getDataMap(context.getPagingProjectionMask()));
+      _varyHeaderValues = new ArrayList<>(varyHeaders.size());
+      for (String header : varyHeaders)
+      {
+        _varyHeaderValues.add(headers.get(header));
+      }
+      _hashCode = Objects.hash(_resourceName, _uri, _accept, _protocolVersion, _projections, _varyHeaderValues);
+    }
+
+    private static DataMap getDataMap(MaskTree mask)
+    {
+      return mask == null ? null : mask.getDataMap();
+    }
+
+    private static String normalize(String path, String query)
+    {
+      if (query == null || query.isEmpty())
+      {
+        return path;
+      }
+      final String[] parameters = query.split("&");
+      Arrays.sort(parameters);
+      return path + '?' + String.join("&", parameters);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (!(o instanceof Key))
+      {
+        return false;
+      }
+      final Key key = (Key) o;
+      return _hashCode == key._hashCode
+          && _uri.equals(key._uri)
+          && _resourceName.equals(key._resourceName)
+          && Objects.equals(_accept, key._accept)
+          && _protocolVersion.equals(key._protocolVersion)
+          && _projections.equals(key._projections)
+          && _varyHeaderValues.equals(key._varyHeaderValues);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _hashCode;
+    }
+  }
+}
@@ -90,6 +90,7 @@ public class RestLiConfig
   private Set<String> _individualRequestHeaderWhitelist = Collections.emptySet();
   private MultiplexerSingletonFilter _multiplexerSingletonFilter;
   private MultiplexerRunMode _multiplexerRunMode = MultiplexerRunMode.MULTIPLE_PLANS;
+  private boolean _multiplexerBatchingEnabled = false;
   private final List<ContentType> _customContentTypes = new LinkedList<>();
   private List<String> _supportedAcceptTypes;
   private final List<ResourceDefinitionListener> _resourceDefinitionListeners = new ArrayList<>();
@@ -107,6 +108,9 @@ public class RestLiConfig
   /** configuration for whether to attach stacktrace for {@link com.linkedin.r2.message.rest.RestException} */
   private boolean _writableStackTrace = true;
   private MethodAdapterProvider _methodAdapterProvider = null;
+  private RequestParseCache _requestParseCache = null;
+  private ResponseCache _responseCache = null;
+  private AdmissionController _admissionController = null;
 
   /**
    * Constructor.
@@ -465,6 +469,23 @@ public class RestLiConfig
     _multiplexerRunMode = multiplexerRunMode;
   }
 
+  public boolean isMultiplexerBatchingEnabled()
+  {
+    return _multiplexerBatchingEnabled;
+  }
+
+  /**
+   * Sets whether GET requests of a {@code MultiplexedRequest} on the same collection are merged into BATCH_GET
+   * invocations of the resource. Only takes effect with {@link MultiplexerRunMode#SINGLE_PLAN}. Only requests which
+   * differ by their keys alone, with the same headers and projections, are merged, and the BATCH_GET method of the
+   * resource must return the same entities as its GET method. The BATCH_GET is invoked with its own method
+   * configuration, and finds the keys of the merged requests in the batch ids of its path keys. Disabled by default.
+   */
+  public void setMultiplexerBatchingEnabled(boolean multiplexerBatchingEnabled)
+  {
+    _multiplexerBatchingEnabled = multiplexerBatchingEnabled;
+  }
+
   public List<ContentType> getCustomContentTypes()
   {
     return _customContentTypes;
@@ -599,6 +620,64 @@ public class RestLiConfig
     _fillInDefaultValues = fillInDefaultValues;
   }
 
+  /**
+   * @return the cache of decoded projection masks and query parameters, or null if requests are always parsed.
+   */
+  public RequestParseCache getRequestParseCache()
+  {
+    return _requestParseCache;
+  }
+
+  /**
+   * Set a cache of decoded projection masks and query parameters. Projection masks are read-only when the cache is
+   * set, see {@link RequestParseCache}. Disabled by default.
+   *
+   * @param requestParseCache the cache, or null to parse every request.
+   */
+  public void setRequestParseCache(RequestParseCache requestParseCache)
+  {
+    _requestParseCache = requestParseCache;
+  }
+
+  /**
+   * @return the cache of encoded responses, or null if responses are not cached.
+   */
+  public ResponseCache getResponseCache()
+  {
+    return _responseCache;
+  }
+
+  /**
+   * Set a cache of encoded responses. Responses are only cached for the resource methods enabled in the method level
+   * configuration, see {@link ResponseCache}. Disabled by default.
+   *
+   * @param responseCache the cache, or null to not cache responses.
+   */
+  public void setResponseCache(ResponseCache responseCache)
+  {
+    _responseCache = responseCache;
+  }
+
+  /**
+   * @return the admission controller, or null if the number of concurrent requests is not limited.
+   */
+  public AdmissionController getAdmissionController()
+  {
+    return _admissionController;
+  }
+
+  /**
+   * Set an admission controller, which rejects requests above the concurrency limit of their resource method with a
+   * 503 before decoding them. Requests are only limited for the resource methods with a concurrency limit in the method
+   * level configuration, see {@link AdmissionController}. Disabled by default.
+   *
+   * @param admissionController the admission controller, or null to not limit requests.
+   */
+  public void setAdmissionController(AdmissionController admissionController)
+  {
+    _admissionController = admissionController;
+  }
+
   /**
    * Set a custom {@link MethodAdapterProvider} in the config.
    *
@@ -100,7 +100,8 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
         config.getMultiplexedIndividualRequestHeaderWhitelist(),
         config.getMultiplexerSingletonFilter(),
         config.getMultiplexerRunMode(),
-        errorResponseBuilder));
+        errorResponseBuilder,
+        config.isMultiplexerBatchingEnabled()));
 
     // Add debug request handlers
     config.getDebugRequestHandlers().stream()
@@ -142,7 +143,8 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
         config.getMultiplexedIndividualRequestHeaderWhitelist(),
         config.getMultiplexerSingletonFilter(),
         config.getMultiplexerRunMode(),
-        new ErrorResponseBuilder(config.getErrorResponseFormat())));
+        new ErrorResponseBuilder(config.getErrorResponseFormat()),
+        config.isMultiplexerBatchingEnabled()));
 
     // Add debug request handlers
     config.getDebugRequestHandlers().stream()
@@ -219,9 +221,11 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
   void handleResourceRequest(RestRequest request, RequestContext requestContext, Callback<RestResponse> callback)
   {
     RoutingResult routingResult;
+    AdmissionController.Permit permit;
     try
     {
       routingResult = getRoutingResult(request, requestContext);
+      permit = admit(request, routingResult);
     }
     catch (Throwable t)
     {
@@ -229,16 +233,19 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
       return;
     }
 
-    handleResourceRequest(request, routingResult, callback);
+    handleAdmitted(permit, callback,
+        admittedCallback -> handleResourceRequest(request, routingResult, admittedCallback));
   }
 
   private void handleResourceRequestWithRestLiResponse(RestRequest request, RequestContext requestContext,
       Callback<RestLiResponse> callback)
   {
     RoutingResult routingResult;
+    AdmissionController.Permit permit;
     try
     {
       routingResult = getRoutingResult(request, requestContext);
+      permit = admit(request, routingResult);
     }
     catch (Throwable t)
     {
@@ -246,7 +253,8 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
       return;
     }
 
-    handleResourceRequestWithRestLiResponse(request, routingResult, callback);
+    handleAdmitted(permit, callback,
+        admittedCallback -> handleResourceRequestWithRestLiResponse(request, routingResult, admittedCallback));
   }
 
   private RestException buildPreRoutingRestException(Throwable throwable, RestRequest request)
@@ -259,6 +267,7 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
       RoutingResult routingResult,
       Callback<RestResponse> callback)
   {
+    trackCachedResponse(routingResult);
     handleResourceRequestWithRestLiResponse(request, routingResult,
         new RestLiToRestResponseCallbackAdapter(callback, routingResult, _writableStackTrace));
   }
@@ -328,7 +337,11 @@ class RestRestLiServer extends BaseRestLiServer implements RestRequestHandler, R
       final RequestContext requestContext = _routingResult.getContext().getRawRequestContext();
       TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_SERIALIZATION.key());
 
-      final RestResponse restResponse = ResponseUtils.buildResponse(_routingResult, restLiResponse);
+      RestResponse restResponse = ResponseCache.buildResponse(_routingResult, restLiResponse);
+      if (restResponse == null)
+      {
+        restResponse = ResponseUtils.buildResponse(_routingResult, restLiResponse);
+      }
 
       TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_SERIALIZATION.key());
       return restResponse;
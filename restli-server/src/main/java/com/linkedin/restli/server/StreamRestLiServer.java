@@ -16,6 +16,7 @@ import com.linkedin.r2.message.stream.StreamException;
 import com.linkedin.r2.message.stream.StreamRequest;
 import com.linkedin.r2.message.stream.StreamResponse;
 import com.linkedin.r2.message.stream.StreamResponseBuilder;
+import com.linkedin.r2.message.stream.entitystream.CancelingReader;
 import com.linkedin.r2.message.stream.entitystream.DrainReader;
 import com.linkedin.r2.message.stream.entitystream.adapter.EntityStreamAdapters;
 import com.linkedin.r2.message.timing.FrameworkTimingKeys;
@@ -175,14 +176,30 @@ class StreamRestLiServer extends BaseRestLiServer implements StreamRequestHandle
       return;
     }
 
-    if (routingResult.getResourceMethod().getResourceModel().getResourceEntityType() == ResourceEntityType.STRUCTURED_DATA)
+    AdmissionController.Permit permit;
+    try
     {
-      handleStructuredDataResourceRequest(request, routingResult, callback);
+      permit = admit(request, routingResult);
     }
-    else
+    catch (Throwable t)
     {
-      handleUnstructuredDataResourceRequest(request, routingResult, callback);
+      // The body of a rejected request is never read
+      request.getEntityStream().setReader(new CancelingReader());
+      callback.onError(buildPreRoutingStreamException(t, request));
+      return;
     }
+
+    handleAdmitted(permit, callback, admittedCallback ->
+    {
+      if (routingResult.getResourceMethod().getResourceModel().getResourceEntityType() == ResourceEntityType.STRUCTURED_DATA)
+      {
+        handleStructuredDataResourceRequest(request, routingResult, admittedCallback);
+      }
+      else
+      {
+        handleUnstructuredDataResourceRequest(request, routingResult, admittedCallback);
+      }
+    });
   }
 
   protected void handleResourceRequestWithRestLiResponse(StreamRequest request,
@@ -200,14 +217,30 @@ class StreamRestLiServer extends BaseRestLiServer implements StreamRequestHandle
       return;
     }
 
-    if (routingResult.getResourceMethod().getResourceModel().getResourceEntityType() == ResourceEntityType.STRUCTURED_DATA)
+    AdmissionController.Permit permit;
+    try
     {
-      handleStructuredDataResourceRequestWithRestLiResponse(request, routingResult, callback);
+      permit = admit(request, routingResult);
     }
-    else
+    catch (Throwable t)
     {
-      handleUnstructuredDataResourceRequestWithRestLiResponse(request, routingResult, callback);
+      // The body of a rejected request is never read
+      request.getEntityStream().setReader(new CancelingReader());
+      callback.onError(buildPreRoutingStreamException(t, request));
+      return;
     }
+
+    handleAdmitted(permit, callback, admittedCallback ->
+    {
+      if (routingResult.getResourceMethod().getResourceModel().getResourceEntityType() == ResourceEntityType.STRUCTURED_DATA)
+      {
+        handleStructuredDataResourceRequestWithRestLiResponse(request, routingResult, admittedCallback);
+      }
+      else
+      {
+        handleUnstructuredDataResourceRequestWithRestLiResponse(request, routingResult, admittedCallback);
+      }
+    });
   }
 
 
@@ -221,6 +254,7 @@ class StreamRestLiServer extends BaseRestLiServer implements StreamRequestHandle
       RoutingResult routingResult,
       Callback<StreamResponse> callback)
   {
+    trackCachedResponse(routingResult);
     handleStructuredDataResourceRequest(request, routingResult, callback,
         respContentType -> toRestLiResponseCallback(callback, routingResult, respContentType),
         restRequest -> _fallback.handleResourceRequest(restRequest,
@@ -365,11 +399,23 @@ class StreamRestLiServer extends BaseRestLiServer implements StreamRequestHandle
       final RequestContext requestContext = _routingResult.getContext().getRawRequestContext();
       TimingContextUtil.beginTiming(requestContext, FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_SERIALIZATION.key());
 
+      // Cached responses are written from their encoded body, which is encoded in full the first time
+      final RestResponse cachedResponse = ResponseCache.buildResponse(_routingResult, restLiResponse);
+      if (cachedResponse != null)
+      {
+        TimingContextUtil.endTiming(requestContext, FrameworkTimingKeys.SERVER_RESPONSE_RESTLI_SERIALIZATION.key());
+        return Messages.toStreamResponse(cachedResponse);
+      }
+
       EntityStream<ByteString> entityStream;
       if (restLiResponse.hasData())
       {
         responseBuilder.setHeader(RestConstants.HEADER_CONTENT_TYPE, _contentType.getHeaderKey());
-        entityStream = _contentType.getStreamCodec().encodeMap(restLiResponse.getDataMap());
+        entityStream = ResponseUtils.encodeIncrementally(restLiResponse, _contentType);
+        if (entityStream == null)
+        {
+          entityStream = _contentType.getStreamCodec().encodeMap(restLiResponse.getDataMap());
+        }
       }
       else
       {
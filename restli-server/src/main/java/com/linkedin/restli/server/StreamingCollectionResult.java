@@ -0,0 +1,136 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.data.template.RecordTemplate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * A {@link CollectionResult} of a FINDER or GET_ALL method whose elements are taken from an iterator while the
+ * response is written.
+ *
+ * When the server uses the stream codec ({@link RestLiConfig#setUseStreamCodec(boolean)}) and the response is encoded
+ * as JSON, each element is projected and encoded as it is taken from the iterator, at the pace the response entity
+ * stream is read. The response starts before all the elements are produced, and the elements are not held in memory
+ * together. Otherwise, or as soon as a filter needs the complete list of elements, the remaining elements are read into
+ * a list and the response is encoded as usual.
+ *
+ * The iterator is read at most once, possibly on a transport thread, so producing an element should not block for
+ * long. If producing an element fails after the response has started, the response entity stream fails.
+ *
+ * @param <T> the type of the elements.
+ * @param <MD> the type of the custom metadata.
+ */
+public class StreamingCollectionResult<T extends RecordTemplate, MD extends RecordTemplate> extends CollectionResult<T, MD>
+{
+  private Iterator<? extends T> _iterator;
+  private List<T> _elements;
+  private boolean _taken;
+
+  /**
+   * Constructor. Uses the default page increment mode of {@link PageIncrement#RELATIVE}. Metadata and total are null.
+   *
+   * @param elements provides the elements in current page of collection results.
+   */
+  public StreamingCollectionResult(final Iterator<? extends T> elements)
+  {
+    this(elements, null, null);
+  }
+
+  /**
+   * Constructor. Uses the default page increment mode of {@link PageIncrement#RELATIVE}.
+   *
+   * @param elements provides the elements in current page of collection results.
+   * @param total provides the total elements, required if using {@link PageIncrement#FIXED}
+   * @param metadata provides search result metadata, as defined by the application.
+   */
+  public StreamingCollectionResult(final Iterator<? extends T> elements, final Integer total, final MD metadata)
+  {
+    this(elements, total, metadata, PageIncrement.RELATIVE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param elements provides the elements in current page of collection results.
+   * @param total provides the total elements, required if using {@link PageIncrement#FIXED}
+   * @param metadata provides search result metadata, as defined by the application.
+   * @param pageIncrement Provides the page increment mode.
+   */
+  public StreamingCollectionResult(final Iterator<? extends T> elements,
+                                   final Integer total,
+                                   final MD metadata,
+                                   final PageIncrement pageIncrement)
+  {
+    super(null, total, metadata, pageIncrement);
+    _iterator = elements;
+  }
+
+  /**
+   * Reads the remaining elements from the iterator into a list, unless this was already done.
+   *
+   * @return the elements, or null if the iterator is null.
+   * @throws IllegalStateException if the iterator was taken by {@link #takeIterator()}.
+   */
+  @Override
+  public synchronized List<T> getElements()
+  {
+    if (_taken)
+    {
+      throw new IllegalStateException("The elements have already been taken from the iterator");
+    }
+    if (_elements == null && _iterator != null)
+    {
+      _elements = new ArrayList<>();
+      _iterator.forEachRemaining(_elements::add);
+      _iterator = null;
+    }
+    return _elements;
+  }
+
+  /**
+   * Takes the iterator to read the elements from it directly. {@link #getElements()} can no longer be used afterwards.
+   *
+   * @return the iterator, or null if the elements have already been read into a list or the iterator was taken.
+   */
+  public synchronized Iterator<? extends T> takeIterator()
+  {
+    if (_iterator == null)
+    {
+      return null;
+    }
+    final Iterator<? extends T> iterator = _iterator;
+    _iterator = null;
+    _taken = true;
+    return iterator;
+  }
+
+  @Override
+  public boolean equals(Object object)
+  {
+    return this == object;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return System.identityHashCode(this);
+  }
+}
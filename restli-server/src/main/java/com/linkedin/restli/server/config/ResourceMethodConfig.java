@@ -33,4 +33,29 @@ public interface ResourceMethodConfig
    * Returns the method level list of fields that should be included when projection is applied.
    */
   ConfigValue<Set<String>> getAlwaysProjectedFields();
+
+  /**
+   * Config for whether identical concurrent requests to this method share a single invocation of the method.
+   */
+  default boolean shouldCoalesceRequests()
+  {
+    return false;
+  }
+
+  /**
+   * Config for whether responses of this method are stored in the response cache of the server.
+   */
+  default boolean shouldCacheResponses()
+  {
+    return false;
+  }
+
+  /**
+   * Config for the maximum number of concurrent requests to this method admitted by the admission controller of the
+   * server, or 0 if requests to this method are not limited.
+   */
+  default int getConcurrencyLimit()
+  {
+    return 0;
+  }
 }
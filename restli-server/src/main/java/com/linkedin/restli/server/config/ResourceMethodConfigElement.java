@@ -177,6 +177,11 @@ class ResourceMethodConfigElement implements Comparable<ResourceMethodConfigElem
           return ConfigValueCoercers.LONG.apply(value);
         case ALWAYS_PROJECTED_FIELDS:
           return new HashSet<>(ConfigValueCoercers.COMMA_SEPARATED_STRINGS.apply(value));
+        case COALESCE_REQUESTS:
+        case CACHE_RESPONSES:
+          return ConfigValueCoercers.BOOLEAN.apply(value);
+        case CONCURRENCY_LIMIT:
+          return ConfigValueCoercers.INTEGER.apply(value);
         default:
           throw new ResourceMethodConfigParsingException("Invalid method-level config property: " + configType.getConfigName());
       }
@@ -18,22 +18,29 @@ public class ResourceMethodConfigImpl implements ResourceMethodConfig
   private final ConfigValue<Set<String>> _alwaysProjectedFields;
   private boolean _validateQueryParams;
   private boolean _validateResourceKeys;
+  private final boolean _coalesceRequests;
+  private final boolean _cacheResponses;
+  private final int _concurrencyLimit;
 
-  public static final ResourceMethodConfig DEFAULT_CONFIG = new ResourceMethodConfigImpl(null, false, false, null);
+  public static final ResourceMethodConfig DEFAULT_CONFIG = new ResourceMethodConfigImpl(null, false, false, null, false, false, 0);
 
   @Deprecated
   public ResourceMethodConfigImpl(ConfigValue<Long> timeoutMs, boolean validateQueryParams, boolean validateResourceKeys)
   {
-    this(timeoutMs, validateQueryParams, validateResourceKeys, null);
+    this(timeoutMs, validateQueryParams, validateResourceKeys, null, false, false, 0);
   }
 
   ResourceMethodConfigImpl(ConfigValue<Long> timeoutMs, boolean validateQueryParams, boolean validateResourceKeys,
-      ConfigValue<Set<String>> alwaysProjectedFields)
+      ConfigValue<Set<String>> alwaysProjectedFields, boolean coalesceRequests, boolean cacheResponses,
+      int concurrencyLimit)
   {
     _timeoutMs = timeoutMs;
     _validateQueryParams = validateQueryParams;
     _validateResourceKeys = validateResourceKeys;
     _alwaysProjectedFields = alwaysProjectedFields;
+    _coalesceRequests = coalesceRequests;
+    _cacheResponses = cacheResponses;
+    _concurrencyLimit = concurrencyLimit;
   }
 
   public ConfigValue<Long> getTimeoutMs()
@@ -57,6 +64,24 @@ public class ResourceMethodConfigImpl implements ResourceMethodConfig
     return _alwaysProjectedFields;
   }
 
+  @Override
+  public boolean shouldCoalesceRequests()
+  {
+    return _coalesceRequests;
+  }
+
+  @Override
+  public boolean shouldCacheResponses()
+  {
+    return _cacheResponses;
+  }
+
+  @Override
+  public int getConcurrencyLimit()
+  {
+    return _concurrencyLimit;
+  }
+
   @Override
   public String toString()
   {
@@ -64,6 +89,9 @@ public class ResourceMethodConfigImpl implements ResourceMethodConfig
           "_timeoutMs=" + _timeoutMs +
           ", _validateQueryParams=" + _validateQueryParams +
           ", _validateResourceKeys=" + _validateResourceKeys +
+          ", _coalesceRequests=" + _coalesceRequests +
+          ", _cacheResponses=" + _cacheResponses +
+          ", _concurrencyLimit=" + _concurrencyLimit +
         "}";
   }
 
@@ -81,13 +109,17 @@ public class ResourceMethodConfigImpl implements ResourceMethodConfig
     ResourceMethodConfigImpl that = (ResourceMethodConfigImpl) o;
     return _validateQueryParams == that._validateQueryParams && _validateResourceKeys
         == that._validateResourceKeys
+        && _coalesceRequests == that._coalesceRequests
+        && _cacheResponses == that._cacheResponses
+        && _concurrencyLimit == that._concurrencyLimit
         && _timeoutMs.equals(that._timeoutMs);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(_timeoutMs, _validateQueryParams, _validateResourceKeys);
+    return Objects.hash(_timeoutMs, _validateQueryParams, _validateResourceKeys, _coalesceRequests,
+        _cacheResponses, _concurrencyLimit);
   }
 
   public void setValidateQueryParams(boolean validateQueryParams)
@@ -30,6 +30,9 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
 
   private final ResourceMethodConfigTree<Long> _timeoutMs = new ResourceMethodConfigTree<>();
   private final ResourceMethodConfigTree<Set<String>> _alwaysProjectedFields = new ResourceMethodConfigTree<>();
+  private final ResourceMethodConfigTree<Boolean> _coalesceRequests = new ResourceMethodConfigTree<>();
+  private final ResourceMethodConfigTree<Boolean> _cacheResponses = new ResourceMethodConfigTree<>();
+  private final ResourceMethodConfigTree<Integer> _concurrencyLimit = new ResourceMethodConfigTree<>();
   private final ConcurrentMap<ResourceMethodConfigCacheKey, ResourceMethodConfig> _cache = new ConcurrentHashMap<>();
   private boolean _shouldValidateQueryParams;
   private boolean _shouldValidateResourceKey;
@@ -46,6 +49,9 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
   {
     boolean success = initializeProperty(config.getTimeoutMsConfig(), RestLiMethodConfig.ConfigType.TIMEOUT);
     success &= initializeProperty(config.getAlwaysProjectedFieldsConfig(), RestLiMethodConfig.ConfigType.ALWAYS_PROJECTED_FIELDS);
+    success &= initializeProperty(config.getCoalesceRequestsConfig(), RestLiMethodConfig.ConfigType.COALESCE_REQUESTS);
+    success &= initializeProperty(config.getCacheResponsesConfig(), RestLiMethodConfig.ConfigType.CACHE_RESPONSES);
+    success &= initializeProperty(config.getConcurrencyLimitConfig(), RestLiMethodConfig.ConfigType.CONCURRENCY_LIMIT);
     if (!success)
     {
       throw new ResourceMethodConfigParsingException("Rest.li resource method level configuration parsing error!");
@@ -78,6 +84,15 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
       case ALWAYS_PROJECTED_FIELDS:
         elements = _alwaysProjectedFields.getConfigItemsByPriority();
         break;
+      case COALESCE_REQUESTS:
+        elements = _coalesceRequests.getConfigItemsByPriority();
+        break;
+      case CACHE_RESPONSES:
+        elements = _cacheResponses.getConfigItemsByPriority();
+        break;
+      case CONCURRENCY_LIMIT:
+        elements = _concurrencyLimit.getConfigItemsByPriority();
+        break;
     }
     StringBuilder sb = new StringBuilder();
     sb.append("RestLi MethodLevel Configuration for property " + configType.getConfigName() + " sorted by priority - first match gets applied:\n");
@@ -98,6 +113,15 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
       case ALWAYS_PROJECTED_FIELDS:
         _alwaysProjectedFields.add(element);
         break;
+      case COALESCE_REQUESTS:
+        _coalesceRequests.add(element);
+        break;
+      case CACHE_RESPONSES:
+        _cacheResponses.add(element);
+        break;
+      case CONCURRENCY_LIMIT:
+        _concurrencyLimit.add(element);
+        break;
       default: throw new ResourceMethodConfigParsingException("Unrecognized property: " + element.getProperty());
     }
   }
@@ -112,7 +136,10 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
   private ResourceMethodConfig resolve(ResourceMethodConfigCacheKey cacheKey)
   {
     return new ResourceMethodConfigImpl(_timeoutMs.resolve(cacheKey), _shouldValidateQueryParams,
-        _shouldValidateResourceKey, _alwaysProjectedFields.resolve(cacheKey));
+        _shouldValidateResourceKey, _alwaysProjectedFields.resolve(cacheKey),
+        Boolean.TRUE.equals(_coalesceRequests.resolve(cacheKey).getValue()),
+        Boolean.TRUE.equals(_cacheResponses.resolve(cacheKey).getValue()),
+        _concurrencyLimit.resolve(cacheKey).getValue());
   }
 
   /**
@@ -122,6 +149,9 @@ class ResourceMethodConfigProviderImpl implements ResourceMethodConfigProvider
   {
     RestLiMethodConfigBuilder builder = new RestLiMethodConfigBuilder();
     builder.addTimeoutMs("*.*", DEFAULT_TIMEOUT);
+    builder.addCoalesceRequests("*.*", false);
+    builder.addCacheResponses("*.*", false);
+    builder.addConcurrencyLimit("*.*", 0);
     return builder.build();
   }
 }
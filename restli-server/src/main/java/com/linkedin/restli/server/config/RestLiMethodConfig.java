@@ -1,5 +1,6 @@
 package com.linkedin.restli.server.config;
 
+import java.util.Collections;
 import java.util.Map;
 
 
@@ -13,7 +14,10 @@ public interface RestLiMethodConfig
   enum ConfigType
   {
     TIMEOUT("timeoutMs"),
-    ALWAYS_PROJECTED_FIELDS("alwaysProjectedFields");
+    ALWAYS_PROJECTED_FIELDS("alwaysProjectedFields"),
+    COALESCE_REQUESTS("coalesceRequests"),
+    CACHE_RESPONSES("cacheResponses"),
+    CONCURRENCY_LIMIT("concurrencyLimit");
 
     ConfigType(String configName)
     {
@@ -48,4 +52,31 @@ public interface RestLiMethodConfig
    * provided as comma separated string.
    */
   Map<String, String> getAlwaysProjectedFieldsConfig();
+
+  /**
+   * Returns the method level configuration of whether identical concurrent requests share a single invocation of the
+   * resource method. Only GET, BATCH_GET and FINDER methods are coalesced.
+   */
+  default Map<String, Boolean> getCoalesceRequestsConfig()
+  {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Returns the method level configuration of whether responses are stored in the
+   * {@link com.linkedin.restli.server.ResponseCache} of the server. Only GET, BATCH_GET and FINDER responses are cached.
+   */
+  default Map<String, Boolean> getCacheResponsesConfig()
+  {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Returns the method level maximum number of concurrent requests admitted by the
+   * {@link com.linkedin.restli.server.AdmissionController} of the server. 0 means requests are not limited.
+   */
+  default Map<String, Integer> getConcurrencyLimitConfig()
+  {
+    return Collections.emptyMap();
+  }
 }
@@ -13,6 +13,9 @@ public class RestLiMethodConfigBuilder
 {
   private final Map<String, Long> _timeoutMsConfig = new HashMap<>();
   private final Map<String, String> _alwaysProjectedFieldsConfig = new HashMap<>();
+  private final Map<String, Boolean> _coalesceRequestsConfig = new HashMap<>();
+  private final Map<String, Boolean> _cacheResponsesConfig = new HashMap<>();
+  private final Map<String, Integer> _concurrencyLimitConfig = new HashMap<>();
   // Whether to validate parameter in the query parameters.
   private boolean shouldValidateQueryParams = false;
   private boolean shouldValidateResourceKeys = false;
@@ -34,13 +37,17 @@ public class RestLiMethodConfigBuilder
       withShouldValidateQueryParams(config.shouldValidateQueryParams());
       withShouldValidateResourceKeys(config.shouldValidateResourceKey());
       addAlwaysProjectedFieldsMap(config.getAlwaysProjectedFieldsConfig());
+      addCoalesceRequestsMap(config.getCoalesceRequestsConfig());
+      addCacheResponsesMap(config.getCacheResponsesConfig());
+      addConcurrencyLimitMap(config.getConcurrencyLimitConfig());
     }
   }
 
   public RestLiMethodConfig build()
   {
     return new RestLiMethodConfigImpl(_timeoutMsConfig, shouldValidateQueryParams, shouldValidateResourceKeys,
-        _alwaysProjectedFieldsConfig);
+        _alwaysProjectedFieldsConfig, _coalesceRequestsConfig, _cacheResponsesConfig,
+        _concurrencyLimitConfig);
   }
 
   public RestLiMethodConfigBuilder withShouldValidateQueryParams(boolean shouldValidateQueryParams)
@@ -90,4 +97,58 @@ public class RestLiMethodConfigBuilder
     _alwaysProjectedFieldsConfig.clear();
     return this;
   }
+
+  public RestLiMethodConfigBuilder addCoalesceRequestsMap(Map<String, Boolean> config)
+  {
+    _coalesceRequestsConfig.putAll(config);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder addCoalesceRequests(String key, boolean value)
+  {
+    _coalesceRequestsConfig.put(key, value);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder clearCoalesceRequests()
+  {
+    _coalesceRequestsConfig.clear();
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder addCacheResponsesMap(Map<String, Boolean> config)
+  {
+    _cacheResponsesConfig.putAll(config);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder addCacheResponses(String key, boolean value)
+  {
+    _cacheResponsesConfig.put(key, value);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder clearCacheResponses()
+  {
+    _cacheResponsesConfig.clear();
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder addConcurrencyLimitMap(Map<String, Integer> config)
+  {
+    _concurrencyLimitConfig.putAll(config);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder addConcurrencyLimit(String key, int value)
+  {
+    _concurrencyLimitConfig.put(key, value);
+    return this;
+  }
+
+  public RestLiMethodConfigBuilder clearConcurrencyLimit()
+  {
+    _concurrencyLimitConfig.clear();
+    return this;
+  }
 }
@@ -10,6 +10,9 @@ class RestLiMethodConfigImpl implements RestLiMethodConfig
   private boolean _validateQueryParams;
   private boolean _validateResourceKeys;
   private final Map<String, String> _alwaysProjectedFieldsConfig;
+  private final Map<String, Boolean> _coalesceRequestsConfig;
+  private final Map<String, Boolean> _cacheResponsesConfig;
+  private final Map<String, Integer> _concurrencyLimitConfig;
 
   /**
    * @deprecated Use {@link RestLiMethodConfigBuilder} to build this type.
@@ -18,16 +21,22 @@ class RestLiMethodConfigImpl implements RestLiMethodConfig
   public RestLiMethodConfigImpl(Map<String, Long> timeoutMsConfig, boolean validateQueryParams,
       boolean validateResourceKeys)
   {
-    this(timeoutMsConfig, validateQueryParams, validateResourceKeys, Collections.emptyMap());
+    this(timeoutMsConfig, validateQueryParams, validateResourceKeys, Collections.emptyMap(), Collections.emptyMap(),
+        Collections.emptyMap(), Collections.emptyMap());
   }
 
   RestLiMethodConfigImpl(Map<String, Long> timeoutMsConfig, boolean validateQueryParams,
-      boolean validateResourceKeys, Map<String, String> alwaysProjectedFieldsConfig)
+      boolean validateResourceKeys, Map<String, String> alwaysProjectedFieldsConfig,
+      Map<String, Boolean> coalesceRequestsConfig, Map<String, Boolean> cacheResponsesConfig,
+      Map<String, Integer> concurrencyLimitConfig)
   {
     _timeoutMsConfig = timeoutMsConfig;
     _validateQueryParams = validateQueryParams;
     _validateResourceKeys = validateResourceKeys;
     _alwaysProjectedFieldsConfig = alwaysProjectedFieldsConfig;
+    _coalesceRequestsConfig = coalesceRequestsConfig;
+    _cacheResponsesConfig = cacheResponsesConfig;
+    _concurrencyLimitConfig = concurrencyLimitConfig;
   }
   @Override
   public Map<String, Long> getTimeoutMsConfig()
@@ -52,4 +61,22 @@ class RestLiMethodConfigImpl implements RestLiMethodConfig
   {
     return _alwaysProjectedFieldsConfig;
   }
+
+  @Override
+  public Map<String, Boolean> getCoalesceRequestsConfig()
+  {
+    return _coalesceRequestsConfig;
+  }
+
+  @Override
+  public Map<String, Boolean> getCacheResponsesConfig()
+  {
+    return _cacheResponsesConfig;
+  }
+
+  @Override
+  public Map<String, Integer> getConcurrencyLimitConfig()
+  {
+    return _concurrencyLimitConfig;
+  }
 }
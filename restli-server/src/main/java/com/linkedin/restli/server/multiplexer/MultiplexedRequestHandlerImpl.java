@@ -41,6 +41,7 @@ import com.linkedin.restli.common.multiplexer.IndividualResponseMap;
 import com.linkedin.restli.common.multiplexer.MultiplexedRequestContent;
 import com.linkedin.restli.common.multiplexer.MultiplexedResponseContent;
 import com.linkedin.restli.internal.common.CookieUtil;
+import com.linkedin.restli.internal.server.BatchingScope;
 import com.linkedin.restli.internal.server.response.ErrorResponseBuilder;
 import com.linkedin.restli.internal.server.util.DataMapUtils;
 
@@ -75,6 +76,7 @@ public class MultiplexedRequestHandlerImpl implements MultiplexedRequestHandler
   private final Set<String> _individualRequestHeaderWhitelist;
   private final MultiplexerRunMode _multiplexerRunMode;
   private final ErrorResponseBuilder _errorResponseBuilder;
+  private final boolean _batchingEnabled;
 
   /**
    * @param requestHandler        the handler that will take care of individual requests
@@ -92,6 +94,30 @@ public class MultiplexedRequestHandlerImpl implements MultiplexedRequestHandler
                                        MultiplexerSingletonFilter multiplexerSingletonFilter,
                                        MultiplexerRunMode multiplexerRunMode,
                                        ErrorResponseBuilder errorResponseBuilder)
+  {
+    this(requestHandler, engine, maximumRequestsNumber, individualRequestHeaderWhitelist, multiplexerSingletonFilter,
+        multiplexerRunMode, errorResponseBuilder, false);
+  }
+
+  /**
+   * @param requestHandler        the handler that will take care of individual requests
+   * @param engine                ParSeq engine to run request handling on
+   * @param maximumRequestsNumber the maximum number of individual requests allowed in a multiplexed request
+   * @param individualRequestHeaderWhitelist a set of request header names to allow if specified in the individual request
+   * @param multiplexerSingletonFilter the singleton filter that is used by multiplexer to pre-process individual request and
+   *                                   post-process individual response. Pass in null if no pre-processing or post-processing are required.
+   * @param multiplexerRunMode    MultiplexedRequest run mode, see {@link MultiplexerRunMode}
+   * @param batchingEnabled       whether sibling GET requests are merged into BATCH_GET invocations, see
+   *                              {@link com.linkedin.restli.server.RestLiConfig#setMultiplexerBatchingEnabled(boolean)}
+   */
+  public MultiplexedRequestHandlerImpl(RestRequestHandler requestHandler,
+                                       Engine engine,
+                                       int maximumRequestsNumber,
+                                       Set<String> individualRequestHeaderWhitelist,
+                                       MultiplexerSingletonFilter multiplexerSingletonFilter,
+                                       MultiplexerRunMode multiplexerRunMode,
+                                       ErrorResponseBuilder errorResponseBuilder,
+                                       boolean batchingEnabled)
   {
     _requestHandler = requestHandler;
     _engine = engine;
@@ -104,6 +130,7 @@ public class MultiplexedRequestHandlerImpl implements MultiplexedRequestHandler
     _multiplexerSingletonFilter = multiplexerSingletonFilter;
     _multiplexerRunMode = multiplexerRunMode;
     _errorResponseBuilder = errorResponseBuilder;
+    _batchingEnabled = batchingEnabled;
   }
 
   @Override
@@ -223,12 +250,25 @@ public class MultiplexedRequestHandlerImpl implements MultiplexedRequestHandler
                                                 Map<String, HttpCookie> responseCookies)
   {
     List<Task<?>> tasks = new ArrayList<>(individualRequests.size());
+    // GETs of sibling requests can be merged if they are handled within the same plan
+    BatchingScope batchingScope = _batchingEnabled && _multiplexerRunMode == MultiplexerRunMode.SINGLE_PLAN
+        && individualRequests.size() > 1 ? new BatchingScope() : null;
     for (IndividualRequestMap.Entry<String, IndividualRequest> individualRequestMapEntry : individualRequests.entrySet())
     {
       String id = individualRequestMapEntry.getKey();
       IndividualRequest individualRequest = individualRequestMapEntry.getValue();
       // create a task for the current request
-      Task<Void> individualRequestTask = createRequestHandlingTask(id, envelopeRequest, requestContext, individualRequest, individualResponses, responseCookies);
+      BatchingScope.Participant participant = batchingScope == null ? null : batchingScope.newParticipant();
+      Task<Void> individualRequestTask = createRequestHandlingTask(id, envelopeRequest, requestContext, individualRequest, individualResponses, responseCookies, participant);
+      if (participant != null)
+      {
+        // the request can no longer hold back the others once it is done, even if it failed before being handled
+        individualRequestTask = individualRequestTask.transform("leave batching scope", result ->
+          {
+            participant.depart();
+            return result;
+          });
+      }
       IndividualRequestMap dependentRequests = individualRequest.getDependentRequests();
       if (dependentRequests.isEmpty())
       {
@@ -251,13 +291,14 @@ public class MultiplexedRequestHandlerImpl implements MultiplexedRequestHandler
                                                final RequestContext requestContext,
                                                final IndividualRequest individualRequest,
                                                final IndividualResponseMap individualResponses,
-                                               final Map<String, HttpCookie> responseCookies)
+                                               final Map<String, HttpCookie> responseCookies,
+                                               final BatchingScope.Participant participant)
   {
     final RequestSanitizationTask requestSanitizationTask = new RequestSanitizationTask(individualRequest, _individualRequestHeaderWhitelist, _errorResponseBuilder);
     final InheritEnvelopeRequestTask inheritEnvelopeRequestTask = new InheritEnvelopeRequestTask(envelopeRequest, requestSanitizationTask);
     final RequestFilterTask requestFilterTask = new RequestFilterTask(_multiplexerSingletonFilter, _errorResponseBuilder, inheritEnvelopeRequestTask);
     final SyntheticRequestCreationTask syntheticRequestCreationTask = new SyntheticRequestCreationTask(id, envelopeRequest, _errorResponseBuilder, requestFilterTask);
-    final RequestHandlingTask requestHandlingTask = new RequestHandlingTask(_requestHandler, syntheticRequestCreationTask, requestContext, _multiplexerRunMode);
+    final RequestHandlingTask requestHandlingTask = new RequestHandlingTask(_requestHandler, syntheticRequestCreationTask, requestContext, _multiplexerRunMode, participant);
     final IndividualResponseConversionTask toIndividualResponseTask = new IndividualResponseConversionTask(id, _errorResponseBuilder, requestHandlingTask);
     final ResponseFilterTask responseFilterTask = new ResponseFilterTask(_multiplexerSingletonFilter, _errorResponseBuilder, toIndividualResponseTask);
     final Task<Void> addResponseTask = Task.action("add response", () ->
@@ -28,6 +28,7 @@ import com.linkedin.r2.message.rest.RestException;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.transport.common.RestRequestHandler;
+import com.linkedin.restli.internal.server.BatchingScope;
 import com.linkedin.restli.internal.server.RestLiMethodInvoker;
 
 
@@ -46,14 +47,16 @@ import com.linkedin.restli.internal.server.RestLiMethodInvoker;
   private final BaseTask<RestRequest> _request;
   private final RequestContext _requestContext;
   private final MultiplexerRunMode _multiplexerRunMode;
+  private final BatchingScope.Participant _batchingParticipant;
 
   /* package private */ RequestHandlingTask(RestRequestHandler requestHandler, BaseTask<RestRequest> request, RequestContext requestContext,
-      MultiplexerRunMode multiplexerRunMode)
+      MultiplexerRunMode multiplexerRunMode, BatchingScope.Participant batchingParticipant)
   {
     _requestHandler = requestHandler;
     _request = request;
     _requestContext = requestContext;
     _multiplexerRunMode = multiplexerRunMode;
+    _batchingParticipant = batchingParticipant;
   }
 
   @Override
@@ -89,6 +92,10 @@ import com.linkedin.restli.internal.server.RestLiMethodInvoker;
 
     if (_request.isFailed())
     {
+      if (_batchingParticipant != null)
+      {
+        _batchingParticipant.depart();
+      }
       callback.onError(_request.getError());
     }
     else
@@ -100,6 +107,7 @@ import com.linkedin.restli.internal.server.RestLiMethodInvoker;
         {
           RestLiMethodInvoker.TASK_CONTEXT.set(context);
         }
+        BatchingScope.setCurrent(_batchingParticipant);
         _requestHandler.handleRequest(_request.get(), _requestContext, callback);
       }
       catch (Exception e)
@@ -108,6 +116,12 @@ import com.linkedin.restli.internal.server.RestLiMethodInvoker;
       }
       finally
       {
+        BatchingScope.setCurrent(null);
+        if (_batchingParticipant != null)
+        {
+          // held back GETs may be invoked here, within the plan of the multiplexed request
+          _batchingParticipant.depart();
+        }
         if (_multiplexerRunMode == MultiplexerRunMode.SINGLE_PLAN)
         {
           RestLiMethodInvoker.TASK_CONTEXT.set(null);
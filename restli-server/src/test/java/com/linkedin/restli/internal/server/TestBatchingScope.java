@@ -0,0 +1,342 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.restli.internal.server.model.AnnotationSet;
+import com.linkedin.restli.internal.server.model.Parameter;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.server.BatchResult;
+import com.linkedin.restli.server.Key;
+import com.linkedin.restli.server.ProjectionMode;
+import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
+import com.linkedin.restli.server.config.RestLiMethodConfigBuilder;
+import com.linkedin.restli.server.resources.ResourceContextHolder;
+import com.linkedin.restli.server.resources.ResourceFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class TestBatchingScope
+{
+  private static final List<Set<Long>> BATCH_GETS = new ArrayList<>();
+  private static final List<ResourceMethodDescriptor> CONFIGURED_METHODS = new ArrayList<>();
+  private static final String BATCH_HEADER = "X-Batch";
+
+  private ResourceMethodDescriptor _get;
+  private ResourceMethodDescriptor _batchGet;
+  private ResourceMethodDescriptor _finder;
+  private RestLiMethodInvoker _invoker;
+
+  @BeforeClass
+  public void setUp() throws NoSuchMethodException
+  {
+    final Key key = new Key("id", Long.class);
+    final ResourceModel model = new ResourceModel(key, null, null, Collections.singleton(key), EmptyRecord.class,
+        CollectionResource.class, null, "resource", ResourceType.COLLECTION, "com.linkedin.test");
+    _get = ResourceMethodDescriptor.createForRestful(ResourceMethod.GET,
+        CollectionResource.class.getMethod("get", Long.class),
+        Collections.singletonList(parameter("id", Long.class, Parameter.ParamType.RESOURCE_KEY)), null,
+        ResourceMethodDescriptor.InterfaceType.SYNC, null);
+    _batchGet = ResourceMethodDescriptor.createForRestful(ResourceMethod.BATCH_GET,
+        CollectionResource.class.getMethod("batchGet", Set.class),
+        Collections.singletonList(parameter("ids", Set.class, Parameter.ParamType.BATCH)), null,
+        ResourceMethodDescriptor.InterfaceType.SYNC, null);
+    _finder = ResourceMethodDescriptor.createForRestful(ResourceMethod.FINDER,
+        CollectionResource.class.getMethod("get", Long.class), ResourceMethodDescriptor.InterfaceType.SYNC);
+    model.addResourceMethodDescriptor(_get);
+    model.addResourceMethodDescriptor(_batchGet);
+    model.addResourceMethodDescriptor(_finder);
+
+    _invoker = new RestLiMethodInvoker(new ResourceFactory()
+    {
+      @Override
+      public void setRootResources(Map<String, ResourceModel> rootResources)
+      {
+      }
+
+      @Override
+      public <R> R create(Class<R> resourceClass)
+      {
+        return resourceClass.cast(new CollectionResource());
+      }
+    }, null, "error", descriptor ->
+    {
+      CONFIGURED_METHODS.add(descriptor);
+      return ResourceMethodConfigProvider.build(new RestLiMethodConfigBuilder().build()).apply(descriptor);
+    });
+  }
+
+  @BeforeMethod
+  public void clearBatchGets()
+  {
+    BATCH_GETS.clear();
+    CONFIGURED_METHODS.clear();
+  }
+
+  @Test
+  public void testFindBatchGet()
+  {
+    Assert.assertSame(BatchingScope.findBatchGet(_get), _batchGet);
+    Assert.assertNull(BatchingScope.findBatchGet(_batchGet));
+    Assert.assertNull(BatchingScope.findBatchGet(_finder));
+  }
+
+  @Test
+  public void testGetsAreMergedIntoBatchGet() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+    final BatchingScope.Participant third = scope.newParticipant();
+    final BatchingScope.Participant fourth = scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    final RecordingCallback found = new RecordingCallback();
+    final RecordingCallback missing = new RecordingCallback();
+    final RecordingCallback failed = new RecordingCallback();
+    final BatchingScope.HeldGet firstGet = heldGet(1L, found, invokedAlone);
+    final BatchingScope.HeldGet secondGet = heldGet(2L, missing, invokedAlone);
+    Assert.assertTrue(first.hold(firstGet));
+    Assert.assertTrue(second.hold(secondGet));
+    Assert.assertTrue(third.hold(heldGet(CollectionResource.FAILING_ID, failed, invokedAlone)));
+    Assert.assertTrue(BATCH_GETS.isEmpty());
+
+    fourth.depart();
+    Assert.assertEquals(BATCH_GETS, Collections.singletonList(
+        new HashSet<>(Arrays.asList(1L, 2L, CollectionResource.FAILING_ID))));
+    Assert.assertEquals(invokedAlone.get(), 0);
+    Assert.assertNotNull(found._result);
+    Assert.assertNull(missing._result);
+    Assert.assertNull(missing._error);
+    Assert.assertEquals(((RestLiServiceException) failed._error).getStatus(), HttpStatus.S_403_FORBIDDEN);
+    Assert.assertEquals(CONFIGURED_METHODS, Collections.singletonList(_batchGet));
+
+    // The BATCH_GET has a context of its own, and the response headers it sets go to all the merged requests
+    Assert.assertEquals(firstGet._context.getResponseHeaders().get(BATCH_HEADER), "true");
+    Assert.assertEquals(secondGet._context.getResponseHeaders().get(BATCH_HEADER), "true");
+    Assert.assertNull(firstGet._context.getPathKeys().getBatchIds());
+  }
+
+  @Test
+  public void testBatchKeyErrorsOfContext() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+
+    final RecordingCallback found = new RecordingCallback();
+    final RecordingCallback failed = new RecordingCallback();
+    Assert.assertTrue(first.hold(heldGet(1L, found, new AtomicInteger())));
+    Assert.assertTrue(second.hold(heldGet(CollectionResource.CONTEXT_FAILING_ID, failed, new AtomicInteger())));
+    Assert.assertNotNull(found._result);
+    Assert.assertEquals(((RestLiServiceException) failed._error).getStatus(), HttpStatus.S_409_CONFLICT);
+  }
+
+  @Test
+  public void testGetsWithDifferentProjectionsAreNotMerged() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+    final BatchingScope.Participant third = scope.newParticipant();
+    final BatchingScope.Participant fourth = scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    Assert.assertTrue(first.hold(heldGet(1L, "", new RecordingCallback(), invokedAlone)));
+    Assert.assertTrue(second.hold(heldGet(2L, "?fields=a", new RecordingCallback(), invokedAlone)));
+    final BatchingScope.HeldGet manual = heldGet(4L, "", new RecordingCallback(), invokedAlone);
+    Assert.assertTrue(third.hold(new BatchingScope.HeldGet(_invoker, _get, _batchGet, null, manualProjection(manual),
+        manual._callback, invokedAlone::incrementAndGet)));
+    fourth.depart();
+    Assert.assertTrue(BATCH_GETS.isEmpty());
+    Assert.assertEquals(invokedAlone.get(), 3);
+  }
+
+  @Test
+  public void testGetsWithSameProjectionAreMerged() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    Assert.assertTrue(first.hold(heldGet(1L, "?fields=a", new RecordingCallback(), invokedAlone)));
+    Assert.assertTrue(second.hold(heldGet(2L, "?fields=a", new RecordingCallback(), invokedAlone)));
+    Assert.assertEquals(BATCH_GETS, Collections.singletonList(new HashSet<>(Arrays.asList(1L, 2L))));
+    Assert.assertEquals(invokedAlone.get(), 0);
+  }
+
+  @Test
+  public void testGetsWithDifferentHeadersAreNotMerged() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+    final BatchingScope.Participant third = scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    Assert.assertTrue(first.hold(heldGet(1L, Collections.singletonMap("Authorization", "Bearer first"),
+        new RecordingCallback(), invokedAlone)));
+    Assert.assertTrue(second.hold(heldGet(2L, Collections.singletonMap("Authorization", "Bearer second"),
+        new RecordingCallback(), invokedAlone)));
+    third.depart();
+    Assert.assertTrue(BATCH_GETS.isEmpty());
+    Assert.assertEquals(invokedAlone.get(), 2);
+  }
+
+  @Test
+  public void testSingleGetIsInvokedAlone() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    final BatchingScope.Participant second = scope.newParticipant();
+    final BatchingScope.Participant third = scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    // Both requests target the same entity, so there is nothing to batch
+    Assert.assertTrue(first.hold(heldGet(1L, new RecordingCallback(), invokedAlone)));
+    Assert.assertTrue(second.hold(heldGet(1L, new RecordingCallback(), invokedAlone)));
+    third.depart();
+    Assert.assertTrue(BATCH_GETS.isEmpty());
+    Assert.assertEquals(invokedAlone.get(), 2);
+  }
+
+  @Test
+  public void testDepartedParticipantDoesNotHold() throws Exception
+  {
+    final BatchingScope scope = new BatchingScope();
+    final BatchingScope.Participant first = scope.newParticipant();
+    scope.newParticipant();
+    final AtomicInteger invokedAlone = new AtomicInteger();
+
+    first.depart();
+    first.depart();
+    Assert.assertFalse(first.hold(heldGet(1L, new RecordingCallback(), invokedAlone)));
+    Assert.assertEquals(invokedAlone.get(), 0);
+  }
+
+  private static ServerResourceContext manualProjection(BatchingScope.HeldGet heldGet)
+  {
+    heldGet._context.setProjectionMode(ProjectionMode.MANUAL);
+    return heldGet._context;
+  }
+
+  private BatchingScope.HeldGet heldGet(Long id, Callback<Object> callback, AtomicInteger invokedAlone) throws Exception
+  {
+    return heldGet(id, "", Collections.emptyMap(), callback, invokedAlone);
+  }
+
+  private BatchingScope.HeldGet heldGet(Long id, String query, Callback<Object> callback, AtomicInteger invokedAlone)
+      throws Exception
+  {
+    return heldGet(id, query, Collections.emptyMap(), callback, invokedAlone);
+  }
+
+  private BatchingScope.HeldGet heldGet(Long id, Map<String, String> headers, Callback<Object> callback,
+      AtomicInteger invokedAlone) throws Exception
+  {
+    return heldGet(id, "", headers, callback, invokedAlone);
+  }
+
+  private BatchingScope.HeldGet heldGet(Long id, String query, Map<String, String> headers,
+      Callback<Object> callback, AtomicInteger invokedAlone) throws Exception
+  {
+    final ServerResourceContext context = new ResourceContextImpl(new PathKeysImpl().append("id", id),
+        new RestRequestBuilder(URI.create("/resource/" + id + query))
+            .setHeaders(headers)
+            .setHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+                AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString())
+            .build(), new RequestContext());
+    return new BatchingScope.HeldGet(_invoker, _get, _batchGet, null, context, callback, invokedAlone::incrementAndGet);
+  }
+
+  private static <T> Parameter<T> parameter(String name, Class<T> type, Parameter.ParamType paramType)
+  {
+    return new Parameter<>(name, type, null, false, null, paramType, false, AnnotationSet.EMPTY);
+  }
+
+  public static class CollectionResource extends ResourceContextHolder
+  {
+    static final Long FAILING_ID = 3L;
+    static final Long CONTEXT_FAILING_ID = 5L;
+
+    public EmptyRecord get(Long id)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    public BatchResult<Long, RecordTemplate> batchGet(Set<Long> ids)
+    {
+      // The keys of the merged requests are the batch ids of the context, as for a BATCH_GET request
+      Assert.assertEquals(getContext().getPathKeys().getBatchIds(), ids);
+      Assert.assertFalse(getContext().getPathKeys().getKeyMap().containsKey("id"));
+      BATCH_GETS.add(getContext().getPathKeys().getBatchIds());
+      getContext().setResponseHeader(BATCH_HEADER, "true");
+      if (ids.contains(CONTEXT_FAILING_ID))
+      {
+        ((ServerResourceContext) getContext()).getBatchKeyErrors().put(CONTEXT_FAILING_ID,
+            new RestLiServiceException(HttpStatus.S_409_CONFLICT));
+      }
+      final Map<Long, RecordTemplate> data = new HashMap<>();
+      data.put(1L, new EmptyRecord());
+      return new BatchResult<>(data,
+          Collections.singletonMap(FAILING_ID, new RestLiServiceException(HttpStatus.S_403_FORBIDDEN)));
+    }
+  }
+
+  private static class RecordingCallback implements Callback<Object>
+  {
+    private Object _result;
+    private Throwable _error;
+
+    @Override
+    public void onSuccess(Object result)
+    {
+      _result = result;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _error = e;
+    }
+  }
+}
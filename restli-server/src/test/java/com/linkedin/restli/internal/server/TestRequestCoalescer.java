@@ -0,0 +1,193 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.server.BatchResult;
+import com.linkedin.restli.server.Key;
+import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
+import com.linkedin.restli.server.config.RestLiMethodConfigBuilder;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class TestRequestCoalescer
+{
+  private ResourceMethodDescriptor _get;
+  private ResourceMethodDescriptor _batchGet;
+  private ResourceMethodDescriptor _update;
+
+  @BeforeClass
+  public void setUp() throws NoSuchMethodException
+  {
+    final Method method = TestRequestCoalescer.class.getDeclaredMethod("setUp");
+    final Key key = new Key("id", Long.class);
+    final ResourceModel model = new ResourceModel(key, null, null, Collections.singleton(key), EmptyRecord.class,
+        TestRequestCoalescer.class, null, "resource", ResourceType.COLLECTION, "com.linkedin.test");
+    _get = ResourceMethodDescriptor.createForRestful(ResourceMethod.GET, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    _batchGet = ResourceMethodDescriptor.createForRestful(ResourceMethod.BATCH_GET, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    _update = ResourceMethodDescriptor.createForRestful(ResourceMethod.UPDATE, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    model.addResourceMethodDescriptor(_get);
+    model.addResourceMethodDescriptor(_batchGet);
+    model.addResourceMethodDescriptor(_update);
+  }
+
+  @Test
+  public void testIsEnabled()
+  {
+    final ResourceMethodConfigProvider defaults = ResourceMethodConfigProvider.build(new RestLiMethodConfigBuilder().build());
+    final ResourceMethodConfigProvider enabled = ResourceMethodConfigProvider.build(
+        new RestLiMethodConfigBuilder().addCoalesceRequests("resource.*", true).build());
+
+    Assert.assertFalse(RequestCoalescer.isEnabled(_get, null));
+    Assert.assertFalse(RequestCoalescer.isEnabled(_get, defaults.apply(_get)));
+    Assert.assertTrue(RequestCoalescer.isEnabled(_get, enabled.apply(_get)));
+    Assert.assertTrue(RequestCoalescer.isEnabled(_batchGet, enabled.apply(_batchGet)));
+    Assert.assertFalse(RequestCoalescer.isEnabled(_update, enabled.apply(_update)));
+  }
+
+  @Test
+  public void testIdenticalRequestsShareInvocation() throws Exception
+  {
+    final RequestCoalescer coalescer = new RequestCoalescer();
+    final RecordingCallback first = new RecordingCallback();
+    final RecordingCallback second = new RecordingCallback();
+    final RecordingCallback other = new RecordingCallback();
+
+    final ServerResourceContext firstContext = context("/resource/1?fields=a");
+    final Callback<Object> invocation = coalescer.join(_get, firstContext, first);
+    Assert.assertNotNull(invocation);
+    final ServerResourceContext secondContext = context("/resource/1?fields=a");
+    Assert.assertNull(coalescer.join(_get, secondContext, second));
+    Assert.assertNotNull(coalescer.join(_get, context("/resource/1?fields=b"), other));
+    Assert.assertEquals(coalescer.getInFlightCount(), 2);
+
+    final EmptyRecord result = new EmptyRecord();
+    firstContext.setResponseHeader("X-Test", "value");
+    invocation.onSuccess(result);
+
+    Assert.assertSame(first._result, result);
+    Assert.assertSame(second._result, result);
+    Assert.assertNull(other._result);
+    Assert.assertEquals(secondContext.getResponseHeaders().get("X-Test"), "value");
+    Assert.assertEquals(coalescer.getInFlightCount(), 1);
+
+    // Later requests start a new invocation
+    Assert.assertNotNull(coalescer.join(_get, context("/resource/1?fields=a"), new RecordingCallback()));
+  }
+
+  @Test
+  public void testErrorIsShared() throws Exception
+  {
+    final RequestCoalescer coalescer = new RequestCoalescer();
+    final RecordingCallback first = new RecordingCallback();
+    final RecordingCallback second = new RecordingCallback();
+
+    final Callback<Object> invocation = coalescer.join(_get, context("/resource/1"), first);
+    Assert.assertNull(coalescer.join(_get, context("/resource/1"), second));
+
+    final RestLiServiceException error = new RestLiServiceException(HttpStatus.S_404_NOT_FOUND);
+    invocation.onError(error);
+    Assert.assertSame(first._error, error);
+    Assert.assertSame(second._error, error);
+    Assert.assertEquals(coalescer.getInFlightCount(), 0);
+  }
+
+  @Test
+  public void testBatchGetJoinsCoveringInvocation() throws Exception
+  {
+    final RequestCoalescer coalescer = new RequestCoalescer();
+    final RecordingCallback all = new RecordingCallback();
+    final RecordingCallback subset = new RecordingCallback();
+    final RecordingCallback disjoint = new RecordingCallback();
+
+    final Callback<Object> invocation = coalescer.join(_batchGet, batchContext(1L, 2L, 3L), all);
+    Assert.assertNull(coalescer.join(_batchGet, batchContext(3L, 1L), subset));
+    Assert.assertNotNull(coalescer.join(_batchGet, batchContext(1L, 4L), disjoint));
+
+    final Map<Long, EmptyRecord> data = new HashMap<>();
+    data.put(1L, new EmptyRecord());
+    data.put(2L, new EmptyRecord());
+    final BatchResult<Long, EmptyRecord> result = new BatchResult<>(data,
+        Collections.singletonMap(2L, HttpStatus.S_200_OK),
+        Collections.singletonMap(3L, new RestLiServiceException(HttpStatus.S_404_NOT_FOUND)));
+    invocation.onSuccess(result);
+
+    Assert.assertSame(all._result, result);
+    final BatchResult<?, ?> subsetResult = (BatchResult<?, ?>) subset._result;
+    Assert.assertEquals(subsetResult.keySet(), Collections.singleton(1L));
+    Assert.assertSame(subsetResult.get(1L), data.get(1L));
+    Assert.assertTrue(subsetResult.getStatuses().isEmpty());
+    Assert.assertEquals(subsetResult.getErrors().keySet(), Collections.singleton(3L));
+    Assert.assertNull(disjoint._result);
+  }
+
+  private static ServerResourceContext context(String uri) throws Exception
+  {
+    return new ResourceContextImpl(new PathKeysImpl(), new RestRequestBuilder(URI.create(uri))
+        .setHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+            AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString())
+        .build(), new RequestContext());
+  }
+
+  private static ServerResourceContext batchContext(Long... ids) throws Exception
+  {
+    final ServerResourceContext context = context("/resource?ids=List(" + ids.length + ")");
+    context.getPathKeys().setBatchKeys(new HashSet<>(Arrays.asList((Object[]) ids)));
+    return context;
+  }
+
+  private static class RecordingCallback implements Callback<Object>
+  {
+    private Object _result;
+    private Throwable _error;
+
+    @Override
+    public void onSuccess(Object result)
+    {
+      _result = result;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _error = e;
+    }
+  }
+}
@@ -25,14 +25,18 @@ import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
 import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.restli.internal.server.util.ProjectionPlan;
 import com.linkedin.restli.internal.server.util.RestLiSyntaxException;
+import com.linkedin.restli.internal.server.util.RestUtils;
 import com.linkedin.restli.server.LocalRequestProjectionMask;
 import com.linkedin.restli.server.RestLiServiceException;
 import com.linkedin.restli.server.test.TestResourceContext;
 
 import java.net.HttpCookie;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -78,6 +82,33 @@ public class TestResourceContextImpl
     Assert.assertFalse(foo.isPresent());
   }
 
+  @Test
+  public void testProjectionPlanIsKeptPerMask() throws RestLiSyntaxException
+  {
+    final ResourceContextImpl context = new ResourceContextImpl();
+    Assert.assertNull(context.getProjectionPlan());
+
+    final MaskTree mask = new MaskTree();
+    mask.addOperation(new PathSpec("a"), MaskOperation.POSITIVE_MASK_OP);
+    context.setProjectionMask(mask);
+    final ProjectionPlan plan = context.getProjectionPlan();
+    Assert.assertSame(context.getProjectionPlan(), plan);
+
+    final DataMap data = new DataMap();
+    data.put("a", 1);
+    data.put("b", 2);
+    data.put("c", 3);
+    Assert.assertEquals(RestUtils.projectFields(data, context).keySet(), Collections.singleton("a"));
+
+    // Changing the mask or the always projected fields compiles a new plan
+    context.setAlwaysProjectedFields(Collections.singleton("b"));
+    Assert.assertEquals(RestUtils.projectFields(data, context).keySet(), new HashSet<>(Arrays.asList("a", "b")));
+    final MaskTree otherMask = new MaskTree();
+    otherMask.addOperation(new PathSpec("c"), MaskOperation.POSITIVE_MASK_OP);
+    context.setProjectionMask(otherMask);
+    Assert.assertEquals(RestUtils.projectFields(data, context).keySet(), new HashSet<>(Arrays.asList("b", "c")));
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void testSetIdHeader() throws RestLiSyntaxException
   {
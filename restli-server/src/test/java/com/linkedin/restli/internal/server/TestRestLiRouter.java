@@ -57,6 +57,43 @@ public class TestRestLiRouter
     Assert.assertNotNull(method);
   }
 
+  @Test
+  public void succeedsOnChildResourceGet() throws URISyntaxException
+  {
+    final TestSetup setup = new TestSetup();
+    final ResourceModel childModel = RestLiAnnotationReader.processResource(ChildResource.class);
+    setup._rootModel.addSubResource("child", childModel);
+    setup.mockContextForRootResourceGetRequest(setup._rootPath + "/12345" + setup._childPath + "/54321");
+
+    final ResourceMethodDescriptor method = setup._router.process(setup._context);
+
+    Assert.assertSame(method.getResourceModel(), childModel);
+    Assert.assertEquals(method.getType(), ResourceMethod.GET);
+  }
+
+  @Test
+  public void succeedsOnEscapedRootPath() throws URISyntaxException
+  {
+    final TestSetup setup = new TestSetup();
+    setup.mockContextForRootResourceGetRequest("/r%6Fot/12345");
+
+    final ResourceMethodDescriptor method = setup._router.process(setup._context);
+
+    Assert.assertSame(method.getResourceModel(), setup._rootModel);
+  }
+
+  @Test
+  public void succeedsOnTrailingSlash() throws URISyntaxException
+  {
+    final TestSetup setup = new TestSetup();
+    setup.mockContextForRootResourceGetRequest(setup._rootPath + "/12345/");
+
+    final ResourceMethodDescriptor method = setup._router.process(setup._context);
+
+    Assert.assertSame(method.getResourceModel(), setup._rootModel);
+    Assert.assertEquals(method.getType(), ResourceMethod.GET);
+  }
+
   // ----------------------------------------------------------------------
   // negative cases
   // ----------------------------------------------------------------------
@@ -158,6 +195,16 @@ public class TestRestLiRouter
     }
   }
 
+  @RestLiCollection(parent = RootResource.class, name = "child", keyName = "childId")
+  private static class ChildResource extends CollectionResourceTemplate<Long, EmptyRecord>
+  {
+    @RestMethod.Get
+    public EmptyRecord get(@PathKeyParam("childId") Long id)
+    {
+      return new EmptyRecord();
+    }
+  }
+
   private static final class TestSetup
   {
     private final String _childPath;
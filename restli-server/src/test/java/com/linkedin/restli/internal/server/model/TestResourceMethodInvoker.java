@@ -0,0 +1,227 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.server.RestLiServiceException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link ResourceMethodInvoker}.
+ */
+public class TestResourceMethodInvoker
+{
+  public static class Resource
+  {
+    private String _value;
+
+    public String get(Long key, String field)
+    {
+      return key + ":" + field;
+    }
+
+    public long sum(int a, long b, Integer c)
+    {
+      return a + b + c;
+    }
+
+    public void set(String value)
+    {
+      _value = value;
+    }
+
+    public List<Object> all(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6, Object a7)
+    {
+      return Arrays.asList(a0, a1, a2, a3, a4, a5, a6, a7);
+    }
+
+    public List<Object> tooMany(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6,
+        Object a7, Object a8)
+    {
+      return Arrays.asList(a0, a1, a2, a3, a4, a5, a6, a7, a8);
+    }
+
+    public String fail()
+    {
+      throw new RestLiServiceException(HttpStatus.S_404_NOT_FOUND);
+    }
+
+    public String cast(Object value)
+    {
+      return (String) value;
+    }
+
+    public static String create(String value)
+    {
+      return value;
+    }
+  }
+
+  private static Method method(String name)
+  {
+    for (Method method : Resource.class.getMethods())
+    {
+      if (method.getName().equals(name))
+      {
+        return method;
+      }
+    }
+    throw new AssertionError(name);
+  }
+
+  @Test
+  public void testNoMethod()
+  {
+    Assert.assertNull(ResourceMethodInvoker.of(null));
+  }
+
+  @Test
+  public void testInvoke() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("get"));
+    Assert.assertTrue(invoker.isGenerated());
+    Assert.assertEquals(invoker.getMethod(), method("get"));
+    Assert.assertEquals(invoker.invoke(new Resource(), 1L, "a"), "1:a");
+    Assert.assertEquals(invoker.invoke(new Resource(), null, null), "null:null");
+  }
+
+  @Test
+  public void testInvokePrimitives() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("sum"));
+    Assert.assertTrue(invoker.isGenerated());
+    Assert.assertEquals(invoker.invoke(new Resource(), 1, 2L, 3), 6L);
+    // Widening conversions are left to reflection
+    Assert.assertEquals(invoker.invoke(new Resource(), (short) 1, 2, 3), 6L);
+  }
+
+  @Test
+  public void testInvokeVoid() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("set"));
+    Assert.assertTrue(invoker.isGenerated());
+    Resource resource = new Resource();
+    Assert.assertNull(invoker.invoke(resource, "a"));
+    Assert.assertEquals(resource._value, "a");
+  }
+
+  @Test
+  public void testArities() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("all"));
+    Assert.assertTrue(invoker.isGenerated());
+    Assert.assertEquals(invoker.invoke(new Resource(), 0, 1, 2, 3, 4, 5, 6, 7), Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7));
+
+    invoker = ResourceMethodInvoker.of(method("tooMany"));
+    Assert.assertFalse(invoker.isGenerated());
+    Assert.assertEquals(invoker.invoke(new Resource(), 0, 1, 2, 3, 4, 5, 6, 7, 8),
+        Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8));
+  }
+
+  @Test
+  public void testStaticMethod() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("create"));
+    Assert.assertFalse(invoker.isGenerated());
+    Assert.assertEquals(invoker.invoke(null, "a"), "a");
+  }
+
+  @Test
+  public void testException() throws Exception
+  {
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("fail"));
+    try
+    {
+      invoker.invoke(new Resource());
+      Assert.fail("Expected InvocationTargetException");
+    }
+    catch (InvocationTargetException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof RestLiServiceException);
+      Assert.assertEquals(((RestLiServiceException) e.getCause()).getStatus(), HttpStatus.S_404_NOT_FOUND);
+    }
+  }
+
+  @Test
+  public void testExceptionWithMatchingArguments() throws Exception
+  {
+    // The method, not the invoker, fails to cast the argument
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.of(method("cast"));
+    Assert.assertTrue(invoker.isGenerated());
+    try
+    {
+      invoker.invoke(new Resource(), 1L);
+      Assert.fail("Expected InvocationTargetException");
+    }
+    catch (InvocationTargetException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof ClassCastException);
+    }
+  }
+
+  @DataProvider
+  public Object[][] wrongArguments()
+  {
+    return new Object[][]
+    {
+        { "get", new Resource(), new Object[] { 1L } },
+        { "get", new Resource(), new Object[] { 1L, "a", "b" } },
+        { "get", new Resource(), new Object[] { 1, "a" } },
+        { "get", new Object(), new Object[] { 1L, "a" } },
+        { "sum", new Resource(), new Object[] { null, 2L, 3 } },
+        { "sum", new Resource(), new Object[] { 1L, 2L, 3 } },
+        { "set", new Resource(), null }
+    };
+  }
+
+  @Test(dataProvider = "wrongArguments")
+  public void testWrongArguments(String name, Object resource, Object[] arguments) throws Exception
+  {
+    // The invoker rejects the same arguments as reflection does
+    try
+    {
+      method(name).invoke(resource, arguments);
+      Assert.fail("Expected IllegalArgumentException from reflection");
+    }
+    catch (IllegalArgumentException e)
+    {
+      // expected
+    }
+    try
+    {
+      ResourceMethodInvoker.of(method(name)).invoke(resource, arguments);
+      Assert.fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+      // expected
+    }
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testNullResource() throws Exception
+  {
+    ResourceMethodInvoker.of(method("get")).invoke(null, 1L, "a");
+  }
+}
@@ -0,0 +1,216 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.response;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.ChunkedByteStringCollector;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.entitystream.CollectingReader;
+import com.linkedin.entitystream.EntityStream;
+import com.linkedin.restli.common.CollectionMetadata;
+import com.linkedin.restli.common.CollectionResponse;
+import com.linkedin.restli.common.ContentType;
+import com.linkedin.restli.common.LinkArray;
+import com.linkedin.restli.internal.server.methods.AnyRecord;
+import com.linkedin.restli.server.StreamingCollectionResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestStreamingCollectionWriter
+{
+  private static final int ELEMENT_COUNT = 2000;
+
+  @Test
+  public void testElementsAreEncodedAsTheyAreRead() throws Exception
+  {
+    final AtomicInteger produced = new AtomicInteger();
+    final StreamingElements elements = streamingElements(records(ELEMENT_COUNT, produced));
+    final RestLiResponse response = response(elements);
+
+    final EntityStream<ByteString> entityStream = ResponseUtils.encodeIncrementally(response, ContentType.JSON);
+    Assert.assertNotNull(entityStream);
+    Assert.assertEquals(produced.get(), 0);
+
+    final ChunkedByteStringCollector.Result result = read(entityStream);
+    Assert.assertEquals(produced.get(), ELEMENT_COUNT);
+    Assert.assertTrue(result.chunkCount > 1);
+
+    final DataMap decoded = new JacksonDataCodec().bytesToMap(result.data);
+    final DataList decodedElements = decoded.getDataList(CollectionResponse.ELEMENTS);
+    Assert.assertEquals(decodedElements.size(), ELEMENT_COUNT);
+    Assert.assertEquals(((DataMap) decodedElements.get(7)).getInteger("id"), Integer.valueOf(7));
+    Assert.assertEquals(decoded.getDataMap(CollectionResponse.PAGING).getInteger("count"), Integer.valueOf(ELEMENT_COUNT));
+    Assert.assertEquals(decoded.getDataMap(CollectionResponse.METADATA).getString("source"), "test");
+  }
+
+  @Test
+  public void testEmptyCollection() throws Exception
+  {
+    final RestLiResponse response = response(streamingElements(Collections.emptyIterator()));
+
+    final DataMap decoded =
+        new JacksonDataCodec().bytesToMap(read(ResponseUtils.encodeIncrementally(response, ContentType.JSON)).data);
+    Assert.assertTrue(decoded.getDataList(CollectionResponse.ELEMENTS).isEmpty());
+    Assert.assertEquals(decoded.getDataMap(CollectionResponse.PAGING).getInteger("count"), Integer.valueOf(0));
+  }
+
+  @Test
+  public void testElementsAccessedBeforeEncoding() throws Exception
+  {
+    final StreamingElements elements = streamingElements(records(3, new AtomicInteger()));
+    final RestLiResponse response = response(elements);
+
+    // A filter reading the elements gets all of them, and they are encoded as usual
+    Assert.assertEquals(elements.size(), 3);
+    Assert.assertNull(ResponseUtils.encodeIncrementally(response, ContentType.JSON));
+    Assert.assertEquals(response.getDataMap().getDataList(CollectionResponse.ELEMENTS).size(), 3);
+    Assert.assertEquals(response.getDataMap().getDataMap(CollectionResponse.PAGING).getInteger("count"), Integer.valueOf(3));
+  }
+
+  @Test
+  public void testOtherContentTypesAreNotStreamed() throws Exception
+  {
+    final RestLiResponse response = response(streamingElements(records(3, new AtomicInteger())));
+
+    Assert.assertNull(ResponseUtils.encodeIncrementally(response, ContentType.PSON));
+    Assert.assertEquals(response.getDataMap().getDataList(CollectionResponse.ELEMENTS).size(), 3);
+  }
+
+  @Test
+  public void testFailingIterator() throws Exception
+  {
+    final Iterator<RecordTemplate> records = records(ELEMENT_COUNT, new AtomicInteger());
+    final Iterator<RecordTemplate> failing = new Iterator<RecordTemplate>()
+    {
+      private int _count;
+
+      @Override
+      public boolean hasNext()
+      {
+        return records.hasNext();
+      }
+
+      @Override
+      public RecordTemplate next()
+      {
+        if (++_count > 10)
+        {
+          throw new IllegalStateException("Failed to produce an element");
+        }
+        return records.next();
+      }
+    };
+
+    try
+    {
+      read(ResponseUtils.encodeIncrementally(response(streamingElements(failing)), ContentType.JSON));
+      Assert.fail("The entity stream should fail");
+    }
+    catch (ExecutionException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testStreamingCollectionResult()
+  {
+    final StreamingCollectionResult<RecordTemplate, RecordTemplate> drained =
+        new StreamingCollectionResult<>(records(3, new AtomicInteger()));
+    Assert.assertEquals(drained.getElements().size(), 3);
+    Assert.assertNull(drained.takeIterator());
+
+    final StreamingCollectionResult<RecordTemplate, RecordTemplate> taken =
+        new StreamingCollectionResult<>(records(3, new AtomicInteger()));
+    Assert.assertNotNull(taken.takeIterator());
+    Assert.assertNull(taken.takeIterator());
+    try
+    {
+      taken.getElements();
+      Assert.fail("The elements should not be available");
+    }
+    catch (IllegalStateException e)
+    {
+      // expected
+    }
+  }
+
+  private static StreamingElements streamingElements(Iterator<? extends RecordTemplate> records)
+  {
+    return new StreamingElements(records, record -> record,
+        count -> new CollectionMetadata().setStart(0).setCount(count).setLinks(new LinkArray()));
+  }
+
+  private static RestLiResponse response(StreamingElements elements)
+  {
+    final CollectionResponse<AnyRecord> collectionResponse = new CollectionResponse<>(AnyRecord.class);
+    final DataMap metadata = new DataMap();
+    metadata.put("source", "test");
+    collectionResponse.setMetadataRaw(metadata);
+    return new RestLiResponse.Builder()
+        .entity(collectionResponse)
+        .streamingElements(elements)
+        .headers(Collections.emptyMap())
+        .build();
+  }
+
+  private static Iterator<RecordTemplate> records(int count, AtomicInteger produced)
+  {
+    final List<Integer> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++)
+    {
+      ids.add(i);
+    }
+    final Iterator<Integer> idIterator = ids.iterator();
+    return new Iterator<RecordTemplate>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return idIterator.hasNext();
+      }
+
+      @Override
+      public RecordTemplate next()
+      {
+        produced.incrementAndGet();
+        final DataMap data = new DataMap();
+        data.put("id", idIterator.next());
+        data.put("name", "element");
+        return new AnyRecord(data);
+      }
+    };
+  }
+
+  private static ChunkedByteStringCollector.Result read(EntityStream<ByteString> entityStream) throws Exception
+  {
+    final CollectingReader<ByteString, ?, ChunkedByteStringCollector.Result> reader =
+        new CollectingReader<>(new ChunkedByteStringCollector());
+    entityStream.setReader(reader);
+    return reader.getResult().toCompletableFuture().get();
+  }
+}
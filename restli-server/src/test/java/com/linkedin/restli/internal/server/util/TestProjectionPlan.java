@@ -0,0 +1,247 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.linkedin.restli.internal.server.util;
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.PathSpec;
+import com.linkedin.data.transform.filter.CopyFilter;
+import com.linkedin.data.transform.filter.FilterConstants;
+import com.linkedin.data.transform.filter.request.MaskOperation;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class TestProjectionPlan
+{
+  @DataProvider
+  public Object[][] masks()
+  {
+    final MaskTree negative = new MaskTree();
+    negative.addOperation(new PathSpec("b"), MaskOperation.NEGATIVE_MASK_OP);
+
+    final DataMap range = mask("a");
+    range.put("list", range(1, null));
+
+    final DataMap recordsRange = mask("records/$*/a");
+    ((DataMap) recordsRange.get("records")).putAll(range(1, 1));
+
+    final DataMap emptyRange = mask("records/$*/a");
+    ((DataMap) emptyRange.get("records")).putAll(range(5, null));
+
+    final DataMap nestedRange = mask("a");
+    nestedRange.put("nested", range(0, 1));
+
+    final DataMap positiveWildcard = new DataMap(Collections.singletonMap("records", wildcard(1)));
+
+    final DataMap wildcardAndField = mask("nested/$*/a");
+    ((DataMap) wildcardAndField.get("nested")).put("b", 1);
+
+    final Set<String> none = Collections.emptySet();
+    final Set<String> id = Collections.singleton("id");
+    return new Object[][]
+    {
+        { mask("a"), none, true },
+        { mask("a", "b", "missing"), none, true },
+        { mask("nested/a", "nested/nested/b"), none, true },
+        { mask("nested"), none, true },
+        { mask("list/a"), none, true },
+        { mask("emptyList/a"), none, true },
+        { mask("a"), id, true },
+        { mask("nested/a"), id, true },
+        { mask("id/a", "b"), id, true },
+        { mask("nested/id/a"), id, true },
+        { mask("nested/$*/a"), none, true },
+        { mask("records/$*/a"), none, true },
+        { mask("records/$*/a", "b"), none, true },
+        { mask("records/$*/a"), id, true },
+        { mask("records/$*/nested/a"), none, true },
+        { mask("map/$*/a"), none, true },
+        { mask("map/$*/a"), Collections.singleton("first"), true },
+        { mask("matrix/$*/$*/a"), none, true },
+        { mask("$*/a"), none, true },
+        { range, none, true },
+        { recordsRange, none, true },
+        { emptyRange, none, true },
+        { nestedRange, none, true },
+        { positiveWildcard, none, false },
+        { wildcardAndField, none, false },
+        { negative.getDataMap(), none, false },
+        { new DataMap(), id, false },
+    };
+  }
+
+  @Test(dataProvider = "masks")
+  public void testSameResultAsCopyFilter(DataMap mask, Set<String> alwaysIncludedFields, boolean compiled)
+  {
+    final ProjectionPlan plan = ProjectionPlan.forMask(mask, alwaysIncludedFields);
+    Assert.assertEquals(plan.isCompiled(), compiled);
+
+    final DataMap data = data();
+    final Object expected = new CopyFilter(alwaysIncludedFields).filter(data, mask);
+    Assert.assertEquals(plan.project(data), expected);
+    // The projected entity must not be modified
+    Assert.assertEquals(data, data());
+  }
+
+  @Test
+  public void testPlansAreCachedByContent() throws CloneNotSupportedException
+  {
+    final DataMap mask = mask("a", "nested/b");
+    final ProjectionPlan plan = ProjectionPlan.forMask(mask, null);
+    Assert.assertSame(ProjectionPlan.forMask(mask.copy(), Collections.emptySet()), plan);
+    Assert.assertNotSame(ProjectionPlan.forMask(mask, Collections.singleton("id")), plan);
+
+    // Modifying a mask after compiling it does not change the cached plan
+    mask.put("b", 1);
+    final ProjectionPlan modified = ProjectionPlan.forMask(mask, null);
+    Assert.assertNotSame(modified, plan);
+    Assert.assertTrue(modified.project(data()).containsKey("b"));
+    Assert.assertFalse(plan.project(data()).containsKey("b"));
+  }
+
+  @Test
+  public void testSelectedValuesAreShared()
+  {
+    final DataMap data = data();
+    final DataMap projected = ProjectionPlan.forMask(mask("nested", "list/a"), null).project(data);
+    Assert.assertSame(projected.get("nested"), data.get("nested"));
+    Assert.assertNotSame(projected.get("list"), data.get("list"));
+    Assert.assertEquals(projected.get("list"), data.get("list"));
+  }
+
+  @Test(expectedExceptions = RuntimeException.class)
+  public void testComplexMaskOnPrimitive()
+  {
+    ProjectionPlan.forMask(mask("a/b"), null).project(data());
+  }
+
+  @Test(expectedExceptions = RuntimeException.class)
+  public void testWildcardMaskOnPrimitiveItem()
+  {
+    // The list holds a primitive item
+    final ProjectionPlan plan = ProjectionPlan.forMask(mask("list/$*/a"), null);
+    Assert.assertTrue(plan.isCompiled());
+    plan.project(data());
+  }
+
+  private static DataMap mask(String... paths)
+  {
+    final MaskTree mask = new MaskTree();
+    for (String path : paths)
+    {
+      final String[] segments = path.split("/");
+      for (int i = 0; i < segments.length; i++)
+      {
+        if (segments[i].equals(FilterConstants.WILDCARD))
+        {
+          segments[i] = PathSpec.WILDCARD;
+        }
+      }
+      mask.addOperation(new PathSpec(segments), MaskOperation.POSITIVE_MASK_OP);
+    }
+    return mask.getDataMap();
+  }
+
+  private static DataMap range(Integer start, Integer count)
+  {
+    final DataMap range = new DataMap();
+    if (start != null)
+    {
+      range.put("$start", start);
+    }
+    if (count != null)
+    {
+      range.put("$count", count);
+    }
+    return range;
+  }
+
+  private static DataMap wildcard(Object operation)
+  {
+    return new DataMap(Collections.singletonMap(FilterConstants.WILDCARD, operation));
+  }
+
+  private static DataMap record(boolean full)
+  {
+    final DataMap record = new DataMap();
+    record.put("b", 11);
+    if (full)
+    {
+      record.put("a", 10);
+      record.put("id", 12);
+      record.put("nested", nested());
+    }
+    else
+    {
+      record.put("nested", new DataMap(Collections.singletonMap("b", 14)));
+    }
+    return record;
+  }
+
+  private static DataMap nested()
+  {
+    final DataMap inner = new DataMap();
+    inner.put("a", 1);
+    inner.put("b", "inner");
+    inner.put("id", new DataMap(Collections.singletonMap("a", 2)));
+
+    final DataMap nested = new DataMap();
+    nested.put("a", "nested");
+    nested.put("b", true);
+    nested.put("id", 3L);
+    nested.put("nested", inner);
+    return nested;
+  }
+
+  private static DataMap data()
+  {
+    final DataMap nested = nested();
+
+    final DataMap item = new DataMap();
+    item.put("a", 4);
+    item.put("b", 5);
+
+    final DataMap data = new DataMap();
+    data.put("id", new DataMap(Collections.singletonMap("a", 6)));
+    data.put("a", 7);
+    data.put("b", "top");
+    data.put("c", 8.0);
+    data.put("nested", nested);
+    data.put("list", new DataList(Arrays.asList(item, 9)));
+    data.put("emptyList", new DataList());
+    data.put("ignored", new DataMap(Collections.singletonMap("x", "y")));
+
+    data.put("records", new DataList(Arrays.asList(record(true), record(false), new DataMap())));
+
+    final DataMap map = new DataMap();
+    map.put("first", record(true));
+    map.put("second", record(false));
+    map.put("primitive", 15);
+    map.put("list", new DataList(Arrays.asList(record(true), 16)));
+    data.put("map", map);
+
+    data.put("matrix", new DataList(Arrays.asList(new DataList(Arrays.asList(record(true), record(false))),
+        new DataList())));
+    return data;
+  }
+}
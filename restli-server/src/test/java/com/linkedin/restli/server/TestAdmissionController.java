@@ -0,0 +1,202 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.RoutingResult;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
+import com.linkedin.restli.server.config.RestLiMethodConfigBuilder;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class TestAdmissionController
+{
+  private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private RoutingResult _get;
+  private RoutingResult _unlimitedGet;
+  private long _nanoTime;
+
+  @BeforeClass
+  public void setUp() throws NoSuchMethodException
+  {
+    final Method method = TestAdmissionController.class.getDeclaredMethod("setUp");
+    final Key key = new Key("id", Long.class);
+    final ResourceModel model = new ResourceModel(key, null, null, Collections.singleton(key), EmptyRecord.class,
+        TestAdmissionController.class, null, "resource", ResourceType.COLLECTION, "com.linkedin.test");
+    final ResourceMethodDescriptor get = ResourceMethodDescriptor.createForRestful(ResourceMethod.GET, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    model.addResourceMethodDescriptor(get);
+
+    final ResourceMethodConfigProvider limited = ResourceMethodConfigProvider.build(
+        new RestLiMethodConfigBuilder().addConcurrencyLimit("resource.GET", 100).build());
+    final ResourceMethodConfigProvider defaults = ResourceMethodConfigProvider.build(new RestLiMethodConfigBuilder().build());
+    _get = new RoutingResult(null, get, limited.apply(get));
+    _unlimitedGet = new RoutingResult(null, get, defaults.apply(get));
+  }
+
+  @Test
+  public void testIsLimited()
+  {
+    Assert.assertTrue(AdmissionController.isLimited(_get));
+    Assert.assertFalse(AdmissionController.isLimited(_unlimitedGet));
+  }
+
+  @Test
+  public void testRejectionByPriority()
+  {
+    final AdmissionController controller = new AdmissionController(10, () -> _nanoTime);
+    final List<AdmissionController.Permit> permits = new ArrayList<>();
+    for (int i = 0; i < 5; i++)
+    {
+      permits.add(controller.acquire(request("sheddable"), _get));
+    }
+    assertRejected(controller, request("SHEDDABLE"));
+
+    for (int i = 0; i < 4; i++)
+    {
+      permits.add(controller.acquire(request(null), _get));
+    }
+    assertRejected(controller, request("unknown"));
+
+    permits.add(controller.acquire(request("critical"), _get));
+    assertRejected(controller, request("critical"));
+
+    final AdmissionController.Limiter limiter = controller.getLimiters().get(_get.getResourceMethod().getResourceMethodIdentifier());
+    Assert.assertEquals(limiter.getInFlight(), 10);
+    Assert.assertEquals(limiter.getAdmittedCount(), 10);
+    Assert.assertEquals(limiter.getShedCount(), 3);
+    Assert.assertEquals(controller.getShedCount(), 3);
+
+    permits.forEach(permit -> permit.release(null));
+    permits.forEach(permit -> permit.release(null));
+    Assert.assertEquals(limiter.getInFlight(), 0);
+  }
+
+  @Test
+  public void testLimitAdaptsToLatency()
+  {
+    final AdmissionController controller = new AdmissionController(10, () -> _nanoTime);
+    final AdmissionController.Limiter limiter = run(controller, 150, LATENCY_NANOS, 50);
+    // The latency is stable, so the limit grows up to the configured concurrency limit
+    Assert.assertEquals(limiter.getLimit(), 100);
+    Assert.assertEquals(limiter.getQueueingDelayMs(), 0.0);
+
+    // Requests start queueing, the latency rises and the limit shrinks
+    run(controller, 150, 4 * LATENCY_NANOS, 20);
+    Assert.assertTrue(limiter.getLimit() < 50, "Limit should shrink: " + limiter.getLimit());
+    Assert.assertTrue(limiter.getQueueingDelayMs() > 10, "Queueing delay: " + limiter.getQueueingDelayMs());
+  }
+
+  @Test
+  public void testLimitDoesNotGrowWhenUnused()
+  {
+    final AdmissionController controller = new AdmissionController(10, () -> _nanoTime);
+    final AdmissionController.Limiter limiter = run(controller, 2, LATENCY_NANOS, 50);
+    Assert.assertEquals(limiter.getLimit(), 10);
+  }
+
+  @Test
+  public void testLimitBacksOffOnOverload()
+  {
+    final AdmissionController controller = new AdmissionController(10, () -> _nanoTime);
+    controller.acquire(request(null), _get).release(new RestLiServiceException(HttpStatus.S_503_SERVICE_UNAVAILABLE));
+    controller.acquire(request(null), _get).release(new TimeoutException());
+    // Errors which are not caused by overload do not change the limit
+    controller.acquire(request(null), _get).release(new RestLiServiceException(HttpStatus.S_404_NOT_FOUND));
+
+    final AdmissionController.Limiter limiter = controller.getLimiters().values().iterator().next();
+    Assert.assertEquals(limiter.getLimit(), 8);
+    Assert.assertEquals(limiter.getInFlight(), 0);
+  }
+
+  @Test
+  public void testReleaseOnCompletion() throws Exception
+  {
+    final AdmissionController controller = new AdmissionController(10, () -> _nanoTime);
+    final FutureCallback<String> callback = new FutureCallback<>();
+    controller.acquire(request(null), _get).<String>releaseOnCompletion(callback).onSuccess("done");
+    Assert.assertEquals(callback.get(), "done");
+    Assert.assertEquals(controller.getLimiters().values().iterator().next().getInFlight(), 0);
+  }
+
+  /**
+   * Runs rounds of concurrent requests which all take the same time.
+   */
+  private AdmissionController.Limiter run(AdmissionController controller, int concurrency, long latencyNanos, int rounds)
+  {
+    for (int round = 0; round < rounds; round++)
+    {
+      final List<AdmissionController.Permit> permits = new ArrayList<>();
+      for (int i = 0; i < concurrency; i++)
+      {
+        try
+        {
+          permits.add(controller.acquire(request("critical"), _get));
+        }
+        catch (RestLiServiceException e)
+        {
+          Assert.assertEquals(e.getStatus(), HttpStatus.S_503_SERVICE_UNAVAILABLE);
+        }
+      }
+      _nanoTime += latencyNanos;
+      permits.forEach(permit -> permit.release(null));
+    }
+    return controller.getLimiters().get(_get.getResourceMethod().getResourceMethodIdentifier());
+  }
+
+  private void assertRejected(AdmissionController controller, RestRequest request)
+  {
+    try
+    {
+      controller.acquire(request, _get);
+      Assert.fail("The request should be rejected");
+    }
+    catch (RestLiServiceException e)
+    {
+      Assert.assertEquals(e.getStatus(), HttpStatus.S_503_SERVICE_UNAVAILABLE);
+    }
+  }
+
+  private static RestRequest request(String priority)
+  {
+    final RestRequestBuilder builder = new RestRequestBuilder(URI.create("/resource/1"));
+    if (priority != null)
+    {
+      builder.setHeader(RestConstants.HEADER_RESTLI_PRIORITY, priority);
+    }
+    return builder.build();
+  }
+}
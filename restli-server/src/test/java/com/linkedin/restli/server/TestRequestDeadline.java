@@ -0,0 +1,85 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.internal.server.PathKeysImpl;
+import com.linkedin.restli.internal.server.ResourceContextImpl;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.server.resources.ResourceFactory;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestRequestDeadline
+{
+  @Test
+  public void testExpiredRequestIsRejectedBeforeRouting() throws Exception
+  {
+    final RestRestLiServer server = new RestRestLiServer(new RestLiConfig(), new ResourceFactory()
+    {
+      @Override
+      public void setRootResources(Map<String, ResourceModel> rootResources)
+      {
+      }
+
+      @Override
+      public <R> R create(Class<R> resourceClass)
+      {
+        throw new UnsupportedOperationException();
+      }
+    }, null, Collections.emptyMap());
+
+    final RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr(R2Constants.REQUEST_DEADLINE, System.currentTimeMillis() - 10);
+    final FutureCallback<RestResponse> callback = new FutureCallback<>();
+    server.handleRequest(new RestRequestBuilder(URI.create("/unknown/1")).build(), requestContext, callback);
+    try
+    {
+      callback.get();
+      Assert.fail("The request should be rejected");
+    }
+    catch (ExecutionException e)
+    {
+      // Without a deadline, the request would fail routing with a 404
+      Assert.assertEquals(((RestException) e.getCause()).getResponse().getStatus(),
+          HttpStatus.S_504_GATEWAY_TIMEOUT.getCode());
+    }
+  }
+
+  @Test
+  public void testResourceContextDeadline() throws Exception
+  {
+    final RequestContext requestContext = new RequestContext();
+    final ResourceContext context = new ResourceContextImpl(new PathKeysImpl(),
+        new RestRequestBuilder(URI.create("/resource")).build(), requestContext);
+    Assert.assertNull(context.getDeadline());
+
+    requestContext.putLocalAttr(R2Constants.REQUEST_DEADLINE, 1234L);
+    Assert.assertEquals(context.getDeadline(), Long.valueOf(1234L));
+  }
+}
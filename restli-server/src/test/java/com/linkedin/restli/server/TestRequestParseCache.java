@@ -0,0 +1,127 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
+import com.linkedin.restli.internal.server.PathKeysImpl;
+import com.linkedin.restli.internal.server.ResourceContextImpl;
+import com.linkedin.restli.internal.server.util.ArgumentUtils;
+import com.linkedin.restli.internal.server.util.RestLiSyntaxException;
+import java.net.URI;
+import java.util.Arrays;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestRequestParseCache
+{
+  private static final String QUERY = "q=search&ids=List(1,2)&param=(a:1,b:List(x,y))&fields=a,b:(c,d)";
+
+  @Test
+  public void testCachedMasks() throws Exception
+  {
+    final RequestParseCache cache = new RequestParseCache();
+    final MaskTree first = cache.decodeMask("a,b:(c,d)");
+    final MaskTree second = cache.decodeMask("a,b:(c,d)");
+
+    Assert.assertEquals(first.getDataMap(), ArgumentUtils.decodeMaskUriFormat("a,b:(c,d)").getDataMap());
+    Assert.assertSame(second.getDataMap(), first.getDataMap());
+    Assert.assertTrue(first.getDataMap().isReadOnly());
+    Assert.assertEquals(cache.getHitCount(), 1);
+    Assert.assertEquals(cache.getMissCount(), 1);
+    Assert.assertEquals(cache.getHitRate(), 0.5);
+  }
+
+  @Test
+  public void testNullMask() throws Exception
+  {
+    final RequestParseCache cache = new RequestParseCache();
+    final MaskTree mask = cache.decodeMask(null);
+    Assert.assertTrue(mask.getDataMap().isEmpty());
+    Assert.assertFalse(mask.getDataMap().isReadOnly());
+    Assert.assertEquals(cache.getMissCount(), 0);
+  }
+
+  @Test(expectedExceptions = RestLiSyntaxException.class)
+  public void testInvalidMask() throws Exception
+  {
+    new RequestParseCache().decodeMask("a,b:(c");
+  }
+
+  @Test
+  public void testCachedQueryParametersAreCopied() throws Exception
+  {
+    final RequestParseCache cache = new RequestParseCache();
+    final URI uri = URI.create("/resource?" + QUERY);
+    final DataMap first = cache.parseQueryParameters(uri);
+    final DataMap second = cache.parseQueryParameters(uri);
+
+    Assert.assertEquals(second, first);
+    Assert.assertNotSame(second, first);
+    Assert.assertFalse(first.isReadOnly());
+    Assert.assertEquals(first.getDataMap("param").getDataList("b"), new DataList(Arrays.asList("x", "y")));
+
+    // Parameters are coerced in place when building arguments, which must not affect later requests
+    first.getDataMap("param").put("a", 1);
+    Assert.assertEquals(cache.parseQueryParameters(uri).getDataMap("param").get("a"), "1");
+    Assert.assertEquals(cache.getHitCount(), 2);
+    Assert.assertEquals(cache.getMissCount(), 1);
+  }
+
+  @Test
+  public void testLongInputsAreNotCached() throws Exception
+  {
+    final RequestParseCache cache = new RequestParseCache(10, 8);
+    cache.decodeMask("a,b,c,d,e,f");
+    cache.decodeMask("a,b,c,d,e,f");
+    cache.parseQueryParameters(URI.create("/resource?q=search&start=0"));
+
+    Assert.assertEquals(cache.getRejectedCount(), 3);
+    Assert.assertEquals(cache.getHitCount(), 0);
+    Assert.assertEquals(cache.getSize(), 0);
+  }
+
+  @Test
+  public void testResourceContext() throws Exception
+  {
+    final RequestParseCache cache = new RequestParseCache();
+    final ResourceContextImpl first = context(cache);
+    final ResourceContextImpl second = context(cache);
+    final ResourceContextImpl uncached = context(null);
+
+    Assert.assertEquals(first.getParameters(), uncached.getParameters());
+    Assert.assertEquals(first.getProjectionMask().getDataMap(), uncached.getProjectionMask().getDataMap());
+    Assert.assertSame(second.getProjectionMask().getDataMap(), first.getProjectionMask().getDataMap());
+    Assert.assertNotSame(second.getParameters(), first.getParameters());
+  }
+
+  private static ResourceContextImpl context(RequestParseCache cache) throws RestLiSyntaxException
+  {
+    final RestRequest request = new RestRequestBuilder(URI.create("/resource?" + QUERY))
+        .setHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+            AllProtocolVersions.RESTLI_PROTOCOL_2_0_0.getProtocolVersion().toString())
+        .build();
+    return new ResourceContextImpl(new PathKeysImpl(), request, new RequestContext(), cache);
+  }
+}
@@ -0,0 +1,378 @@
+/*
+   Copyright (c) 2023 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.Messages;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.stream.StreamException;
+import com.linkedin.r2.message.stream.StreamResponse;
+import com.linkedin.restli.common.EmptyRecord;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.server.RoutingResult;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.server.annotations.Finder;
+import com.linkedin.restli.server.annotations.PagingContextParam;
+import com.linkedin.restli.server.annotations.RestLiCollection;
+import com.linkedin.restli.server.config.ResourceMethodConfigProvider;
+import com.linkedin.restli.server.config.RestLiMethodConfigBuilder;
+import com.linkedin.restli.server.filter.Filter;
+import com.linkedin.restli.server.filter.FilterRequestContext;
+import com.linkedin.restli.server.filter.FilterResponseContext;
+import com.linkedin.restli.server.resources.CollectionResourceTemplate;
+import com.linkedin.restli.server.resources.PrototypeResourceFactory;
+import java.lang.reflect.Method;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class TestResponseCache
+{
+  private static final String RESOURCE_HEADER = "X-Resource";
+  private static final String REJECT_HEADER = "X-Reject";
+
+  // Number of times the resource was invoked, and version of its entities
+  private static int _invocations;
+  private static int _version;
+
+  private CountFilter _filter;
+
+  @BeforeMethod
+  public void resetResource()
+  {
+    _invocations = 0;
+    _version = 1;
+    _filter = new CountFilter();
+  }
+
+  @DataProvider
+  public Object[][] restOrStream()
+  {
+    return new Object[][] {{false}, {true}};
+  }
+
+  @Test
+  public void testIsCacheable() throws NoSuchMethodException
+  {
+    final Method method = TestResponseCache.class.getDeclaredMethod("testIsCacheable");
+    final Key key = new Key("id", Long.class);
+    final ResourceModel model = new ResourceModel(key, null, null, Collections.singleton(key), EmptyRecord.class,
+        TestResponseCache.class, null, "resource", ResourceType.COLLECTION, "com.linkedin.test");
+    final ResourceMethodDescriptor get = ResourceMethodDescriptor.createForRestful(ResourceMethod.GET, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    final ResourceMethodDescriptor update = ResourceMethodDescriptor.createForRestful(ResourceMethod.UPDATE, method,
+        ResourceMethodDescriptor.InterfaceType.SYNC);
+    model.addResourceMethodDescriptor(get);
+    model.addResourceMethodDescriptor(update);
+
+    final ResourceMethodConfigProvider enabled = ResourceMethodConfigProvider.build(
+        new RestLiMethodConfigBuilder().addCacheResponses("resource.*", true).build());
+    final ResourceMethodConfigProvider defaults =
+        ResourceMethodConfigProvider.build(new RestLiMethodConfigBuilder().build());
+    Assert.assertTrue(ResponseCache.isCacheable(new RoutingResult(null, get, enabled.apply(get))));
+    Assert.assertFalse(ResponseCache.isCacheable(new RoutingResult(null, get, defaults.apply(get))));
+    Assert.assertFalse(ResponseCache.isCacheable(new RoutingResult(null, update, enabled.apply(update))));
+  }
+
+  @Test(dataProvider = "restOrStream")
+  public void testCachedResponse(boolean stream) throws Exception
+  {
+    final ResponseCache cache = new ResponseCache();
+    final RestLiServer server = server(cache, stream);
+    final RestResponse response = send(server, request("/cached/1"), stream);
+    Assert.assertEquals(response.getStatus(), HttpStatus.S_200_OK.getCode());
+    final String etag = response.getHeader(RestConstants.HEADER_ETAG);
+    Assert.assertNotNull(etag);
+    Assert.assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+
+    // The resource is not invoked again, the filters still run, and the headers of the resource are kept
+    final RestResponse cached = send(server, request("/cached/1"), stream);
+    Assert.assertEquals(_invocations, 1);
+    Assert.assertEquals(_filter._requests, 2);
+    Assert.assertEquals(_filter._responses, 2);
+    Assert.assertEquals(cached.getStatus(), HttpStatus.S_200_OK.getCode());
+    Assert.assertEquals(cached.getEntity(), response.getEntity());
+    Assert.assertEquals(cached.getHeader(RestConstants.HEADER_ETAG), etag);
+    Assert.assertEquals(cached.getHeader(RestConstants.HEADER_CONTENT_TYPE),
+        response.getHeader(RestConstants.HEADER_CONTENT_TYPE));
+    Assert.assertEquals(cached.getHeader(RESOURCE_HEADER), "1");
+    Assert.assertEquals(cache.getHitCount(), 1);
+    Assert.assertEquals(cache.getMissCount(), 1);
+
+    // A different entity gets a different entity tag
+    _version = 2;
+    final RestResponse other = send(server, request("/cached/2"), stream);
+    Assert.assertNotEquals(other.getHeader(RestConstants.HEADER_ETAG), etag);
+  }
+
+  @Test(dataProvider = "restOrStream")
+  public void testCachedBatchGetAndFinder(boolean stream) throws Exception
+  {
+    final RestLiServer server = server(new ResponseCache(), stream);
+    final RestResponse batch = send(server, request("/cached?ids=List(1,2)"), stream);
+    Assert.assertEquals(send(server, request("/cached?ids=List(1,2)"), stream).getEntity(), batch.getEntity());
+    Assert.assertEquals(_invocations, 1);
+
+    // Parameter order does not matter
+    final RestResponse found = send(server, request("/cached?q=all&start=0&count=2"), stream);
+    Assert.assertEquals(send(server, request("/cached?count=2&start=0&q=all"), stream).getEntity(),
+        found.getEntity());
+    Assert.assertEquals(_invocations, 2);
+    Assert.assertNotNull(found.getHeader(RestConstants.HEADER_ETAG));
+  }
+
+  @Test(dataProvider = "restOrStream")
+  public void testNotModified(boolean stream) throws Exception
+  {
+    final ResponseCache cache = new ResponseCache();
+    final RestLiServer server = server(cache, stream);
+    final String etag = send(server, request("/cached/1"), stream).getHeader(RestConstants.HEADER_ETAG);
+
+    // Matching requests found in the cache get a 304 without invoking the resource
+    final RestResponse notModified = send(server, request("/cached/1", RestConstants.HEADER_IF_NONE_MATCH,
+        "\"other\", W/" + etag), stream);
+    Assert.assertEquals(notModified.getStatus(), HttpStatus.S_304_NOT_MODIFIED.getCode());
+    Assert.assertEquals(notModified.getEntity().length(), 0);
+    Assert.assertEquals(notModified.getHeader(RestConstants.HEADER_ETAG), etag);
+    Assert.assertNull(notModified.getHeader(RestConstants.HEADER_CONTENT_TYPE));
+    Assert.assertEquals(_invocations, 1);
+    Assert.assertEquals(_filter._responses, 2);
+
+    // Responses computed again are compared too
+    cache.invalidateAll();
+    Assert.assertEquals(send(server, request("/cached/1", RestConstants.HEADER_IF_NONE_MATCH, etag), stream)
+        .getStatus(), HttpStatus.S_304_NOT_MODIFIED.getCode());
+    Assert.assertEquals(_invocations, 2);
+
+    final RestResponse modified = send(server, request("/cached/1", RestConstants.HEADER_IF_NONE_MATCH,
+        "\"other\""), stream);
+    Assert.assertEquals(modified.getStatus(), HttpStatus.S_200_OK.getCode());
+    Assert.assertTrue(modified.getEntity().length() > 0);
+  }
+
+  @Test(dataProvider = "restOrStream")
+  public void testRejectedRequestIsNotAnswered(boolean stream) throws Exception
+  {
+    final ResponseCache cache = new ResponseCache();
+    final RestLiServer server = server(cache, stream);
+    send(server, request("/cached/1"), stream);
+
+    try
+    {
+      send(server, request("/cached/1", REJECT_HEADER, "true"), stream);
+      Assert.fail("The request should be rejected");
+    }
+    catch (ExecutionException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof RestException);
+      Assert.assertEquals(((RestException) e.getCause()).getResponse().getStatus(),
+          HttpStatus.S_403_FORBIDDEN.getCode());
+    }
+    Assert.assertEquals(cache.getHitCount(), 0);
+    Assert.assertEquals(_invocations, 1);
+  }
+
+  @Test
+  public void testKeyVariesOnProjectionAndHeaders() throws Exception
+  {
+    final ResponseCache cache = new ResponseCache(ResponseCache.DEFAULT_MAX_SIZE_BYTES,
+        ResponseCache.DEFAULT_TIME_TO_LIVE_MS, Collections.singletonList("X-Caller"));
+    final RestLiServer server = server(cache, false);
+    send(server, request("/cached/1", "X-Caller", "a"), false);
+    send(server, request("/cached/1", "X-Caller", "b"), false);
+    final RestResponse projected = send(server, request("/cached/1?fields=id", "X-Caller", "b"), false);
+    Assert.assertEquals(_invocations, 3);
+    Assert.assertFalse(projected.getEntity().asString("UTF-8").contains("version"));
+
+    send(server, request("/cached/1", "X-Caller", "a", "X-Other", "c"), false);
+    Assert.assertEquals(_invocations, 3);
+  }
+
+  @Test
+  public void testResponsesWithCookiesAreNotCached() throws Exception
+  {
+    final ResponseCache cache = new ResponseCache();
+    final RestLiServer server = server(cache, false);
+    send(server, request("/cached/3"), false);
+    send(server, request("/cached/3"), false);
+    Assert.assertEquals(_invocations, 2);
+    Assert.assertEquals(cache.getSize(), 0);
+  }
+
+  @Test
+  public void testInvalidate() throws Exception
+  {
+    final ResponseCache cache = new ResponseCache();
+    send(server(cache, false), request("/cached/1"), false);
+    Assert.assertEquals(cache.getSize(), 1);
+
+    cache.invalidate("other");
+    Assert.assertEquals(cache.getSize(), 1);
+    cache.invalidate("cached");
+    Assert.assertEquals(cache.getSize(), 0);
+  }
+
+  @Test
+  public void testMatches()
+  {
+    Assert.assertTrue(ResponseCache.matches("*", "\"a\""));
+    Assert.assertTrue(ResponseCache.matches("\"b\", \"a\"", "\"a\""));
+    Assert.assertTrue(ResponseCache.matches("W/\"a\"", "\"a\""));
+    Assert.assertFalse(ResponseCache.matches("\"b\"", "\"a\""));
+  }
+
+  private RestLiServer server(ResponseCache cache, boolean stream)
+  {
+    final RestLiConfig config = new RestLiConfig();
+    config.addResourceClassNames(CachedResource.class.getName());
+    config.setResponseCache(cache);
+    config.setMethodConfig(new RestLiMethodConfigBuilder().addCacheResponses("cached.*", true).build());
+    config.setUseStreamCodec(stream);
+    config.addFilter(_filter);
+    return new RestLiServer(config, new PrototypeResourceFactory());
+  }
+
+  private static RestResponse send(RestLiServer server, RestRequest request, boolean stream) throws Exception
+  {
+    final FutureCallback<RestResponse> callback = new FutureCallback<>();
+    if (stream)
+    {
+      final FutureCallback<StreamResponse> streamCallback = new FutureCallback<>();
+      server.handleRequest(Messages.toStreamRequest(request), new RequestContext(), streamCallback);
+      final StreamResponse streamResponse;
+      try
+      {
+        streamResponse = streamCallback.get();
+      }
+      catch (ExecutionException e)
+      {
+        final FutureCallback<RestException> restException = new FutureCallback<>();
+        Messages.toRestException((StreamException) e.getCause(), restException);
+        throw new ExecutionException(restException.get());
+      }
+      Messages.toRestResponse(streamResponse, callback);
+    }
+    else
+    {
+      server.handleRequest(request, new RequestContext(), callback);
+    }
+    return callback.get();
+  }
+
+  private static RestRequest request(String uri, String... headers)
+  {
+    final RestRequestBuilder builder = new RestRequestBuilder(URI.create(uri));
+    for (int i = 0; i < headers.length; i += 2)
+    {
+      builder.setHeader(headers[i], headers[i + 1]);
+    }
+    return builder.build();
+  }
+
+  @RestLiCollection(name = "cached", namespace = "com.linkedin.restli.server")
+  public static class CachedResource extends CollectionResourceTemplate<Long, EmptyRecord>
+  {
+    @Override
+    public EmptyRecord get(Long id)
+    {
+      _invocations++;
+      getContext().setResponseHeader(RESOURCE_HEADER, String.valueOf(_invocations));
+      if (id == 3L)
+      {
+        getContext().addResponseCookie(new HttpCookie("a", "b"));
+      }
+      return record(id);
+    }
+
+    @Override
+    public Map<Long, EmptyRecord> batchGet(Set<Long> ids)
+    {
+      _invocations++;
+      final Map<Long, EmptyRecord> records = new LinkedHashMap<>();
+      ids.forEach(id -> records.put(id, record(id)));
+      return records;
+    }
+
+    @Finder("all")
+    public List<EmptyRecord> findAll(@PagingContextParam PagingContext paging)
+    {
+      _invocations++;
+      final List<EmptyRecord> records = new ArrayList<>();
+      for (long id = paging.getStart(); id < paging.getStart() + paging.getCount(); id++)
+      {
+        records.add(record(id));
+      }
+      return records;
+    }
+
+    private static EmptyRecord record(long id)
+    {
+      final DataMap data = new DataMap();
+      data.put("id", id);
+      data.put("version", _version);
+      return new EmptyRecord(data);
+    }
+  }
+
+  private static class CountFilter implements Filter
+  {
+    int _requests;
+    int _responses;
+
+    @Override
+    public CompletableFuture<Void> onRequest(FilterRequestContext requestContext)
+    {
+      _requests++;
+      if (requestContext.getRequestHeaders().containsKey(REJECT_HEADER))
+      {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new RestLiServiceException(HttpStatus.S_403_FORBIDDEN));
+        return future;
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> onResponse(FilterRequestContext requestContext,
+        FilterResponseContext responseContext)
+    {
+      _responses++;
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+}